@@ -28,4 +28,14 @@ public class Constants {
     public static final String ANONYMOUS_VALUE = "anonymous";
     public static final String UNKNOWN_VALUE = "UNKNOWN";
     public static final int UNKNOWN_INT_VALUE = -1;
+
+    public static final String ASYNC_PUBLISHING_ENABLED = "publisher.async.enabled";
+    public static final String ASYNC_PUBLISHING_BUFFER_SIZE = "publisher.async.buffer.size";
+    public static final String ASYNC_PUBLISHING_BATCH_SIZE = "publisher.async.batch.size";
+    public static final String ASYNC_PUBLISHING_SPILL_FILE = "publisher.async.spill.file";
+    public static final String ASYNC_PUBLISHING_SPILL_FILE_SIZE = "publisher.async.spill.file.size";
+    public static final int DEFAULT_ASYNC_PUBLISHING_BUFFER_SIZE = 10000;
+    public static final int DEFAULT_ASYNC_PUBLISHING_BATCH_SIZE = 200;
+    public static final String DEFAULT_ASYNC_PUBLISHING_SPILL_FILE = "analytics-events.spill";
+    public static final int DEFAULT_ASYNC_PUBLISHING_SPILL_FILE_SIZE = 64 * 1024 * 1024;
 }
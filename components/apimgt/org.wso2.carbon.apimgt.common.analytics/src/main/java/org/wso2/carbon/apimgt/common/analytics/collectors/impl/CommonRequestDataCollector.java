@@ -24,6 +24,7 @@ import org.wso2.carbon.apimgt.common.analytics.collectors.AnalyticsDataProvider;
 import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
 
 import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 
@@ -32,6 +33,7 @@ import java.time.ZoneOffset;
  */
 public abstract class CommonRequestDataCollector extends AbstractRequestDataCollector {
     private static final Log log = LogFactory.getLog(SuccessRequestDataCollector.class);
+    private static volatile FormattedSecond lastFormattedSecond;
 
     public CommonRequestDataCollector(AnalyticsDataProvider provider) {
         super(provider);
@@ -55,9 +57,50 @@ public abstract class CommonRequestDataCollector extends AbstractRequestDataColl
         return application;
     }
 
+    /**
+     * Formats a time in the ISO-8601 format of {@link OffsetDateTime#toString()} in UTC. The date and time up to the
+     * second is formatted once and reused by the following requests of the same second.
+     *
+     * @param time epoch time in milliseconds
+     * @return formatted time
+     */
     public static String getTimeInISO(long time) {
-        OffsetDateTime offsetDateTime = OffsetDateTime
-                .ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC.normalized());
-        return offsetDateTime.toString();
+        if (time < 0) {
+            return OffsetDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC.normalized()).toString();
+        }
+        long epochSecond = time / 1000;
+        int millis = (int) (time % 1000);
+        FormattedSecond formattedSecond = lastFormattedSecond;
+        if (formattedSecond == null || formattedSecond.epochSecond != epochSecond) {
+            formattedSecond = new FormattedSecond(epochSecond);
+            lastFormattedSecond = formattedSecond;
+        }
+        if (millis == 0) {
+            return formattedSecond.text + "Z";
+        }
+        StringBuilder builder = new StringBuilder(formattedSecond.textWithSeconds.length() + 5)
+                .append(formattedSecond.textWithSeconds).append('.');
+        if (millis < 100) {
+            builder.append(millis < 10 ? "00" : "0");
+        }
+        return builder.append(millis).append('Z').toString();
+    }
+
+    /**
+     * Date and time of an epoch second formatted as ISO-8601 without an offset.
+     */
+    private static final class FormattedSecond {
+
+        private final long epochSecond;
+        // the seconds are left out when zero, as in LocalDateTime#toString()
+        private final String text;
+        private final String textWithSeconds;
+
+        private FormattedSecond(long epochSecond) {
+            this.epochSecond = epochSecond;
+            LocalDateTime dateTime = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+            this.text = dateTime.toString();
+            this.textWithSeconds = dateTime.getSecond() == 0 ? text + ":00" : text;
+        }
     }
 }
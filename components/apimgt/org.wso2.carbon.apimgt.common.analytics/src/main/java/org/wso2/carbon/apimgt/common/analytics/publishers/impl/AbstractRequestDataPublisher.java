@@ -49,16 +49,64 @@ public abstract class AbstractRequestDataPublisher implements RequestDataPublish
             return;
         }
 
-        Map<String, Object> dataMap = OBJECT_MAPPER.convertValue(analyticsEvent, MAP_TYPE_REFERENCE);
+        AsyncEventPublisher asyncEventPublisher = AnalyticsDataPublisher.getInstance().getAsyncEventPublisher();
+        if (asyncEventPublisher != null) {
+            asyncEventPublisher.publish(counterMetric, analyticsEvent);
+        } else {
+            publish(counterMetric, analyticsEvent);
+        }
+    }
+
+    /**
+     * Publishes an event to a metric on the calling thread.
+     *
+     * @param counterMetric  metric of the event
+     * @param analyticsEvent event
+     */
+    static void publish(CounterMetric counterMetric, Event analyticsEvent) {
+
         MetricEventBuilder builder = counterMetric.getEventBuilder();
-        for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
-            try {
+        try {
+            if (EventAttributeWriter.canWrite(analyticsEvent)) {
+                EventAttributeWriter.write(analyticsEvent, builder);
+            } else {
+                for (Map.Entry<String, Object> entry : getAttributes(analyticsEvent).entrySet()) {
+                    builder.addAttribute(entry.getKey(), entry.getValue());
+                }
+            }
+        } catch (MetricReportingException e) {
+            log.error("Error adding data to the event stream.", e);
+            return;
+        }
+        incrementCount(counterMetric, builder);
+    }
+
+    /**
+     * Publishes the attributes of an event to a metric on the calling thread.
+     *
+     * @param counterMetric metric of the event
+     * @param attributes    attributes of the event
+     */
+    static void publish(CounterMetric counterMetric, Map<String, Object> attributes) {
+
+        MetricEventBuilder builder = counterMetric.getEventBuilder();
+        try {
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
                 builder.addAttribute(entry.getKey(), entry.getValue());
-            } catch (MetricReportingException e) {
-                log.error("Error adding data to the event stream.", e);
-                return;
             }
+        } catch (MetricReportingException e) {
+            log.error("Error adding data to the event stream.", e);
+            return;
         }
+        incrementCount(counterMetric, builder);
+    }
+
+    static Map<String, Object> getAttributes(Event analyticsEvent) {
+
+        return OBJECT_MAPPER.convertValue(analyticsEvent, MAP_TYPE_REFERENCE);
+    }
+
+    private static void incrementCount(CounterMetric counterMetric, MetricEventBuilder builder) {
 
         try {
             counterMetric.incrementCount(builder);
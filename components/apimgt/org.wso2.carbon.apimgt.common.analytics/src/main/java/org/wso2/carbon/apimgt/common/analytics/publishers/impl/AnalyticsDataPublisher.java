@@ -28,6 +28,8 @@ import org.wso2.am.analytics.publisher.reporter.MetricSchema;
 import org.wso2.carbon.apimgt.common.analytics.AnalyticsCommonConfiguration;
 import org.wso2.carbon.apimgt.common.analytics.Constants;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -39,6 +41,8 @@ public class AnalyticsDataPublisher {
     private static AnalyticsDataPublisher instance = new AnalyticsDataPublisher();
     private CounterMetric successMetricReporter;
     private CounterMetric faultyMetricReporter;
+    private volatile AsyncEventPublisher asyncEventPublisher;
+    private EventSpillFile spillFile;
 
     private AnalyticsDataPublisher() {
 
@@ -80,12 +84,100 @@ public class AnalyticsDataPublisher {
                         .createCounterMetric(Constants.FAULTY_METRIC_NAME, MetricSchema.ERROR);
             }
 
+            if (Boolean.parseBoolean(configs.get(Constants.ASYNC_PUBLISHING_ENABLED))) {
+                initializeAsyncEventPublisher(configs);
+            } else {
+                shutdownAsyncEventPublisher();
+            }
+
             // Illegal Argument is possible as the enum conversion could fail
         } catch (MetricCreationException | IllegalArgumentException e) {
             log.error("Error initializing event publisher.", e);
         }
     }
 
+    private synchronized void initializeAsyncEventPublisher(Map<String, String> configs) {
+
+        // the events buffered by the previous publisher are spilled to its spill file, which is reused below when
+        // the file is unchanged, so that the new publisher publishes them
+        AsyncEventPublisher previousEventPublisher = asyncEventPublisher;
+        if (previousEventPublisher != null) {
+            previousEventPublisher.shutdown();
+        }
+        int bufferSize = getIntConfig(configs, Constants.ASYNC_PUBLISHING_BUFFER_SIZE,
+                Constants.DEFAULT_ASYNC_PUBLISHING_BUFFER_SIZE);
+        int batchSize = getIntConfig(configs, Constants.ASYNC_PUBLISHING_BATCH_SIZE,
+                Constants.DEFAULT_ASYNC_PUBLISHING_BATCH_SIZE);
+        int spillFileSize = getIntConfig(configs, Constants.ASYNC_PUBLISHING_SPILL_FILE_SIZE,
+                Constants.DEFAULT_ASYNC_PUBLISHING_SPILL_FILE_SIZE);
+        EventSpillFile newSpillFile = null;
+        if (spillFileSize > 0) {
+            String spillFilePath = configs.get(Constants.ASYNC_PUBLISHING_SPILL_FILE);
+            File file;
+            if (StringUtils.isEmpty(spillFilePath)) {
+                String carbonHome = System.getProperty("carbon.home");
+                file = new File(carbonHome != null ? new File(carbonHome, "tmp") :
+                        new File(System.getProperty("java.io.tmpdir")), Constants.DEFAULT_ASYNC_PUBLISHING_SPILL_FILE);
+            } else {
+                file = new File(spillFilePath);
+            }
+            if (spillFile != null && spillFile.getMaxSize() == spillFileSize
+                    && spillFile.getFile().getAbsoluteFile().equals(file.getAbsoluteFile())) {
+                // a file must not be mapped by two instances, as each keeps its own read and write positions
+                newSpillFile = spillFile;
+            } else {
+                closeSpillFile();
+                try {
+                    newSpillFile = new EventSpillFile(file, spillFileSize);
+                } catch (IOException e) {
+                    log.error("Error while opening analytics spill file " + file + ". Analytics events which do "
+                            + "not fit in the buffer will be dropped.", e);
+                }
+            }
+        } else {
+            closeSpillFile();
+        }
+        spillFile = newSpillFile;
+        AsyncEventPublisher eventPublisher = new AsyncEventPublisher(bufferSize, batchSize, newSpillFile,
+                successMetricReporter, faultyMetricReporter);
+        eventPublisher.start();
+        asyncEventPublisher = eventPublisher;
+        log.info("Analytics events will be published asynchronously with a buffer of " + bufferSize + " events");
+    }
+
+    private synchronized void shutdownAsyncEventPublisher() {
+
+        AsyncEventPublisher eventPublisher = asyncEventPublisher;
+        if (eventPublisher != null) {
+            asyncEventPublisher = null;
+            eventPublisher.shutdown();
+        }
+        closeSpillFile();
+    }
+
+    private void closeSpillFile() {
+
+        if (spillFile != null) {
+            spillFile.close();
+            spillFile = null;
+        }
+    }
+
+    private static int getIntConfig(Map<String, String> configs, String name, int defaultValue) {
+
+        String value = configs.get(name);
+        if (StringUtils.isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.error("Invalid value " + value + " for analytics config " + name + ". Using the default value "
+                    + defaultValue, e);
+            return defaultValue;
+        }
+    }
+
     public CounterMetric getSuccessMetricReporter() {
 
         if (this.successMetricReporter == null) {
@@ -94,6 +186,16 @@ public class AnalyticsDataPublisher {
         return successMetricReporter;
     }
 
+    /**
+     * Returns the publisher of the analytics events when they are published asynchronously.
+     *
+     * @return asynchronous publisher, or null if the events are published on the request thread
+     */
+    public AsyncEventPublisher getAsyncEventPublisher() {
+
+        return asyncEventPublisher;
+    }
+
     public CounterMetric getFaultyMetricReporter() {
 
         if (this.faultyMetricReporter == null) {
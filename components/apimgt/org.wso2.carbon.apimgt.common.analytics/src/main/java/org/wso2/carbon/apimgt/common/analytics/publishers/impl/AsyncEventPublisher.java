@@ -0,0 +1,322 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.am.analytics.publisher.reporter.CounterMetric;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes analytics events on a worker thread, so that the request threads of the gateway do not wait for the
+ * metric reporter. The events are added to a bounded buffer, which the worker drains in batches. The events which
+ * do not fit in the buffer are spilled to a local file and published once the buffer has been drained, or dropped
+ * if there is no spill file or it is full. When the publisher is shut down, the events left in the buffer are spilled
+ * to the file, so that they are published by the next publisher using it, or published on the calling thread.
+ */
+public class AsyncEventPublisher {
+
+    private static final Log log = LogFactory.getLog(AsyncEventPublisher.class);
+    private static final byte SUCCESS_METRIC = 0;
+    private static final byte FAULTY_METRIC = 1;
+    private static final long IDLE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long STATISTICS_LOG_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long SHUTDOWN_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    private final Queue<QueuedEvent> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedEventCount = new AtomicInteger();
+    private final int bufferSize;
+    private final int batchSize;
+    private final EventSpillFile spillFile;
+    private final CounterMetric successMetric;
+    private final CounterMetric faultyMetric;
+    private final Thread worker;
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong spilledEventCount = new AtomicLong();
+    private final AtomicLong spilledBytes = new AtomicLong();
+    private volatile long lastLag;
+    private volatile long maxLag;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a publisher whose worker is not started.
+     *
+     * @param bufferSize    maximum number of events kept in memory
+     * @param batchSize     maximum number of events published by the worker before checking the spill file
+     * @param spillFile     file to which the events which do not fit in the buffer are spilled, or null to drop them
+     * @param successMetric metric of the successful requests
+     * @param faultyMetric  metric of the faulty requests
+     */
+    AsyncEventPublisher(int bufferSize, int batchSize, EventSpillFile spillFile, CounterMetric successMetric,
+                        CounterMetric faultyMetric) {
+
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.spillFile = spillFile;
+        this.successMetric = successMetric;
+        this.faultyMetric = faultyMetric;
+        this.worker = new Thread(this::publishEvents, "AnalyticsEventPublisher");
+        worker.setDaemon(true);
+    }
+
+    void start() {
+
+        worker.start();
+    }
+
+    /**
+     * Stops the worker, and spills the events left in the buffer. The events which cannot be spilled, and the events
+     * received after shutting down, are published on the calling thread.
+     */
+    void shutdown() {
+
+        running = false;
+        LockSupport.unpark(worker);
+        if (worker.isAlive() && worker != Thread.currentThread()) {
+            try {
+                worker.join(SHUTDOWN_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        QueuedEvent queuedEvent;
+        while ((queuedEvent = buffer.poll()) != null) {
+            bufferedEventCount.decrementAndGet();
+            if (!spill(queuedEvent.counterMetric, queuedEvent.analyticsEvent, queuedEvent.time)) {
+                AbstractRequestDataPublisher.publish(queuedEvent.counterMetric, queuedEvent.analyticsEvent);
+            }
+        }
+    }
+
+    /**
+     * Adds an event to the buffer, or spills it if the buffer is full.
+     *
+     * @param counterMetric  metric of the event
+     * @param analyticsEvent event
+     */
+    void publish(CounterMetric counterMetric, Event analyticsEvent) {
+
+        if (!running) {
+            AbstractRequestDataPublisher.publish(counterMetric, analyticsEvent);
+            return;
+        }
+        long time = System.currentTimeMillis();
+        int eventCount = bufferedEventCount.incrementAndGet();
+        if (eventCount > bufferSize) {
+            bufferedEventCount.decrementAndGet();
+            if (!spill(counterMetric, analyticsEvent, time)) {
+                droppedEventCount.incrementAndGet();
+            }
+            return;
+        }
+        buffer.offer(new QueuedEvent(counterMetric, analyticsEvent, time));
+        if (eventCount == 1) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Returns the number of events waiting in the buffer.
+     *
+     * @return number of buffered events
+     */
+    public int getQueueDepth() {
+
+        return bufferedEventCount.get();
+    }
+
+    /**
+     * Returns the number of events dropped since the publisher was started, as neither the buffer nor the spill file
+     * had room for them.
+     *
+     * @return number of dropped events
+     */
+    public long getDroppedEventCount() {
+
+        return droppedEventCount.get();
+    }
+
+    /**
+     * Returns the number of events spilled to the spill file since the publisher was started.
+     *
+     * @return number of spilled events
+     */
+    public long getSpilledEventCount() {
+
+        return spilledEventCount.get();
+    }
+
+    /**
+     * Returns the number of bytes written to the spill file since the publisher was started.
+     *
+     * @return number of spilled bytes
+     */
+    public long getSpilledBytes() {
+
+        return spilledBytes.get();
+    }
+
+    /**
+     * Returns the time between receiving and publishing the last published event.
+     *
+     * @return lag in milliseconds
+     */
+    public long getLastLag() {
+
+        return lastLag;
+    }
+
+    /**
+     * Returns the longest time between receiving and publishing an event since the publisher was started.
+     *
+     * @return lag in milliseconds
+     */
+    public long getMaxLag() {
+
+        return maxLag;
+    }
+
+    /**
+     * Spills an event to the spill file.
+     *
+     * @return false if the event could not be spilled
+     */
+    private boolean spill(CounterMetric counterMetric, Event analyticsEvent, long time) {
+
+        byte metric;
+        if (counterMetric == successMetric) {
+            metric = SUCCESS_METRIC;
+        } else if (counterMetric == faultyMetric) {
+            metric = FAULTY_METRIC;
+        } else {
+            return false;
+        }
+        if (spillFile == null) {
+            return false;
+        }
+        try {
+            int bytes = spillFile.append(metric, time, AbstractRequestDataPublisher.getAttributes(analyticsEvent));
+            if (bytes == 0) {
+                return false;
+            }
+            spilledEventCount.incrementAndGet();
+            spilledBytes.addAndGet(bytes);
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Error while spilling analytics event to " + spillFile.getFile(), e);
+            return false;
+        }
+    }
+
+    private void publishEvents() {
+
+        List<QueuedEvent> batch = new ArrayList<>(batchSize);
+        long nextStatisticsLogTime = System.currentTimeMillis() + STATISTICS_LOG_INTERVAL;
+        while (running) {
+            try {
+                QueuedEvent queuedEvent;
+                while (batch.size() < batchSize && (queuedEvent = buffer.poll()) != null) {
+                    bufferedEventCount.decrementAndGet();
+                    batch.add(queuedEvent);
+                }
+                if (!batch.isEmpty()) {
+                    for (QueuedEvent event : batch) {
+                        AbstractRequestDataPublisher.publish(event.counterMetric, event.analyticsEvent);
+                        updateLag(event.time);
+                    }
+                    batch.clear();
+                } else if (!publishSpilledEvents()) {
+                    LockSupport.parkNanos(this, IDLE_WAIT_NANOS);
+                }
+            } catch (RuntimeException e) {
+                batch.clear();
+                log.error("Error while publishing analytics events", e);
+            }
+            if (log.isDebugEnabled() && System.currentTimeMillis() >= nextStatisticsLogTime) {
+                nextStatisticsLogTime = System.currentTimeMillis() + STATISTICS_LOG_INTERVAL;
+                log.debug("Analytics events buffered: " + getQueueDepth() + ", spilled: " + getSpilledEventCount()
+                        + " (" + getSpilledBytes() + " bytes), dropped: " + getDroppedEventCount()
+                        + ", last lag: " + getLastLag() + " ms, max lag: " + getMaxLag() + " ms");
+            }
+        }
+    }
+
+    /**
+     * Publishes a batch of the events in the spill file.
+     *
+     * @return false if the spill file had no events
+     */
+    private boolean publishSpilledEvents() {
+
+        if (spillFile == null || spillFile.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < batchSize && bufferedEventCount.get() == 0; i++) {
+            EventSpillFile.SpilledEvent spilledEvent;
+            try {
+                spilledEvent = spillFile.poll();
+            } catch (IOException e) {
+                log.error("Error while reading analytics event from " + spillFile.getFile(), e);
+                continue;
+            }
+            if (spilledEvent == null) {
+                break;
+            }
+            CounterMetric counterMetric = spilledEvent.getMetric() == SUCCESS_METRIC ? successMetric : faultyMetric;
+            AbstractRequestDataPublisher.publish(counterMetric, spilledEvent.getAttributes());
+            updateLag(spilledEvent.getTime());
+        }
+        return true;
+    }
+
+    private void updateLag(long time) {
+
+        long lag = System.currentTimeMillis() - time;
+        lastLag = lag;
+        if (lag > maxLag) {
+            maxLag = lag;
+        }
+    }
+
+    /**
+     * An event waiting in the buffer.
+     */
+    private static final class QueuedEvent {
+
+        private final CounterMetric counterMetric;
+        private final Event analyticsEvent;
+        private final long time;
+
+        private QueuedEvent(CounterMetric counterMetric, Event analyticsEvent, long time) {
+
+            this.counterMetric = counterMetric;
+            this.analyticsEvent = analyticsEvent;
+            this.time = time;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.wso2.am.analytics.publisher.exception.MetricReportingException;
+import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Error;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.MetaInfo;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Operation;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Target;
+
+/**
+ * Writes the attributes of an analytics event to a metric event builder by calling the getters of the event
+ * directly. The attributes written are the same as those of the map Jackson converts the event to, so that the
+ * success and fault events keep their schema: the attributes of the unwrapped parts of the event are written only
+ * if the part is present, null values are written as null, and enum values are written as their names.
+ * <p>
+ * Only the event parts defined in this package are known to the writer. An event with a part of another type is
+ * reported as not writable, so that it can be converted with Jackson instead.
+ */
+final class EventAttributeWriter {
+
+    private EventAttributeWriter() {
+
+    }
+
+    /**
+     * Checks whether all the parts of an event are of a type known to this writer.
+     *
+     * @param event analytics event
+     * @return true if the event can be written by this writer
+     */
+    static boolean canWrite(Event event) {
+
+        return event.getClass() == Event.class
+                && isOfType(event.getApi(), API.class, ExtendedAPI.class)
+                && isOfType(event.getOperation(), Operation.class, Operation.class)
+                && isOfType(event.getTarget(), Target.class, Target.class)
+                && isOfType(event.getApplication(), Application.class, Application.class)
+                && isOfType(event.getLatencies(), Latencies.class, Latencies.class)
+                && isOfType(event.getMetaInfo(), MetaInfo.class, MetaInfo.class)
+                && isOfType(event.getError(), Error.class, Error.class)
+                && (event.getError() == null || event.getError().getErrorMessage() == null
+                || event.getError().getErrorMessage() instanceof Enum);
+    }
+
+    /**
+     * Writes the attributes of an event to a builder.
+     *
+     * @param event   analytics event, which is writable by this writer
+     * @param builder builder of the metric event
+     * @throws MetricReportingException if an attribute is rejected by the builder
+     */
+    static void write(Event event, MetricEventBuilder builder) throws MetricReportingException {
+
+        API api = event.getApi();
+        if (api != null) {
+            builder.addAttribute("apiId", api.getApiId());
+            builder.addAttribute("apiType", api.getApiType());
+            builder.addAttribute("apiName", api.getApiName());
+            builder.addAttribute("apiVersion", api.getApiVersion());
+            builder.addAttribute("apiCreator", api.getApiCreator());
+            builder.addAttribute("apiCreatorTenantDomain", api.getApiCreatorTenantDomain());
+            if (api instanceof ExtendedAPI) {
+                builder.addAttribute("organizationId", ((ExtendedAPI) api).getOrganizationId());
+            }
+        }
+        Operation operation = event.getOperation();
+        if (operation != null) {
+            builder.addAttribute("apiMethod", operation.getApiMethod());
+            builder.addAttribute("apiResourceTemplate", operation.getApiResourceTemplate());
+        }
+        Target target = event.getTarget();
+        if (target != null) {
+            builder.addAttribute("targetResponseCode", target.getTargetResponseCode());
+            builder.addAttribute("responseCacheHit", target.isResponseCacheHit());
+            builder.addAttribute("destination", target.getDestination());
+        }
+        Application application = event.getApplication();
+        if (application != null) {
+            builder.addAttribute("keyType", application.getKeyType());
+            builder.addAttribute("applicationId", application.getApplicationId());
+            builder.addAttribute("applicationName", application.getApplicationName());
+            builder.addAttribute("applicationOwner", application.getApplicationOwner());
+        }
+        Latencies latencies = event.getLatencies();
+        if (latencies != null) {
+            builder.addAttribute("responseLatency", latencies.getResponseLatency());
+            builder.addAttribute("backendLatency", latencies.getBackendLatency());
+            builder.addAttribute("requestMediationLatency", latencies.getRequestMediationLatency());
+            builder.addAttribute("responseMediationLatency", latencies.getResponseMediationLatency());
+        }
+        MetaInfo metaInfo = event.getMetaInfo();
+        if (metaInfo != null) {
+            builder.addAttribute("correlationId", metaInfo.getCorrelationId());
+            builder.addAttribute("regionId", metaInfo.getRegionId());
+            builder.addAttribute("gatewayType", metaInfo.getGatewayType());
+        }
+        Error error = event.getError();
+        if (error != null) {
+            builder.addAttribute("errorCode", error.getErrorCode());
+            builder.addAttribute("errorMessage", error.getErrorMessage() != null ?
+                    ((Enum<?>) error.getErrorMessage()).name() : null);
+        }
+        builder.addAttribute("proxyResponseCode", event.getProxyResponseCode());
+        builder.addAttribute("requestTimestamp", event.getRequestTimestamp());
+        builder.addAttribute("userAgentHeader", event.getUserAgentHeader());
+        builder.addAttribute("userIp", event.getUserIp());
+        builder.addAttribute("errorType", event.getErrorType());
+        builder.addAttribute("properties", event.getProperties());
+    }
+
+    private static boolean isOfType(Object part, Class<?> type, Class<?> subType) {
+
+        return part == null || part.getClass() == type || part.getClass() == subType;
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A memory mapped local file to which the analytics events which do not fit in the buffer of the
+ * {@link AsyncEventPublisher} are spilled, so that they can be published later. The file is a queue of records, each
+ * holding the attributes of an event, the metric it belongs to and the time it was received at. The read and write
+ * positions of the queue are kept in the file, so that the events spilled before a restart are published after it.
+ */
+class EventSpillFile {
+
+    private static final int MAGIC = 0x41504d53;
+    private static final int READ_POSITION_OFFSET = 4;
+    private static final int WRITE_POSITION_OFFSET = 8;
+    private static final int DATA_OFFSET = 16;
+    // length of the attributes, metric and time
+    private static final int RECORD_HEADER_LENGTH = 4 + 1 + 8;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte INTEGER_VALUE = 2;
+    private static final byte LONG_VALUE = 3;
+    private static final byte BOOLEAN_VALUE = 4;
+    private static final byte JSON_VALUE = 5;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final File file;
+    private final int maxSize;
+    private final MappedByteBuffer buffer;
+    private int readPosition;
+    private int writePosition;
+    private boolean closed;
+
+    /**
+     * Opens a spill file, creating it if it does not exist.
+     *
+     * @param file    spill file
+     * @param maxSize maximum size of the file in bytes
+     * @throws IOException if the file could not be mapped
+     */
+    EventSpillFile(File file, int maxSize) throws IOException {
+
+        this.file = file;
+        this.maxSize = maxSize;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create the directory of analytics spill file " + file);
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(maxSize, DATA_OFFSET * 2));
+        }
+        readPosition = buffer.getInt(READ_POSITION_OFFSET);
+        writePosition = buffer.getInt(WRITE_POSITION_OFFSET);
+        if (buffer.getInt(0) != MAGIC || readPosition < DATA_OFFSET || writePosition < readPosition
+                || writePosition > buffer.capacity()) {
+            buffer.putInt(0, MAGIC);
+            readPosition = DATA_OFFSET;
+            writePosition = DATA_OFFSET;
+            savePositions();
+        }
+    }
+
+    File getFile() {
+
+        return file;
+    }
+
+    int getMaxSize() {
+
+        return maxSize;
+    }
+
+    /**
+     * Writes the events in the file to the disk and stops using the file, so that it can be opened again by another
+     * instance. No events are appended to or removed from a closed file.
+     */
+    synchronized void close() {
+
+        if (!closed) {
+            closed = true;
+            buffer.force();
+        }
+    }
+
+    /**
+     * Appends an event to the file.
+     *
+     * @param metric     metric of the event
+     * @param time       time the event was received at
+     * @param attributes attributes of the event
+     * @return number of bytes written, or zero if the file is full or closed
+     * @throws IOException if the attributes could not be encoded
+     */
+    synchronized int append(byte metric, long time, Map<String, Object> attributes) throws IOException {
+
+        if (closed) {
+            return 0;
+        }
+        byte[] encodedAttributes = encode(attributes);
+        int recordLength = RECORD_HEADER_LENGTH + encodedAttributes.length;
+        if (writePosition + recordLength > buffer.capacity()) {
+            compact();
+            if (writePosition + recordLength > buffer.capacity()) {
+                return 0;
+            }
+        }
+        buffer.putInt(writePosition, encodedAttributes.length);
+        buffer.put(writePosition + 4, metric);
+        buffer.putLong(writePosition + 5, time);
+        ByteBuffer record = buffer.duplicate();
+        record.position(writePosition + RECORD_HEADER_LENGTH);
+        record.put(encodedAttributes);
+        writePosition += recordLength;
+        savePositions();
+        return recordLength;
+    }
+
+    /**
+     * Removes the oldest event from the file.
+     *
+     * @return the oldest event, or null if the file is empty or closed
+     * @throws IOException if the attributes of the event could not be decoded
+     */
+    synchronized SpilledEvent poll() throws IOException {
+
+        if (closed || readPosition == writePosition) {
+            return null;
+        }
+        int attributesLength = buffer.getInt(readPosition);
+        if (attributesLength < 0 || attributesLength > writePosition - readPosition - RECORD_HEADER_LENGTH) {
+            readPosition = DATA_OFFSET;
+            writePosition = DATA_OFFSET;
+            savePositions();
+            throw new IOException("Discarded the corrupted events of analytics spill file " + file);
+        }
+        byte metric = buffer.get(readPosition + 4);
+        long time = buffer.getLong(readPosition + 5);
+        byte[] encodedAttributes = new byte[attributesLength];
+        ByteBuffer record = buffer.duplicate();
+        record.position(readPosition + RECORD_HEADER_LENGTH);
+        record.get(encodedAttributes);
+        readPosition += RECORD_HEADER_LENGTH + attributesLength;
+        if (readPosition == writePosition) {
+            readPosition = DATA_OFFSET;
+            writePosition = DATA_OFFSET;
+        }
+        savePositions();
+        return new SpilledEvent(metric, time, decode(encodedAttributes));
+    }
+
+    synchronized boolean isEmpty() {
+
+        return closed || readPosition == writePosition;
+    }
+
+    /**
+     * Returns the number of bytes taken by the events in the file.
+     *
+     * @return number of bytes used
+     */
+    synchronized int getUsedBytes() {
+
+        return writePosition - readPosition;
+    }
+
+    private void compact() {
+
+        if (readPosition == DATA_OFFSET) {
+            return;
+        }
+        ByteBuffer records = buffer.duplicate();
+        records.position(readPosition);
+        records.limit(writePosition);
+        ByteBuffer target = buffer.duplicate();
+        target.position(DATA_OFFSET);
+        target.put(records.slice());
+        writePosition = DATA_OFFSET + writePosition - readPosition;
+        readPosition = DATA_OFFSET;
+        savePositions();
+    }
+
+    private void savePositions() {
+
+        buffer.putInt(READ_POSITION_OFFSET, readPosition);
+        buffer.putInt(WRITE_POSITION_OFFSET, writePosition);
+    }
+
+    private static byte[] encode(Map<String, Object> attributes) throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(512);
+        try (DataOutputStream dataOutputStream = new DataOutputStream(outputStream)) {
+            dataOutputStream.writeInt(attributes.size());
+            for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+                writeString(dataOutputStream, attribute.getKey());
+                Object value = attribute.getValue();
+                if (value == null) {
+                    dataOutputStream.writeByte(NULL_VALUE);
+                } else if (value instanceof String) {
+                    dataOutputStream.writeByte(STRING_VALUE);
+                    writeString(dataOutputStream, (String) value);
+                } else if (value instanceof Integer) {
+                    dataOutputStream.writeByte(INTEGER_VALUE);
+                    dataOutputStream.writeInt((Integer) value);
+                } else if (value instanceof Long) {
+                    dataOutputStream.writeByte(LONG_VALUE);
+                    dataOutputStream.writeLong((Long) value);
+                } else if (value instanceof Boolean) {
+                    dataOutputStream.writeByte(BOOLEAN_VALUE);
+                    dataOutputStream.writeBoolean((Boolean) value);
+                } else {
+                    dataOutputStream.writeByte(JSON_VALUE);
+                    writeString(dataOutputStream, OBJECT_MAPPER.writeValueAsString(value));
+                }
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Map<String, Object> decode(byte[] encodedAttributes) throws IOException {
+
+        try (DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(encodedAttributes))) {
+            int attributeCount = dataInputStream.readInt();
+            Map<String, Object> attributes = new HashMap<>(attributeCount * 2);
+            for (int i = 0; i < attributeCount; i++) {
+                String key = readString(dataInputStream);
+                byte valueType = dataInputStream.readByte();
+                switch (valueType) {
+                    case NULL_VALUE:
+                        attributes.put(key, null);
+                        break;
+                    case STRING_VALUE:
+                        attributes.put(key, readString(dataInputStream));
+                        break;
+                    case INTEGER_VALUE:
+                        attributes.put(key, dataInputStream.readInt());
+                        break;
+                    case LONG_VALUE:
+                        attributes.put(key, dataInputStream.readLong());
+                        break;
+                    case BOOLEAN_VALUE:
+                        attributes.put(key, dataInputStream.readBoolean());
+                        break;
+                    case JSON_VALUE:
+                        attributes.put(key, OBJECT_MAPPER.readValue(readString(dataInputStream), Object.class));
+                        break;
+                    default:
+                        throw new IOException("Unknown type " + valueType + " of analytics attribute " + key);
+                }
+            }
+            return attributes;
+        }
+    }
+
+    private static void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dataOutputStream.writeInt(bytes.length);
+        dataOutputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream dataInputStream) throws IOException {
+
+        byte[] bytes = new byte[dataInputStream.readInt()];
+        dataInputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An event read from the spill file.
+     */
+    static final class SpilledEvent {
+
+        private final byte metric;
+        private final long time;
+        private final Map<String, Object> attributes;
+
+        private SpilledEvent(byte metric, long time, Map<String, Object> attributes) {
+
+            this.metric = metric;
+            this.time = time;
+            this.attributes = attributes;
+        }
+
+        byte getMetric() {
+
+            return metric;
+        }
+
+        long getTime() {
+
+            return time;
+        }
+
+        Map<String, Object> getAttributes() {
+
+            return attributes;
+        }
+    }
+}
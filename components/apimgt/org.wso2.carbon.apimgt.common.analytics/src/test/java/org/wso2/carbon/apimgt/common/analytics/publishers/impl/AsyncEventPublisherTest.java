@@ -0,0 +1,252 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.am.analytics.publisher.reporter.CounterMetric;
+import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class AsyncEventPublisherTest {
+
+    @Test
+    public void testEventsArePublishedByWorker() throws Exception {
+        List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+        CounterMetric successMetric = createCounterMetric(published);
+        AsyncEventPublisher publisher = new AsyncEventPublisher(10, 5, null, successMetric, null);
+        publisher.start();
+        try {
+            for (int i = 0; i < 8; i++) {
+                publisher.publish(successMetric, createEvent(i));
+            }
+            waitForEvents(published, 8);
+            Assert.assertEquals(8, published.size());
+            Assert.assertEquals(0, publisher.getQueueDepth());
+            Assert.assertEquals(0, publisher.getDroppedEventCount());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    public void testOverflowingEventsAreSpilledAndReplayed() throws Exception {
+        File file = File.createTempFile("analytics", ".spill");
+        try {
+            List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+            CounterMetric successMetric = createCounterMetric(published);
+            CounterMetric faultyMetric = createCounterMetric(published);
+            AsyncEventPublisher publisher = new AsyncEventPublisher(2, 10, new EventSpillFile(file, 64 * 1024),
+                    successMetric, faultyMetric);
+            for (int i = 0; i < 5; i++) {
+                publisher.publish(i % 2 == 0 ? successMetric : faultyMetric, createEvent(i));
+            }
+            Assert.assertEquals(2, publisher.getQueueDepth());
+            Assert.assertEquals(3, publisher.getSpilledEventCount());
+            Assert.assertTrue(publisher.getSpilledBytes() > 0);
+
+            publisher.start();
+            try {
+                waitForEvents(published, 5);
+                Assert.assertEquals(5, published.size());
+                Map<String, Object> replayed = published.get(4);
+                Assert.assertEquals(AbstractRequestDataPublisher.getAttributes(createEvent(4)), replayed);
+                Assert.assertEquals(Long.class, replayed.get("responseLatency").getClass());
+                Assert.assertEquals(0, publisher.getDroppedEventCount());
+            } finally {
+                publisher.shutdown();
+            }
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testEventsAreDroppedWhenSpillFileIsFull() throws Exception {
+        File file = File.createTempFile("analytics", ".spill");
+        try {
+            CounterMetric successMetric = createCounterMetric(new CopyOnWriteArrayList<>());
+            AsyncEventPublisher publisher = new AsyncEventPublisher(1, 10, new EventSpillFile(file, 1024),
+                    successMetric, null);
+            for (int i = 0; i < 20; i++) {
+                publisher.publish(successMetric, createEvent(i));
+            }
+            Assert.assertEquals(1, publisher.getQueueDepth());
+            Assert.assertTrue(publisher.getSpilledEventCount() > 0);
+            Assert.assertTrue(publisher.getDroppedEventCount() > 0);
+            Assert.assertEquals(19, publisher.getSpilledEventCount() + publisher.getDroppedEventCount());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testSpilledEventsSurviveReopening() throws Exception {
+        File file = File.createTempFile("analytics", ".spill");
+        try {
+            Map<String, Object> attributes = new HashMap<>();
+            attributes.put("apiName", "PizzaShack");
+            attributes.put("proxyResponseCode", 200);
+            attributes.put("userIp", null);
+            attributes.put("properties", Collections.singletonMap("apiContext", "/pizzashack"));
+            new EventSpillFile(file, 4096).append((byte) 1, 1000L, attributes);
+
+            EventSpillFile spillFile = new EventSpillFile(file, 4096);
+            EventSpillFile.SpilledEvent spilledEvent = spillFile.poll();
+            Assert.assertNotNull(spilledEvent);
+            Assert.assertEquals(1, spilledEvent.getMetric());
+            Assert.assertEquals(1000L, spilledEvent.getTime());
+            Assert.assertEquals(attributes, spilledEvent.getAttributes());
+            Assert.assertTrue(spillFile.isEmpty());
+            Assert.assertNull(spillFile.poll());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testBufferedEventsAreSpilledOnShutdownAndPublishedByNextPublisher() throws Exception {
+        File file = File.createTempFile("analytics", ".spill");
+        try {
+            List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+            CounterMetric successMetric = createCounterMetric(published);
+            EventSpillFile spillFile = new EventSpillFile(file, 64 * 1024);
+            AsyncEventPublisher publisher = new AsyncEventPublisher(10, 5, spillFile, successMetric, null);
+            for (int i = 0; i < 3; i++) {
+                publisher.publish(successMetric, createEvent(i));
+            }
+            publisher.shutdown();
+            Assert.assertEquals(0, publisher.getQueueDepth());
+            Assert.assertEquals(3, publisher.getSpilledEventCount());
+            Assert.assertTrue(published.isEmpty());
+
+            AsyncEventPublisher nextPublisher = new AsyncEventPublisher(10, 5, spillFile, successMetric, null);
+            nextPublisher.start();
+            try {
+                waitForEvents(published, 3);
+                Assert.assertEquals(3, published.size());
+                Assert.assertEquals(AbstractRequestDataPublisher.getAttributes(createEvent(0)), published.get(0));
+                Assert.assertTrue(spillFile.isEmpty());
+            } finally {
+                nextPublisher.shutdown();
+            }
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    @Test
+    public void testEventsAreNotDroppedOnShutdownWithoutSpillFile() throws Exception {
+        List<Map<String, Object>> published = new CopyOnWriteArrayList<>();
+        CounterMetric successMetric = createCounterMetric(published);
+        AsyncEventPublisher publisher = new AsyncEventPublisher(10, 5, null, successMetric, null);
+        for (int i = 0; i < 3; i++) {
+            publisher.publish(successMetric, createEvent(i));
+        }
+        publisher.shutdown();
+        Assert.assertEquals(3, published.size());
+        Assert.assertEquals(0, publisher.getQueueDepth());
+
+        // the events received after shutting down are published on the calling thread
+        publisher.publish(successMetric, createEvent(3));
+        Assert.assertEquals(4, published.size());
+        Assert.assertEquals(0, publisher.getDroppedEventCount());
+    }
+
+    @Test
+    public void testClosedSpillFileIsNotUsed() throws Exception {
+        File file = File.createTempFile("analytics", ".spill");
+        try {
+            Map<String, Object> attributes = Collections.singletonMap("apiName", "PizzaShack");
+            EventSpillFile spillFile = new EventSpillFile(file, 4096);
+            Assert.assertTrue(spillFile.append((byte) 0, 1000L, attributes) > 0);
+            spillFile.close();
+            Assert.assertEquals(0, spillFile.append((byte) 0, 2000L, attributes));
+            Assert.assertNull(spillFile.poll());
+            Assert.assertTrue(spillFile.isEmpty());
+
+            EventSpillFile reopenedSpillFile = new EventSpillFile(file, 4096);
+            EventSpillFile.SpilledEvent spilledEvent = reopenedSpillFile.poll();
+            Assert.assertNotNull(spilledEvent);
+            Assert.assertEquals(1000L, spilledEvent.getTime());
+            Assert.assertNull(reopenedSpillFile.poll());
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+
+    private static Event createEvent(int i) {
+        Event event = new Event();
+        Latencies latencies = new Latencies();
+        latencies.setResponseLatency(i);
+        event.setLatencies(latencies);
+        event.setProxyResponseCode(200);
+        event.setUserIp("127.0.0." + i);
+        return event;
+    }
+
+    private static CounterMetric createCounterMetric(List<Map<String, Object>> published) {
+        return (CounterMetric) Proxy.newProxyInstance(AsyncEventPublisherTest.class.getClassLoader(),
+                new Class[]{CounterMetric.class}, (proxy, method, args) -> {
+                    if ("getEventBuilder".equals(method.getName())) {
+                        return createEventBuilder();
+                    } else if ("incrementCount".equals(method.getName())) {
+                        published.add(((RecordedAttributes) Proxy.getInvocationHandler(args[0])).attributes);
+                        return 0;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static MetricEventBuilder createEventBuilder() {
+        return (MetricEventBuilder) Proxy.newProxyInstance(AsyncEventPublisherTest.class.getClassLoader(),
+                new Class[]{MetricEventBuilder.class}, new RecordedAttributes());
+    }
+
+    private static void waitForEvents(List<Map<String, Object>> published, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordedAttributes implements InvocationHandler {
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("addAttribute".equals(method.getName())) {
+                attributes.put((String) args[0], args[1]);
+                return proxy;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
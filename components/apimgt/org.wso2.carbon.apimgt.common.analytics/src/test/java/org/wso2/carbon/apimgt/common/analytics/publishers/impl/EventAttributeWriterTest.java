@@ -0,0 +1,154 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ */
+
+package org.wso2.carbon.apimgt.common.analytics.publishers.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.am.analytics.publisher.reporter.MetricEventBuilder;
+import org.wso2.carbon.apimgt.common.analytics.collectors.impl.CommonRequestDataCollector;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.API;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Application;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Error;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Event;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.ExtendedAPI;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Latencies;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.MetaInfo;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Operation;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.Target;
+import org.wso2.carbon.apimgt.common.analytics.publishers.dto.enums.FaultSubCategories;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class EventAttributeWriterTest {
+
+    @Test
+    public void testSuccessEventAttributes() throws Exception {
+        Event event = new Event();
+        ExtendedAPI api = new ExtendedAPI();
+        api.setApiId("1234");
+        api.setApiType("HTTP");
+        api.setApiName("PizzaShack");
+        api.setApiVersion("1.0.0");
+        api.setApiCreator("admin");
+        api.setApiCreatorTenantDomain("carbon.super");
+        api.setOrganizationId("org1");
+        event.setApi(api);
+        Operation operation = new Operation();
+        operation.setApiMethod("GET");
+        operation.setApiResourceTemplate("/menu");
+        event.setOperation(operation);
+        Target target = new Target();
+        target.setTargetResponseCode(200);
+        target.setResponseCacheHit(true);
+        target.setDestination("http://localhost:9443");
+        event.setTarget(target);
+        Application application = new Application();
+        application.setKeyType("PRODUCTION");
+        application.setApplicationId("app1");
+        application.setApplicationName("DefaultApplication");
+        event.setApplication(application);
+        Latencies latencies = new Latencies();
+        latencies.setResponseLatency(20);
+        latencies.setBackendLatency(10);
+        latencies.setRequestMediationLatency(5);
+        latencies.setResponseMediationLatency(5);
+        event.setLatencies(latencies);
+        MetaInfo metaInfo = new MetaInfo();
+        metaInfo.setCorrelationId("correlation1");
+        metaInfo.setRegionId("default");
+        event.setMetaInfo(metaInfo);
+        event.setProxyResponseCode(200);
+        event.setRequestTimestamp(CommonRequestDataCollector.getTimeInISO(1634000000123L));
+        event.setUserAgentHeader("curl");
+        event.setUserIp("127.0.0.1");
+        event.setProperties(Collections.singletonMap("apiContext", "/pizzashack/1.0.0"));
+
+        Assert.assertTrue(EventAttributeWriter.canWrite(event));
+        Assert.assertEquals(convertWithJackson(event), write(event));
+    }
+
+    @Test
+    public void testFaultEventAttributes() throws Exception {
+        Event event = new Event();
+        API api = new API();
+        api.setApiId("1234");
+        api.setApiName("PizzaShack");
+        event.setApi(api);
+        Error error = new Error();
+        error.setErrorCode(900800);
+        error.setErrorMessage(FaultSubCategories.Throttling.APPLICATION_LEVEL_LIMIT_EXCEEDED);
+        event.setError(error);
+        event.setErrorType("THROTTLED");
+        event.setProxyResponseCode(429);
+        event.setRequestTimestamp(CommonRequestDataCollector.getTimeInISO(1634000040000L));
+
+        Assert.assertTrue(EventAttributeWriter.canWrite(event));
+        Map<String, Object> attributes = write(event);
+        Assert.assertEquals(convertWithJackson(event), attributes);
+        Assert.assertEquals("APPLICATION_LEVEL_LIMIT_EXCEEDED", attributes.get("errorMessage"));
+        Assert.assertFalse(attributes.containsKey("targetResponseCode"));
+    }
+
+    @Test
+    public void testEventWithUnknownPartIsNotWritable() {
+        Event event = new Event();
+        event.setApi(new API() {
+            public String getApiContext() {
+                return "/pizzashack";
+            }
+        });
+        Assert.assertFalse(EventAttributeWriter.canWrite(event));
+    }
+
+    @Test
+    public void testTimeInISO() {
+        long[] times = {0L, 1000L, 1001L, 60000L, 60010L, 1634000000000L, 1634000000123L, 1634000000999L,
+                1634000040000L, 1634000040050L, 1634000041007L, -1L, 253402300800000L};
+        for (long time : times) {
+            Assert.assertEquals(OffsetDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneOffset.UTC).toString(),
+                    CommonRequestDataCollector.getTimeInISO(time));
+        }
+    }
+
+    private static Map<String, Object> convertWithJackson(Event event) {
+        return AbstractRequestDataPublisher.OBJECT_MAPPER.convertValue(event,
+                AbstractRequestDataPublisher.MAP_TYPE_REFERENCE);
+    }
+
+    private static Map<String, Object> write(Event event) throws Exception {
+        Map<String, Object> attributes = new HashMap<>();
+        MetricEventBuilder builder = (MetricEventBuilder) Proxy.newProxyInstance(
+                EventAttributeWriterTest.class.getClassLoader(), new Class[]{MetricEventBuilder.class},
+                (proxy, method, args) -> {
+                    if ("addAttribute".equals(method.getName())) {
+                        Assert.assertFalse(attributes.containsKey(args[0]));
+                        attributes.put((String) args[0], args[1]);
+                        return proxy;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        EventAttributeWriter.write(event, builder);
+        return attributes;
+    }
+}
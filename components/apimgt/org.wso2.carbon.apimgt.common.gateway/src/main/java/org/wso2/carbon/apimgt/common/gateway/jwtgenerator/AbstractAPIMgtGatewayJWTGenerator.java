@@ -31,7 +31,9 @@ import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
+import java.security.Signature;
 import java.security.cert.Certificate;
 import java.util.Date;
 import java.util.List;
@@ -46,6 +48,9 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
     private static final Log log = LogFactory.getLog(AbstractAPIMgtGatewayJWTGenerator.class);
     public static final String NONE = "NONE";
     public static final String SHA256_WITH_RSA = "SHA256withRSA";
+    public static final String SHA256_WITH_ECDSA = "SHA256withECDSA";
+    public static final String SHA384_WITH_ECDSA = "SHA384withECDSA";
+    public static final String ED25519 = "Ed25519";
     public static final String API_GATEWAY_ID = "wso2.org/products/am";
     public JWTConfigurationDto jwtConfigurationDto;
 
@@ -54,6 +59,9 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
 
     public String signatureAlgorithm;
 
+    // The header only depends on the signing key, hence it is encoded once per configuration
+    private volatile String base64UrlEncodedHeader;
+
     public AbstractAPIMgtGatewayJWTGenerator() {
     }
 
@@ -65,27 +73,36 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
         }
         signatureAlgorithm = jwtConfigurationDto.getSignatureAlgorithm();
         if (signatureAlgorithm == null || !(NONE.equals(signatureAlgorithm)
-                || SHA256_WITH_RSA.equals(signatureAlgorithm))) {
+                || SHA256_WITH_RSA.equals(signatureAlgorithm) || SHA256_WITH_ECDSA.equals(signatureAlgorithm)
+                || SHA384_WITH_ECDSA.equals(signatureAlgorithm) || ED25519.equals(signatureAlgorithm))) {
+            signatureAlgorithm = SHA256_WITH_RSA;
+        } else if (ED25519.equals(signatureAlgorithm) && !isSignatureAlgorithmAvailable(ED25519)) {
+            log.error("Signature algorithm " + ED25519 + " is not supported by the JVM. Falling back to "
+                    + SHA256_WITH_RSA);
             signatureAlgorithm = SHA256_WITH_RSA;
         }
-
+        base64UrlEncodedHeader = null;
     }
 
     public String generateToken(JWTInfoDto jwtInfoDto) throws JWTGeneratorException {
 
-        String jwtHeader = buildHeader();
-        String jwtBody = buildBody(jwtInfoDto);
-        String base64UrlEncodedHeader = "";
-        if (jwtHeader != null) {
-            base64UrlEncodedHeader = encode(jwtHeader.getBytes(Charset.defaultCharset()));
+        String base64UrlEncodedHeader = this.base64UrlEncodedHeader;
+        if (base64UrlEncodedHeader == null) {
+            String jwtHeader = buildHeader();
+            base64UrlEncodedHeader = "";
+            if (jwtHeader != null) {
+                base64UrlEncodedHeader = encode(jwtHeader.getBytes(Charset.defaultCharset()));
+            }
+            this.base64UrlEncodedHeader = base64UrlEncodedHeader;
         }
+        String jwtBody = buildBody(jwtInfoDto);
         String base64UrlEncodedBody = "";
         try {
             base64UrlEncodedBody = encode(jwtBody.getBytes("UTF-8"));
         } catch (UnsupportedEncodingException e) {
             log.debug("Error in encoding jwt body", e);
         }
-        if (SHA256_WITH_RSA.equals(signatureAlgorithm)) {
+        if (!NONE.equals(signatureAlgorithm)) {
             String assertion = base64UrlEncodedHeader + '.' + base64UrlEncodedBody;
 
             //get the assertion signed
@@ -115,7 +132,7 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
 
             jwtHeader = jwtHeaderBuilder.toString();
 
-        } else if (SHA256_WITH_RSA.equals(signatureAlgorithm)) {
+        } else {
             jwtHeader = addCertToHeader();
         }
         return jwtHeader;
@@ -201,6 +218,16 @@ public abstract class AbstractAPIMgtGatewayJWTGenerator {
         return jwtClaimsSet.toJSONObject().toString();
     }
 
+    private static boolean isSignatureAlgorithmAvailable(String algorithm) {
+
+        try {
+            Signature.getInstance(algorithm);
+            return true;
+        } catch (NoSuchAlgorithmException e) {
+            return false;
+        }
+    }
+
     public String encode(byte[] stringToBeEncoded) throws JWTGeneratorException {
         return java.util.Base64.getUrlEncoder().encodeToString(stringToBeEncoded);
     }
@@ -22,7 +22,7 @@ package org.wso2.carbon.apimgt.common.gateway.jwtgenerator;
  * Enum for the jwt signature algorithm.
  */
 public enum JWTSignatureAlg {
-    SHA256_WITH_RSA("RS256"), NONE("none");
+    SHA256_WITH_RSA("RS256"), SHA256_WITH_ECDSA("ES256"), SHA384_WITH_ECDSA("ES384"), ED25519("EdDSA"), NONE("none");
 
     private String jwsCompliantCode;
 
@@ -55,6 +55,14 @@ public final class JWTUtil {
     private static final Log log = LogFactory.getLog(JWTUtil.class);
     private static final String NONE = "NONE";
     private static final String SHA256_WITH_RSA = "SHA256withRSA";
+    private static final String SHA256_WITH_ECDSA = "SHA256withECDSA";
+    private static final String SHA384_WITH_ECDSA = "SHA384withECDSA";
+    private static final String ED25519 = "Ed25519";
+    private static final int ES256_SIGNATURE_LENGTH = 64;
+    private static final int ES384_SIGNATURE_LENGTH = 96;
+    private static final byte DER_SEQUENCE = 0x30;
+    private static final byte DER_INTEGER = 0x02;
+    private static final int DER_LONG_FORM_LENGTH = 0x81;
 
     /**
      * Get the JWS compliant signature algorithm code of the algorithm used to sign the JWT.
@@ -68,6 +76,12 @@ public final class JWTUtil {
             return JWTSignatureAlg.NONE.getJwsCompliantCode();
         } else if (SHA256_WITH_RSA.equals(signatureAlgorithm)) {
             return JWTSignatureAlg.SHA256_WITH_RSA.getJwsCompliantCode();
+        } else if (SHA256_WITH_ECDSA.equals(signatureAlgorithm)) {
+            return JWTSignatureAlg.SHA256_WITH_ECDSA.getJwsCompliantCode();
+        } else if (SHA384_WITH_ECDSA.equals(signatureAlgorithm)) {
+            return JWTSignatureAlg.SHA384_WITH_ECDSA.getJwsCompliantCode();
+        } else if (ED25519.equals(signatureAlgorithm)) {
+            return JWTSignatureAlg.ED25519.getJwsCompliantCode();
         } else {
             return signatureAlgorithm;
         }
@@ -156,7 +170,14 @@ public final class JWTUtil {
             signature.update(dataInBytes);
 
             //sign the assertion and return the signature
-            return signature.sign();
+            byte[] signedAssertion = signature.sign();
+            // JCA returns DER encoded ECDSA signatures, whereas JWS requires the concatenated R and S values
+            if (SHA256_WITH_ECDSA.equals(signatureAlgorithm)) {
+                return transcodeSignatureToConcat(signedAssertion, ES256_SIGNATURE_LENGTH);
+            } else if (SHA384_WITH_ECDSA.equals(signatureAlgorithm)) {
+                return transcodeSignatureToConcat(signedAssertion, ES384_SIGNATURE_LENGTH);
+            }
+            return signedAssertion;
         } catch (NoSuchAlgorithmException e) {
             //do not log
             throw new JWTGeneratorException("Signature algorithm not found", e);
@@ -169,6 +190,60 @@ public final class JWTUtil {
         }
     }
 
+    /**
+     * Converts a DER encoded ECDSA signature, a sequence of the integers R and S, into the concatenation of R and S
+     * with each padded to half of the given length, as required by JWS.
+     *
+     * @param derSignature DER encoded signature
+     * @param outputLength length of the concatenated signature
+     * @return concatenated signature
+     * @throws JWTGeneratorException if the signature is not a valid DER encoded ECDSA signature
+     */
+    private static byte[] transcodeSignatureToConcat(byte[] derSignature, int outputLength)
+            throws JWTGeneratorException {
+
+        if (derSignature.length < 8 || derSignature[0] != DER_SEQUENCE) {
+            throw new JWTGeneratorException("Invalid ECDSA signature format");
+        }
+        int index = 1;
+        int sequenceLength = derSignature[index++] & 0xff;
+        if (sequenceLength == DER_LONG_FORM_LENGTH) {
+            sequenceLength = derSignature[index++] & 0xff;
+        } else if (sequenceLength > DER_LONG_FORM_LENGTH) {
+            throw new JWTGeneratorException("Invalid ECDSA signature format");
+        }
+        if (index + sequenceLength != derSignature.length) {
+            throw new JWTGeneratorException("Invalid ECDSA signature format");
+        }
+        int valueLength = outputLength / 2;
+        byte[] concatSignature = new byte[outputLength];
+        for (int value = 0; value < 2; value++) {
+            if (index + 2 > derSignature.length || derSignature[index++] != DER_INTEGER) {
+                throw new JWTGeneratorException("Invalid ECDSA signature format");
+            }
+            int integerLength = derSignature[index++] & 0xff;
+            if (index + integerLength > derSignature.length) {
+                throw new JWTGeneratorException("Invalid ECDSA signature format");
+            }
+            // the integers are signed, hence may have a leading zero byte, and are not padded
+            int start = index;
+            int length = integerLength;
+            while (length > 0 && derSignature[start] == 0) {
+                start++;
+                length--;
+            }
+            if (length > valueLength) {
+                throw new JWTGeneratorException("Invalid ECDSA signature format");
+            }
+            System.arraycopy(derSignature, start, concatSignature, (value + 1) * valueLength - length, length);
+            index += integerLength;
+        }
+        if (index != derSignature.length) {
+            throw new JWTGeneratorException("Invalid ECDSA signature format");
+        }
+        return concatSignature;
+    }
+
     /**
      * Parse a jwt assertion provided in string format and returns set of claims
      * defined in the assertion.
@@ -179,49 +254,48 @@ public final class JWTUtil {
     public static Map<String, String> getJWTClaims(String jwt) {
 
         if (StringUtils.isNotEmpty(jwt)) {
-            Map<String, String> jwtClaims = new HashMap<>();
             String[] jwtTokenArray = jwt.split(Pattern.quote("."));
-            // decoding JWT
-            try {
-                byte[] jwtByteArray = Base64.decodeBase64(jwtTokenArray[1].getBytes(StandardCharsets.UTF_8));
-                String jwtAssertion = new String(jwtByteArray, StandardCharsets.UTF_8);
-                JsonElement parsedJson = new JsonParser().parse(jwtAssertion);
-                if (parsedJson.isJsonObject()) {
-                    JsonObject rootObject = parsedJson.getAsJsonObject();
-                    for (Map.Entry<String, JsonElement> rootElement : rootObject.entrySet()) {
-                        if (rootElement.getValue().isJsonPrimitive()) {
-                            jwtClaims.put(rootElement.getKey(), rootElement.getValue().getAsString());
-                        } else if (rootElement.getValue().isJsonArray()) {
-                            JsonArray arrayElement = rootElement.getValue().getAsJsonArray();
-                            List<String> element = new ArrayList<>();
-                            for (JsonElement jsonElement : arrayElement) {
-                                element.add(jsonElement.getAsString());
-                            }
-                            jwtClaims.put(rootElement.getKey(), String.join("|", element));
-                        } else if (rootElement.getValue().isJsonObject()) {
-                            getJWTClaimsArray(jwtClaims, (JsonObject) rootElement.getValue(), rootElement.getKey());
-                        }
-                    }
-                }
-            } catch (JsonParseException e) {
-                // gson throws runtime exceptions for parsing errors. We don't want to throw
-                // errors and break the flow from this util method. Therefore logging and
-                // returning null for error case
-                log.error("Error occurred while parsing jwt claims");
-            }
-            return jwtClaims;
+            return decodeJWTPart(jwtTokenArray[1]);
         } else {
             return null;
         }
 
     }
 
+    /**
+     * Decodes a base64url encoded part of a jwt, such as the header or the payload, into a flat map. The values of
+     * nested objects are keyed by the dot separated path of the claim, and the values of arrays are joined with "|".
+     *
+     * @param encodedPart base64url encoded JSON object
+     * @return decoded values as a {@link Map}, which is empty if the part could not be parsed
+     */
+    static Map<String, String> decodeJWTPart(String encodedPart) {
+
+        Map<String, String> jwtClaims = new HashMap<>();
+        // decoding JWT
+        try {
+            byte[] jwtByteArray = Base64.decodeBase64(encodedPart.getBytes(StandardCharsets.UTF_8));
+            String jwtAssertion = new String(jwtByteArray, StandardCharsets.UTF_8);
+            JsonElement parsedJson = new JsonParser().parse(jwtAssertion);
+            if (parsedJson.isJsonObject()) {
+                getJWTClaimsArray(jwtClaims, parsedJson.getAsJsonObject(), null);
+            }
+        } catch (JsonParseException e) {
+            // gson throws runtime exceptions for parsing errors. We don't want to throw
+            // errors and break the flow from this util method. Therefore logging and
+            // returning the claims parsed so far for error case
+            log.error("Error occurred while parsing jwt claims");
+        }
+        return jwtClaims;
+    }
+
     private static void getJWTClaimsArray(Map<String, String> jwtClaims, JsonObject jsonObject, String parent) {
 
         if (jsonObject.isJsonObject()) {
             JsonObject rootObject = jsonObject.getAsJsonObject();
             for (Map.Entry<String, JsonElement> rootElement : rootObject.entrySet()) {
-                String claimKey = parent.concat(".").concat(rootElement.getKey());
+                String claimKey = parent != null ? parent.concat(".").concat(rootElement.getKey())
+                        : rootElement.getKey();
                 if (rootElement.getValue().isJsonPrimitive()) {
                     jwtClaims.put(claimKey, rootElement.getValue().getAsString());
                 } else if (rootElement.getValue().isJsonArray()) {
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.common.gateway.util;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A jwt of a request, whose header and claims are decoded when they are first accessed, so that the handlers of a
+ * request which need them share a single decoding. The decoded header and claims are flattened in the same way as
+ * {@link JWTUtil#getJWTClaims(String)} and cannot be modified. Instances are safe to share between the threads
+ * which process a request.
+ */
+public final class ParsedJWT {
+
+    private final String token;
+    private volatile Map<String, String> header;
+    private volatile Map<String, String> claims;
+
+    public ParsedJWT(String token) {
+
+        this.token = token;
+    }
+
+    public String getToken() {
+
+        return token;
+    }
+
+    /**
+     * Returns the decoded header of the jwt.
+     *
+     * @return header values as an unmodifiable {@link Map}, which is empty if the jwt could not be parsed
+     */
+    public Map<String, String> getHeader() {
+
+        Map<String, String> decodedHeader = header;
+        if (decodedHeader == null) {
+            int headerEnd = token.indexOf('.');
+            decodedHeader = headerEnd < 0 ? Collections.emptyMap() : decode(token.substring(0, headerEnd));
+            header = decodedHeader;
+        }
+        return decodedHeader;
+    }
+
+    /**
+     * Returns the decoded claims of the jwt.
+     *
+     * @return claims as an unmodifiable {@link Map}, which is empty if the jwt could not be parsed
+     */
+    public Map<String, String> getClaims() {
+
+        Map<String, String> decodedClaims = claims;
+        if (decodedClaims == null) {
+            int headerEnd = token.indexOf('.');
+            if (headerEnd < 0) {
+                decodedClaims = Collections.emptyMap();
+            } else {
+                int claimsEnd = token.indexOf('.', headerEnd + 1);
+                decodedClaims = decode(token.substring(headerEnd + 1, claimsEnd < 0 ? token.length() : claimsEnd));
+            }
+            claims = decodedClaims;
+        }
+        return decodedClaims;
+    }
+
+    private static Map<String, String> decode(String encodedPart) {
+
+        return Collections.unmodifiableMap(JWTUtil.decodeJWTPart(encodedPart));
+    }
+}
@@ -18,10 +18,19 @@
 
 package org.wso2.carbon.apimgt.common.gateway;
 
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jwt.SignedJWT;
 import org.junit.Assert;
 import org.junit.Test;
 import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
 
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+
 /**
  * Test cases for {@link JWTUtil}
  */
@@ -47,4 +56,41 @@ public class JWTUtilTestCase {
     public void testGetJWTClaimsWhenJWTNotAvailable() {
         Assert.assertNull(JWTUtil.getJWTClaims(null));
     }
+
+    @Test
+    public void testSignJwtWithECDSA() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = "{\"typ\":\"JWT\",\"alg\":\"ES256\"}";
+        String body = "{\"sub\":\"admin\"}";
+        String assertion = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + '.'
+                + encoder.encodeToString(body.getBytes(StandardCharsets.UTF_8));
+
+        byte[] signature = JWTUtil.signJwt(assertion, keyPair.getPrivate(), "SHA256withECDSA");
+        Assert.assertEquals(64, signature.length);
+        SignedJWT signedJWT = SignedJWT.parse(assertion + '.' + encoder.encodeToString(signature));
+        Assert.assertTrue(signedJWT.verify(new ECDSAVerifier((ECPublicKey) keyPair.getPublic())));
+        Assert.assertEquals("ES256", JWTUtil.getJWSCompliantAlgorithmCode("SHA256withECDSA"));
+        Assert.assertEquals("EdDSA", JWTUtil.getJWSCompliantAlgorithmCode("Ed25519"));
+    }
+
+    @Test
+    public void testSignJwtWithECDSAUsingSHA384() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp384r1"));
+        KeyPair keyPair = keyPairGenerator.generateKeyPair();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"typ\":\"JWT\",\"alg\":\"ES384\"}".getBytes(StandardCharsets.UTF_8));
+        // R and S shorter than the curve size are encoded without padding, so sign enough assertions to meet them
+        for (int i = 0; i < 200; i++) {
+            String assertion = header + '.'
+                    + encoder.encodeToString(("{\"jti\":\"" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+            byte[] signature = JWTUtil.signJwt(assertion, keyPair.getPrivate(), "SHA384withECDSA");
+            Assert.assertEquals(96, signature.length);
+            SignedJWT signedJWT = SignedJWT.parse(assertion + '.' + encoder.encodeToString(signature));
+            Assert.assertTrue(signedJWT.verify(new ECDSAVerifier((ECPublicKey) keyPair.getPublic())));
+        }
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.common.gateway;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
+import org.wso2.carbon.apimgt.common.gateway.util.ParsedJWT;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Test cases for {@link ParsedJWT}
+ */
+public class ParsedJWTTestCase {
+
+    private static final String HEADER = "{\"alg\":\"RS256\",\"kid\":\"key1\"}";
+    private static final String CLAIMS = "{\"sub\":\"admin\",\"groups\":[\"a\",\"b\"],\"address\":{\"country\":\"LK\"}}";
+
+    @Test
+    public void testClaimsAreDecodedLikeJWTUtil() {
+        String jwt = encode(HEADER) + "." + encode(CLAIMS) + ".signature";
+        ParsedJWT parsedJWT = new ParsedJWT(jwt);
+        Map<String, String> claims = parsedJWT.getClaims();
+        Assert.assertEquals(JWTUtil.getJWTClaims(jwt), claims);
+        Assert.assertEquals("admin", claims.get("sub"));
+        Assert.assertEquals("a|b", claims.get("groups"));
+        Assert.assertEquals("LK", claims.get("address.country"));
+        Assert.assertSame(claims, parsedJWT.getClaims());
+        Assert.assertEquals(jwt, parsedJWT.getToken());
+    }
+
+    @Test
+    public void testHeaderIsDecoded() {
+        ParsedJWT parsedJWT = new ParsedJWT(encode(HEADER) + "." + encode(CLAIMS) + ".");
+        Assert.assertEquals("RS256", parsedJWT.getHeader().get("alg"));
+        Assert.assertEquals("key1", parsedJWT.getHeader().get("kid"));
+        Assert.assertEquals("admin", parsedJWT.getClaims().get("sub"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testClaimsCannotBeModified() {
+        new ParsedJWT(encode(HEADER) + "." + encode(CLAIMS) + ".signature").getClaims().put("sub", "user");
+    }
+
+    @Test
+    public void testTokenWhichIsNotJWT() {
+        ParsedJWT parsedJWT = new ParsedJWT("1a2b3c4d");
+        Assert.assertTrue(parsedJWT.getHeader().isEmpty());
+        Assert.assertTrue(parsedJWT.getClaims().isEmpty());
+        Assert.assertTrue(new ParsedJWT("a.%%%.b").getClaims().isEmpty());
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Deploys the artifacts of APIs in two stages. The artifacts are prepared by a bounded pool of threads, while the
+ * prepared APIs are registered one at a time by the calling thread, in the order of the artifacts. At most twice the
+ * thread count of artifacts are being prepared or waiting to be registered at a time.
+ * <p>
+ * Only the parts of an API which do not depend on the Synapse configuration are prepared in parallel. The endpoints
+ * and local entries are passed to the Synapse admin proxies as strings, hence they are still built while the API is
+ * registered.
+ */
+class APIDeploymentPipeline {
+
+    private static final Log log = LogFactory.getLog(APIDeploymentPipeline.class);
+
+    private final int threadCount;
+    private final AtomicLong preparationTime = new AtomicLong();
+    private long registrationTime;
+    private long waitingTime;
+
+    /**
+     * @param threadCount number of threads preparing the artifacts
+     */
+    APIDeploymentPipeline(int threadCount) {
+
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Prepares and registers the given artifacts.
+     *
+     * @param artifacts    artifacts of the APIs
+     * @param preparation  prepares an artifact, returning null if there is nothing to register
+     * @param registration registers a prepared artifact
+     * @return number of artifacts which failed to be prepared or registered
+     * @throws InterruptedException if the thread is interrupted while waiting for an artifact to be prepared
+     */
+    <T> int run(List<String> artifacts, Function<String, T> preparation, Registration<T> registration)
+            throws InterruptedException {
+
+        int maxPendingCount = threadCount * 2;
+        int errorCount = 0;
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService preparationExecutor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "APIDeploymentPreparationThread-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Deque<Future<T>> pendingArtifacts = new ArrayDeque<>();
+            Iterator<String> artifactIterator = artifacts.iterator();
+            while (artifactIterator.hasNext() || !pendingArtifacts.isEmpty()) {
+                while (artifactIterator.hasNext() && pendingArtifacts.size() < maxPendingCount) {
+                    String artifact = artifactIterator.next();
+                    pendingArtifacts.add(preparationExecutor.submit(() -> {
+                        long preparationStartTime = System.nanoTime();
+                        try {
+                            return preparation.apply(artifact);
+                        } finally {
+                            preparationTime.addAndGet(System.nanoTime() - preparationStartTime);
+                        }
+                    }));
+                }
+                long waitingStartTime = System.nanoTime();
+                T prepared;
+                try {
+                    prepared = pendingArtifacts.poll().get();
+                } catch (ExecutionException e) {
+                    log.error("Error in preparing the artifacts of an API to be deployed in the Gateway ",
+                            e.getCause());
+                    errorCount++;
+                    continue;
+                } finally {
+                    waitingTime += System.nanoTime() - waitingStartTime;
+                }
+                if (prepared == null) {
+                    continue;
+                }
+                long registrationStartTime = System.nanoTime();
+                try {
+                    if (!registration.register(prepared)) {
+                        errorCount++;
+                    }
+                } finally {
+                    registrationTime += System.nanoTime() - registrationStartTime;
+                }
+            }
+        } finally {
+            preparationExecutor.shutdownNow();
+        }
+        return errorCount;
+    }
+
+    int getThreadCount() {
+
+        return threadCount;
+    }
+
+    /**
+     * Returns the total time spent preparing the artifacts by all the threads, in nanoseconds.
+     */
+    long getPreparationTime() {
+
+        return preparationTime.get();
+    }
+
+    /**
+     * Returns the time spent registering the prepared artifacts, in nanoseconds.
+     */
+    long getRegistrationTime() {
+
+        return registrationTime;
+    }
+
+    /**
+     * Returns the time the registering thread spent waiting for artifacts to be prepared, in nanoseconds.
+     */
+    long getWaitingTime() {
+
+        return waitingTime;
+    }
+
+    /**
+     * Registers a prepared artifact.
+     */
+    interface Registration<T> {
+
+        /**
+         * @param prepared prepared artifact
+         * @return true if the artifact is registered, false if it failed to be registered
+         */
+        boolean register(T prepared);
+    }
+}
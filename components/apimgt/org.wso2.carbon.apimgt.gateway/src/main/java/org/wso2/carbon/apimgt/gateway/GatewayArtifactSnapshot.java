@@ -0,0 +1,242 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * On-disk snapshot of the runtime artifacts of the APIs deployed in the gateway for a tenant, keyed by API UUID.
+ * The snapshot is an append-only segment file: deployments and undeployments are appended as records, and a later
+ * record of an API replaces the earlier ones. The file is rewritten without the replaced records whenever all the
+ * artifacts are written at once, or when too many records have been appended since.
+ * <p>
+ * The file starts with a header of a magic number and a format version, followed by the records. Each record is a
+ * record type, the API UUID and, for deployments, the artifact. A record which was only partly written, for
+ * example due to a crash, ends the segment and is ignored.
+ */
+public class GatewayArtifactSnapshot {
+
+    private static final Log log = LogFactory.getLog(GatewayArtifactSnapshot.class);
+    private static final int MAGIC = 0x47574153;
+    private static final int FORMAT_VERSION = 1;
+    private static final byte PUT_RECORD = 1;
+    private static final byte REMOVE_RECORD = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_APPENDED_RECORD_COUNT = 1000;
+    private static final Map<Path, GatewayArtifactSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    private final Path snapshotFile;
+    private int appendedRecordCount;
+
+    GatewayArtifactSnapshot(Path snapshotFile) {
+
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns the snapshot stored in a file. The same instance is returned for a file, so that the writes to the
+     * file are serialized.
+     *
+     * @param snapshotFile path of the snapshot file
+     * @return snapshot stored in the file
+     */
+    public static GatewayArtifactSnapshot getSnapshot(Path snapshotFile) {
+
+        return snapshots.computeIfAbsent(snapshotFile.toAbsolutePath(), GatewayArtifactSnapshot::new);
+    }
+
+    /**
+     * Reads the artifacts in the snapshot.
+     *
+     * @return artifacts by API UUID, in the order in which they were added, or an empty map if there is no snapshot
+     * @throws IOException if the snapshot could not be read or is not in a supported format
+     */
+    public synchronized Map<String, String> load() throws IOException {
+
+        Map<String, String> artifacts = new LinkedHashMap<>();
+        if (!Files.exists(snapshotFile)) {
+            return artifacts;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return artifacts;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Artifact snapshot " + snapshotFile + " is too large to be read");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int magic = buffer.getInt();
+            int formatVersion = buffer.getInt();
+            if (magic != MAGIC || formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported artifact snapshot format in " + snapshotFile);
+            }
+            while (buffer.hasRemaining()) {
+                try {
+                    byte recordType = buffer.get();
+                    String apiId = readString(buffer);
+                    if (recordType == PUT_RECORD) {
+                        String artifact = readString(buffer);
+                        // moves the artifact to the end so that the latest deployments are deployed last
+                        artifacts.remove(apiId);
+                        artifacts.put(apiId, artifact);
+                    } else if (recordType == REMOVE_RECORD) {
+                        artifacts.remove(apiId);
+                    } else {
+                        log.warn("Ignoring the rest of artifact snapshot " + snapshotFile + " due to unknown record "
+                                + "type " + recordType);
+                        break;
+                    }
+                } catch (BufferUnderflowException | IllegalArgumentException e) {
+                    log.warn("Ignoring the incomplete record at the end of artifact snapshot " + snapshotFile);
+                    break;
+                }
+            }
+        }
+        return artifacts;
+    }
+
+    /**
+     * Replaces the snapshot with the given artifacts. The snapshot is written to a temporary file, which then
+     * replaces the snapshot file, so that a failure while writing does not corrupt the existing snapshot.
+     *
+     * @param artifacts artifacts by API UUID
+     * @throws IOException if the snapshot could not be written
+     */
+    public synchronized void write(Map<String, String> artifacts) throws IOException {
+
+        Files.createDirectories(snapshotFile.toAbsolutePath().getParent());
+        Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        // the permissions are applied only when the file is created, hence a left over file is not reused
+        Files.deleteIfExists(temporaryFile);
+        try (FileChannel channel = createOwnerOnlyFile(temporaryFile)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).flip();
+            writeFully(channel, header);
+            for (Map.Entry<String, String> artifact : artifacts.entrySet()) {
+                writeFully(channel, createRecord(PUT_RECORD, artifact.getKey(), artifact.getValue()));
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        appendedRecordCount = 0;
+    }
+
+    /**
+     * Records the deployment of an API.
+     *
+     * @param apiId    UUID of the API
+     * @param artifact runtime artifact of the API
+     * @throws IOException if the deployment could not be recorded
+     */
+    public synchronized void put(String apiId, String artifact) throws IOException {
+
+        append(createRecord(PUT_RECORD, apiId, artifact));
+    }
+
+    /**
+     * Records the undeployment of an API.
+     *
+     * @param apiId UUID of the API
+     * @throws IOException if the undeployment could not be recorded
+     */
+    public synchronized void remove(String apiId) throws IOException {
+
+        append(createRecord(REMOVE_RECORD, apiId, null));
+    }
+
+    /**
+     * Creates a file which only the owner can read and write, as the artifacts may contain secrets such as endpoint
+     * credentials. The default permissions are used on file systems which do not support POSIX permissions.
+     */
+    private static FileChannel createOwnerOnlyFile(Path file) throws IOException {
+
+        if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return FileChannel.open(file, EnumSet.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        }
+        return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void append(ByteBuffer record) throws IOException {
+
+        if (!Files.exists(snapshotFile)) {
+            write(new LinkedHashMap<>());
+        }
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            writeFully(channel, record);
+        }
+        appendedRecordCount++;
+        if (appendedRecordCount > MAX_APPENDED_RECORD_COUNT) {
+            write(load());
+        }
+    }
+
+    private static ByteBuffer createRecord(byte recordType, String apiId, String artifact) {
+
+        byte[] apiIdBytes = apiId.getBytes(StandardCharsets.UTF_8);
+        byte[] artifactBytes = artifact != null ? artifact.getBytes(StandardCharsets.UTF_8) : null;
+        int size = 1 + 4 + apiIdBytes.length + (artifactBytes != null ? 4 + artifactBytes.length : 0);
+        ByteBuffer record = ByteBuffer.allocate(size);
+        record.put(recordType);
+        record.putInt(apiIdBytes.length).put(apiIdBytes);
+        if (artifactBytes != null) {
+            record.putInt(artifactBytes.length).put(artifactBytes);
+        }
+        record.flip();
+        return record;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Invalid length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
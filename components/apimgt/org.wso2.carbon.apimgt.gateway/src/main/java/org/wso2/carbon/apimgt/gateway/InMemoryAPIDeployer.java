@@ -23,6 +23,8 @@ import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.SchemaParser;
 import graphql.schema.idl.TypeDefinitionRegistry;
 import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.impl.llom.util.AXIOMUtil;
 import org.apache.axis2.AxisFault;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.codec.binary.Base64;
@@ -31,12 +33,14 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.transport.dynamicconfigurations.DynamicProfileReloaderHolder;
+import org.wso2.carbon.apimgt.api.gateway.CredentialDto;
 import org.wso2.carbon.apimgt.api.gateway.GatewayAPIDTO;
 import org.wso2.carbon.apimgt.api.gateway.GatewayContentDTO;
 import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
 import org.wso2.carbon.apimgt.api.model.API;
 import org.wso2.carbon.apimgt.api.model.APIIdentifier;
 import org.wso2.carbon.apimgt.api.model.APIProductIdentifier;
+import org.wso2.carbon.apimgt.gateway.handlers.security.utils.OpenAPIValidatorCache;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.gateway.service.APIGatewayAdmin;
@@ -50,16 +54,26 @@ import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
 import org.wso2.carbon.apimgt.impl.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.keymgt.SubscriptionDataHolder;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
+import org.wso2.carbon.base.CarbonBaseUtils;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.xml.stream.XMLStreamException;
 
 /**
  * This class contains the methods used to retrieve artifacts from a storage and deploy and undeploy the API in gateway.
@@ -67,6 +81,12 @@ import java.util.UUID;
 public class InMemoryAPIDeployer {
 
     private static final Log log = LogFactory.getLog(InMemoryAPIDeployer.class);
+    private static final Gson gson = new Gson();
+    /**
+     * Serializes the changes made to the Synapse configuration by all the deployers, as the events of different APIs
+     * are handled concurrently. Only the retrieval and parsing of the artifacts are done outside the lock.
+     */
+    private static final Object DEPLOYMENT_LOCK = new Object();
     ArtifactRetriever artifactRetriever;
     GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties;
     private boolean debugEnabled = log.isDebugEnabled();
@@ -78,6 +98,13 @@ public class InMemoryAPIDeployer {
                 .getInstance().getAPIManagerConfiguration().getGatewayArtifactSynchronizerProperties();
     }
 
+    InMemoryAPIDeployer(ArtifactRetriever artifactRetriever,
+                        GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties) {
+
+        this.artifactRetriever = artifactRetriever;
+        this.gatewayArtifactSynchronizerProperties = gatewayArtifactSynchronizerProperties;
+    }
+
     /**
      * Deploy an API in the gateway using the deployAPI method in gateway admin.
      *
@@ -89,16 +116,12 @@ public class InMemoryAPIDeployer {
         String apiId = gatewayEvent.getUuid();
         Set<String> gatewayLabels = gatewayEvent.getGatewayLabels();
         try {
-            GatewayAPIDTO gatewayAPIDTO = retrieveArtifact(apiId, gatewayLabels);
+            String gatewayRuntimeArtifact = retrieveArtifact(apiId, gatewayLabels);
+            GatewayAPIDTO gatewayAPIDTO = gson.fromJson(gatewayRuntimeArtifact, GatewayAPIDTO.class);
             if (gatewayAPIDTO != null) {
-                APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
-                MessageContext.setCurrentMessageContext(
-                        org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
-                unDeployAPI(apiGatewayAdmin, gatewayEvent);
-                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
+                synchronized (DEPLOYMENT_LOCK) {
+                    deployAPI(gatewayEvent, gatewayAPIDTO, gatewayRuntimeArtifact);
+                }
                 if (debugEnabled) {
                     log.debug("API with " + apiId + " is deployed in gateway with the labels " + String.join(",",
                             gatewayLabels));
@@ -109,16 +132,48 @@ public class InMemoryAPIDeployer {
             String msg = "Error deploying " + apiId + " in Gateway";
             log.error(msg, e);
             throw new ArtifactSynchronizerException(msg, e);
+        }
+        return true;
+    }
+
+    /**
+     * Replaces the deployed API with a retrieved artifact. Must be called while holding the deployment lock.
+     *
+     * @param gatewayEvent           Gateway Deployment event.
+     * @param gatewayAPIDTO          parsed artifact of the API
+     * @param gatewayRuntimeArtifact artifact of the API
+     * @throws AxisFault if the API could not be deployed in Synapse
+     */
+    void deployAPI(DeployAPIInGatewayEvent gatewayEvent, GatewayAPIDTO gatewayAPIDTO, String gatewayRuntimeArtifact)
+            throws AxisFault {
+
+        String apiId = gatewayEvent.getUuid();
+        try {
+            APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
+            MessageContext.setCurrentMessageContext(
+                    org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
+            unDeployAPI(apiGatewayAdmin, gatewayEvent);
+            apiGatewayAdmin.deployAPI(gatewayAPIDTO);
+            addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+            addDeployedGraphqlQLToAPI(gatewayAPIDTO);
+            DataHolder.getInstance().addKeyManagerToAPIMapping(apiId, gatewayAPIDTO.getKeyManagers());
+            GatewayArtifactSnapshot artifactSnapshot = getArtifactSnapshot(gatewayEvent.getTenantDomain());
+            if (artifactSnapshot != null) {
+                try {
+                    artifactSnapshot.put(apiId, gatewayRuntimeArtifact);
+                } catch (IOException e) {
+                    log.warn("Error while adding API " + apiId + " to the artifact snapshot", e);
+                }
+            }
         } finally {
             MessageContext.destroyCurrentMessageContext();
         }
-        return true;
     }
 
-    private GatewayAPIDTO retrieveArtifact(String apiId, Set<String> gatewayLabels)
+    String retrieveArtifact(String apiId, Set<String> gatewayLabels)
             throws ArtifactSynchronizerException {
 
-        GatewayAPIDTO result;
+        String result;
 
         String labelString = String.join("|", gatewayLabels);
         String encodedString = Base64.encodeBase64URLSafeString(labelString.getBytes());
@@ -126,7 +181,7 @@ public class InMemoryAPIDeployer {
             try {
                 String gatewayRuntimeArtifact = artifactRetriever.retrieveArtifact(apiId, encodedString);
                 if (StringUtils.isNotEmpty(gatewayRuntimeArtifact)) {
-                    result = new Gson().fromJson(gatewayRuntimeArtifact, GatewayAPIDTO.class);
+                    result = gatewayRuntimeArtifact;
                 } else {
                     String msg = "Error retrieving artifacts for API " + apiId + ". Storage returned null";
                     log.error(msg);
@@ -161,35 +216,41 @@ public class InMemoryAPIDeployer {
         if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
             if (artifactRetriever != null) {
                 try {
-                    int errorCount = 0;
                     String labelString = String.join("|", assignedGatewayLabels);
                     String encodedString = Base64.encodeBase64URLSafeString(labelString.getBytes());
                     APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
                     MessageContext.setCurrentMessageContext(org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
                     PrivilegedCarbonContext.startTenantFlow();
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
-                    List<String> gatewayRuntimeArtifacts = ServiceReferenceHolder.getInstance().getArtifactRetriever()
-                            .retrieveAllArtifacts(encodedString, tenantDomain);
-                    if (gatewayRuntimeArtifacts.size() == 0) {
-                        return true;
+                    GatewayArtifactSnapshot artifactSnapshot = getArtifactSnapshot(tenantDomain);
+                    Map<String, String> snapshotArtifacts = loadArtifactSnapshot(artifactSnapshot);
+                    Map<String, String> deployedArtifacts = new LinkedHashMap<>();
+                    List<String> gatewayRuntimeArtifacts;
+                    int errorCount;
+                    long retrievalStartTime = System.nanoTime();
+                    if (snapshotArtifacts.isEmpty()) {
+                        gatewayRuntimeArtifacts = ServiceReferenceHolder.getInstance().getArtifactRetriever()
+                                .retrieveAllArtifacts(encodedString, tenantDomain);
+                        long retrievalTime = System.nanoTime() - retrievalStartTime;
+                        errorCount = deployArtifacts(apiGatewayAdmin, gatewayRuntimeArtifacts, tenantDomain,
+                                retrievalTime, deployedArtifacts);
+                    } else {
+                        gatewayRuntimeArtifacts = deploySnapshotAndRetrieveArtifacts(apiGatewayAdmin,
+                                snapshotArtifacts, encodedString, tenantDomain);
+                        long retrievalTime = System.nanoTime() - retrievalStartTime;
+                        errorCount = deployChangedArtifacts(apiGatewayAdmin, snapshotArtifacts,
+                                gatewayRuntimeArtifacts, tenantDomain, retrievalTime, deployedArtifacts);
                     }
-                    for (String runtimeArtifact : gatewayRuntimeArtifacts) {
-                        GatewayAPIDTO gatewayAPIDTO = null;
+                    if (artifactSnapshot != null) {
                         try {
-                            if (StringUtils.isNotEmpty(runtimeArtifact)) {
-                                gatewayAPIDTO = new Gson().fromJson(runtimeArtifact, GatewayAPIDTO.class);
-                                log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
-                                apiGatewayAdmin.deployAPI(gatewayAPIDTO);
-                                addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
-                                addDeployedGraphqlQLToAPI(gatewayAPIDTO);
-                                DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
-                                        gatewayAPIDTO.getKeyManagers());
-                            }
-                        } catch (AxisFault axisFault) {
-                            log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", axisFault);
-                            errorCount++;
+                            artifactSnapshot.write(deployedArtifacts);
+                        } catch (IOException e) {
+                            log.warn("Error while writing the artifact snapshot of tenant " + tenantDomain, e);
                         }
                     }
+                    if (gatewayRuntimeArtifacts.size() == 0) {
+                        return true;
+                    }
                     // reload dynamic profiles to avoid delays in loading certs in mutual ssl enabled APIs upon
                     // server restart
                     DynamicProfileReloaderHolder.getInstance().reloadAllHandlers();
@@ -205,6 +266,10 @@ public class InMemoryAPIDeployer {
                     String msg = "Error deploying APIs to the Gateway ";
                     log.error(msg, e);
                     return false;
+                } catch (InterruptedException e) {
+                    log.error("Interrupted while deploying APIs to the Gateway", e);
+                    Thread.currentThread().interrupt();
+                    return false;
                 } finally {
                     MessageContext.destroyCurrentMessageContext();
                     PrivilegedCarbonContext.endTenantFlow();
@@ -218,8 +283,255 @@ public class InMemoryAPIDeployer {
         return result;
     }
 
+    /**
+     * Deploys the artifacts of the APIs in two stages. Artifacts are parsed and their sequences and GraphQL schemas
+     * are prepared by a bounded pool of threads, while the prepared APIs are registered in Synapse one at a time by
+     * the calling thread, in the order of the artifacts. See {@link APIDeploymentPipeline}.
+     *
+     * @param apiGatewayAdmin         gateway admin used to deploy the APIs
+     * @param gatewayRuntimeArtifacts artifacts of the APIs
+     * @param tenantDomain            tenant domain of the APIs
+     * @param retrievalTime           time taken to retrieve the artifacts, in nanoseconds
+     * @param deployedArtifacts       map to which the deployed artifacts are added by API UUID
+     * @return number of APIs which were not deployed due to errors
+     * @throws InterruptedException if the thread is interrupted while waiting for an API to be prepared
+     */
+    private int deployArtifacts(APIGatewayAdmin apiGatewayAdmin, List<String> gatewayRuntimeArtifacts,
+                                String tenantDomain, long retrievalTime, Map<String, String> deployedArtifacts)
+            throws InterruptedException {
+
+        long startTime = System.nanoTime();
+        APIDeploymentPipeline pipeline = new APIDeploymentPipeline(Math.min(
+                gatewayArtifactSynchronizerProperties.getDeploymentThreadCount(), gatewayRuntimeArtifacts.size()));
+        int errorCount = pipeline.run(gatewayRuntimeArtifacts, this::prepareAPI, preparedAPI -> {
+            GatewayAPIDTO gatewayAPIDTO = preparedAPI.gatewayAPIDTO;
+            try {
+                log.info("Deploying synapse artifacts of " + gatewayAPIDTO.getName());
+                synchronized (DEPLOYMENT_LOCK) {
+                    apiGatewayAdmin.deployAPI(gatewayAPIDTO, preparedAPI.sequences);
+                    addDeployedCertificatesToAPIAssociation(gatewayAPIDTO);
+                    if (preparedAPI.graphQLSchemaDTO != null) {
+                        DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(),
+                                preparedAPI.graphQLSchemaDTO);
+                    }
+                    DataHolder.getInstance().addKeyManagerToAPIMapping(gatewayAPIDTO.getApiId(),
+                            gatewayAPIDTO.getKeyManagers());
+                }
+                deployedArtifacts.put(gatewayAPIDTO.getApiId(), preparedAPI.runtimeArtifact);
+                return true;
+            } catch (AxisFault axisFault) {
+                log.error("Error in deploying " + gatewayAPIDTO.getName() + " to the Gateway ", axisFault);
+                return false;
+            }
+        });
+        log.info("Deployed " + (gatewayRuntimeArtifacts.size() - errorCount) + " of " + gatewayRuntimeArtifacts.size()
+                + " APIs of tenant " + tenantDomain + " in " + toMillis(System.nanoTime() - startTime)
+                + " ms (retrieval: " + toMillis(retrievalTime) + " ms, preparation: "
+                + toMillis(pipeline.getPreparationTime()) + " ms using " + pipeline.getThreadCount()
+                + " threads, registration: " + toMillis(pipeline.getRegistrationTime())
+                + " ms, waiting for preparation: " + toMillis(pipeline.getWaitingTime()) + " ms)");
+        return errorCount;
+    }
+
+    /**
+     * Deploys the artifacts in the artifact snapshot while the current artifacts are retrieved from the storage.
+     *
+     * @param apiGatewayAdmin   gateway admin used to deploy the APIs
+     * @param snapshotArtifacts artifacts in the snapshot by API UUID
+     * @param label             encoded gateway labels
+     * @param tenantDomain      tenant domain of the APIs
+     * @return current artifacts retrieved from the storage
+     * @throws ArtifactSynchronizerException if the artifacts could not be retrieved
+     * @throws InterruptedException          if the thread is interrupted while deploying or retrieving the artifacts
+     */
+    private List<String> deploySnapshotAndRetrieveArtifacts(APIGatewayAdmin apiGatewayAdmin,
+                                                            Map<String, String> snapshotArtifacts, String label,
+                                                            String tenantDomain)
+            throws ArtifactSynchronizerException, InterruptedException {
+
+        ExecutorService retrievalExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "APIArtifactRetrievalThread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<List<String>> retrieval = retrievalExecutor.submit(() -> {
+                PrivilegedCarbonContext.startTenantFlow();
+                try {
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+                    return artifactRetriever.retrieveAllArtifacts(label, tenantDomain);
+                } finally {
+                    PrivilegedCarbonContext.endTenantFlow();
+                }
+            });
+            log.info("Deploying " + snapshotArtifacts.size() + " APIs of tenant " + tenantDomain
+                    + " from the artifact snapshot");
+            deployArtifacts(apiGatewayAdmin, new ArrayList<>(snapshotArtifacts.values()), tenantDomain, 0,
+                    new HashMap<>());
+            try {
+                return retrieval.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof ArtifactSynchronizerException) {
+                    throw (ArtifactSynchronizerException) e.getCause();
+                }
+                throw new ArtifactSynchronizerException("Error while retrieving the artifacts of tenant "
+                        + tenantDomain, e.getCause());
+            }
+        } finally {
+            retrievalExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Brings the APIs deployed from the artifact snapshot up to date with the current artifacts. APIs whose artifacts
+     * are unchanged are kept as they are, while APIs which are changed or no longer deployed in this gateway are
+     * undeployed, and the changed and new APIs are deployed.
+     *
+     * @param apiGatewayAdmin         gateway admin used to deploy the APIs
+     * @param snapshotArtifacts       artifacts in the snapshot by API UUID, which are already deployed
+     * @param gatewayRuntimeArtifacts current artifacts of the APIs
+     * @param tenantDomain            tenant domain of the APIs
+     * @param retrievalTime           time taken to retrieve the current artifacts, in nanoseconds
+     * @param deployedArtifacts       map to which the deployed artifacts are added by API UUID
+     * @return number of APIs which were not deployed due to errors
+     * @throws InterruptedException if the thread is interrupted while deploying the artifacts
+     */
+    private int deployChangedArtifacts(APIGatewayAdmin apiGatewayAdmin, Map<String, String> snapshotArtifacts,
+                                       List<String> gatewayRuntimeArtifacts, String tenantDomain,
+                                       long retrievalTime, Map<String, String> deployedArtifacts)
+            throws InterruptedException {
+
+        Map<String, String> snapshotApiIds = new HashMap<>();
+        for (Map.Entry<String, String> snapshotArtifact : snapshotArtifacts.entrySet()) {
+            snapshotApiIds.put(snapshotArtifact.getValue(), snapshotArtifact.getKey());
+        }
+        List<String> changedArtifacts = new ArrayList<>();
+        for (String runtimeArtifact : gatewayRuntimeArtifacts) {
+            String apiId = snapshotApiIds.get(runtimeArtifact);
+            if (apiId != null) {
+                deployedArtifacts.put(apiId, runtimeArtifact);
+            } else if (StringUtils.isNotEmpty(runtimeArtifact)) {
+                changedArtifacts.add(runtimeArtifact);
+            }
+        }
+        for (Map.Entry<String, String> snapshotArtifact : snapshotArtifacts.entrySet()) {
+            if (!deployedArtifacts.containsKey(snapshotArtifact.getKey())) {
+                unDeploySnapshotArtifact(apiGatewayAdmin, snapshotArtifact.getValue());
+            }
+        }
+        log.info((gatewayRuntimeArtifacts.size() - changedArtifacts.size()) + " APIs of tenant " + tenantDomain
+                + " are unchanged since the artifact snapshot. Deploying " + changedArtifacts.size()
+                + " changed APIs");
+        return deployArtifacts(apiGatewayAdmin, changedArtifacts, tenantDomain, retrievalTime, deployedArtifacts);
+    }
+
+    /**
+     * Undeploys an API which was deployed from the artifact snapshot, by removing the artifacts added by it.
+     *
+     * @param apiGatewayAdmin gateway admin used to undeploy the API
+     * @param runtimeArtifact artifact of the API in the snapshot
+     */
+    private void unDeploySnapshotArtifact(APIGatewayAdmin apiGatewayAdmin, String runtimeArtifact) {
+
+        GatewayAPIDTO gatewayAPIDTO = gson.fromJson(runtimeArtifact, GatewayAPIDTO.class);
+        gatewayAPIDTO.setSequencesToBeRemove(getNames(gatewayAPIDTO.getSequenceToBeAdd()));
+        gatewayAPIDTO.setLocalEntriesToBeRemove(getNames(gatewayAPIDTO.getLocalEntriesToBeAdd()));
+        gatewayAPIDTO.setEndpointEntriesToBeRemove(getNames(gatewayAPIDTO.getEndpointEntriesToBeAdd()));
+        gatewayAPIDTO.setClientCertificatesToBeRemove(getNames(gatewayAPIDTO.getClientCertificatesToBeAdd()));
+        if (gatewayAPIDTO.getCredentialsToBeAdd() != null) {
+            List<String> aliases = new ArrayList<>();
+            for (CredentialDto credential : gatewayAPIDTO.getCredentialsToBeAdd()) {
+                aliases.add(credential.getAlias());
+            }
+            gatewayAPIDTO.setCredentialsToBeRemove(aliases.toArray(new String[0]));
+        }
+        synchronized (DEPLOYMENT_LOCK) {
+            try {
+                apiGatewayAdmin.unDeployAPI(gatewayAPIDTO);
+            } catch (AxisFault axisFault) {
+                log.error("Error in undeploying " + gatewayAPIDTO.getName() + " deployed from the artifact snapshot",
+                        axisFault);
+            }
+            DataHolder.getInstance().getApiToCertificatesMap().remove(gatewayAPIDTO.getApiId());
+            DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().remove(gatewayAPIDTO.getApiId());
+            DataHolder.getInstance().removeKeyManagerToAPIMapping(gatewayAPIDTO.getApiId());
+        }
+    }
+
+    private static String[] getNames(GatewayContentDTO[] gatewayContentDTOs) {
+
+        if (gatewayContentDTOs == null) {
+            return null;
+        }
+        String[] names = new String[gatewayContentDTOs.length];
+        for (int i = 0; i < gatewayContentDTOs.length; i++) {
+            names[i] = gatewayContentDTOs[i].getName();
+        }
+        return names;
+    }
+
+    private GatewayArtifactSnapshot getArtifactSnapshot(String tenantDomain) {
+
+        if (!gatewayArtifactSynchronizerProperties.isArtifactSnapshotEnabled()) {
+            return null;
+        }
+        return GatewayArtifactSnapshot.getSnapshot(Paths.get(CarbonBaseUtils.getCarbonHome(), "repository", "data",
+                "gateway-artifact-snapshots", tenantDomain + ".snapshot"));
+    }
+
+    private Map<String, String> loadArtifactSnapshot(GatewayArtifactSnapshot artifactSnapshot) {
+
+        if (artifactSnapshot != null) {
+            try {
+                return artifactSnapshot.load();
+            } catch (IOException e) {
+                log.warn("Error while reading the artifact snapshot. APIs are deployed from the storage", e);
+            }
+        }
+        return new LinkedHashMap<>();
+    }
+
+    /**
+     * Parses the artifact of an API and prepares the parts of the API which can be built independent of the other
+     * APIs, without modifying the Synapse configuration.
+     *
+     * @param runtimeArtifact artifact of the API
+     * @return prepared API or null if the artifact is empty
+     */
+    private PreparedAPI prepareAPI(String runtimeArtifact) {
+
+        if (StringUtils.isEmpty(runtimeArtifact)) {
+            return null;
+        }
+        GatewayAPIDTO gatewayAPIDTO = gson.fromJson(runtimeArtifact, GatewayAPIDTO.class);
+        Map<String, OMElement> sequences = new HashMap<>();
+        if (gatewayAPIDTO.getSequenceToBeAdd() != null) {
+            for (GatewayContentDTO sequence : gatewayAPIDTO.getSequenceToBeAdd()) {
+                try {
+                    OMElement element = AXIOMUtil.stringToOM(sequence.getContent());
+                    // builds the element in this thread, as elements are otherwise built lazily when they are read
+                    element.build();
+                    sequences.put(sequence.getName(), element);
+                } catch (XMLStreamException e) {
+                    // the sequence is parsed again while deploying the API, which reports the error
+                    if (debugEnabled) {
+                        log.debug("Error while parsing sequence " + sequence.getName() + " of "
+                                + gatewayAPIDTO.getName(), e);
+                    }
+                }
+            }
+        }
+        return new PreparedAPI(runtimeArtifact, gatewayAPIDTO, sequences, createGraphQLSchemaDTO(gatewayAPIDTO));
+    }
+
+    private static long toMillis(long nanos) {
+
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
     private void unDeployAPI(APIGatewayAdmin apiGatewayAdmin, DeployAPIInGatewayEvent gatewayEvent)
             throws AxisFault {
+            OpenAPIValidatorCache.getInstance().invalidate(gatewayEvent.getUuid());
             if (gatewayArtifactSynchronizerProperties.isRetrieveFromStorageEnabled()) {
                 GatewayAPIDTO gatewayAPIDTO = new GatewayAPIDTO();
                 gatewayAPIDTO.setName(gatewayEvent.getName());
@@ -269,14 +581,26 @@ public class InMemoryAPIDeployer {
 
     public void unDeployAPI(DeployAPIInGatewayEvent gatewayEvent) throws ArtifactSynchronizerException {
 
-        try {
-            APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
-            MessageContext.setCurrentMessageContext(org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
-            unDeployAPI(apiGatewayAdmin, gatewayEvent);
-        } catch (AxisFault axisFault) {
-            throw new ArtifactSynchronizerException("Error while unDeploying api ", axisFault);
-        } finally {
-            MessageContext.destroyCurrentMessageContext();
+        synchronized (DEPLOYMENT_LOCK) {
+            try {
+                APIGatewayAdmin apiGatewayAdmin = new APIGatewayAdmin();
+                MessageContext.setCurrentMessageContext(
+                        org.wso2.carbon.apimgt.gateway.utils.GatewayUtils.createAxis2MessageContext());
+                unDeployAPI(apiGatewayAdmin, gatewayEvent);
+                GatewayArtifactSnapshot artifactSnapshot = getArtifactSnapshot(gatewayEvent.getTenantDomain());
+                if (artifactSnapshot != null) {
+                    try {
+                        artifactSnapshot.remove(gatewayEvent.getUuid());
+                    } catch (IOException e) {
+                        log.warn("Error while removing API " + gatewayEvent.getUuid()
+                                + " from the artifact snapshot", e);
+                    }
+                }
+            } catch (AxisFault axisFault) {
+                throw new ArtifactSynchronizerException("Error while unDeploying api ", axisFault);
+            } finally {
+                MessageContext.destroyCurrentMessageContext();
+            }
         }
     }
 
@@ -339,14 +663,21 @@ public class InMemoryAPIDeployer {
      */
     private void addDeployedGraphqlQLToAPI(GatewayAPIDTO gatewayAPIDTO) {
 
+        GraphQLSchemaDTO schemaDTO = createGraphQLSchemaDTO(gatewayAPIDTO);
+        if (schemaDTO != null) {
+            DataHolder.getInstance().addApiToGraphQLSchemaDTO(gatewayAPIDTO.getApiId(), schemaDTO);
+        }
+    }
+
+    private GraphQLSchemaDTO createGraphQLSchemaDTO(GatewayAPIDTO gatewayAPIDTO) {
+
         if (gatewayAPIDTO != null && gatewayAPIDTO.getGraphQLSchema() != null) {
-            String apiId = gatewayAPIDTO.getApiId();
             SchemaParser schemaParser = new SchemaParser();
             TypeDefinitionRegistry registry = schemaParser.parse(gatewayAPIDTO.getGraphQLSchema());
             GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
-            GraphQLSchemaDTO schemaDTO = new GraphQLSchemaDTO(schema, registry);
-            DataHolder.getInstance().addApiToGraphQLSchemaDTO(apiId, schemaDTO);
+            return new GraphQLSchemaDTO(schema, registry);
         }
+        return null;
     }
 
     private void setClientCertificatesToRemoveIntoGatewayDTO(GatewayAPIDTO gatewayDTO) {
@@ -398,4 +729,24 @@ public class InMemoryAPIDeployer {
             }
         }
     }
+
+    /**
+     * Parts of an API which are prepared before the API is registered in Synapse.
+     */
+    private static class PreparedAPI {
+
+        private final String runtimeArtifact;
+        private final GatewayAPIDTO gatewayAPIDTO;
+        private final Map<String, OMElement> sequences;
+        private final GraphQLSchemaDTO graphQLSchemaDTO;
+
+        PreparedAPI(String runtimeArtifact, GatewayAPIDTO gatewayAPIDTO, Map<String, OMElement> sequences,
+                    GraphQLSchemaDTO graphQLSchemaDTO) {
+
+            this.runtimeArtifact = runtimeArtifact;
+            this.gatewayAPIDTO = gatewayAPIDTO;
+            this.sequences = sequences;
+            this.graphQLSchemaDTO = graphQLSchemaDTO;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.dto;
+
+import java.io.Serializable;
+
+/**
+ * Backend JWT cached in the gateway JWT token cache, together with its expiry time, so that the token need not be
+ * decoded to check whether it is expired.
+ */
+public class BackendJWTCacheEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String token;
+    private final long expiryTime;
+
+    /**
+     * @param token      backend JWT
+     * @param expiryTime expiry time of the token in milliseconds
+     */
+    public BackendJWTCacheEntry(String token, long expiryTime) {
+
+        this.token = token;
+        this.expiryTime = expiryTime;
+    }
+
+    public String getToken() {
+
+        return token;
+    }
+
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+}
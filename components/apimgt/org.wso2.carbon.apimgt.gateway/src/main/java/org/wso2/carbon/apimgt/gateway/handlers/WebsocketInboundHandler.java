@@ -148,6 +148,7 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
         } else if ((msg instanceof CloseWebSocketFrame) || (msg instanceof PingWebSocketFrame)) {
             //remove inbound message context from data holder
             InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().remove(channelId);
+            InboundWebsocketProcessorUtil.flushThrottleEvents(inboundMessageContext);
             //if the inbound frame is a closed frame, throttling, analytics will not be published.
             ctx.fireChannelRead(msg);
         } else if (msg instanceof WebSocketFrame) {
@@ -159,6 +160,7 @@ public class WebsocketInboundHandler extends ChannelInboundHandlerAdapter {
                 if (responseDTO.isCloseConnection()) {
                     //remove inbound message context from data holder
                     InboundMessageContextDataHolder.getInstance().getInboundMessageContextMap().remove(channelId);
+                    InboundWebsocketProcessorUtil.flushThrottleEvents(inboundMessageContext);
                     if (log.isDebugEnabled()) {
                         log.debug("Error while handling Outbound Websocket frame. Closing connection for "
                                 + ctx.channel().toString());
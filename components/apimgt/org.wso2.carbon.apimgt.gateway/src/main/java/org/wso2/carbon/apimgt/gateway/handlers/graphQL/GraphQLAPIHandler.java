@@ -18,14 +18,8 @@
 package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
 
 import graphql.language.Definition;
-import graphql.language.Document;
 import graphql.language.OperationDefinition;
 import graphql.parser.InvalidSyntaxException;
-import graphql.parser.Parser;
-import graphql.schema.GraphQLFieldDefinition;
-import graphql.schema.GraphQLObjectType;
-import graphql.schema.GraphQLType;
-import graphql.validation.Validator;
 import org.apache.axiom.om.OMElement;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -37,7 +31,6 @@ import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.AbstractHandler;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
-import org.wso2.carbon.apimgt.common.gateway.graphql.QueryValidator;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.handlers.graphQL.utils.GraphQLProcessorUtil;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
@@ -47,10 +40,6 @@ import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
 import java.net.URLDecoder;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.HashMap;
-import java.util.Set;
 
 import static org.apache.axis2.Constants.Configuration.HTTP_METHOD;
 
@@ -63,14 +52,8 @@ public class GraphQLAPIHandler extends AbstractHandler {
     private static final String HTTP_VERB = "HTTP_VERB";
     private static final String UNICODE_TRANSFORMATION_FORMAT = "UTF-8";
     private static final Log log = LogFactory.getLog(GraphQLAPIHandler.class);
-    private GraphQLSchemaDTO graphQLSchemaDTO;
     private String apiUUID;
-    private QueryValidator queryValidator;
-
-    public GraphQLAPIHandler() {
-
-        queryValidator = new QueryValidator(new Validator());
-    }
+    private volatile GraphQLSchemaMetadata schemaMetadata;
 
     public String getApiUUID() {
 
@@ -91,7 +74,6 @@ public class GraphQLAPIHandler extends AbstractHandler {
                 return true;
             }
             String payload;
-            Parser parser = new Parser();
             org.apache.axis2.context.MessageContext axis2MC = ((Axis2MessageContext) messageContext).
                     getAxis2MessageContext();
             String requestPath = messageContext.getProperty(REST_SUB_REQUEST_PATH).toString();
@@ -120,13 +102,15 @@ public class GraphQLAPIHandler extends AbstractHandler {
             }
 
             // Validate payload with graphQLSchema
-            Document document = parser.parseDocument(payload);
+            GraphQLSchemaMetadata metadata = getSchemaMetadata();
+            GraphQLParsedQuery parsedQuery = metadata.getParsedQuery(payload);
+            messageContext.setProperty(GraphQLConstants.GRAPHQL_PARSED_QUERY, parsedQuery);
 
-            if (validatePayloadWithSchema(messageContext, document)) {
-                supportForBasicAndAuthentication(messageContext);
+            if (validatePayloadWithSchema(messageContext, parsedQuery)) {
+                supportForBasicAndAuthentication(messageContext, metadata);
 
                 // Extract the operation type and operations from the payload
-                for (Definition definition : document.getDefinitions()) {
+                for (Definition definition : parsedQuery.getDocument().getDefinitions()) {
                     if (definition instanceof OperationDefinition) {
                         OperationDefinition operation = (OperationDefinition) definition;
                         if (operation.getOperation() != null) {
@@ -135,8 +119,12 @@ public class GraphQLAPIHandler extends AbstractHandler {
                             messageContext.setProperty(HTTP_VERB, httpVerb);
                             ((Axis2MessageContext) messageContext).getAxis2MessageContext().setProperty(HTTP_METHOD,
                                     operation.getOperation().toString());
-                            String operationList = GraphQLProcessorUtil.getOperationList(operation,
-                                    graphQLSchemaDTO.getTypeDefinitionRegistry());
+                            String operationList = parsedQuery.getOperationList();
+                            if (operationList == null) {
+                                operationList = GraphQLProcessorUtil.getOperationList(operation,
+                                        metadata.getGraphQLSchemaDTO().getTypeDefinitionRegistry());
+                                parsedQuery.setOperationList(operationList);
+                            }
                             messageContext.setProperty(APIConstants.API_ELECTED_RESOURCE, operationList);
                             if (log.isDebugEnabled()) {
                                 log.debug("Operation list has been successfully added to elected property");
@@ -159,115 +147,55 @@ public class GraphQLAPIHandler extends AbstractHandler {
     }
 
     /**
-     * Support GraphQL APIs for basic,JWT  authentication, this method extract the scopes and operations from
-     * local Entry and set them to properties. If the operations have scopes, scopes operation mapping and scope
-     * role mappings are added to schema as additional types before adding them to local entry
+     * Support GraphQL APIs for basic,JWT  authentication, this method sets the scopes and operations extracted from
+     * local Entry to properties. If the operations have scopes, scopes operation mapping and scope role mappings are
+     * added to schema as additional types before adding them to local entry. The mappings are extracted once per
+     * deployed schema.
      *
      * @param messageContext message context of the request
+     * @param metadata       metadata of the GraphQL schema of the API
      */
-    private void supportForBasicAndAuthentication(MessageContext messageContext) {
-        @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-        HashMap<String, String> operationThrottlingMappingList = new HashMap<>();
-        @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
-        HashMap<String, Boolean> operationAuthSchemeMappingList = new HashMap<>();
-        HashMap<String, String> operationScopeMappingList = new HashMap<>();
-        HashMap<String, ArrayList<String>> scopeRoleMappingList = new HashMap<>();
-        String graphQLAccessControlPolicy = null;
-
-        if (graphQLSchemaDTO.getGraphQLSchema() != null) {
-            Set<GraphQLType> additionalTypes = graphQLSchemaDTO.getGraphQLSchema().getAdditionalTypes();
-            for (Object additionalType : additionalTypes.toArray()) {
-                if (additionalType instanceof GraphQLObjectType) {
-                    String additionalTypeName = ((GraphQLObjectType) additionalType).getName();
-                    if (additionalTypeName.startsWith(APIConstants.GRAPHQL_ADDITIONAL_TYPE_PREFIX)) {
-                        ArrayList<String> roleArrayList = new ArrayList<>();
-                        String[] additionalTypeNameArray = additionalTypeName.split("_", 2);
-                        String typeValue;
-                        if (additionalTypeNameArray.length > 1) {
-                            typeValue = additionalTypeNameArray[1];
-                        } else {
-                            typeValue = additionalTypeNameArray[0];
-                        }
-
-                        String base64DecodedTypeValue = new String(Base64.getUrlDecoder().decode(typeValue));
-                        for (GraphQLFieldDefinition fieldDefinition : ((GraphQLObjectType) additionalType)
-                                .getFieldDefinitions()) {
-                            if (additionalTypeName.contains(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY)) {
-                                graphQLAccessControlPolicy = new String(
-                                        Base64.getUrlDecoder().decode(fieldDefinition.getName()));
-                            }
-                            // Fill in each list according to the relevant field definition
-                            setMappingList(additionalTypeName, base64DecodedTypeValue, fieldDefinition,
-                                    operationThrottlingMappingList, operationAuthSchemeMappingList,
-                                    operationScopeMappingList, roleArrayList);
-                        }
-                        if (!roleArrayList.isEmpty()) {
-                            scopeRoleMappingList.put(base64DecodedTypeValue, roleArrayList);
-                            if (log.isDebugEnabled()) {
-                                log.debug("Added scope " + base64DecodedTypeValue + "with role list " + String
-                                        .join(",", roleArrayList));
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        messageContext.setProperty(APIConstants.SCOPE_ROLE_MAPPING, scopeRoleMappingList);
-        messageContext.setProperty(APIConstants.SCOPE_OPERATION_MAPPING, operationScopeMappingList);
-        messageContext.setProperty(APIConstants.OPERATION_THROTTLING_MAPPING, operationThrottlingMappingList);
-        messageContext.setProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING, operationAuthSchemeMappingList);
-        messageContext.setProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY, graphQLAccessControlPolicy);
+    private void supportForBasicAndAuthentication(MessageContext messageContext, GraphQLSchemaMetadata metadata) {
+
+        messageContext.setProperty(APIConstants.SCOPE_ROLE_MAPPING, metadata.getScopeRoleMapping());
+        messageContext.setProperty(APIConstants.SCOPE_OPERATION_MAPPING, metadata.getOperationScopeMapping());
+        messageContext.setProperty(APIConstants.OPERATION_THROTTLING_MAPPING, metadata.getOperationThrottlingMapping());
+        messageContext.setProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING,
+                metadata.getOperationAuthSchemeMapping());
+        messageContext.setProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY,
+                metadata.getGraphQLAccessControlPolicy());
         messageContext.setProperty(APIConstants.API_TYPE, GRAPHQL_API);
-        messageContext.setProperty(APIConstants.GRAPHQL_SCHEMA, graphQLSchemaDTO.getGraphQLSchema());
+        messageContext.setProperty(APIConstants.GRAPHQL_SCHEMA, metadata.getGraphQLSchemaDTO().getGraphQLSchema());
     }
 
-    private void setMappingList(String additionalTypeName, String base64DecodedTypeValue,
-            GraphQLFieldDefinition fieldDefinition, HashMap<String, String> operationThrottlingMappingList,
-            HashMap<String, Boolean> operationAuthSchemeMappingList, HashMap<String, String> operationScopeMappingList,
-            ArrayList<String> roleArrayList) {
+    /**
+     * Returns the metadata of the GraphQL schema of the API. The metadata is built again only if the schema has been
+     * redeployed.
+     *
+     * @return metadata of the GraphQL schema
+     */
+    private GraphQLSchemaMetadata getSchemaMetadata() {
 
-        String base64DecodedURLTypeName = new String(Base64.getUrlDecoder().decode(fieldDefinition.getName()));
-        if (additionalTypeName.contains(APIConstants.SCOPE_ROLE_MAPPING)) {
-            roleArrayList.add(base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added scope " + base64DecodedTypeValue + "with role " + base64DecodedURLTypeName);
-            }
-        } else if (additionalTypeName.contains(APIConstants.SCOPE_OPERATION_MAPPING)) {
-            operationScopeMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with scope " + base64DecodedURLTypeName);
-            }
-        } else if (additionalTypeName.contains(APIConstants.OPERATION_THROTTLING_MAPPING)) {
-            operationThrottlingMappingList.put(base64DecodedTypeValue, base64DecodedURLTypeName);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with throttling " + base64DecodedURLTypeName);
-            }
-        } else if (additionalTypeName.contains(APIConstants.OPERATION_AUTH_SCHEME_MAPPING)) {
-            boolean isSecurityEnabled = true;
-            if (APIConstants.OPERATION_SECURITY_DISABLED.equalsIgnoreCase(fieldDefinition.getName())) {
-                isSecurityEnabled = false;
-            }
-            operationAuthSchemeMappingList.put(base64DecodedTypeValue, isSecurityEnabled);
-            if (log.isDebugEnabled()) {
-                log.debug("Added operation " + base64DecodedTypeValue + "with security " + isSecurityEnabled);
-            }
+        // Get GraphQL schema data from gateway internal data holder
+        GraphQLSchemaDTO graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
+        GraphQLSchemaMetadata metadata = schemaMetadata;
+        if (metadata == null || metadata.getGraphQLSchemaDTO() != graphQLSchemaDTO) {
+            metadata = new GraphQLSchemaMetadata(graphQLSchemaDTO);
+            schemaMetadata = metadata;
         }
+        return metadata;
     }
 
     /**
      * This method validate the payload
      *
      * @param messageContext message context of the request
-     * @param document       graphQL schema of the request
+     * @param parsedQuery    parsed graphQL query of the request
      * @return true or false
      */
-    private boolean validatePayloadWithSchema(MessageContext messageContext, Document document) {
+    private boolean validatePayloadWithSchema(MessageContext messageContext, GraphQLParsedQuery parsedQuery) {
 
-        String validationErrorMessage;
-        // Get GraphQL schema data from gateway internal data holder
-        graphQLSchemaDTO = DataHolder.getInstance().getApiToGraphQLSchemaDTOMap().get(apiUUID);
-        validationErrorMessage = queryValidator.validatePayload(graphQLSchemaDTO.getGraphQLSchema(), document);
+        String validationErrorMessage = parsedQuery.getValidationErrorMessage();
         if (validationErrorMessage != null) {
             handleFailure(messageContext, validationErrorMessage);
             return false;
@@ -36,6 +36,7 @@ public class GraphQLConstants {
     public static final int GRAPHQL_INVALID_QUERY = 900422;
     public static final String GRAPHQL_API_FAILURE_HANDLER = "_graphql_failure_handler";
     public static final String GRAPHQL_INVALID_QUERY_MESSAGE = "INVALID QUERY";
+    public static final String GRAPHQL_PARSED_QUERY = "GRAPHQL_PARSED_QUERY";
 
     //GraphQL Constants related to GraphQL Subscription operations
     public static class SubscriptionConstants {
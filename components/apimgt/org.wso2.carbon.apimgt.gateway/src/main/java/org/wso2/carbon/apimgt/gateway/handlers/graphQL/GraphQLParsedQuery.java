@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import graphql.language.Document;
+import org.wso2.carbon.apimgt.common.gateway.dto.QueryAnalyzerResponseDTO;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A parsed and validated GraphQL query, together with the results of the analysis done on it. The depth and
+ * complexity analysis results are kept per limit, as the limits depend on the subscription of the request.
+ */
+public class GraphQLParsedQuery {
+
+    private final Document document;
+    private final String validationErrorMessage;
+    private final Map<Integer, QueryAnalyzerResponseDTO> depthAnalysisResults = new ConcurrentHashMap<>();
+    private final Map<Integer, QueryAnalyzerResponseDTO> complexityAnalysisResults = new ConcurrentHashMap<>();
+    private volatile String operationList;
+
+    public GraphQLParsedQuery(Document document, String validationErrorMessage) {
+
+        this.document = document;
+        this.validationErrorMessage = validationErrorMessage;
+    }
+
+    public Document getDocument() {
+
+        return document;
+    }
+
+    /**
+     * Returns the error of validating the query against the schema.
+     *
+     * @return validation error message, or null if the query is valid
+     */
+    public String getValidationErrorMessage() {
+
+        return validationErrorMessage;
+    }
+
+    public String getOperationList() {
+
+        return operationList;
+    }
+
+    public void setOperationList(String operationList) {
+
+        this.operationList = operationList;
+    }
+
+    public QueryAnalyzerResponseDTO getDepthAnalysisResult(int maxQueryDepth) {
+
+        return depthAnalysisResults.get(maxQueryDepth);
+    }
+
+    public void setDepthAnalysisResult(int maxQueryDepth, QueryAnalyzerResponseDTO responseDTO) {
+
+        depthAnalysisResults.put(maxQueryDepth, responseDTO);
+    }
+
+    public QueryAnalyzerResponseDTO getComplexityAnalysisResult(int maxQueryComplexity) {
+
+        return complexityAnalysisResults.get(maxQueryComplexity);
+    }
+
+    public void setComplexityAnalysisResult(int maxQueryComplexity, QueryAnalyzerResponseDTO responseDTO) {
+
+        complexityAnalysisResults.put(maxQueryComplexity, responseDTO);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import graphql.language.Document;
+import graphql.parser.Parser;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+import graphql.schema.GraphQLType;
+import graphql.validation.Validator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
+import org.wso2.carbon.apimgt.common.gateway.graphql.QueryValidator;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Authorization and throttling metadata of a deployed GraphQL schema. The operation to scope, role, throttling policy
+ * and auth scheme mappings are decoded once from the additional types of the schema and kept in unmodifiable maps,
+ * which are shared by all the requests of the API.
+ * <p>
+ * Also keeps a bounded LRU cache of the parsed and validated queries of the API, so that repeated queries are not
+ * parsed, validated and analysed again.
+ */
+public final class GraphQLSchemaMetadata {
+
+    private static final Log log = LogFactory.getLog(GraphQLSchemaMetadata.class);
+
+    static final int PARSED_QUERY_CACHE_SIZE = 1000;
+    static final int MAX_CACHEABLE_QUERY_LENGTH = 10000;
+
+    private final GraphQLSchemaDTO graphQLSchemaDTO;
+    private final Map<String, List<String>> scopeRoleMapping;
+    private final Map<String, String> operationScopeMapping;
+    private final Map<String, String> operationThrottlingMapping;
+    private final Map<String, Boolean> operationAuthSchemeMapping;
+    private final String graphQLAccessControlPolicy;
+    private final QueryValidator queryValidator = new QueryValidator(new Validator());
+    private final Map<String, GraphQLParsedQuery> parsedQueryCache;
+
+    public GraphQLSchemaMetadata(GraphQLSchemaDTO graphQLSchemaDTO) {
+
+        this.graphQLSchemaDTO = graphQLSchemaDTO;
+        Map<String, List<String>> scopeRoles = new HashMap<>();
+        Map<String, String> operationScopes = new HashMap<>();
+        Map<String, String> operationThrottling = new HashMap<>();
+        Map<String, Boolean> operationAuthSchemes = new HashMap<>();
+        String accessControlPolicy = null;
+
+        if (graphQLSchemaDTO.getGraphQLSchema() != null) {
+            for (GraphQLType additionalType : graphQLSchemaDTO.getGraphQLSchema().getAdditionalTypes()) {
+                if (!(additionalType instanceof GraphQLObjectType)) {
+                    continue;
+                }
+                String additionalTypeName = ((GraphQLObjectType) additionalType).getName();
+                if (!additionalTypeName.startsWith(APIConstants.GRAPHQL_ADDITIONAL_TYPE_PREFIX)) {
+                    continue;
+                }
+                List<String> roles = new ArrayList<>();
+                String[] additionalTypeNameArray = additionalTypeName.split("_", 2);
+                String typeValue = additionalTypeNameArray.length > 1 ? additionalTypeNameArray[1] :
+                        additionalTypeNameArray[0];
+                String decodedTypeValue = new String(Base64.getUrlDecoder().decode(typeValue));
+                for (GraphQLFieldDefinition fieldDefinition : ((GraphQLObjectType) additionalType)
+                        .getFieldDefinitions()) {
+                    String decodedFieldName = new String(Base64.getUrlDecoder().decode(fieldDefinition.getName()));
+                    if (additionalTypeName.contains(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY)) {
+                        accessControlPolicy = decodedFieldName;
+                    }
+                    if (additionalTypeName.contains(APIConstants.SCOPE_ROLE_MAPPING)) {
+                        roles.add(decodedFieldName);
+                    } else if (additionalTypeName.contains(APIConstants.SCOPE_OPERATION_MAPPING)) {
+                        operationScopes.put(decodedTypeValue, decodedFieldName);
+                    } else if (additionalTypeName.contains(APIConstants.OPERATION_THROTTLING_MAPPING)) {
+                        operationThrottling.put(decodedTypeValue, decodedFieldName);
+                    } else if (additionalTypeName.contains(APIConstants.OPERATION_AUTH_SCHEME_MAPPING)) {
+                        operationAuthSchemes.put(decodedTypeValue,
+                                !APIConstants.OPERATION_SECURITY_DISABLED.equalsIgnoreCase(fieldDefinition.getName()));
+                    }
+                }
+                if (!roles.isEmpty()) {
+                    scopeRoles.put(decodedTypeValue, Collections.unmodifiableList(roles));
+                }
+            }
+        }
+        this.scopeRoleMapping = Collections.unmodifiableMap(scopeRoles);
+        this.operationScopeMapping = Collections.unmodifiableMap(operationScopes);
+        this.operationThrottlingMapping = Collections.unmodifiableMap(operationThrottling);
+        this.operationAuthSchemeMapping = Collections.unmodifiableMap(operationAuthSchemes);
+        this.graphQLAccessControlPolicy = accessControlPolicy;
+        this.parsedQueryCache = Collections.synchronizedMap(
+                new LinkedHashMap<String, GraphQLParsedQuery>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, GraphQLParsedQuery> eldest) {
+                        return size() > PARSED_QUERY_CACHE_SIZE;
+                    }
+                });
+        if (log.isDebugEnabled()) {
+            log.debug("Built GraphQL schema metadata with " + operationThrottlingMapping.size() + " operations and "
+                    + scopeRoleMapping.size() + " scopes");
+        }
+    }
+
+    /**
+     * Returns the parsed and validated query from the cache, or parses and validates the query if it is not cached.
+     *
+     * @param query GraphQL query of the request
+     * @return parsed query
+     * @throws graphql.parser.InvalidSyntaxException if the query cannot be parsed
+     */
+    public GraphQLParsedQuery getParsedQuery(String query) {
+
+        boolean cacheable = query.length() <= MAX_CACHEABLE_QUERY_LENGTH;
+        if (cacheable) {
+            GraphQLParsedQuery parsedQuery = parsedQueryCache.get(query);
+            if (parsedQuery != null) {
+                return parsedQuery;
+            }
+        }
+        Document document = new Parser().parseDocument(query);
+        String validationErrorMessage = queryValidator.validatePayload(graphQLSchemaDTO.getGraphQLSchema(), document);
+        GraphQLParsedQuery parsedQuery = new GraphQLParsedQuery(document, validationErrorMessage);
+        if (cacheable) {
+            parsedQueryCache.put(query, parsedQuery);
+        }
+        return parsedQuery;
+    }
+
+    public GraphQLSchemaDTO getGraphQLSchemaDTO() {
+
+        return graphQLSchemaDTO;
+    }
+
+    public Map<String, List<String>> getScopeRoleMapping() {
+
+        return scopeRoleMapping;
+    }
+
+    public Map<String, String> getOperationScopeMapping() {
+
+        return operationScopeMapping;
+    }
+
+    public Map<String, String> getOperationThrottlingMapping() {
+
+        return operationThrottlingMapping;
+    }
+
+    public Map<String, Boolean> getOperationAuthSchemeMapping() {
+
+        return operationAuthSchemeMapping;
+    }
+
+    public String getGraphQLAccessControlPolicy() {
+
+        return graphQLAccessControlPolicy;
+    }
+
+    int getParsedQueryCacheSize() {
+
+        return parsedQueryCache.size();
+    }
+}
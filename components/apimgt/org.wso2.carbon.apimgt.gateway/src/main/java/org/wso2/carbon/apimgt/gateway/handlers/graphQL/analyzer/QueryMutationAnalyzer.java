@@ -31,6 +31,7 @@ import org.wso2.carbon.apimgt.common.gateway.graphql.FieldComplexityCalculatorIm
 import org.wso2.carbon.apimgt.common.gateway.graphql.QueryAnalyzer;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.handlers.graphQL.GraphQLConstants;
+import org.wso2.carbon.apimgt.gateway.handlers.graphQL.GraphQLParsedQuery;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 
 /**
@@ -54,7 +55,15 @@ public class QueryMutationAnalyzer extends QueryAnalyzer {
     public boolean analyseQueryMutationDepth(MessageContext messageContext, String payload) {
 
         int maxQueryDepth = getMaxQueryDepth(messageContext);
-        QueryAnalyzerResponseDTO responseDTO = analyseQueryDepth(maxQueryDepth, payload);
+        GraphQLParsedQuery parsedQuery = getParsedQuery(messageContext);
+        QueryAnalyzerResponseDTO responseDTO = parsedQuery != null ?
+                parsedQuery.getDepthAnalysisResult(maxQueryDepth) : null;
+        if (responseDTO == null) {
+            responseDTO = analyseQueryDepth(maxQueryDepth, payload);
+            if (parsedQuery != null) {
+                parsedQuery.setDepthAnalysisResult(maxQueryDepth, responseDTO);
+            }
+        }
         if (!responseDTO.isSuccess() && !responseDTO.getErrorList().isEmpty()) {
             handleFailure(GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP, messageContext,
                     GraphQLConstants.GRAPHQL_QUERY_TOO_DEEP_MESSAGE, responseDTO.getErrorList().toString());
@@ -96,17 +105,26 @@ public class QueryMutationAnalyzer extends QueryAnalyzer {
      */
     public boolean analyseQueryMutationComplexity(MessageContext messageContext, String payload) {
 
-        FieldComplexityCalculator fieldComplexityCalculator = null;
-        try {
-            fieldComplexityCalculator = new FieldComplexityCalculatorImpl((String) messageContext
-                    .getProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY));
-        } catch (ParseException e) {
-            String errorMessage = "Policy definition parsing failed. ";
-            handleFailure(GraphQLConstants.GRAPHQL_INVALID_QUERY, messageContext, errorMessage, errorMessage);
-        }
         int maxQueryComplexity = getMaxQueryComplexity(messageContext);
-        QueryAnalyzerResponseDTO responseDTO = analyseQueryComplexity(maxQueryComplexity, payload,
-                fieldComplexityCalculator);
+        GraphQLParsedQuery parsedQuery = getParsedQuery(messageContext);
+        QueryAnalyzerResponseDTO responseDTO = parsedQuery != null ?
+                parsedQuery.getComplexityAnalysisResult(maxQueryComplexity) : null;
+        if (responseDTO == null) {
+            FieldComplexityCalculator fieldComplexityCalculator = null;
+            try {
+                fieldComplexityCalculator = new FieldComplexityCalculatorImpl((String) messageContext
+                        .getProperty(APIConstants.GRAPHQL_ACCESS_CONTROL_POLICY));
+            } catch (ParseException e) {
+                String errorMessage = "Policy definition parsing failed. ";
+                handleFailure(GraphQLConstants.GRAPHQL_INVALID_QUERY, messageContext, errorMessage, errorMessage);
+            }
+            responseDTO = analyseQueryComplexity(maxQueryComplexity, payload, fieldComplexityCalculator);
+            // The access control policy is the same for all the queries of the API, hence the result is cached
+            // only if the policy could be parsed
+            if (parsedQuery != null && fieldComplexityCalculator != null) {
+                parsedQuery.setComplexityAnalysisResult(maxQueryComplexity, responseDTO);
+            }
+        }
         if (!responseDTO.isSuccess() && !responseDTO.getErrorList().isEmpty()) {
             handleFailure(GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX, messageContext,
                     GraphQLConstants.GRAPHQL_QUERY_TOO_COMPLEX_MESSAGE, responseDTO.getErrorList().toString());
@@ -139,6 +157,22 @@ public class QueryMutationAnalyzer extends QueryAnalyzer {
         }
     }
 
+    /**
+     * This method returns the parsed query of the request, which holds the analysis results of previous requests
+     * with the same query.
+     *
+     * @param messageContext message context of the request
+     * @return parsed query, or null if the query was not parsed by the GraphQL API handler
+     */
+    private GraphQLParsedQuery getParsedQuery(MessageContext messageContext) {
+
+        Object parsedQuery = messageContext.getProperty(GraphQLConstants.GRAPHQL_PARSED_QUERY);
+        if (parsedQuery instanceof GraphQLParsedQuery) {
+            return (GraphQLParsedQuery) parsedQuery;
+        }
+        return null;
+    }
+
     /**
      * This method handle the query mutation analysis failures.
      *
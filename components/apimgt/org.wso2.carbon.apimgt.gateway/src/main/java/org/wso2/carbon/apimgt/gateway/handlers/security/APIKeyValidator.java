@@ -85,6 +85,8 @@ public class APIKeyValidator {
 
     private ArrayList<URITemplate> uriTemplates = null;
 
+    private volatile APIResourceIndex resourceIndex = null;
+
     public APIKeyValidator() {
 
         this.dataStore = new WSAPIKeyDataStore();
@@ -445,6 +447,13 @@ public class APIKeyValidator {
             apiInfoDTO = (APIInfoDTO) getResourceCache().get(apiCacheKey);
         }
 
+        if (apiInfoDTO == null && resourceIndex != null) {
+            apiInfoDTO = resourceIndex.getApiInfoDTO();
+            if (isGatewayAPIResourceValidationEnabled) {
+                getResourceCache().put(apiCacheKey, apiInfoDTO);
+            }
+        }
+
         //Cache miss
         if (apiInfoDTO == null) {
             if (log.isDebugEnabled()) {
@@ -464,25 +473,24 @@ public class APIKeyValidator {
             }
         }
         if (apiInfoDTO.getResources() != null) {
-            for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
-                Set<VerbInfoDTO> verbDTOList = resourceInfoDTO.getHttpVerbs();
-                for (VerbInfoDTO verb : verbDTOList) {
-                    if (verb.getHttpVerb().equals(httpMethod)) {
-                        for (String resourceString : resourceArray) {
-                            if (isResourcePathMatching(resourceString, resourceInfoDTO)) {
-                                resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
-                                        resourceString, httpMethod);
-                                verb.setRequestKey(resourceCacheKey);
-                                verbInfoList.add(verb);
-                                if (isGatewayAPIResourceValidationEnabled) {
-                                    //Store verb in cache
-                                    //Set cache key in the message c\ontext so that it can be used by the subsequent handlers.
-                                    if (log.isDebugEnabled()) {
-                                        log.debug("Putting resource object in cache with key: " + resourceCacheKey);
-                                    }
-                                    getResourceCache().put(resourceCacheKey, verb);
-                                    synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
+            APIResourceIndex apiResourceIndex = getResourceIndex(apiInfoDTO);
+            for (String resourceString : resourceArray) {
+                for (ResourceInfoDTO resourceInfoDTO : apiResourceIndex.getResourcesByPattern(resourceString)) {
+                    Set<VerbInfoDTO> verbDTOList = resourceInfoDTO.getHttpVerbs();
+                    for (VerbInfoDTO verb : verbDTOList) {
+                        if (verb.getHttpVerb().equals(httpMethod)) {
+                            resourceCacheKey = APIUtil.getResourceInfoDTOCacheKey(apiContext, apiVersion,
+                                    resourceString, httpMethod);
+                            verb.setRequestKey(resourceCacheKey);
+                            verbInfoList.add(verb);
+                            if (isGatewayAPIResourceValidationEnabled) {
+                                //Store verb in cache
+                                //Set cache key in the message c\ontext so that it can be used by the subsequent handlers.
+                                if (log.isDebugEnabled()) {
+                                    log.debug("Putting resource object in cache with key: " + resourceCacheKey);
                                 }
+                                getResourceCache().put(resourceCacheKey, verb);
+                                synCtx.setProperty(APIConstants.API_RESOURCE_CACHE_KEY, resourceCacheKey);
                             }
                         }
                     }
@@ -509,24 +517,6 @@ public class APIKeyValidator {
         return requestPath;
     }
 
-    private boolean isResourcePathMatching(String resourceString, ResourceInfoDTO resourceInfoDTO) {
-        String resource = resourceString.trim();
-        String urlPattern = resourceInfoDTO.getUrlPattern().trim();
-
-        if (resource.equalsIgnoreCase(urlPattern)) {
-            return true;
-        }
-
-        // If the urlPattern is only one character longer than the resource and the urlPattern ends with a '/'
-        if (resource.length() + 1 == urlPattern.length() && urlPattern.endsWith("/")) {
-            // Check if resource is equal to urlPattern if the trailing '/' of the urlPattern is ignored
-            String urlPatternWithoutSlash = urlPattern.substring(0, urlPattern.length() - 1);
-            return resource.equalsIgnoreCase(urlPatternWithoutSlash);
-        }
-
-        return false;
-    }
-
     @MethodStats
     private APIInfoDTO doGetAPIInfo(MessageContext messageContext, String context, String apiVersion) throws APISecurityException {
         ArrayList<URITemplate> uriTemplates = getAllURITemplates(messageContext, context, apiVersion);
@@ -595,102 +585,47 @@ public class APIKeyValidator {
             apiInfoDTO = (APIInfoDTO) getResourceCache().get(cacheKey);
         }
         if (apiInfoDTO == null) {
-            apiInfoDTO = doGetAPIInfo(messageContext, context, apiVersion);
+            apiInfoDTO = resourceIndex != null ? resourceIndex.getApiInfoDTO() :
+                    doGetAPIInfo(messageContext, context, apiVersion);
             if (isGatewayAPIResourceValidationEnabled) {
                 getResourceCache().put(cacheKey, apiInfoDTO);
             }
         }
 
-        //Match the case where the direct api context is matched
-        if ("/".equals(requestPath)) {
-            String requestCacheKey = context + '/' + apiVersion + requestPath + ':' + httpMethod;
-
-            //Get decision from cache.
-            VerbInfoDTO matchingVerb = null;
-            if (isGatewayAPIResourceValidationEnabled) {
-                matchingVerb = (VerbInfoDTO) getResourceCache().get(requestCacheKey);
-            }
-            //On a cache hit
-            if (matchingVerb != null) {
-                matchingVerb.setRequestKey(requestCacheKey);
-                return matchingVerb;
-            } else {
-                if (apiInfoDTO.getResources() != null) {
-                    for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
-                        String urlPattern = resourceInfoDTO.getUrlPattern();
-
-                        //If the request patch is '/', it can only be matched with a resource whose url-context is '/*'
-                        if ("/*".equals(urlPattern)) {
-                            for (VerbInfoDTO verbDTO : resourceInfoDTO.getHttpVerbs()) {
-                                if (verbDTO.getHttpVerb().equals(httpMethod)) {
-                                    //Store verb in cache
-                                    if (isGatewayAPIResourceValidationEnabled) {
-                                        getResourceCache().put(requestCacheKey, verbDTO);
-                                    }
-                                    verbDTO.setRequestKey(requestCacheKey);
-                                    return verbDTO;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        //Remove the ending '/' from request, keeping the root path as it is
+        if (!"/".equals(requestPath)) {
+            requestPath = RESTUtils.trimTrailingSlashes(requestPath);
         }
+        if (requestPath.isEmpty()) {
+            //nothing found. return the highest level of security
+            return null;
+        }
+        VerbInfoDTO matchingVerb = getResourceIndex(apiInfoDTO).findVerb(requestPath, httpMethod);
+        if (matchingVerb != null) {
+            matchingVerb.setRequestKey(context + '/' + apiVersion + requestPath + ':' + httpMethod);
+        }
+        return matchingVerb;
+    }
 
-        //Remove the ending '/' from request
-        requestPath = RESTUtils.trimTrailingSlashes(requestPath);
-
-        while (requestPath.length() > 1) {
-
-            String requestCacheKey = context + '/' + apiVersion + requestPath + ':' + httpMethod;
-
-            //Get decision from cache.
-            VerbInfoDTO matchingVerb = null;
-            if (isGatewayAPIResourceValidationEnabled) {
-                matchingVerb = (VerbInfoDTO) getResourceCache().get(requestCacheKey);
-            }
-
-            //On a cache hit
-            if (matchingVerb != null) {
-                matchingVerb.setRequestKey(requestCacheKey);
-                return matchingVerb;
-            }
-            //On a cache miss
-            else {
-                for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
-                    String urlPattern = resourceInfoDTO.getUrlPattern();
-                    if (urlPattern.endsWith("/*")) {
-                        //Remove the ending '/*'
-                        urlPattern = urlPattern.substring(0, urlPattern.length() - 2);
-                    }
-                    //If the urlPattern ends with a '/', remove that as well.
-                    urlPattern = RESTUtils.trimTrailingSlashes(urlPattern);
-
-                    if (requestPath.endsWith(urlPattern)) {
+    /**
+     * Returns the routing index of the resources of this API. Since an APIKeyValidator instance belongs to a single
+     * deployed API revision, the index is built only once per revision.
+     *
+     * @param apiInfoDTO API info to build the index from
+     * @return APIResourceIndex of the API
+     */
+    private APIResourceIndex getResourceIndex(APIInfoDTO apiInfoDTO) {
 
-                        for (VerbInfoDTO verbDTO : resourceInfoDTO.getHttpVerbs()) {
-                            if (verbDTO.getHttpVerb().equals(httpMethod)) {
-                                //Store verb in cache
-                                if (isGatewayAPIResourceValidationEnabled) {
-                                    getResourceCache().put(requestCacheKey, verbDTO);
-                                }
-                                verbDTO.setRequestKey(requestCacheKey);
-                                return verbDTO;
-                            }
-                        }
-                    }
+        if (resourceIndex == null) {
+            synchronized (this) {
+                if (resourceIndex == null) {
+                    resourceIndex = new APIResourceIndex(apiInfoDTO);
                 }
             }
-
-            //Remove the section after the last occurrence of the '/' character
-            int index = requestPath.lastIndexOf('/');
-            requestPath = requestPath.substring(0, index <= 0 ? 0 : index);
         }
-        //nothing found. return the highest level of security
-        return null;
+        return resourceIndex;
     }
 
-
     @MethodStats
     protected ArrayList<URITemplate> getAllURITemplates(MessageContext messageContext, String context, String apiVersion)
             throws APISecurityException {
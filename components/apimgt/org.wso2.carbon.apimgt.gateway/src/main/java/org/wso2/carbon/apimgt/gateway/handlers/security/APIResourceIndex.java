@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Precompiled routing index of the resources of an API revision. The index is built once from the
+ * {@link APIInfoDTO} of the API and is immutable afterwards, so it can be shared between threads without locking.
+ * <p>
+ * Request paths are matched against a path segment trie in which a segment is either a literal, a URI template
+ * variable (eg: {id}) matching exactly one segment or a trailing wildcard (/*) matching the remainder of the path.
+ * Literal segments take precedence over variables and variables take precedence over wildcards, hence the lookup
+ * cost is proportional to the depth of the request path rather than the number of resources of the API.
+ */
+public class APIResourceIndex {
+
+    private static final String WILDCARD = "*";
+
+    private final APIInfoDTO apiInfoDTO;
+    private final Node root = new Node();
+    private final Map<String, List<ResourceInfoDTO>> resourcesByPattern = new HashMap<>();
+
+    public APIResourceIndex(APIInfoDTO apiInfoDTO) {
+
+        this.apiInfoDTO = apiInfoDTO;
+        if (apiInfoDTO.getResources() != null) {
+            for (ResourceInfoDTO resourceInfoDTO : apiInfoDTO.getResources()) {
+                addResource(resourceInfoDTO);
+            }
+        }
+    }
+
+    /**
+     * Returns the API info this index was built from.
+     *
+     * @return APIInfoDTO of the API
+     */
+    public APIInfoDTO getApiInfoDTO() {
+
+        return apiInfoDTO;
+    }
+
+    /**
+     * Finds the verb of the resource template that matches the given request path.
+     *
+     * @param requestPath request path relative to the API context and version
+     * @param httpMethod  http method of the request
+     * @return matching VerbInfoDTO or null if no resource matches the request
+     */
+    public VerbInfoDTO findVerb(String requestPath, String httpMethod) {
+
+        if (requestPath == null || httpMethod == null) {
+            return null;
+        }
+        int queryIndex = requestPath.indexOf('?');
+        int end = queryIndex >= 0 ? queryIndex : requestPath.length();
+        return match(root, requestPath, 0, end, httpMethod);
+    }
+
+    /**
+     * Returns the resources whose url pattern matches the resource string elected by Synapse. The trailing '/' of
+     * the url pattern is ignored and the comparison is case insensitive.
+     *
+     * @param resourceString elected resource string
+     * @return list of matching resources, empty if none matches
+     */
+    public List<ResourceInfoDTO> getResourcesByPattern(String resourceString) {
+
+        if (resourceString == null) {
+            return Collections.emptyList();
+        }
+        List<ResourceInfoDTO> resources = resourcesByPattern.get(resourceString.trim().toLowerCase(Locale.ENGLISH));
+        return resources != null ? resources : Collections.<ResourceInfoDTO>emptyList();
+    }
+
+    private void addResource(ResourceInfoDTO resourceInfoDTO) {
+
+        String urlPattern = resourceInfoDTO.getUrlPattern();
+        if (urlPattern == null) {
+            return;
+        }
+        urlPattern = urlPattern.trim();
+        String patternKey = urlPattern.toLowerCase(Locale.ENGLISH);
+        addPatternKey(patternKey, resourceInfoDTO);
+        if (patternKey.length() > 1 && patternKey.endsWith("/")) {
+            addPatternKey(patternKey.substring(0, patternKey.length() - 1), resourceInfoDTO);
+        }
+
+        Node node = root;
+        boolean wildcard = false;
+        String[] segments = getPathTemplate(urlPattern).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (WILDCARD.equals(segment) && i == segments.length - 1) {
+                wildcard = true;
+                break;
+            }
+            if (isTemplateVariable(segment)) {
+                if (node.variableChild == null) {
+                    node.variableChild = new Node();
+                }
+                node = node.variableChild;
+            } else {
+                Node child = node.literalChildren.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.literalChildren.put(segment, child);
+                }
+                node = child;
+            }
+        }
+        Map<String, VerbInfoDTO> verbs = wildcard ? node.wildcardVerbs : node.verbs;
+        if (resourceInfoDTO.getHttpVerbs() != null) {
+            for (VerbInfoDTO verbInfoDTO : resourceInfoDTO.getHttpVerbs()) {
+                // Keep the first declared resource when two templates collapse to the same trie path
+                if (verbInfoDTO.getHttpVerb() != null && !verbs.containsKey(verbInfoDTO.getHttpVerb())) {
+                    verbs.put(verbInfoDTO.getHttpVerb(), verbInfoDTO);
+                }
+            }
+        }
+    }
+
+    private void addPatternKey(String patternKey, ResourceInfoDTO resourceInfoDTO) {
+
+        List<ResourceInfoDTO> resources = resourcesByPattern.get(patternKey);
+        if (resources == null) {
+            resources = new ArrayList<>(1);
+            resourcesByPattern.put(patternKey, resources);
+        }
+        if (!resources.contains(resourceInfoDTO)) {
+            resources.add(resourceInfoDTO);
+        }
+    }
+
+    /**
+     * Strips the query template (eg: ?status={status} or {?status}) of a url pattern, as the trie only matches the
+     * path of the requests.
+     */
+    private static String getPathTemplate(String urlPattern) {
+
+        int queryIndex = urlPattern.indexOf("{?");
+        if (queryIndex < 0) {
+            queryIndex = urlPattern.indexOf('?');
+        }
+        return queryIndex >= 0 ? urlPattern.substring(0, queryIndex) : urlPattern;
+    }
+
+    private static boolean isTemplateVariable(String segment) {
+
+        return segment.indexOf('{') >= 0 || WILDCARD.equals(segment);
+    }
+
+    private static VerbInfoDTO match(Node node, String path, int start, int end, String httpMethod) {
+
+        // Skip the '/' characters separating the segments
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+        if (start >= end) {
+            VerbInfoDTO verbInfoDTO = node.verbs.get(httpMethod);
+            return verbInfoDTO != null ? verbInfoDTO : node.wildcardVerbs.get(httpMethod);
+        }
+        int segmentEnd = path.indexOf('/', start);
+        if (segmentEnd < 0 || segmentEnd > end) {
+            segmentEnd = end;
+        }
+        if (!node.literalChildren.isEmpty()) {
+            Node child = node.literalChildren.get(path.substring(start, segmentEnd));
+            if (child != null) {
+                VerbInfoDTO verbInfoDTO = match(child, path, segmentEnd, end, httpMethod);
+                if (verbInfoDTO != null) {
+                    return verbInfoDTO;
+                }
+            }
+        }
+        if (node.variableChild != null) {
+            VerbInfoDTO verbInfoDTO = match(node.variableChild, path, segmentEnd, end, httpMethod);
+            if (verbInfoDTO != null) {
+                return verbInfoDTO;
+            }
+        }
+        return node.wildcardVerbs.get(httpMethod);
+    }
+
+    private static class Node {
+
+        private final Map<String, Node> literalChildren = new HashMap<>();
+        private final Map<String, VerbInfoDTO> verbs = new HashMap<>(4);
+        private final Map<String, VerbInfoDTO> wildcardVerbs = new HashMap<>(4);
+        private Node variableChild;
+    }
+}
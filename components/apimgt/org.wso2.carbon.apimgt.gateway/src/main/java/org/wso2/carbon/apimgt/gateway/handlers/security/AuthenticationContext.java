@@ -16,6 +16,7 @@
 
 package org.wso2.carbon.apimgt.gateway.handlers.security;
 
+import org.wso2.carbon.apimgt.common.gateway.util.ParsedJWT;
 import org.wso2.carbon.apimgt.gateway.MethodStats;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +36,7 @@ public class AuthenticationContext {
     private String apiKey;
     private String keyType;
     private String callerToken;
+    private ParsedJWT parsedCallerToken;
     private String applicationId;
     private String applicationUUID;
     private String applicationName;
@@ -146,6 +148,21 @@ public class AuthenticationContext {
 
     public void setCallerToken(String callerToken) {
         this.callerToken = callerToken;
+        this.parsedCallerToken = null;
+    }
+
+    /**
+     * Returns the caller token, whose claims are decoded once and shared by all the handlers of the request.
+     *
+     * @return the parsed caller token, or null if there is no caller token
+     */
+    public ParsedJWT getParsedCallerToken() {
+        ParsedJWT parsedToken = parsedCallerToken;
+        if (parsedToken == null && callerToken != null) {
+            parsedToken = new ParsedJWT(callerToken);
+            parsedCallerToken = parsedToken;
+        }
+        return parsedToken;
     }
 
     public String getApplicationTier() {
@@ -47,7 +47,6 @@ import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
 import java.util.List;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.TreeMap;
 import java.util.Map;
 
@@ -138,10 +137,10 @@ public class BasicAuthAuthenticator implements Authenticator {
         List<VerbInfoDTO> verbInfoList;
 
         if (APIConstants.GRAPHQL_API.equals(synCtx.getProperty(APIConstants.API_TYPE))) {
-            HashMap<String, Boolean> operationAuthSchemeMappingList =
-                    (HashMap<String, Boolean>) synCtx.getProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING);
-            HashMap<String, String> operationThrottlingMappingList =
-                    (HashMap<String, String>) synCtx.getProperty(APIConstants.OPERATION_THROTTLING_MAPPING);
+            Map<String, Boolean> operationAuthSchemeMappingList =
+                    (Map<String, Boolean>) synCtx.getProperty(APIConstants.OPERATION_AUTH_SCHEME_MAPPING);
+            Map<String, String> operationThrottlingMappingList =
+                    (Map<String, String>) synCtx.getProperty(APIConstants.OPERATION_THROTTLING_MAPPING);
 
             String[] operationList = matchingResource.split(",");
             verbInfoList = new ArrayList<>(1);
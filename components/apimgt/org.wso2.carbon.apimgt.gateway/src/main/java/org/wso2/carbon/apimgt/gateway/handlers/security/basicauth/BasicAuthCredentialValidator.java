@@ -50,7 +50,6 @@ import java.nio.charset.StandardCharsets;
 import java.rmi.RemoteException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -253,7 +252,7 @@ public class BasicAuthCredentialValidator {
                 return true;
             }
         } else if (APIConstants.GRAPHQL_API.equals(synCtx.getProperty(APIConstants.API_TYPE))) {
-            HashMap<String, String> operationScopeMappingList = (HashMap<String, String>) synCtx
+            Map<String, String> operationScopeMappingList = (Map<String, String>) synCtx
                     .getProperty(APIConstants.SCOPE_OPERATION_MAPPING);
             String[] operationList = ((String) synCtx.getProperty(APIConstants.API_ELECTED_RESOURCE)).split(",");
             for (String operation : operationList) {
@@ -34,6 +34,7 @@ import org.wso2.carbon.apimgt.common.gateway.exception.JWTGeneratorException;
 import org.wso2.carbon.apimgt.common.gateway.jwtgenerator.AbstractAPIMgtGatewayJWTGenerator;
 import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
 import org.wso2.carbon.apimgt.gateway.MethodStats;
+import org.wso2.carbon.apimgt.gateway.dto.BackendJWTCacheEntry;
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.handlers.graphQL.GraphQLConstants;
 import org.wso2.carbon.apimgt.gateway.handlers.security.APIKeyValidator;
@@ -275,20 +276,19 @@ public class JWTValidator {
         String jwtTokenCacheKey = jwtInfoDto.getApiContext().concat(":").concat(jwtInfoDto.getVersion()).concat(":")
                 .concat(tokenSignature);
         if (isGatewayTokenCacheEnabled) {
-            Object token = getGatewayJWTTokenCache().get(jwtTokenCacheKey);
-            if (token != null) {
-                endUserToken = (String) token;
-                String[] splitToken = ((String) token).split("\\.");
-                JSONObject payload = new JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
-                long exp = payload.getLong("exp") * 1000L;
+            Object cacheEntry = getGatewayJWTTokenCache().get(jwtTokenCacheKey);
+            if (cacheEntry instanceof BackendJWTCacheEntry) {
+                endUserToken = ((BackendJWTCacheEntry) cacheEntry).getToken();
                 long timestampSkew = getTimeStampSkewInSeconds() * 1000;
-                valid = (exp - System.currentTimeMillis() > timestampSkew);
+                valid = (((BackendJWTCacheEntry) cacheEntry).getExpiryTime() - System.currentTimeMillis()
+                        > timestampSkew);
             }
             if (StringUtils.isEmpty(endUserToken) || !valid) {
                 try {
                     includeUserStoreClaimsIntoClaims(jwtInfoDto);
                     endUserToken = apiMgtGatewayJWTGenerator.generateToken(jwtInfoDto);
-                    getGatewayJWTTokenCache().put(jwtTokenCacheKey, endUserToken);
+                    getGatewayJWTTokenCache().put(jwtTokenCacheKey,
+                            new BackendJWTCacheEntry(endUserToken, getExpiryTime(endUserToken)));
                 } catch (JWTGeneratorException e) {
                     log.error("Error while Generating Backend JWT", e);
                     throw new APISecurityException(APISecurityConstants.API_AUTH_GENERAL_ERROR,
@@ -308,6 +308,19 @@ public class JWTValidator {
         return endUserToken;
     }
 
+    /**
+     * Reads the expiry time of a generated backend JWT, once when it is added to the cache.
+     *
+     * @param token backend JWT
+     * @return expiry time in milliseconds
+     */
+    private long getExpiryTime(String token) {
+
+        String[] splitToken = token.split("\\.");
+        JSONObject payload = new JSONObject(new String(Base64.getUrlDecoder().decode(splitToken[1])));
+        return payload.getLong("exp") * 1000L;
+    }
+
     private void includeUserStoreClaimsIntoClaims(JWTInfoDto jwtInfoDto) {
 
         JWTInfoDto localJWTInfoDto = new JWTInfoDto(jwtInfoDto);
@@ -72,11 +72,15 @@ public class OpenAPIRequest implements Request {
                 messageContext.getProperty(REST_SUB_REQUEST_PATH).toString());
         String swagger = messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_STRING).toString();
         if (swagger != null) {
-            OpenAPIParser openAPIParser = new OpenAPIParser();
-            SwaggerParseResult swaggerParseResult =
-                    openAPIParser.readContents(swagger, new ArrayList<>(), new ParseOptions());
-            OpenAPI openAPI = swaggerParseResult.getOpenAPI();
-            validatePath(openAPI);;
+            // Reuse the OpenAPI already parsed for this API by the latency stats handler when available
+            OpenAPI openAPI = (OpenAPI) messageContext.getProperty(APIMgtGatewayConstants.OPEN_API_OBJECT);
+            if (openAPI == null) {
+                OpenAPIParser openAPIParser = new OpenAPIParser();
+                SwaggerParseResult swaggerParseResult =
+                        openAPIParser.readContents(swagger, new ArrayList<>(), new ParseOptions());
+                openAPI = swaggerParseResult.getOpenAPI();
+            }
+            validatePath(openAPI);
         }
         //extract transport headers
         Map<String, String> transportHeaders = (Map<String, String>)
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security.utils;
+
+import com.atlassian.oai.validator.OpenApiInteractionValidator;
+import com.atlassian.oai.validator.report.LevelResolver;
+import com.atlassian.oai.validator.report.ValidationReport;
+import io.swagger.parser.OpenAPIParser;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the compiled OpenApiInteractionValidator of each deployed API so that the schema validator does not parse
+ * and resolve the swagger definition on every request and response. Entries are keyed by the API UUID and carry
+ * the definition they were built from, hence a redeployed revision never gets served a stale validator even if the
+ * eviction on redeploy is missed.
+ */
+public class OpenAPIValidatorCache {
+
+    private static final Log log = LogFactory.getLog(OpenAPIValidatorCache.class);
+    private static final int DEFAULT_MAX_SIZE = 1000;
+    private static final OpenAPIValidatorCache instance = new OpenAPIValidatorCache();
+
+    private final Map<String, CachedValidator> validatorMap = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private volatile int maxSize = -1;
+
+    private OpenAPIValidatorCache() {
+
+    }
+
+    public static OpenAPIValidatorCache getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Returns the validator for the given API definition, compiling and caching it if it is not already available.
+     *
+     * @param apiUUID UUID of the API. When null, the definition hash alone is used as the key.
+     * @param swagger Swagger definition of the API.
+     * @return OpenApiInteractionValidator for the provided swagger.
+     */
+    public OpenApiInteractionValidator getValidator(String apiUUID, String swagger) {
+
+        String definitionHash = getDefinitionHash(swagger);
+        String key = StringUtils.isNotEmpty(apiUUID) ? apiUUID : definitionHash;
+        CachedValidator cachedValidator = validatorMap.get(key);
+        if (cachedValidator != null && cachedValidator.isBuiltFrom(swagger)) {
+            hitCount.incrementAndGet();
+            cachedValidator.lastAccessTime = System.nanoTime();
+            return cachedValidator.validator;
+        }
+        missCount.incrementAndGet();
+        long startTime = System.currentTimeMillis();
+        OpenApiInteractionValidator validator = createValidator(swagger);
+        if (log.isDebugEnabled()) {
+            log.debug("Time to build the schema validator of API " + key + " (ms) : " +
+                    (System.currentTimeMillis() - startTime));
+        }
+        if (validatorMap.size() >= getMaxSize() && !validatorMap.containsKey(key)) {
+            evictLeastRecentlyUsed();
+        }
+        validatorMap.put(key, new CachedValidator(swagger, validator));
+        return validator;
+    }
+
+    /**
+     * Removes the validator of the given API. This is invoked when the API is undeployed or redeployed.
+     *
+     * @param apiUUID UUID of the API.
+     */
+    public void invalidate(String apiUUID) {
+
+        if (apiUUID != null && validatorMap.remove(apiUUID) != null && log.isDebugEnabled()) {
+            log.debug("Removed cached schema validator of API " + apiUUID);
+        }
+    }
+
+    public void clear() {
+
+        validatorMap.clear();
+    }
+
+    public int size() {
+
+        return validatorMap.size();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+
+        return evictionCount.get();
+    }
+
+    /**
+     * Method to generate OpenApiInteractionValidator when the swagger is provided.
+     *
+     * @param swagger Swagger definition.
+     * @return OpenApiInteractionValidator object for the provided swagger.
+     */
+    private static OpenApiInteractionValidator createValidator(String swagger) {
+
+        OpenAPIParser openAPIParser = new OpenAPIParser();
+        ParseOptions options = new ParseOptions();
+        options.setResolveFully(true);
+        SwaggerParseResult swaggerParseResult =
+                openAPIParser.readContents(swagger, new ArrayList<>(), options);
+        OpenAPI openAPI = swaggerParseResult.getOpenAPI();
+        return OpenApiInteractionValidator
+                .createFor(openAPI)
+                .withLevelResolver(
+                        LevelResolver.create()
+                                .withLevel("validation.schema.required", ValidationReport.Level.INFO)
+                                .withLevel("validation.response.body.missing", ValidationReport.Level.INFO)
+                                .build())
+                .build();
+    }
+
+    /**
+     * Returns the key of a definition of an API without a UUID. Definitions with the same key are told apart by
+     * comparing their content.
+     */
+    private static String getDefinitionHash(String swagger) {
+
+        return swagger.length() + ":" + swagger.hashCode();
+    }
+
+    private void evictLeastRecentlyUsed() {
+
+        String eldestKey = null;
+        long eldestAccessTime = Long.MAX_VALUE;
+        for (Map.Entry<String, CachedValidator> entry : validatorMap.entrySet()) {
+            if (entry.getValue().lastAccessTime < eldestAccessTime) {
+                eldestAccessTime = entry.getValue().lastAccessTime;
+                eldestKey = entry.getKey();
+            }
+        }
+        if (eldestKey != null && validatorMap.remove(eldestKey) != null) {
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    private int getMaxSize() {
+
+        if (maxSize < 0) {
+            int size = DEFAULT_MAX_SIZE;
+            APIManagerConfigurationService configService =
+                    ServiceReferenceHolder.getInstance().getApiManagerConfigurationService();
+            APIManagerConfiguration config = configService != null ? configService.getAPIManagerConfiguration() : null;
+            if (config != null) {
+                String configuredSize = config.getFirstProperty(APIConstants.SCHEMA_VALIDATOR_CACHE_SIZE);
+                if (StringUtils.isNotEmpty(configuredSize)) {
+                    try {
+                        size = Integer.parseInt(configuredSize.trim());
+                    } catch (NumberFormatException e) {
+                        log.warn("Invalid schema validator cache size " + configuredSize + ". Using default "
+                                + DEFAULT_MAX_SIZE);
+                    }
+                }
+            }
+            maxSize = Math.max(size, 1);
+        }
+        return maxSize;
+    }
+
+    private static class CachedValidator {
+
+        private final String definition;
+        private final OpenApiInteractionValidator validator;
+        private volatile long lastAccessTime;
+
+        CachedValidator(String definition, OpenApiInteractionValidator validator) {
+
+            this.definition = definition;
+            this.validator = validator;
+            this.lastAccessTime = System.nanoTime();
+        }
+
+        /**
+         * The swagger string is held by the API handler for the lifetime of a deployed revision, so the check is
+         * usually a reference comparison. Otherwise the content is compared, since different definitions may have
+         * the same length and hash code.
+         */
+        boolean isBuiltFrom(String swagger) {
+
+            return definition == swagger || (definition.hashCode() == swagger.hashCode()
+                    && definition.equals(swagger));
+        }
+    }
+}
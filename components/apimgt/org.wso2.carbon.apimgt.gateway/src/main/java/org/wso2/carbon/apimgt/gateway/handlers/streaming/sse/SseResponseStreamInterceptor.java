@@ -106,10 +106,18 @@ public class SseResponseStreamInterceptor extends DefaultStreamInterceptor {
                                               throttleInfo.getApplicationLevelThrottleKey());
             if (isThrottled) {
                 log.warn("Request is throttled out");
+                // the stream ends here, hence the events accumulated for it are published
+                if (throttleInfo.getThrottleEventAccumulator() != null) {
+                    throttleInfo.getThrottleEventAccumulator().flush();
+                }
                 return false;
             }
-            throttlePublisherService.execute(
-                    () -> SseUtils.publishNonThrottledEvent(eventCount, messageId, throttleInfo, propertiesMap));
+            if (throttleInfo.getThrottleEventAccumulator() != null) {
+                SseUtils.accumulateNonThrottledEvent(eventCount, throttleInfo, propertiesMap);
+            } else {
+                throttlePublisherService.execute(
+                        () -> SseUtils.publishNonThrottledEvent(eventCount, messageId, throttleInfo, propertiesMap));
+            }
             if (APIUtil.isAnalyticsEnabled()) {
                 try {
                     publishAnalyticsData(eventCount, axi2Ctx);
@@ -19,6 +19,7 @@
 package org.wso2.carbon.apimgt.gateway.handlers.streaming.sse.throttling;
 
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.StreamingThrottleEventAccumulator;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 /**
@@ -50,6 +51,8 @@ public class ThrottleInfo {
 
     private String remoteIp;
 
+    private StreamingThrottleEventAccumulator throttleEventAccumulator;
+
     public ThrottleInfo(AuthenticationContext context, String apiContext, String version,
                         String resourceLevelThrottleKey, String resourceTier, String remoteIp) {
 
@@ -74,6 +77,11 @@ public class ThrottleInfo {
         this.applicationLevelThrottleKey = applicationId + ":" + authorizedUser;
         this.apiLevelThrottleKey = apiContext + ":" + apiVersion;
         this.resourceLevelThrottleKey = resourceLevelThrottleKey;
+        this.throttleEventAccumulator = StreamingThrottleEventAccumulator.newAccumulator();
+    }
+
+    public StreamingThrottleEventAccumulator getThrottleEventAccumulator() {
+        return throttleEventAccumulator;
     }
 
     public String getApplicationTier() {
@@ -29,6 +29,10 @@ import org.wso2.carbon.apimgt.gateway.throttling.publisher.ThrottleDataPublisher
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.databridge.agent.DataPublisher;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 /**
  * Utils methods related to SSE Api.
  */
@@ -99,6 +103,36 @@ public class SseUtils {
         }
     }
 
+    /**
+     * Accumulates the events of the connection to be published to the traffic manager as a single weighted event.
+     *
+     * @param eventCount   number of sse events
+     * @param throttleInfo throttle information of the connection
+     * @param properties   properties map of the event
+     */
+    public static void accumulateNonThrottledEvent(int eventCount, ThrottleInfo throttleInfo,
+                                                   JSONObject properties) {
+
+        if (eventCount <= 0) {
+            // a chunk without a complete event is not counted
+            return;
+        }
+        String[] throttleData = new String[] { throttleInfo.getApplicationLevelThrottleKey(),
+                throttleInfo.getApplicationTier(), throttleInfo.getApiLevelThrottleKey(), throttleInfo.getApiTier(),
+                throttleInfo.getSubscriptionLevelThrottleKey(), throttleInfo.getTier(),
+                throttleInfo.getResourceLevelThrottleKey(), throttleInfo.getResourceTier(),
+                throttleInfo.getAuthorizedUser(), throttleInfo.getApiContext(), throttleInfo.getApiVersion(),
+                throttleInfo.getSubscriberTenantDomain(), throttleInfo.getSubscriberTenantDomain(),
+                throttleInfo.getApplicationId(), throttleInfo.getApiName() };
+        Map<String, Object> propertiesMap = new HashMap<>();
+        Iterator<String> keys = properties.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            propertiesMap.put(key, properties.get(key));
+        }
+        throttleInfo.getThrottleEventAccumulator().add(throttleData, propertiesMap, eventCount, 0);
+    }
+
     public static boolean isRequestBlocked(AuthenticationContext authContext, String apiContext, String apiVersion,
                                            String authorizedUser, String clientIp, String apiTenantDomain) {
 
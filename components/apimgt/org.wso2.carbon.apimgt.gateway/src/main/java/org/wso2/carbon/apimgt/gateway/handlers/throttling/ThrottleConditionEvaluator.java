@@ -22,11 +22,13 @@ package org.wso2.carbon.apimgt.gateway.handlers.throttling;
 
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.wso2.carbon.apimgt.api.dto.ConditionDTO;
 import org.wso2.carbon.apimgt.api.dto.ConditionGroupDTO;
 import org.wso2.carbon.apimgt.api.model.policy.PolicyConstants;
-import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
+import org.wso2.carbon.apimgt.common.gateway.util.ParsedJWT;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
@@ -35,14 +37,17 @@ import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
 import org.wso2.carbon.apimgt.impl.dto.ConditionDto.IPCondition;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+import org.wso2.carbon.apimgt.impl.utils.LRUCache;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * This class is used by {@code ThrottleHandler} to determine Applicability of Throttling Conditions.
@@ -56,6 +61,16 @@ import java.util.regex.Pattern;
  */
 public class ThrottleConditionEvaluator {
 
+    private static final Log log = LogFactory.getLog(ThrottleConditionEvaluator.class);
+    private static final int MAX_COMPILED_CONDITION_COUNT = 10000;
+
+    // Regular expressions of the throttled API conditions, compiled when the conditions are received
+    private final Map<String, Pattern> conditionPatterns = new ConcurrentHashMap<>();
+    // Regular expressions and IPs of the other conditions, compiled when first evaluated and shared by all the
+    // requests. The eldest entries are evicted once the caches are full.
+    private final Map<String, Pattern> compiledPatterns = new LRUCache<>(MAX_COMPILED_CONDITION_COUNT);
+    private final Map<String, BigInteger> compiledIps = new LRUCache<>(MAX_COMPILED_CONDITION_COUNT);
+
     private ThrottleConditionEvaluator() {
 
     }
@@ -84,11 +99,13 @@ public class ThrottleConditionEvaluator {
 
         ArrayList<ConditionGroupDTO> matchingConditions = new ArrayList<>(inputConditionGroups.length);
         ConditionGroupDTO defaultGroup = null;
+        RequestAttributes requestAttributes = new RequestAttributes(((Axis2MessageContext) synapseContext)
+                .getAxis2MessageContext(), authenticationContext);
 
         for (ConditionGroupDTO conditionGroup : inputConditionGroups) {
             if (APIConstants.THROTTLE_POLICY_DEFAULT.equals(conditionGroup.getConditionGroupId())) {
                 defaultGroup = conditionGroup;
-            } else if (isConditionGroupApplicable(synapseContext, authenticationContext, conditionGroup)) {
+            } else if (isConditionGroupApplicable(requestAttributes, conditionGroup)) {
                 matchingConditions.add(conditionGroup);
             }
         }
@@ -101,8 +118,7 @@ public class ThrottleConditionEvaluator {
         return matchingConditions;
     }
 
-    private boolean isConditionGroupApplicable(org.apache.synapse.MessageContext synapseContext,
-                                               AuthenticationContext authenticationContext,
+    private boolean isConditionGroupApplicable(RequestAttributes requestAttributes,
                                                ConditionGroupDTO conditionGroup) {
 
         ConditionDTO[] conditions = conditionGroup.getConditions();
@@ -115,7 +131,7 @@ public class ThrottleConditionEvaluator {
 
         // When multiple conditions have been specified, all the conditions should occur.
         for (ConditionDTO condition : conditions) {
-            evaluationState = evaluationState & isConditionApplicable(synapseContext, authenticationContext, condition);
+            evaluationState = evaluationState & isConditionApplicable(requestAttributes, condition);
 
             // If one of the conditions are false, rest will evaluate to false. So no need to check the rest.
             if (!evaluationState) {
@@ -125,33 +141,28 @@ public class ThrottleConditionEvaluator {
         return evaluationState;
     }
 
-    private boolean isConditionApplicable(org.apache.synapse.MessageContext synapseContext,
-                                          AuthenticationContext authenticationContext,
-                                          ConditionDTO condition) {
-
-        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synapseContext)
-                .getAxis2MessageContext();
+    private boolean isConditionApplicable(RequestAttributes requestAttributes, ConditionDTO condition) {
 
         boolean state = false;
         switch (condition.getConditionType()) {
             case PolicyConstants.IP_RANGE_TYPE: {
-                state = isWithinIP(axis2MessageContext, condition);
+                state = isWithinIP(requestAttributes, condition);
                 break;
             }
             case PolicyConstants.IP_SPECIFIC_TYPE: {
-                state = isMatchingIP(axis2MessageContext, condition);
+                state = isMatchingIP(requestAttributes, condition);
                 break;
             }
             case PolicyConstants.QUERY_PARAMETER_TYPE: {
-                state = isQueryParamPresent(axis2MessageContext, condition);
+                state = isQueryParamPresent(requestAttributes, condition);
                 break;
             }
             case PolicyConstants.JWT_CLAIMS_TYPE: {
-                state = isJWTClaimPresent(authenticationContext, condition);
+                state = isJWTClaimPresent(requestAttributes, condition);
                 break;
             }
             case PolicyConstants.HEADER_TYPE: {
-                state = isHeaderPresent(axis2MessageContext, condition);
+                state = isHeaderPresent(requestAttributes, condition);
                 break;
             }
         }
@@ -163,26 +174,23 @@ public class ThrottleConditionEvaluator {
         return state;
     }
 
-    private boolean isHeaderPresent(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isHeaderPresent(RequestAttributes requestAttributes, ConditionDTO condition) {
 
-        Map<String, String> transportHeaderMap = (Map<String, String>) messageContext
-                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        Map<String, String> transportHeaderMap = requestAttributes.getTransportHeaders();
         if (transportHeaderMap != null) {
             String value = transportHeaderMap.get(condition.getConditionName());
             if (value == null) {
                 return false;
             }
-            Pattern pattern = Pattern.compile(condition.getConditionValue());
-            Matcher matcher = pattern.matcher(value);
+            Matcher matcher = getPattern(condition.getConditionValue()).matcher(value);
             return matcher.find();
         }
         return false;
     }
 
-    private boolean isHeaderPresent(MessageContext messageContext, ConditionDto.HeaderConditions condition) {
+    private boolean isHeaderPresent(RequestAttributes requestAttributes, ConditionDto.HeaderConditions condition) {
 
-        Map<String, String> transportHeaderMap = (Map<String, String>) messageContext
-                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        Map<String, String> transportHeaderMap = requestAttributes.getTransportHeaders();
         boolean status = true;
         for (Map.Entry<String, String> headerEntry : condition.getValues().entrySet()) {
             if (transportHeaderMap != null) {
@@ -191,8 +199,7 @@ public class ThrottleConditionEvaluator {
                     status = false;
                     break;
                 } else {
-                    Pattern pattern = Pattern.compile(headerEntry.getValue());
-                    Matcher matcher = pattern.matcher(value);
+                    Matcher matcher = getPattern(headerEntry.getValue()).matcher(value);
                     status = status && matcher.find();
                 }
             }
@@ -205,36 +212,34 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDTO condition) {
+    private boolean isJWTClaimPresent(RequestAttributes requestAttributes, ConditionDTO condition) {
 
-        Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
+        Map<String, String> assertions = requestAttributes.getJWTClaims();
         if (assertions != null) {
             String value = assertions.get(condition.getConditionName());
             if (value == null) {
                 return false;
             } else {
-                Pattern pattern = Pattern.compile(condition.getConditionValue());
-                Matcher matcher = pattern.matcher(value);
+                Matcher matcher = getPattern(condition.getConditionValue()).matcher(value);
                 return matcher.find();
             }
         }
         return false;
     }
 
-    private boolean isJWTClaimPresent(AuthenticationContext authenticationContext, ConditionDto.JWTClaimConditions
+    private boolean isJWTClaimPresent(RequestAttributes requestAttributes, ConditionDto.JWTClaimConditions
             condition) {
 
-        Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
+        Map<String, String> assertions = requestAttributes.getJWTClaims();
         boolean status = true;
 
         for (Map.Entry<String, String> jwtClaim : condition.getValues().entrySet()) {
-            String value = assertions.get(jwtClaim.getKey());
+            String value = assertions != null ? assertions.get(jwtClaim.getKey()) : null;
             if (value == null) {
                 status = false;
                 break;
             } else {
-                Pattern pattern = Pattern.compile(jwtClaim.getValue());
-                Matcher matcher = pattern.matcher(value);
+                Matcher matcher = getPattern(jwtClaim.getValue()).matcher(value);
                 status = status && matcher.find();
             }
         }
@@ -245,9 +250,10 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDto.QueryParamConditions condition) {
+    private boolean isQueryParamPresent(RequestAttributes requestAttributes,
+                                        ConditionDto.QueryParamConditions condition) {
 
-        Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
+        Map<String, String> queryParamMap = requestAttributes.getQueryParams();
         boolean status = true;
 
         for (Map.Entry<String, String> queryParam : condition.getValues().entrySet()) {
@@ -255,8 +261,7 @@ public class ThrottleConditionEvaluator {
                 status = false;
                 break;
             } else {
-                Pattern pattern = Pattern.compile(queryParam.getValue());
-                Matcher matcher = pattern.matcher(queryParamMap.get(queryParam.getKey()));
+                Matcher matcher = getPattern(queryParam.getValue()).matcher(queryParamMap.get(queryParam.getKey()));
                 status = status && matcher.find();
             }
         }
@@ -267,48 +272,47 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isQueryParamPresent(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isQueryParamPresent(RequestAttributes requestAttributes, ConditionDTO condition) {
 
-        Map<String, String> queryParamMap = GatewayUtils.getQueryParams(messageContext);
+        Map<String, String> queryParamMap = requestAttributes.getQueryParams();
 
         if (queryParamMap != null) {
             String value = queryParamMap.get(condition.getConditionName());
             if (value == null) {
                 return false;
             }
-            Pattern pattern = Pattern.compile(condition.getConditionValue());
-            Matcher matcher = pattern.matcher(value);
+            Matcher matcher = getPattern(condition.getConditionValue()).matcher(value);
             return matcher.find();
         }
         return false;
     }
 
-    private boolean isMatchingIP(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isMatchingIP(RequestAttributes requestAttributes, ConditionDTO condition) {
 
-        String currentIpString = GatewayUtils.getIp(messageContext);
+        String currentIpString = requestAttributes.getIp();
         return currentIpString.equals(condition.getConditionValue());
     }
 
-    private boolean isWithinIP(MessageContext messageContext, ConditionDTO condition) {
+    private boolean isWithinIP(RequestAttributes requestAttributes, ConditionDTO condition) {
         // For an IP Range Condition, starting IP is set as a the name, ending IP as the value.
-        BigInteger startIp = APIUtil.ipToBigInteger(condition.getConditionName());
-        BigInteger endIp = APIUtil.ipToBigInteger(condition.getConditionValue());
+        BigInteger startIp = getIp(condition.getConditionName());
+        BigInteger endIp = getIp(condition.getConditionValue());
 
-        String currentIpString = GatewayUtils.getIp(messageContext);
+        String currentIpString = requestAttributes.getIp();
         if (!currentIpString.isEmpty()) {
-            BigInteger currentIp = APIUtil.ipToBigInteger(currentIpString);
+            BigInteger currentIp = requestAttributes.getIpValue();
 
             return startIp.compareTo(currentIp) <= 0 && endIp.compareTo(currentIp) >= 0;
         }
         return false;
     }
 
-    private boolean isWithinIP(MessageContext messageContext, ConditionDto.IPCondition ipCondition) {
+    private boolean isWithinIP(RequestAttributes requestAttributes, ConditionDto.IPCondition ipCondition) {
 
-        String currentIpString = GatewayUtils.getIp(messageContext);
+        String currentIpString = requestAttributes.getIp();
         boolean status;
         if (StringUtils.isNotEmpty(currentIpString)) {
-            BigInteger currentIp = APIUtil.ipToBigInteger(currentIpString);
+            BigInteger currentIp = requestAttributes.getIpValue();
             status = ipCondition.getStartingIp().compareTo(currentIp) <= 0
                     && ipCondition.getEndingIp().compareTo(currentIp) >= 0;
         } else {
@@ -321,10 +325,9 @@ public class ThrottleConditionEvaluator {
         }
     }
 
-    private boolean isMatchingIP(MessageContext messageContext, ConditionDto.IPCondition ipCondition) {
+    private boolean isMatchingIP(RequestAttributes requestAttributes, ConditionDto.IPCondition ipCondition) {
 
-        String currentIpString = GatewayUtils.getIp(messageContext);
-        BigInteger longValueOfIp = APIUtil.ipToBigInteger(currentIpString);
+        BigInteger longValueOfIp = requestAttributes.getIpValue();
 
         if (ipCondition.isInvert()) {
             return !longValueOfIp.equals(ipCondition.getSpecificIp());
@@ -335,13 +338,12 @@ public class ThrottleConditionEvaluator {
     public String getThrottledInCondition(org.apache.synapse.MessageContext synCtx, AuthenticationContext authContext,
                                           Map<String, List<ConditionDto>> conditionDtoMap) {
 
-        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) synCtx)
-                .getAxis2MessageContext();
+        RequestAttributes requestAttributes = new RequestAttributes(((Axis2MessageContext) synCtx)
+                .getAxis2MessageContext(), authContext);
         String condition = null;
         for (Map.Entry<String, List<ConditionDto>> conditionList : conditionDtoMap.entrySet()) {
             if (!"default".equals(conditionList.getKey())) {
-                boolean pipeLineStatus = isThrottledWithinCondition(axis2MessageContext, authContext, conditionList
-                        .getValue());
+                boolean pipeLineStatus = isThrottledWithinCondition(requestAttributes, conditionList.getValue());
                 if (pipeLineStatus) {
                     condition = conditionList.getKey();
                     break;
@@ -352,8 +354,7 @@ public class ThrottleConditionEvaluator {
             if (conditionDtoMap.containsKey("default")) {
                 List<ConditionDto> conditionDtoList = conditionDtoMap.get("default");
                 if (conditionDtoList != null && !conditionDtoList.isEmpty()) {
-                    boolean pipeLineStatus = isThrottledWithinCondition(axis2MessageContext, authContext,
-                            conditionDtoList);
+                    boolean pipeLineStatus = isThrottledWithinCondition(requestAttributes, conditionDtoList);
                     if (!pipeLineStatus) {
                         condition = "default";
                     }
@@ -365,7 +366,7 @@ public class ThrottleConditionEvaluator {
         return condition;
     }
 
-    private boolean isThrottledWithinCondition(MessageContext axis2MessageContext, AuthenticationContext authContext,
+    private boolean isThrottledWithinCondition(RequestAttributes requestAttributes,
                                                List<ConditionDto> conditionDtoList) {
 
         ThrottleProperties throttleProperties = ServiceReferenceHolder.getInstance().getThrottleProperties();
@@ -373,29 +374,29 @@ public class ThrottleConditionEvaluator {
         for (ConditionDto condition : conditionDtoList) {
             status = true;
             if (condition.getIpCondition() != null) {
-                if (!isMatchingIP(axis2MessageContext, condition.getIpCondition())) {
+                if (!isMatchingIP(requestAttributes, condition.getIpCondition())) {
                     status = false;
                 }
             } else if (condition.getIpRangeCondition() != null) {
-                if (!isWithinIP(axis2MessageContext, condition.getIpRangeCondition())) {
+                if (!isWithinIP(requestAttributes, condition.getIpRangeCondition())) {
                     status = false;
                 }
             }
             if (condition.getHeaderConditions() != null && throttleProperties.isEnableHeaderConditions() &&
                     !condition.getHeaderConditions().getValues().isEmpty()) {
-                if (!isHeaderPresent(axis2MessageContext, condition.getHeaderConditions())) {
+                if (!isHeaderPresent(requestAttributes, condition.getHeaderConditions())) {
                     status = false;
                 }
             }
             if (condition.getJwtClaimConditions() != null && throttleProperties.isEnableJwtConditions() &&
                     !condition.getJwtClaimConditions().getValues().isEmpty()) {
-                if (!isJWTClaimPresent(authContext, condition.getJwtClaimConditions())) {
+                if (!isJWTClaimPresent(requestAttributes, condition.getJwtClaimConditions())) {
                     status = false;
                 }
             }
             if (condition.getQueryParameterConditions() != null && throttleProperties.isEnableQueryParamConditions() &&
                     !condition.getQueryParameterConditions().getValues().isEmpty()) {
-                if (!isQueryParamPresent(axis2MessageContext, condition.getQueryParameterConditions())) {
+                if (!isQueryParamPresent(requestAttributes, condition.getQueryParameterConditions())) {
                     status = false;
                 }
             }
@@ -405,4 +406,126 @@ public class ThrottleConditionEvaluator {
         }
         return status;
     }
+
+    /**
+     * Compiles the regular expressions of the conditions, so that they are not compiled while evaluating the
+     * conditions of the requests. An invalid regular expression is logged and skipped, without affecting the other
+     * conditions.
+     *
+     * @param conditionDtoList conditions of a throttled API
+     */
+    public void compileConditions(List<ConditionDto> conditionDtoList) {
+
+        if (conditionDtoList == null) {
+            return;
+        }
+        for (ConditionDto condition : conditionDtoList) {
+            if (condition.getHeaderConditions() != null) {
+                condition.getHeaderConditions().getValues().values().forEach(this::compileConditionPattern);
+            }
+            if (condition.getJwtClaimConditions() != null) {
+                condition.getJwtClaimConditions().getValues().values().forEach(this::compileConditionPattern);
+            }
+            if (condition.getQueryParameterConditions() != null) {
+                condition.getQueryParameterConditions().getValues().values().forEach(this::compileConditionPattern);
+            }
+        }
+    }
+
+    private void compileConditionPattern(String regex) {
+
+        if (regex == null || conditionPatterns.containsKey(regex)) {
+            return;
+        }
+        try {
+            Pattern pattern = Pattern.compile(regex);
+            if (conditionPatterns.size() < MAX_COMPILED_CONDITION_COUNT) {
+                conditionPatterns.put(regex, pattern);
+            } else {
+                compiledPatterns.put(regex, pattern);
+            }
+        } catch (PatternSyntaxException e) {
+            log.error("Invalid regular expression " + regex + " in a throttling condition", e);
+        }
+    }
+
+    private Pattern getPattern(String regex) {
+
+        Pattern pattern = conditionPatterns.get(regex);
+        if (pattern == null) {
+            pattern = compiledPatterns.get(regex);
+            if (pattern == null) {
+                pattern = Pattern.compile(regex);
+                compiledPatterns.put(regex, pattern);
+            }
+        }
+        return pattern;
+    }
+
+    private BigInteger getIp(String ip) {
+
+        BigInteger ipValue = compiledIps.get(ip);
+        if (ipValue == null) {
+            ipValue = APIUtil.ipToBigInteger(ip);
+            compiledIps.put(ip, ipValue);
+        }
+        return ipValue;
+    }
+
+    /**
+     * Attributes of a request used by the conditions. Each attribute is extracted from the request at most once,
+     * when a condition first refers to it, however many condition groups are evaluated.
+     */
+    private static class RequestAttributes {
+
+        private final MessageContext messageContext;
+        private final AuthenticationContext authenticationContext;
+        private String ip;
+        private BigInteger ipValue;
+        private Map<String, String> queryParams;
+        private boolean queryParamsExtracted;
+
+        RequestAttributes(MessageContext messageContext, AuthenticationContext authenticationContext) {
+
+            this.messageContext = messageContext;
+            this.authenticationContext = authenticationContext;
+        }
+
+        Map<String, String> getTransportHeaders() {
+
+            return (Map<String, String>) messageContext.getProperty(MessageContext.TRANSPORT_HEADERS);
+        }
+
+        String getIp() {
+
+            if (ip == null) {
+                ip = GatewayUtils.getIp(messageContext);
+            }
+            return ip;
+        }
+
+        BigInteger getIpValue() {
+
+            if (ipValue == null) {
+                ipValue = APIUtil.ipToBigInteger(getIp());
+            }
+            return ipValue;
+        }
+
+        Map<String, String> getQueryParams() {
+
+            if (!queryParamsExtracted) {
+                queryParams = GatewayUtils.getQueryParams(messageContext);
+                queryParamsExtracted = true;
+            }
+            return queryParams;
+        }
+
+        Map<String, String> getJWTClaims() {
+
+            // the claims are decoded once per request by the parsed caller token
+            ParsedJWT callerToken = authenticationContext != null ? authenticationContext.getParsedCallerToken() : null;
+            return callerToken != null ? callerToken.getClaims() : null;
+        }
+    }
 }
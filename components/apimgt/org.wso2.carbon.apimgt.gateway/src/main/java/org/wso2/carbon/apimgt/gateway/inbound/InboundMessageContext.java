@@ -23,6 +23,7 @@ import org.apache.synapse.api.API;
 import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.dto.GraphQLOperationDTO;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.StreamingThrottleEventAccumulator;
 import org.wso2.carbon.apimgt.impl.dto.APIKeyValidationInfoDTO;
 import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
 import org.wso2.carbon.apimgt.impl.jwt.SignedJWTInfo;
@@ -64,6 +65,9 @@ public class InboundMessageContext {
     private GraphQLSchemaDTO graphQLSchemaDTO;
     private Map<String, GraphQLOperationDTO> graphQLMsgIdToVerbInfo = new HashMap<>();
 
+    //Accumulates the throttle events of the frames received over the connection
+    private StreamingThrottleEventAccumulator throttleEventAccumulator;
+
     public void addVerbInfoForGraphQLMsgId(String msgId, GraphQLOperationDTO graphQLOperationDTO) {
         this.graphQLMsgIdToVerbInfo.put(msgId, graphQLOperationDTO);
     }
@@ -72,6 +76,14 @@ public class InboundMessageContext {
         return this.graphQLMsgIdToVerbInfo.get(msgId);
     }
 
+    public StreamingThrottleEventAccumulator getThrottleEventAccumulator() {
+        return throttleEventAccumulator;
+    }
+
+    public void setThrottleEventAccumulator(StreamingThrottleEventAccumulator throttleEventAccumulator) {
+        this.throttleEventAccumulator = throttleEventAccumulator;
+    }
+
     public MessageContext getAxis2MessageContext() {
         return axis2MessageContext;
     }
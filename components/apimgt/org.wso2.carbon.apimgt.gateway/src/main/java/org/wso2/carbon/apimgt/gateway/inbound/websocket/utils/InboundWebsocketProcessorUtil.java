@@ -46,6 +46,7 @@ import org.wso2.carbon.apimgt.gateway.inbound.websocket.GraphQLProcessorResponse
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.InboundProcessorResponseDTO;
 import org.wso2.carbon.apimgt.gateway.internal.DataHolder;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.StreamingThrottleEventAccumulator;
 import org.wso2.carbon.apimgt.gateway.utils.APIMgtGoogleAnalyticsUtils;
 import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
@@ -304,6 +305,17 @@ public class InboundWebsocketProcessorUtil {
         } finally {
             PrivilegedCarbonContext.endTenantFlow();
         }
+        StreamingThrottleEventAccumulator throttleEventAccumulator =
+                getThrottleEventAccumulator(inboundMessageContext);
+        if (throttleEventAccumulator != null) {
+            jsonObMap.remove(APIThrottleConstants.MESSAGE_SIZE);
+            String[] throttleData = new String[]{applicationLevelThrottleKey, applicationLevelTier,
+                    apiLevelThrottleKey, apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                    resourceLevelThrottleKey, resourceLevelTier, authorizedUser, inboundMessageContext.getApiContext(),
+                    apiVersion, appTenant, apiTenant, appId, apiName};
+            throttleEventAccumulator.add(throttleData, jsonObMap, 1, msgSize);
+            return responseDTO;
+        }
         Object[] objects =
                 new Object[]{messageId, applicationLevelThrottleKey, applicationLevelTier, apiLevelThrottleKey,
                         apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier, resourceLevelThrottleKey,
@@ -319,6 +331,32 @@ public class InboundWebsocketProcessorUtil {
         return responseDTO;
     }
 
+    private static StreamingThrottleEventAccumulator getThrottleEventAccumulator(
+            InboundMessageContext inboundMessageContext) {
+
+        StreamingThrottleEventAccumulator throttleEventAccumulator =
+                inboundMessageContext.getThrottleEventAccumulator();
+        if (throttleEventAccumulator == null) {
+            throttleEventAccumulator = StreamingThrottleEventAccumulator.newAccumulator();
+            inboundMessageContext.setThrottleEventAccumulator(throttleEventAccumulator);
+        }
+        return throttleEventAccumulator;
+    }
+
+    /**
+     * Publishes the throttle events accumulated for a connection. Should be called when the connection is closed.
+     *
+     * @param inboundMessageContext InboundMessageContext of the connection
+     */
+    public static void flushThrottleEvents(InboundMessageContext inboundMessageContext) {
+
+        StreamingThrottleEventAccumulator throttleEventAccumulator =
+                inboundMessageContext != null ? inboundMessageContext.getThrottleEventAccumulator() : null;
+        if (throttleEventAccumulator != null) {
+            throttleEventAccumulator.flush();
+        }
+    }
+
     /**
      * Set tenant domain to InboundMessageContext.
      *
@@ -39,6 +39,7 @@ import org.wso2.carbon.apimgt.gateway.handlers.security.keys.APIKeyValidatorClie
 import org.wso2.carbon.apimgt.gateway.jwt.RevokedJWTMapCleaner;
 import org.wso2.carbon.apimgt.gateway.listeners.GatewayStartupListener;
 import org.wso2.carbon.apimgt.gateway.listeners.ServerStartupListener;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksFanOutEngine;
 import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
 import org.wso2.carbon.apimgt.impl.caching.CacheProvider;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
@@ -157,6 +158,7 @@ public class APIHandlerServiceComponent {
             log.debug("API handlers component deactivated");
         }
             clientPool.cleanup();
+        WebhooksFanOutEngine.shutdownInstance();
         if (registration != null) {
             log.debug("Unregistering ThrottleDataService...");
             registration.unregister();
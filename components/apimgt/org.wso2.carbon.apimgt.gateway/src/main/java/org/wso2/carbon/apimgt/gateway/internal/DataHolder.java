@@ -32,7 +32,7 @@ public class DataHolder {
     private Map<String, String> googleAnalyticsConfigMap = new HashMap<>();
     private Map<String, GraphQLSchemaDTO> apiToGraphQLSchemaDTOMap = new HashMap<>();
     private Map<String, List<String>> apiToKeyManagersMap = new HashMap<>();
-    private boolean isAllApisDeployed = false;
+    private volatile boolean isAllApisDeployed = false;
 
     private DataHolder() {
 
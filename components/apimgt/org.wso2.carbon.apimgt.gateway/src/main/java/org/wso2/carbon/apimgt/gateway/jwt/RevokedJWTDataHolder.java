@@ -20,16 +20,13 @@ package org.wso2.carbon.apimgt.gateway.jwt;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  *  Singleton which stores the revoked JWT map
  */
 public class RevokedJWTDataHolder {
 
     private static final Log log = LogFactory.getLog(RevokedJWTDataHolder.class);
-    private static Map<String, Long> revokedJWTMap = new ConcurrentHashMap<>();
+    private static final RevokedJWTStore revokedJWTStore = new RevokedJWTStore();
     private static RevokedJWTDataHolder instance = new RevokedJWTDataHolder();
 
     /**
@@ -40,7 +37,7 @@ public class RevokedJWTDataHolder {
     public void addRevokedJWTToMap(String key, Long value) {
         if (key != null && value != null) {
             log.debug("Adding revoked JWT key, value pair to the revoked map :" + key + " , " + value);
-            revokedJWTMap.put(key, value);
+            revokedJWTStore.add(key, value);
         }
     }
 
@@ -50,7 +47,7 @@ public class RevokedJWTDataHolder {
      * @return true if it exists and false otherwise.
      */
     public static boolean isJWTTokenSignatureExistsInRevokedMap(String jwtSignature) {
-        return revokedJWTMap.containsKey(jwtSignature);
+        return jwtSignature != null && revokedJWTStore.contains(jwtSignature);
     }
 
     private RevokedJWTDataHolder() {
@@ -58,11 +55,20 @@ public class RevokedJWTDataHolder {
     }
 
     /**
-     * Fetches the revoke map.
-     * @return
+     * Removes the revoked JWTs which are already expired.
+     * @param currentTimestamp current time in milliseconds.
+     * @return number of removed JWTs.
+     */
+    int removeExpiredJWTs(long currentTimestamp) {
+        return revokedJWTStore.removeExpired(currentTimestamp / 1000);
+    }
+
+    /**
+     * Returns the number of revoked JWTs held.
+     * @return number of revoked JWTs.
      */
-    Map<String, Long> getRevokedJWTMap() {
-        return revokedJWTMap;
+    int getRevokedJWTCount() {
+        return revokedJWTStore.size();
     }
 
     /**
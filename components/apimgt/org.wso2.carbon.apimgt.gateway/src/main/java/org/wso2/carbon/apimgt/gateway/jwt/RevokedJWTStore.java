@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Compact store of revoked JWTs. The token identifiers are kept as 64 bit hashes in an open addressing table of
+ * primitive longs, together with their expiry times. The expiry times are also grouped into per minute buckets so
+ * that removing expired tokens only touches the expired entries. A bloom filter in front of the table answers the
+ * common case of a token which is not revoked without probing the table.
+ * <p>
+ * Lookups do not acquire a lock unless they overlap with a modification of the table. Modifications, which are rare
+ * compared to the lookups, are serialized.
+ */
+class RevokedJWTStore {
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final long EMPTY = 0L;
+    private static final long EXPIRY_BUCKET_SECONDS = 60;
+    private static final int BLOOM_FILTER_BITS_PER_SLOT = 8;
+    private static final int BLOOM_FILTER_HASHES = 4;
+
+    private final StampedLock lock = new StampedLock();
+    private final TreeMap<Long, LongList> expiryBuckets = new TreeMap<>();
+    private long[] hashes = new long[MIN_CAPACITY];
+    private long[] expiryTimes = new long[MIN_CAPACITY];
+    private int size;
+    private int removedSinceBloomFilterBuild;
+    private volatile BloomFilter bloomFilter = new BloomFilter(MIN_CAPACITY * BLOOM_FILTER_BITS_PER_SLOT);
+
+    /**
+     * Adds a revoked token.
+     *
+     * @param tokenIdentifier signature or jti of the token
+     * @param expiryTime      expiry time of the token in seconds
+     */
+    void add(String tokenIdentifier, long expiryTime) {
+
+        long hash = hash(tokenIdentifier);
+        long stamp = lock.writeLock();
+        try {
+            int index = indexOf(hashes, hash);
+            if (index >= 0) {
+                if (expiryTime > expiryTimes[index]) {
+                    expiryTimes[index] = expiryTime;
+                    addToExpiryBucket(hash, expiryTime);
+                }
+                return;
+            }
+            if ((size + 1) * 2 > hashes.length) {
+                resize(hashes.length * 2);
+            }
+            insert(hashes, expiryTimes, hash, expiryTime);
+            size++;
+            addToExpiryBucket(hash, expiryTime);
+            bloomFilter.put(hash);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Checks whether the token is revoked.
+     *
+     * @param tokenIdentifier signature or jti of the token
+     * @return true if the token is in the store
+     */
+    boolean contains(String tokenIdentifier) {
+
+        long hash = hash(tokenIdentifier);
+        if (!bloomFilter.mightContain(hash)) {
+            return false;
+        }
+        long stamp = lock.tryOptimisticRead();
+        boolean exists = indexOf(hashes, hash) >= 0;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                exists = indexOf(hashes, hash) >= 0;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return exists;
+    }
+
+    /**
+     * Removes the tokens which expired before the current expiry bucket.
+     *
+     * @param currentTime current time in seconds
+     * @return number of removed tokens
+     */
+    int removeExpired(long currentTime) {
+
+        long currentBucket = currentTime / EXPIRY_BUCKET_SECONDS;
+        int removed = 0;
+        long stamp = lock.writeLock();
+        try {
+            Iterator<Map.Entry<Long, LongList>> iterator = expiryBuckets.headMap(currentBucket, false).entrySet()
+                    .iterator();
+            while (iterator.hasNext()) {
+                LongList bucket = iterator.next().getValue();
+                for (int i = 0; i < bucket.size; i++) {
+                    int index = indexOf(hashes, bucket.values[i]);
+                    // The token may have been added again with a later expiry time, which is in a later bucket
+                    if (index >= 0 && expiryTimes[index] / EXPIRY_BUCKET_SECONDS < currentBucket) {
+                        removeAt(index);
+                        removed++;
+                    }
+                }
+                iterator.remove();
+            }
+            removedSinceBloomFilterBuild += removed;
+            if (hashes.length > MIN_CAPACITY && size * 8 < hashes.length) {
+                resize(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(size, 1) * 4)));
+            } else if (removedSinceBloomFilterBuild > size) {
+                // Bloom filters do not support removals, rebuild it once it is mostly made of removed tokens
+                buildBloomFilter();
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return removed;
+    }
+
+    int size() {
+
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void resize(int capacity) {
+
+        long[] newHashes = new long[capacity];
+        long[] newExpiryTimes = new long[capacity];
+        for (int i = 0; i < hashes.length; i++) {
+            if (hashes[i] != EMPTY) {
+                insert(newHashes, newExpiryTimes, hashes[i], expiryTimes[i]);
+            }
+        }
+        hashes = newHashes;
+        expiryTimes = newExpiryTimes;
+        buildBloomFilter();
+    }
+
+    private void buildBloomFilter() {
+
+        BloomFilter newBloomFilter = new BloomFilter(hashes.length * BLOOM_FILTER_BITS_PER_SLOT);
+        for (long hash : hashes) {
+            if (hash != EMPTY) {
+                newBloomFilter.put(hash);
+            }
+        }
+        bloomFilter = newBloomFilter;
+        removedSinceBloomFilterBuild = 0;
+    }
+
+    private void addToExpiryBucket(long hash, long expiryTime) {
+
+        expiryBuckets.computeIfAbsent(expiryTime / EXPIRY_BUCKET_SECONDS, bucket -> new LongList()).add(hash);
+    }
+
+    /**
+     * Removes the entry at the given index by shifting back the entries of the probe sequence following it, so that
+     * no tombstones are left behind in the table.
+     */
+    private void removeAt(int index) {
+
+        int mask = hashes.length - 1;
+        int emptySlot = index;
+        int current = index;
+        while (true) {
+            current = (current + 1) & mask;
+            if (hashes[current] == EMPTY) {
+                break;
+            }
+            int homeSlot = slot(hashes[current], mask);
+            boolean staysInPlace = emptySlot <= current
+                    ? emptySlot < homeSlot && homeSlot <= current
+                    : emptySlot < homeSlot || homeSlot <= current;
+            if (!staysInPlace) {
+                hashes[emptySlot] = hashes[current];
+                expiryTimes[emptySlot] = expiryTimes[current];
+                emptySlot = current;
+            }
+        }
+        hashes[emptySlot] = EMPTY;
+        expiryTimes[emptySlot] = 0;
+        size--;
+    }
+
+    private static void insert(long[] table, long[] expiryTable, long hash, long expiryTime) {
+
+        int mask = table.length - 1;
+        int index = slot(hash, mask);
+        while (table[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        table[index] = hash;
+        expiryTable[index] = expiryTime;
+    }
+
+    private static int indexOf(long[] table, long hash) {
+
+        int mask = table.length - 1;
+        int index = slot(hash, mask);
+        // Bounded by the table length as the table may be modified concurrently with an optimistic read
+        for (int probes = 0; probes < table.length; probes++) {
+            long value = table[index];
+            if (value == hash) {
+                return index;
+            }
+            if (value == EMPTY) {
+                return -1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static int slot(long hash, int mask) {
+
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the identifier, followed by the murmur3 finalizer to spread the bits.
+     */
+    static long hash(String tokenIdentifier) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : tokenIdentifier.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[4];
+        private int size;
+
+        private void add(long value) {
+
+            if (size == values.length) {
+                long[] newValues = new long[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = value;
+        }
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final int mask;
+
+        private BloomFilter(int numberOfBits) {
+
+            bits = new AtomicLongArray(numberOfBits >>> 6);
+            mask = numberOfBits - 1;
+        }
+
+        private void put(long hash) {
+
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+                int bit = (hash1 + i * hash2) & mask;
+                long bitMask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & bitMask) == 0 && !bits.compareAndSet(word, current, current | bitMask));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 0; i < BLOOM_FILTER_HASHES; i++) {
+                int bit = (hash1 + i * hash2) & mask;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
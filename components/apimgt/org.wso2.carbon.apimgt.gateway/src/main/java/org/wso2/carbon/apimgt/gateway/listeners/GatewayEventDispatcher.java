@@ -0,0 +1,200 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.listeners;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes the events received by the gateway on a fixed pool of workers. Each event is assigned to a worker by the
+ * key of the entity it changes, such as the UUID of an API or the id of an application, so that the events of an
+ * entity are processed in the order they were received while the events of unrelated entities are processed in
+ * parallel. The queue of each worker is bounded, and dispatching blocks the JMS consumer thread while the queue of
+ * the worker is full, so that no more messages are received until the workers catch up.
+ */
+public class GatewayEventDispatcher {
+
+    private static final Log log = LogFactory.getLog(GatewayEventDispatcher.class);
+    private static final long STATISTICS_LOG_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static volatile GatewayEventDispatcher instance;
+    private static volatile boolean initialized;
+
+    private final List<BlockingQueue<QueuedEvent>> queues;
+    private final List<Thread> workers;
+    private final AtomicLong maxLag = new AtomicLong();
+    private volatile long lastLag;
+    private volatile long nextStatisticsLogTime = System.currentTimeMillis() + STATISTICS_LOG_INTERVAL;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a dispatcher and starts its workers.
+     *
+     * @param workerCount number of workers
+     * @param queueSize   maximum number of events waiting for a worker
+     */
+    GatewayEventDispatcher(int workerCount, int queueSize) {
+
+        queues = new ArrayList<>(workerCount);
+        workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<QueuedEvent> queue = new ArrayBlockingQueue<>(queueSize);
+            Thread worker = new Thread(() -> processEvents(queue), "GatewayEventDispatcher-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Returns the dispatcher of the events received by the gateway.
+     *
+     * @return dispatcher, or null if the events are to be processed on the JMS consumer thread
+     */
+    public static GatewayEventDispatcher getInstance() {
+
+        if (!initialized) {
+            synchronized (GatewayEventDispatcher.class) {
+                if (!initialized) {
+                    APIManagerConfiguration configuration =
+                            ServiceReferenceHolder.getInstance().getAPIManagerConfiguration();
+                    if (configuration == null) {
+                        return null;
+                    }
+                    GatewayArtifactSynchronizerProperties properties =
+                            configuration.getGatewayArtifactSynchronizerProperties();
+                    if (properties.getEventProcessingThreadCount() > 0) {
+                        instance = new GatewayEventDispatcher(properties.getEventProcessingThreadCount(),
+                                Math.max(properties.getEventQueueSize(), 1));
+                    }
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Queues an event for the worker of its key, waiting while the queue of the worker is full.
+     *
+     * @param key   key of the entity changed by the event
+     * @param event processing of the event
+     * @throws InterruptedException if interrupted while waiting for the worker
+     */
+    public void dispatch(String key, Runnable event) throws InterruptedException {
+
+        int worker = (key.hashCode() & Integer.MAX_VALUE) % queues.size();
+        queues.get(worker).put(new QueuedEvent(key, event, System.currentTimeMillis()));
+        if (log.isDebugEnabled() && System.currentTimeMillis() >= nextStatisticsLogTime) {
+            nextStatisticsLogTime = System.currentTimeMillis() + STATISTICS_LOG_INTERVAL;
+            log.debug("Gateway events queued: " + getQueueDepth() + ", last lag: " + getLastLag()
+                    + " ms, max lag: " + getMaxLag() + " ms");
+        }
+    }
+
+    /**
+     * Returns the number of events waiting for a worker.
+     *
+     * @return number of queued events
+     */
+    public int getQueueDepth() {
+
+        int queueDepth = 0;
+        for (BlockingQueue<QueuedEvent> queue : queues) {
+            queueDepth += queue.size();
+        }
+        return queueDepth;
+    }
+
+    /**
+     * Returns the time between receiving and processing the last processed event.
+     *
+     * @return lag in milliseconds
+     */
+    public long getLastLag() {
+
+        return lastLag;
+    }
+
+    /**
+     * Returns the longest time between receiving and processing an event since the dispatcher was started.
+     *
+     * @return lag in milliseconds
+     */
+    public long getMaxLag() {
+
+        return maxLag.get();
+    }
+
+    void shutdown() {
+
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    private void processEvents(BlockingQueue<QueuedEvent> queue) {
+
+        while (running) {
+            QueuedEvent queuedEvent;
+            try {
+                queuedEvent = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            long lag = System.currentTimeMillis() - queuedEvent.time;
+            lastLag = lag;
+            maxLag.accumulateAndGet(lag, Math::max);
+            try {
+                queuedEvent.event.run();
+            } catch (RuntimeException e) {
+                // the worker keeps processing the later events
+                log.error("Error while processing gateway event of " + queuedEvent.key, e);
+            }
+        }
+    }
+
+    /**
+     * An event waiting for its worker.
+     */
+    private static final class QueuedEvent {
+
+        private final String key;
+        private final Runnable event;
+        private final long time;
+
+        private QueuedEvent(String key, Runnable event, long time) {
+
+            this.key = key;
+            this.event = event;
+            this.time = time;
+        }
+    }
+}
@@ -22,6 +22,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -39,6 +42,7 @@ import org.wso2.carbon.apimgt.impl.certificatemgt.CertificateManagerImpl;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
 import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
 import org.wso2.carbon.apimgt.impl.gatewayartifactsynchronizer.exception.ArtifactSynchronizerException;
+import org.wso2.carbon.apimgt.impl.notifier.NotificationEventBatch;
 import org.wso2.carbon.apimgt.impl.notifier.events.APIEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.APIPolicyEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.ApplicationEvent;
@@ -54,9 +58,12 @@ import org.wso2.carbon.apimgt.impl.notifier.events.SubscriptionPolicyEvent;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageListener;
@@ -66,6 +73,7 @@ import javax.jms.Topic;
 public class GatewayJMSMessageListener implements MessageListener {
 
     private static final Log log = LogFactory.getLog(GatewayJMSMessageListener.class);
+    private static final Map<String, Object> tenantLoadingLocks = new ConcurrentHashMap<>();
     private boolean debugEnabled = log.isDebugEnabled();
     private InMemoryAPIDeployer inMemoryApiDeployer = new InMemoryAPIDeployer();
     private GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties = ServiceReferenceHolder
@@ -102,10 +110,11 @@ public class GatewayJMSMessageListener implements MessageListener {
                     } else if (APIConstants.TopicNames.TOPIC_ASYNC_WEBHOOKS_DATA.equalsIgnoreCase
                             (jmsDestination.getTopicName())) {
                         String mode = payloadData.get(APIConstants.Webhooks.MODE).asText();
+                        String eventKey = "webhooks:" + payloadData.get(APIConstants.Webhooks.API_UUID).asText();
                         if (APIConstants.Webhooks.SUBSCRIBE_MODE.equalsIgnoreCase(mode)) {
-                            handleAsyncWebhooksSubscriptionMessage(payloadData);
+                            dispatch(eventKey, () -> handleAsyncWebhooksSubscriptionMessage(payloadData));
                         } else if (APIConstants.Webhooks.UNSUBSCRIBE_MODE.equalsIgnoreCase(mode)) {
-                            handleAsyncWebhooksUnSubscriptionMessage(payloadData);
+                            dispatch(eventKey, () -> handleAsyncWebhooksUnSubscriptionMessage(payloadData));
                         }
                     }
 
@@ -117,23 +126,123 @@ public class GatewayJMSMessageListener implements MessageListener {
             }
         } catch (JMSException | JsonProcessingException e) {
             log.error("JMSException occurred when processing the received message ", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while dispatching the received message " + message, e);
         }
     }
 
-    private void handleNotificationMessage(String eventType, long timestamp, String encodedEvent) {
+    private void handleNotificationMessage(String eventType, long timestamp, String encodedEvent)
+            throws InterruptedException {
 
+        if (EventType.NOTIFICATION_BATCH.name().equals(eventType)) {
+            handleNotificationBatch(encodedEvent);
+            return;
+        }
         byte[] eventDecoded = Base64.decodeBase64(encodedEvent);
-        String eventJson = new String(eventDecoded);
+        dispatchNotificationEvent(eventType, timestamp, new String(eventDecoded));
+    }
+
+    /**
+     * Dispatches the events of a batch notification in the order they were published.
+     *
+     * @param encodedBatch encoded batch of events
+     * @throws InterruptedException if interrupted while waiting for a worker
+     */
+    private void handleNotificationBatch(String encodedBatch) throws InterruptedException {
+
+        NotificationEventBatch batch;
+        try {
+            batch = NotificationEventBatch.decode(encodedBatch);
+        } catch (IOException e) {
+            log.error("Error while decoding a batch of notification events", e);
+            return;
+        }
+        if (debugEnabled) {
+            log.debug("Applying a batch of " + batch.getEntries().size() + " notification events");
+        }
+        for (NotificationEventBatch.Entry entry : batch.getEntries()) {
+            try {
+                dispatchNotificationEvent(entry.getType(), entry.getTimeStamp(), entry.getEvent());
+            } catch (RuntimeException e) {
+                // the remaining events of the batch are still applied
+                log.error("Error while applying notification event of type " + entry.getType(), e);
+            }
+        }
+    }
+
+    private void dispatchNotificationEvent(String eventType, long timestamp, String eventJson)
+            throws InterruptedException {
+
+        GatewayEventDispatcher dispatcher = GatewayEventDispatcher.getInstance();
+        if (dispatcher != null) {
+            dispatcher.dispatch(getEventKey(eventType, eventJson),
+                    () -> handleNotificationEvent(eventType, timestamp, eventJson));
+        } else {
+            handleNotificationEvent(eventType, timestamp, eventJson);
+        }
+    }
+
+    private void dispatch(String eventKey, Runnable event) throws InterruptedException {
+
+        GatewayEventDispatcher dispatcher = GatewayEventDispatcher.getInstance();
+        if (dispatcher != null) {
+            dispatcher.dispatch(eventKey, event);
+        } else {
+            event.run();
+        }
+    }
+
+    /**
+     * Returns the key of the entity changed by a notification event. The events of an entity are processed in the
+     * order they were received, so the events which depend on each other, such as the subscriptions of an
+     * application and its removal, are given the same key.
+     * <p>
+     * Applications and subscriptions refer to policies, which are not loaded on demand by the subscription data
+     * store, so the application, subscription and policy events of a tenant share a key, and a policy is always
+     * added before the events published after it. The APIs referred to by subscriptions are loaded on demand when they
+     * are not yet known, hence the events of an API keep a key of their own, so that APIs are deployed in parallel.
+     *
+     * @param eventType type of the event
+     * @param eventJson event as JSON
+     * @return key of the entity
+     */
+    static String getEventKey(String eventType, String eventJson) {
+
+        JsonObject event = new JsonParser().parse(eventJson).getAsJsonObject();
+        String tenantDomain = getString(event, "tenantDomain");
+        if (eventType.startsWith("API_") || EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)
+                || EventType.REMOVE_API_FROM_GATEWAY.name().equals(eventType)
+                || EventType.UDATE_API_LOG_LEVEL.name().equals(eventType)) {
+            String uuid = getString(event, "uuid");
+            return "api:" + (uuid != null ? uuid : tenantDomain + ":" + getString(event, "apiId"));
+        } else if (eventType.startsWith("APPLICATION_") || eventType.startsWith("SUBSCRIPTIONS_")
+                || eventType.startsWith("POLICY_")
+                || EventType.REMOVE_APPLICATION_KEYMAPPING.name().equals(eventType)) {
+            return "subscriptions:" + tenantDomain;
+        } else if (eventType.startsWith("SCOPE_")) {
+            return "scope:" + tenantDomain + ":" + getString(event, "name");
+        } else if (eventType.startsWith("ENDPOINT_CERTIFICATE_")) {
+            return "certificate:" + tenantDomain + ":" + getString(event, "alias");
+        }
+        return eventType + ":" + tenantDomain;
+    }
+
+    private static String getString(JsonObject event, String memberName) {
+
+        JsonElement member = event.get(memberName);
+        return member != null && !member.isJsonNull() ? member.getAsString() : null;
+    }
+
+    private void handleNotificationEvent(String eventType, long timestamp, String eventJson) {
 
         if (APIConstants.EventType.DEPLOY_API_IN_GATEWAY.name().equals(eventType)
                 || APIConstants.EventType.REMOVE_API_FROM_GATEWAY.name().equals(eventType)) {
-            DeployAPIInGatewayEvent gatewayEvent = new Gson().fromJson(new String(eventDecoded),
-                    DeployAPIInGatewayEvent.class);
+            DeployAPIInGatewayEvent gatewayEvent = new Gson().fromJson(eventJson, DeployAPIInGatewayEvent.class);
             String tenantDomain = gatewayEvent.getTenantDomain();
             boolean tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
             if (!tenantLoaded) {
-                String syncKey = tenantDomain.concat("__").concat(this.getClass().getName());
-                synchronized (syncKey.intern()) {
+                synchronized (tenantLoadingLocks.computeIfAbsent(tenantDomain, key -> new Object())) {
                     tenantLoaded = ServiceReferenceHolder.getInstance().isTenantLoaded(tenantDomain);
                     if (!tenantLoaded) {
                         APIUtil.loadTenantConfigBlockingMode(tenantDomain);
@@ -311,7 +420,7 @@ public class GatewayJMSMessageListener implements MessageListener {
                 setTenantDomain(tenantDomain, true);
     }
 
-    private synchronized void handleAsyncWebhooksSubscriptionMessage(JsonNode payloadData) {
+    private void handleAsyncWebhooksSubscriptionMessage(JsonNode payloadData) {
         if (log.isDebugEnabled()) {
             log.debug("Received event for -  Async Webhooks API subscription for : " + payloadData.
                     get(APIConstants.Webhooks.API_UUID).asText());
@@ -345,7 +454,7 @@ public class GatewayJMSMessageListener implements MessageListener {
         }
     }
 
-    private synchronized void handleAsyncWebhooksUnSubscriptionMessage(JsonNode payloadData) {
+    private void handleAsyncWebhooksUnSubscriptionMessage(JsonNode payloadData) {
         if (log.isDebugEnabled()) {
             log.debug("Received event for -  Async Webhooks API unsubscription for : " + payloadData.
                     get(APIConstants.Webhooks.API_UUID).asText());
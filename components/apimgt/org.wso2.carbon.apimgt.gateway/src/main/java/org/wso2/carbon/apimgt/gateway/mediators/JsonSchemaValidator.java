@@ -35,7 +35,6 @@ import org.wso2.carbon.apimgt.gateway.utils.GatewayUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 
 import javax.xml.stream.XMLStreamException;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -85,8 +84,7 @@ public class JsonSchemaValidator extends AbstractMediator {
                 inputStreams = GatewayUtils.cloneRequestMessage(messageContext);
                 if (inputStreams != null) {
                     InputStream inputStreamJson = inputStreams.get(ThreatProtectorConstants.JSON);
-                    BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStreamJson);
-                    apimThreatAnalyzer.analyze(bufferedInputStream, apiContext);
+                    apimThreatAnalyzer.analyze(inputStreamJson, apiContext);
                     isValid = true;
                 }
             } catch (APIMThreatAnalyzerException e) {
@@ -100,7 +98,7 @@ public class JsonSchemaValidator extends AbstractMediator {
                 isValid = GatewayUtils.handleThreat(messageContext, ThreatProtectorConstants.HTTP_SC_CODE,
                         message + e.getMessage());
             } finally {
-                // return analyzer to the pool
+                // clear the configuration of the analyzer
                 AnalyzerHolder.returnObject(apimThreatAnalyzer);
             }
         } else {
@@ -122,7 +122,7 @@ public class XMLSchemaValidator extends AbstractMediator {
                 logger.error(APIMgtGatewayConstants.BAD_REQUEST, e);
                 GatewayUtils.handleThreat(messageContext, ThreatProtectorConstants.HTTP_SC_CODE, e.getMessage());
             }finally {
-                //return analyzer to the pool
+                //clear the configuration of the analyzer
                 AnalyzerHolder.returnObject(apimThreatAnalyzer);
             }
         } else {
@@ -18,8 +18,6 @@
 
 package org.wso2.carbon.apimgt.gateway.mediators.webhooks;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.synapse.MessageContext;
 import org.apache.synapse.SynapseConstants;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
@@ -32,12 +30,12 @@ import org.wso2.carbon.apimgt.gateway.handlers.analytics.Constants;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.AsyncAnalyticsDataProvider;
 import org.wso2.carbon.apimgt.gateway.handlers.streaming.webhook.WebhooksAnalyticsDataProvider;
 import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksDeliveryStatusPublisher;
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
-import java.io.IOException;
-
 import static org.wso2.carbon.apimgt.impl.APIConstants.AsyncApi.ASYNC_MESSAGE_TYPE;
 
 /**
@@ -45,66 +43,43 @@ import static org.wso2.carbon.apimgt.impl.APIConstants.AsyncApi.ASYNC_MESSAGE_TY
  */
 public class DeliveryStatusUpdater extends AbstractMediator {
 
-    private static final int deliveryDataPersisRetries = 15;
-
     @Override
     public boolean mediate(MessageContext messageContext) {
-        try {
-            org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) messageContext)
-                    .getAxis2MessageContext();
-            int status = 2;
-            Object statusCode = axis2MessageContext.getProperty(APIMgtGatewayConstants.HTTP_SC);
-            messageContext.setProperty(Constants.BACKEND_RESPONSE_CODE, statusCode);
-            if (statusCode != null) {
-                String responseStatus = statusCode.toString();
-                if (responseStatus.startsWith("2")) {
-                    //handle 2XX response
-                    status = 1;
-                }
-            }
-            String topicName = (String) messageContext.getProperty(APIConstants.Webhooks.SUBSCRIBER_TOPIC_PROPERTY);
-            String callback = (String) messageContext.getProperty(APIConstants.Webhooks.SUBSCRIBER_CALLBACK_PROPERTY);
-            String tenantDomain = (String) messageContext.getProperty(APIConstants.TENANT_DOMAIN_INFO_PROPERTY);
-            if (tenantDomain == null) {
-                tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
-            }
-            String apiKey = WebhooksUtils.generateAPIKey(messageContext, tenantDomain);
-            String applicationID = (String) messageContext.getProperty(APIConstants.Webhooks.
-                    SUBSCRIBER_APPLICATION_ID_PROPERTY);
-            String requestBody = generateRequestBody(apiKey, applicationID, tenantDomain, callback, topicName, status);
-            boolean isSubscribeRequest = messageContext.getProperty(ASYNC_MESSAGE_TYPE) != null;
-            if (APIUtil.isAnalyticsEnabled() && !isSubscribeRequest) {
-                WebhooksUtils.publishAnalyticsData(messageContext);
+        org.apache.axis2.context.MessageContext axis2MessageContext = ((Axis2MessageContext) messageContext)
+                .getAxis2MessageContext();
+        int status = 2;
+        Object statusCode = axis2MessageContext.getProperty(APIMgtGatewayConstants.HTTP_SC);
+        messageContext.setProperty(Constants.BACKEND_RESPONSE_CODE, statusCode);
+        if (statusCode != null) {
+            String responseStatus = statusCode.toString();
+            if (responseStatus.startsWith("2")) {
+                //handle 2XX response
+                status = 1;
             }
-            WebhooksUtils.persistData(requestBody, deliveryDataPersisRetries, APIConstants.Webhooks.DELIVERY_EVENT_TYPE);
-        } catch (InterruptedException | IOException e) {
-            log.error("Error while persisting delivery status", e);
         }
+        String topicName = (String) messageContext.getProperty(APIConstants.Webhooks.SUBSCRIBER_TOPIC_PROPERTY);
+        String callback = (String) messageContext.getProperty(APIConstants.Webhooks.SUBSCRIBER_CALLBACK_PROPERTY);
+        String tenantDomain = (String) messageContext.getProperty(APIConstants.TENANT_DOMAIN_INFO_PROPERTY);
+        if (tenantDomain == null) {
+            tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain(true);
+        }
+        String apiKey = WebhooksUtils.generateAPIKey(messageContext, tenantDomain);
+        String applicationID = (String) messageContext.getProperty(APIConstants.Webhooks.
+                SUBSCRIBER_APPLICATION_ID_PROPERTY);
+        boolean isSubscribeRequest = messageContext.getProperty(ASYNC_MESSAGE_TYPE) != null;
+        if (APIUtil.isAnalyticsEnabled() && !isSubscribeRequest) {
+            WebhooksUtils.publishAnalyticsData(messageContext);
+        }
+        // the status is published asynchronously in batches, so that the delivery does not wait for the event hub
+        WebhooksDeliveryStatusDTO deliveryStatus = new WebhooksDeliveryStatusDTO();
+        deliveryStatus.setApiUUID(apiKey);
+        deliveryStatus.setAppID(applicationID);
+        deliveryStatus.setTenantDomain(tenantDomain);
+        deliveryStatus.setCallback(callback);
+        deliveryStatus.setTopic(topicName);
+        deliveryStatus.setStatus(status);
+        WebhooksDeliveryStatusPublisher.getInstance().publish(deliveryStatus);
         return true;
     }
 
-    /**
-     * This method is used to generate the request body for the API call.
-     *
-     * @param apiKey            the api key to uniquely identify the API.
-     * @param applicationID     the application ID of the subscriber.
-     * @param tenantDomain      the tenant domain.
-     * @param callback          the subscriber's callback url.
-     * @param topicName         the subscriber's topic name.
-     * @param status            the status of the message delivery to the callback url. 1 if success: 0 if failed.
-     * @return the generated body.
-     */
-    private String generateRequestBody(String apiKey, String applicationID, String tenantDomain, String callback,
-                                       String topicName, int status) {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode node = mapper.createObjectNode();
-        node.put(APIConstants.Webhooks.API_UUID, apiKey);
-        node.put(APIConstants.Webhooks.APP_ID,applicationID);
-        node.put(APIConstants.Webhooks.TENANT_DOMAIN, tenantDomain);
-        node.put(APIConstants.Webhooks.CALLBACK, callback);
-        node.put(APIConstants.Webhooks.TOPIC, topicName);
-        node.put(APIConstants.Webhooks.STATUS, status);
-        return node.toString();
-    }
-
 }
@@ -131,7 +131,8 @@ public class SubscriberInfoLoader extends AbstractMediator {
         return true;
     }
 
-    private boolean doThrottle(WebhooksDTO subscriber, MessageContext messageContext, AuthenticationContext authContext) {
+    static boolean doThrottle(WebhooksDTO subscriber, MessageContext messageContext,
+                              AuthenticationContext authContext) {
         String applicationLevelTier = subscriber.getApplicationTier();
         String apiLevelTier = subscriber.getApiTier();
         String subscriptionLevelTier = subscriber.getTier();
@@ -169,7 +170,7 @@ public class SubscriberInfoLoader extends AbstractMediator {
         return false;
     }
 
-    private void populateAuthContext(String tenantDomain, int appId, AuthenticationContext authContext) {
+    static void populateAuthContext(String tenantDomain, int appId, AuthenticationContext authContext) {
         Application app = SubscriptionDataHolder.getInstance().getTenantSubscriptionStore(tenantDomain).
                 getApplicationById(appId);
         authContext.setApplicationUUID(app.getUUID());
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.mediators.webhooks;
+
+import org.apache.http.protocol.HTTP;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.mediators.AbstractMediator;
+import org.wso2.carbon.apimgt.gateway.handlers.security.APISecurityUtils;
+import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
+import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.gateway.webhooks.WebhooksFanOutEngine;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This mediator would hand over the event to the subscribers of the topic through the {@link WebhooksFanOutEngine},
+ * instead of cloning the message for each subscriber. The throttling of the subscribers is applied as in
+ * {@link SubscriberInfoLoader}, while the delivery statuses are published by the engine.
+ */
+public class SubscribersFanOutMediator extends AbstractMediator {
+
+    @Override
+    public boolean mediate(MessageContext messageContext) {
+
+        List<WebhooksDTO> subscribers;
+        try {
+            subscribers = WebhooksUtils.getSubscribersListFromInMemoryMap(messageContext);
+        } catch (URISyntaxException e) {
+            handleException("Error while getting the subscribers", e, messageContext);
+            return false;
+        }
+        if (subscribers == null || subscribers.isEmpty()) {
+            return true;
+        }
+        String payload = (String) messageContext.getProperty(APIConstants.Webhooks.PAYLOAD_PROPERTY);
+        String contentType = getContentType(messageContext);
+        WebhooksFanOutEngine fanOutEngine = WebhooksFanOutEngine.getInstance();
+        for (WebhooksDTO subscriber : subscribers) {
+            if (subscriber.isThrottled()) {
+                continue;
+            }
+            AuthenticationContext authContext = new AuthenticationContext();
+            SubscriberInfoLoader.populateAuthContext(subscriber.getTenantDomain(),
+                    Integer.parseInt(subscriber.getAppID()), authContext);
+            messageContext.setProperty(APISecurityUtils.API_AUTH_CONTEXT, authContext);
+            if (!SubscriberInfoLoader.doThrottle(subscriber, messageContext, authContext)) {
+                fanOutEngine.dispatch(subscriber, payload, contentType);
+            }
+        }
+        return true;
+    }
+
+    private String getContentType(MessageContext messageContext) {
+
+        Map<?, ?> headers = (Map<?, ?>) ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+        return headers != null ? (String) headers.get(HTTP.CONTENT_TYPE) : null;
+    }
+}
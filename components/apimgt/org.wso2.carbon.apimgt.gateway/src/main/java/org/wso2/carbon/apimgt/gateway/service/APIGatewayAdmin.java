@@ -45,7 +45,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.stream.XMLStreamException;
 
@@ -652,6 +654,22 @@ public class APIGatewayAdmin extends org.wso2.carbon.core.AbstractAdmin {
 
     public boolean deployAPI(GatewayAPIDTO gatewayAPIDTO) throws AxisFault {
 
+        return deployAPI(gatewayAPIDTO, Collections.emptyMap());
+    }
+
+    /**
+     * Deploys an API using the sequences of the API which are already parsed, so that the sequences of several APIs
+     * can be parsed in parallel while the APIs are deployed one at a time.
+     *
+     * @param gatewayAPIDTO   API to be deployed
+     * @param parsedSequences parsed sequences of the API by sequence name. Sequences which are not in the map are
+     *                        parsed while deploying
+     * @return true if the API is deployed
+     * @throws AxisFault if an error occurred while deploying the API
+     */
+    public boolean deployAPI(GatewayAPIDTO gatewayAPIDTO, Map<String, OMElement> parsedSequences)
+            throws AxisFault {
+
         CertificateManager certificateManager = CertificateManagerImpl.getInstance();
         SequenceAdminServiceProxy sequenceAdminServiceProxy =
                 getSequenceAdminServiceClient(gatewayAPIDTO.getTenantDomain());
@@ -739,12 +757,14 @@ public class APIGatewayAdmin extends org.wso2.carbon.core.AbstractAdmin {
         // Add Sequences
         if (gatewayAPIDTO.getSequenceToBeAdd() != null) {
             for (GatewayContentDTO sequence : gatewayAPIDTO.getSequenceToBeAdd()) {
-                OMElement element;
-                try {
-                    element = AXIOMUtil.stringToOM(sequence.getContent());
-                } catch (XMLStreamException e) {
-                    log.error("Exception occurred while converting String to an OM.", e);
-                    throw new AxisFault(e.getMessage());
+                OMElement element = parsedSequences.get(sequence.getName());
+                if (element == null) {
+                    try {
+                        element = AXIOMUtil.stringToOM(sequence.getContent());
+                    } catch (XMLStreamException e) {
+                        log.error("Exception occurred while converting String to an OM.", e);
+                        throw new AxisFault(e.getMessage());
+                    }
                 }
                 if (sequenceAdminServiceProxy.isExistingSequence(sequence.getName())) {
                     sequenceAdminServiceProxy.deleteSequence(sequence.getName());
@@ -20,6 +20,7 @@ package org.wso2.carbon.apimgt.gateway.service;
 
 import org.wso2.carbon.apimgt.gateway.handlers.Utils;
 import org.wso2.carbon.apimgt.gateway.jwt.RevokedJWTDataHolder;
+import org.wso2.carbon.apimgt.impl.kmclient.CachingIntrospectionClient;
 import org.wso2.carbon.apimgt.impl.token.RevokedTokenService;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
@@ -33,6 +34,8 @@ public class RevokedTokenDataImpl implements RevokedTokenService {
 
     @Override
     public void removeTokenFromGatewayCache(String accessToken, boolean isJwtToken) {
+        // the introspection result is removed even if the token is not in the gateway cache
+        CachingIntrospectionClient.invalidateToken(accessToken);
         String cachedTenantDomain;
         try {
             PrivilegedCarbonContext.startTenantFlow();
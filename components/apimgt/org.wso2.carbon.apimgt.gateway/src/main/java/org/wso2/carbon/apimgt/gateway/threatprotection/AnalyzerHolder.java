@@ -18,38 +18,20 @@
 
 package org.wso2.carbon.apimgt.gateway.threatprotection;
 
-import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.APIMThreatAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.JSONAnalyzer;
 import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.XMLAnalyzer;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.AnalyzerPool;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.JSONAnalyzerFactory;
-import org.wso2.carbon.apimgt.gateway.threatprotection.pool.XMLAnalyzerFactory;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 
 /**
- * Holds the object pools for XML and JSON Analyzers
+ * Holds the XML and JSON Analyzers. Each mediation thread owns one analyzer of each type, which is configured for
+ * the request being analyzed and cleared afterwards, so that analyzers need not be borrowed from a shared pool.
  */
 public class AnalyzerHolder {
 
-    private static Logger log = LoggerFactory.getLogger(AnalyzerHolder.class);
     private static AnalyzerHolder instance = new AnalyzerHolder();
-    private static AnalyzerPool<XMLAnalyzer> xmlAnalyzerAnalyzerPool;
-    private static AnalyzerPool<JSONAnalyzer> jsonAnalyzerAnalyzerPool;
-    private static GenericObjectPoolConfig poolConfig;
-
-    static {
-        poolConfig = new GenericObjectPoolConfig();
-        poolConfig.setMaxTotal(200);
-
-        poolConfig.setBlockWhenExhausted(false);
-        poolConfig.setMaxWaitMillis(0);
-
-        xmlAnalyzerAnalyzerPool = new AnalyzerPool<>(new XMLAnalyzerFactory(), poolConfig);
-        jsonAnalyzerAnalyzerPool = new AnalyzerPool<>(new JSONAnalyzerFactory(), poolConfig);
-    }
+    private static final ThreadLocal<XMLAnalyzer> xmlAnalyzer = ThreadLocal.withInitial(XMLAnalyzer::new);
+    private static final ThreadLocal<JSONAnalyzer> jsonAnalyzer = ThreadLocal.withInitial(JSONAnalyzer::new);
 
     private AnalyzerHolder() {
     }
@@ -59,7 +41,7 @@ public class AnalyzerHolder {
     }
 
     /**
-     * Borrows an object from pools (xml or json) for threat analysis
+     * Returns the analyzer (xml or json) of the current thread for threat analysis
      *
      * @param contentType Content-Type of the payload
      * @return Instance of APIMThreatAnalyzer based on content type
@@ -68,35 +50,22 @@ public class AnalyzerHolder {
         APIMThreatAnalyzer analyzer = null;
         if (ThreatProtectorConstants.TEXT_XML.equalsIgnoreCase(contentType) ||
                 ThreatProtectorConstants.APPLICATION_XML.equalsIgnoreCase(contentType)) {
-            try {
-                analyzer = xmlAnalyzerAnalyzerPool.borrowObject();
-            } catch (Exception e) {
-                // here apache.commons GenericObjectPool's borrow object method throws generic exception.
-                // here log the stacktrace along with the message.
-                log.error("Threat Protection: Error occurred while getting an object from the pool.", e);
-            }
+            analyzer = xmlAnalyzer.get();
         } else if (ThreatProtectorConstants.TEXT_JSON.equalsIgnoreCase(contentType) ||
                 ThreatProtectorConstants.APPLICATION_JSON.equalsIgnoreCase(contentType)) {
-            try {
-                analyzer = jsonAnalyzerAnalyzerPool.borrowObject();
-            } catch (Exception e) {
-                log.error("Threat Protection: Error occurred while getting an object from the pool.", e);
-            }
+            analyzer = jsonAnalyzer.get();
         }
         return analyzer;
     }
 
     /**
-     * Returns objects back to the pool
+     * Clears the request specific configuration of an analyzer once the analysis is completed
      *
-     * @param analyzer borrowed instance of {@link APIMThreatAnalyzer}
+     * @param analyzer instance of {@link APIMThreatAnalyzer} returned by {@link #getAnalyzer(String)}
      */
     public static void returnObject(APIMThreatAnalyzer analyzer) {
-        analyzer.clearConfiguration();
-        if (analyzer instanceof JSONAnalyzer) {
-            jsonAnalyzerAnalyzerPool.returnObject((JSONAnalyzer) analyzer);
-        } else if (analyzer instanceof XMLAnalyzer) {
-            xmlAnalyzerAnalyzerPool.returnObject((XMLAnalyzer) analyzer);
+        if (analyzer != null) {
+            analyzer.clearConfiguration();
         }
     }
 }
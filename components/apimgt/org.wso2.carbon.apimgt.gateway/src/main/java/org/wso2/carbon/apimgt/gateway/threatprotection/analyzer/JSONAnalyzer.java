@@ -28,7 +28,6 @@ import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 
 /**
  * Implementation of APIMThreatAnalyzer for JSON Payloads
@@ -80,14 +79,15 @@ public class JSONAnalyzer implements APIMThreatAnalyzer {
         throw new UnsupportedOperationException("This method is not supported on this instance");
     }
 
-    /** Analyze the JSON payload against limitations.
+    /** Analyze the JSON payload against limitations. The payload is parsed directly from its bytes, whose encoding
+     * is detected by the parser, instead of being decoded to characters first.
      * @param in input stream of the request payload.
      * @param apiContext request api context.
      * @throws APIMThreatAnalyzerException if defined limits for json payload exceeds
      */
     @Override
     public void analyze(InputStream in, String apiContext) throws APIMThreatAnalyzerException {
-        try (JsonParser parser = factory.createParser(new InputStreamReader(in))) {
+        try (JsonParser parser = factory.createParser(in)) {
             int currentDepth = 0;
             int currentFieldCount = 0;
             JsonToken token;
@@ -26,13 +26,10 @@ import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.JSONConfig;
 import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
 import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
 
-import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import java.io.IOException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
 
 
 /**
@@ -46,7 +43,7 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
     private boolean enabled = true;
 
     public XMLAnalyzer() {
-        factory = WstxInputFactory.newInstance();
+        factory = new WstxInputFactory();
     }
 
     /**
@@ -81,39 +78,34 @@ public class XMLAnalyzer implements APIMThreatAnalyzer {
 
     @Override
     public void clearConfiguration() {
-        factory = WstxInputFactory.newInstance();
+        factory = new WstxInputFactory();
     }
 
     /**
+     * Analyzes the xml payload by reading it with a stream reader, which enforces the configured limits. The payload
+     * is read directly from its bytes, whose encoding is detected from the xml declaration.
+     *
      * @param in xml payload
      * @throws APIMThreatAnalyzerException
      */
     @Override
     public void  analyze(InputStream in, String apiContext) throws APIMThreatAnalyzerException {
-        Reader reader = null;
-        XMLEventReader xmlEventReaderReader = null;
+        XMLStreamReader xmlStreamReader = null;
         try {
-            reader = new InputStreamReader(in);
-            xmlEventReaderReader = factory.createXMLEventReader(reader);
-            while (xmlEventReaderReader.hasNext()) {
-                xmlEventReaderReader.nextEvent();
+            xmlStreamReader = factory.createXMLStreamReader(in);
+            while (xmlStreamReader.hasNext()) {
+                xmlStreamReader.next();
             }
         } catch (XMLStreamException e) {
             throw new APIMThreatAnalyzerException("XML Validation Failed: due to "+ e.getMessage());
         }  finally {
             try {
-                if (xmlEventReaderReader != null) {
-                    xmlEventReaderReader.close();
-                }
-                if (reader != null) {
-                    reader.close();
+                if (xmlStreamReader != null) {
+                    xmlStreamReader.close();
                 }
             } catch (XMLStreamException e) {
                 log.warn(XML_THREAT_PROTECTION_MSG_PREFIX + apiContext
-                        + " - Failed to close XMLEventReader", e);
-            } catch (IOException e) {
-                log.warn(XML_THREAT_PROTECTION_MSG_PREFIX + apiContext
-                        + " - Failed to close payload StringReader", e);
+                        + " - Failed to close XMLStreamReader", e);
             }
         }
     }
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable index of the IP blocking conditions of a tenant. The IP range conditions are compiled into a sorted array
+ * of non overlapping intervals of 128 bit addresses, held as pairs of longs, so that an address is looked up with a
+ * binary search instead of comparing it with every condition. IPv4 addresses share the same address space as IPv6
+ * addresses, with their 32 bit value, as with the {@link APIUtil#ipToBigInteger(String)} values of the conditions.
+ * <p>
+ * An IP is blocked if any of the conditions of the tenant blocks it:
+ * <ul>
+ * <li>a fixed IP condition blocks the IP, or any other IP if it is inverted</li>
+ * <li>a range condition blocks the IPs within the range, exclusive of the boundaries, or the IPs outside the range
+ * if it is inverted</li>
+ * </ul>
+ * A new index is built whenever the conditions of the tenant change.
+ */
+final class IPBlockingIndex {
+
+    private static final Log log = LogFactory.getLog(IPBlockingIndex.class);
+
+    private static final BigInteger LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    private final Set<String> blockedIps;
+    // Inverted fixed IP conditions block every IP except the only one allowed by all of them
+    private final boolean hasInvertedIps;
+    private final String allowedIp;
+    // Merged intervals of the range conditions, with inclusive boundaries
+    private final long[] rangeStartHigh;
+    private final long[] rangeStartLow;
+    private final long[] rangeEndHigh;
+    private final long[] rangeEndLow;
+    // Inverted range conditions block every IP outside of the intersection of their ranges
+    private final boolean hasInvertedRanges;
+    private final boolean allowedRangeEmpty;
+    private final long allowedStartHigh;
+    private final long allowedStartLow;
+    private final long allowedEndHigh;
+    private final long allowedEndLow;
+
+    IPBlockingIndex(Collection<IPRange> ipRanges) {
+
+        Set<String> fixedIps = new HashSet<>();
+        Set<String> invertedFixedIps = new HashSet<>();
+        List<BigInteger[]> ranges = new ArrayList<>();
+        BigInteger allowedStart = null;
+        BigInteger allowedEnd = null;
+        boolean invertedRanges = false;
+
+        for (IPRange ipRange : ipRanges) {
+            if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
+                if (ipRange.isInvert()) {
+                    invertedFixedIps.add(ipRange.getFixedIp());
+                } else if (ipRange.getFixedIp() != null) {
+                    fixedIps.add(ipRange.getFixedIp());
+                }
+            } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
+                if (ipRange.getStartingIpBigIntValue() == null || ipRange.getEndingIpBigIntValue() == null) {
+                    log.warn("Ignoring IP range blocking condition " + ipRange.getId() + " of tenant "
+                            + ipRange.getTenantDomain() + " without a starting or ending IP");
+                    continue;
+                }
+                // The boundaries of the range are not blocked
+                BigInteger start = ipRange.getStartingIpBigIntValue().add(BigInteger.ONE);
+                BigInteger end = ipRange.getEndingIpBigIntValue().subtract(BigInteger.ONE);
+                if (ipRange.isInvert()) {
+                    invertedRanges = true;
+                    allowedStart = allowedStart == null ? start : allowedStart.max(start);
+                    allowedEnd = allowedEnd == null ? end : allowedEnd.min(end);
+                } else if (start.compareTo(end) <= 0) {
+                    ranges.add(new BigInteger[]{start, end});
+                }
+            }
+        }
+
+        blockedIps = Collections.unmodifiableSet(fixedIps);
+        hasInvertedIps = !invertedFixedIps.isEmpty();
+        allowedIp = invertedFixedIps.size() == 1 ? invertedFixedIps.iterator().next() : null;
+
+        List<BigInteger[]> mergedRanges = merge(ranges);
+        int size = mergedRanges.size();
+        rangeStartHigh = new long[size];
+        rangeStartLow = new long[size];
+        rangeEndHigh = new long[size];
+        rangeEndLow = new long[size];
+        for (int i = 0; i < size; i++) {
+            BigInteger[] range = mergedRanges.get(i);
+            rangeStartHigh[i] = high(range[0]);
+            rangeStartLow[i] = low(range[0]);
+            rangeEndHigh[i] = high(range[1]);
+            rangeEndLow[i] = low(range[1]);
+        }
+
+        hasInvertedRanges = invertedRanges;
+        allowedRangeEmpty = invertedRanges && allowedStart.compareTo(allowedEnd) > 0;
+        allowedStartHigh = invertedRanges ? high(allowedStart) : 0;
+        allowedStartLow = invertedRanges ? low(allowedStart) : 0;
+        allowedEndHigh = invertedRanges ? high(allowedEnd) : 0;
+        allowedEndLow = invertedRanges ? low(allowedEnd) : 0;
+    }
+
+    /**
+     * Checks whether the IP is blocked by the conditions of the index.
+     *
+     * @param ip IP address of the request
+     * @return true if the IP is blocked
+     */
+    boolean isBlocked(String ip) {
+
+        if (ip == null) {
+            return false;
+        }
+        if (blockedIps.contains(ip)) {
+            log.debug("Block IP selected for Blocked");
+            return true;
+        }
+        if (hasInvertedIps && !ip.equals(allowedIp)) {
+            log.debug("Block IP selected for Blocked");
+            return true;
+        }
+        if (rangeStartHigh.length == 0 && !hasInvertedRanges) {
+            return false;
+        }
+        if (allowedRangeEmpty) {
+            log.debug("Block IPRange selected for Blocked");
+            return true;
+        }
+        long high;
+        long low;
+        long ipv4 = parseIPv4(ip);
+        if (ipv4 >= 0) {
+            high = 0;
+            low = ipv4;
+        } else {
+            long[] ipv6 = new long[2];
+            if (!parseIPv6(ip, ipv6)) {
+                // Addresses in other formats are resolved as before
+                BigInteger value = APIUtil.ipToBigInteger(ip);
+                ipv6[0] = high(value);
+                ipv6[1] = low(value);
+            }
+            high = ipv6[0];
+            low = ipv6[1];
+        }
+        if (isInRanges(high, low)) {
+            log.debug("Block IPRange selected for Blocked");
+            return true;
+        }
+        if (hasInvertedRanges && (compare(high, low, allowedStartHigh, allowedStartLow) < 0
+                || compare(high, low, allowedEndHigh, allowedEndLow) > 0)) {
+            log.debug("Block IPRange selected for Blocked");
+            return true;
+        }
+        return false;
+    }
+
+    int getRangeCount() {
+
+        return rangeStartHigh.length;
+    }
+
+    private boolean isInRanges(long high, long low) {
+
+        // Finds the last range starting at or before the address
+        int from = 0;
+        int to = rangeStartHigh.length - 1;
+        int candidate = -1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            if (compare(rangeStartHigh[mid], rangeStartLow[mid], high, low) <= 0) {
+                candidate = mid;
+                from = mid + 1;
+            } else {
+                to = mid - 1;
+            }
+        }
+        return candidate >= 0 && compare(high, low, rangeEndHigh[candidate], rangeEndLow[candidate]) <= 0;
+    }
+
+    private static List<BigInteger[]> merge(List<BigInteger[]> ranges) {
+
+        ranges.sort((range1, range2) -> range1[0].compareTo(range2[0]));
+        List<BigInteger[]> mergedRanges = new ArrayList<>();
+        BigInteger[] current = null;
+        for (BigInteger[] range : ranges) {
+            if (current != null && range[0].compareTo(current[1].add(BigInteger.ONE)) <= 0) {
+                current[1] = current[1].max(range[1]);
+            } else {
+                current = new BigInteger[]{range[0], range[1]};
+                mergedRanges.add(current);
+            }
+        }
+        return mergedRanges;
+    }
+
+    private static int compare(long high1, long low1, long high2, long low2) {
+
+        int result = Long.compareUnsigned(high1, high2);
+        return result != 0 ? result : Long.compareUnsigned(low1, low2);
+    }
+
+    private static long high(BigInteger value) {
+
+        return value.signum() < 0 ? 0 : value.shiftRight(64).longValue();
+    }
+
+    private static long low(BigInteger value) {
+
+        return value.signum() < 0 ? 0 : value.and(LONG_MASK).longValue();
+    }
+
+    /**
+     * Parses a dotted decimal IPv4 address.
+     *
+     * @return value of the address, or -1 if it is not a dotted decimal IPv4 address
+     */
+    static long parseIPv4(String ip) {
+
+        int length = ip.length();
+        if (length < 7 || length > 15) {
+            return -1;
+        }
+        long value = 0;
+        int octet = 0;
+        int digits = 0;
+        int dots = 0;
+        for (int i = 0; i < length; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0 && ++dots <= 3) {
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (dots != 3 || digits == 0) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * Parses a hexadecimal IPv6 address, which may contain a "::". Addresses with an embedded IPv4 address or a zone
+     * are not supported.
+     *
+     * @param ip     IP address
+     * @param result array to hold the high and the low 64 bits of the address
+     * @return true if the address was parsed
+     */
+    static boolean parseIPv6(String ip, long[] result) {
+
+        int length = ip.length();
+        if (length < 2 || length > 39) {
+            return false;
+        }
+        // The groups before and after the "::" are accumulated separately, as the number of zero groups it stands
+        // for is only known at the end
+        long beforeHigh = 0;
+        long beforeLow = 0;
+        long afterHigh = 0;
+        long afterLow = 0;
+        int groups = 0;
+        int groupsBeforeGap = -1;
+        int i = 0;
+        if (ip.charAt(0) == ':') {
+            if (ip.charAt(1) != ':') {
+                return false;
+            }
+            groupsBeforeGap = 0;
+            i = 2;
+        }
+        while (i < length) {
+            int group = 0;
+            int digits = 0;
+            int digit;
+            while (i < length && (digit = Character.digit(ip.charAt(i), 16)) >= 0) {
+                if (++digits > 4) {
+                    return false;
+                }
+                group = (group << 4) | digit;
+                i++;
+            }
+            if (digits == 0 || groups == 8) {
+                return false;
+            }
+            if (groupsBeforeGap < 0) {
+                beforeHigh = (beforeHigh << 16) | (beforeLow >>> 48);
+                beforeLow = (beforeLow << 16) | group;
+            } else {
+                afterHigh = (afterHigh << 16) | (afterLow >>> 48);
+                afterLow = (afterLow << 16) | group;
+            }
+            groups++;
+            if (i == length) {
+                break;
+            }
+            if (ip.charAt(i++) != ':' || i == length) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (groupsBeforeGap >= 0) {
+                    return false;
+                }
+                groupsBeforeGap = groups;
+                i++;
+            }
+        }
+        long high;
+        long low;
+        if (groupsBeforeGap < 0) {
+            if (groups != 8) {
+                return false;
+            }
+            high = beforeHigh;
+            low = beforeLow;
+        } else {
+            if (groups > 7) {
+                return false;
+            }
+            // Shift the groups before the gap to the start of the address
+            int shift = 16 * (8 - groupsBeforeGap);
+            if (shift >= 128) {
+                high = 0;
+                low = 0;
+            } else if (shift >= 64) {
+                high = beforeLow << (shift - 64);
+                low = 0;
+            } else {
+                high = (beforeHigh << shift) | (beforeLow >>> (64 - shift));
+                low = beforeLow << shift;
+            }
+            high |= afterHigh;
+            low |= afterLow;
+        }
+        // IPv4 mapped addresses are resolved into IPv4 addresses
+        if (high == 0 && (low >>> 32) == 0xffffL) {
+            low &= 0xffffffffL;
+        }
+        result[0] = high;
+        result[1] = low;
+        return true;
+    }
+}
@@ -25,11 +25,12 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.ThrottleConditionEvaluator;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 
-import java.math.BigInteger;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -50,6 +51,7 @@ public class ThrottleDataHolder {
     private Map<String, String> blockedApplicationConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, String> blockedUserConditionsMap = new ConcurrentHashMap<String, String>();
     private Map<String, Set<IPRange>> blockedIpConditionsMap = new ConcurrentHashMap<>();
+    private Map<String, IPBlockingIndex> ipBlockingIndexMap = new ConcurrentHashMap<>();
     private Map<String, String> keyTemplateMap = new ConcurrentHashMap<String, String>();
     private boolean isBlockingConditionsPresent = true;
     private boolean isKeyTemplatesPresent = false;
@@ -80,6 +82,7 @@ public class ThrottleDataHolder {
         }
         if (!conditionMap.containsKey(conditionKey)) {
             conditionMap.put(conditionKey, conditionValue);
+            ThrottleConditionEvaluator.getInstance().compileConditions(conditionValue);
         }
     }
 
@@ -153,15 +156,23 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.put(name, value);
     }
 
-    public void addIpBlockingCondition(String tenantDomain, int conditionId, String value, String type) {
+    public synchronized void addIpBlockingCondition(String tenantDomain, int conditionId, String value, String type) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges == null){
-            ipRanges = new HashSet<>();
+        // The conditions are copied on write, as they are read by the requests without locking
+        Set<IPRange> ipRanges = new HashSet<>();
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            ipRanges.addAll(existingIpRanges);
         }
-
         ipRanges.add(convertValueToIPRange(tenantDomain, conditionId, value, type));
-        blockedIpConditionsMap.put(tenantDomain, ipRanges);
+        updateIpBlockingConditions(tenantDomain, ipRanges);
+    }
+
+    private void updateIpBlockingConditions(String tenantDomain, Set<IPRange> ipRanges) {
+
+        Set<IPRange> unmodifiableIpRanges = Collections.unmodifiableSet(ipRanges);
+        blockedIpConditionsMap.put(tenantDomain, unmodifiableIpRanges);
+        ipBlockingIndexMap.put(tenantDomain, new IPBlockingIndex(unmodifiableIpRanges));
     }
 
     private IPRange convertValueToIPRange(String tenantDomain, int conditionId, String value, String type) {
@@ -200,9 +211,9 @@ public class ThrottleDataHolder {
         }
     }
 
-    public void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
-        if(data.size() > 0) {
-            blockedIpConditionsMap.putAll(data);
+    public synchronized void addIplockingConditionsFromMap(Map<String, Set<IPRange>> data) {
+        for (Map.Entry<String, Set<IPRange>> entry : data.entrySet()) {
+            updateIpBlockingConditions(entry.getKey(), new HashSet<>(entry.getValue()));
         }
     }
 
@@ -231,15 +242,17 @@ public class ThrottleDataHolder {
         blockedUserConditionsMap.remove(name);
     }
 
-    public void removeIpBlockingCondition(String tenantDomain, int conditionId) {
+    public synchronized void removeIpBlockingCondition(String tenantDomain, int conditionId) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(tenantDomain);
-        if (ipRanges != null) {
+        Set<IPRange> existingIpRanges = blockedIpConditionsMap.get(tenantDomain);
+        if (existingIpRanges != null) {
+            Set<IPRange> ipRanges = new HashSet<>(existingIpRanges);
             Iterator<IPRange> iterator = ipRanges.iterator();
             while (iterator.hasNext()) {
                 IPRange ipRange = iterator.next();
                 if (ipRange.getId() == conditionId) {
                     iterator.remove();
+                    updateIpBlockingConditions(tenantDomain, ipRanges);
                     break;
                 }
             }
@@ -282,39 +295,12 @@ public class ThrottleDataHolder {
 
     private boolean isIpLevelBlocked(String apiTenantDomain, String ip) {
 
-        Set<IPRange> ipRanges = blockedIpConditionsMap.get(apiTenantDomain);
-        if (ipRanges != null && ipRanges.size() > 0) {
-            log.debug("Tenant " + apiTenantDomain + " contains block conditions");
-            for (IPRange ipRange : ipRanges) {
-                if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
-                    if (ip.equals(ipRange.getFixedIp())) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IP selected for Blocked");
-                            return true;
-                        }
-                    }
-                } else if (APIConstants.BLOCK_CONDITION_IP_RANGE.equals(ipRange.getType())) {
-                    BigInteger ipBigIntegerValue = APIUtil.ipToBigInteger(ip);
-
-                    if (((ipBigIntegerValue.compareTo(ipRange.getStartingIpBigIntValue()) > 0) &&
-                            (ipBigIntegerValue.compareTo(ipRange.getEndingIpBigIntValue()) < 0))) {
-                        if (!ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    } else {
-                        if (ipRange.isInvert()) {
-                            log.debug("Block IPRange selected for Blocked");
-                            return true;
-                        }
-                    }
-                }
+        IPBlockingIndex ipBlockingIndex = ipBlockingIndexMap.get(apiTenantDomain);
+        if (ipBlockingIndex != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Tenant " + apiTenantDomain + " contains block conditions");
             }
+            return ipBlockingIndex.isBlocked(ip);
         }
         return false;
     }
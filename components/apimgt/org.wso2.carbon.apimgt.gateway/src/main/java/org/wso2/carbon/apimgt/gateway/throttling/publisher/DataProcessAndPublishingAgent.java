@@ -11,7 +11,7 @@ import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.RESTConstants;
 import org.apache.synapse.transport.passthru.util.RelayUtils;
 import org.json.simple.JSONObject;
-import org.wso2.carbon.apimgt.common.gateway.util.JWTUtil;
+import org.wso2.carbon.apimgt.common.gateway.util.ParsedJWT;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
@@ -43,7 +43,7 @@ import javax.xml.stream.XMLStreamException;
 public class DataProcessAndPublishingAgent implements Runnable {
     private static final Log log = LogFactory.getLog(DataProcessAndPublishingAgent.class);
 
-    private static String streamID = "org.wso2.throttle.request.stream:1.0.0";
+    static final String streamID = "org.wso2.throttle.request.stream:1.0.0";
     private MessageContext messageContext;
     private DataPublisher dataPublisher;
 
@@ -71,6 +71,8 @@ public class DataProcessAndPublishingAgent implements Runnable {
 
     private long messageSizeInBytes;
 
+    long queuedTime;
+
     public DataProcessAndPublishingAgent() {
 
         dataPublisher = getDataPublisher();
@@ -240,13 +242,14 @@ public class DataProcessAndPublishingAgent implements Runnable {
 
         //Publish jwt claims
         if (getThrottleProperties().isEnableJwtConditions()) {
-            if (authenticationContext.getCallerToken() != null) {
-                Map<String, String> assertions = JWTUtil.getJWTClaims(authenticationContext.getCallerToken());
-                if (assertions != null) {
-                    jsonObMap.putAll(assertions);
-                }
+            ParsedJWT callerToken = authenticationContext.getParsedCallerToken();
+            if (callerToken != null) {
+                jsonObMap.putAll(callerToken.getClaims());
             }
         }
+        // the request count is weighed by the traffic manager, hence a header, query parameter or claim of the
+        // same name sent by the client is overridden
+        jsonObMap.put(ThrottleEventAggregator.REQUEST_COUNT, 1);
 
         //this parameter will be used to capture message size and pass it to calculation logic
         
@@ -257,7 +260,8 @@ public class DataProcessAndPublishingAgent implements Runnable {
             isVerbInfoContentAware = verbInfoDTO.isContentAware();
         }
 
-        if (authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware) {
+        boolean isContentAware = authenticationContext.isContentAwareTierPresent() || isVerbInfoContentAware;
+        if (isContentAware) {
             if (log.isDebugEnabled()) {
                 log.debug("Message size: " + messageSizeInBytes + "B");
             }
@@ -274,6 +278,19 @@ public class DataProcessAndPublishingAgent implements Runnable {
 
         }
 
+        ThrottleEventAggregator eventAggregator = getEventAggregator();
+        if (eventAggregator != null && isEventAggregationAllowed()) {
+            String[] throttleData = new String[]{this.applicationLevelThrottleKey, this.applicationLevelTier,
+                    this.apiLevelThrottleKey, this.apiLevelTier,
+                    this.subscriptionLevelThrottleKey, this.subscriptionLevelTier,
+                    this.resourceLevelThrottleKey, this.resourceLevelTier,
+                    this.authorizedUser, this.apiContext, this.apiVersion,
+                    this.appTenant, this.apiTenant, this.appId, this.apiName};
+            eventAggregator.add(messageContext.getMessageID(), throttleData, jsonObMap, isContentAware,
+                    messageSizeInBytes);
+            return;
+        }
+
         Object[] objects = new Object[]{messageContext.getMessageID(),
                                         this.applicationLevelThrottleKey, this.applicationLevelTier,
                                         this.apiLevelThrottleKey, this.apiLevelTier,
@@ -297,4 +314,12 @@ public class DataProcessAndPublishingAgent implements Runnable {
     protected DataPublisher getDataPublisher() {
         return ThrottleDataPublisher.getDataPublisher();
     }
+
+    protected ThrottleEventAggregator getEventAggregator() {
+        return ThrottleDataPublisher.getEventAggregator();
+    }
+
+    protected boolean isEventAggregationAllowed() {
+        return ThrottleDataPublisher.isEventAggregationAllowed();
+    }
 }
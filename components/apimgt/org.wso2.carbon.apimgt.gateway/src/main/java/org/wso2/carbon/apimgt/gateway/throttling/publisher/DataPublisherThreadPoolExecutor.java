@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class will act as thread pool executor and after executing each thread it will return runnable
+ * object back to pool. This implementation specifically used to minimize number of objects created during
+ * runtime. The submitted tasks wait in a bounded queue if the corePoolSize threads are busy, and additional threads
+ * up to maximumPoolSize are started once the queue is full. When both the queue and the threads are exhausted the
+ * configured overflow policy decides what happens to the event, so that a slow traffic manager cannot make the
+ * gateway run out of memory.
+ */
+class DataPublisherThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private static final Log log = LogFactory.getLog(DataPublisherThreadPoolExecutor.class);
+
+    /**
+     * Policies applied when the publishing queue is full.
+     */
+    enum OverflowPolicy {
+        /**
+         * Publish the event on the calling thread, slowing down the request flow until the queue drains.
+         */
+        CALLER_RUNS,
+        /**
+         * Drop the event being submitted.
+         */
+        DROP_NEWEST,
+        /**
+         * Drop the oldest queued event to make room for the event being submitted.
+         */
+        DROP_OLDEST,
+        /**
+         * Publish one in every samplingRate overflowing events on the calling thread and drop the rest.
+         */
+        SAMPLE;
+
+        static OverflowPolicy fromConfig(String policy) {
+
+            if (policy != null) {
+                String normalizedPolicy = policy.replaceAll("[_\\-\\s]", "");
+                for (OverflowPolicy overflowPolicy : values()) {
+                    if (overflowPolicy.name().replace("_", "").equalsIgnoreCase(normalizedPolicy)) {
+                        return overflowPolicy;
+                    }
+                }
+                log.warn("Unknown throttle data publisher overflow policy " + policy + ", using CallerRuns");
+            }
+            return CALLER_RUNS;
+        }
+    }
+
+    private final ThrottleDataPublisherPool agentPool;
+    private final OverflowPolicy overflowPolicy;
+    private final int samplingRate;
+
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong droppedEventCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+    private final AtomicLong totalPublishLatency = new AtomicLong();
+    private final AtomicLong maxPublishLatency = new AtomicLong();
+
+    DataPublisherThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                    int queueSize, OverflowPolicy overflowPolicy, int samplingRate,
+                                    ThrottleDataPublisherPool agentPool) {
+
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit,
+                new ArrayBlockingQueue<Runnable>(Math.max(queueSize, 1)));
+        this.agentPool = agentPool;
+        this.overflowPolicy = overflowPolicy;
+        this.samplingRate = Math.max(samplingRate, 1);
+        setRejectedExecutionHandler((runnable, executor) -> handleOverflow(runnable));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+
+        if (command instanceof DataProcessAndPublishingAgent) {
+            ((DataProcessAndPublishingAgent) command).queuedTime = System.nanoTime();
+        }
+        super.execute(command);
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+
+        completed(r);
+    }
+
+    private void handleOverflow(Runnable runnable) {
+
+        overflowCount.incrementAndGet();
+        if (isShutdown()) {
+            drop(runnable);
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                drop(runnable);
+                break;
+            case DROP_OLDEST:
+                Runnable oldest = getQueue().poll();
+                if (oldest != null) {
+                    drop(oldest);
+                }
+                if (!getQueue().offer(runnable)) {
+                    drop(runnable);
+                }
+                break;
+            case SAMPLE:
+                if (overflowCount.get() % samplingRate == 0) {
+                    runOnCaller(runnable);
+                } else {
+                    drop(runnable);
+                }
+                break;
+            default:
+                runOnCaller(runnable);
+        }
+    }
+
+    private void runOnCaller(Runnable runnable) {
+
+        callerRunsCount.incrementAndGet();
+        try {
+            runnable.run();
+        } catch (RuntimeException e) {
+            log.error("Error while publishing throttle data to traffic manager", e);
+        } finally {
+            completed(runnable);
+        }
+    }
+
+    private void drop(Runnable runnable) {
+
+        droppedEventCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Throttle data publishing queue is full. Dropped throttle event.");
+        }
+        release(runnable);
+    }
+
+    private void completed(Runnable runnable) {
+
+        if (runnable instanceof DataProcessAndPublishingAgent) {
+            long latency = System.nanoTime() - ((DataProcessAndPublishingAgent) runnable).queuedTime;
+            totalPublishLatency.addAndGet(latency);
+            maxPublishLatency.accumulateAndGet(latency, Math::max);
+        }
+        publishedEventCount.incrementAndGet();
+        release(runnable);
+    }
+
+    private void release(Runnable runnable) {
+
+        if (agentPool != null && runnable instanceof DataProcessAndPublishingAgent) {
+            try {
+                agentPool.release((DataProcessAndPublishingAgent) runnable);
+            } catch (Exception e) {
+                log.error("Error while returning Throttle data publishing agent back to pool" + e.getMessage());
+            }
+        }
+    }
+
+    int getQueueDepth() {
+
+        return getQueue().size();
+    }
+
+    long getDroppedEventCount() {
+
+        return droppedEventCount.get();
+    }
+
+    long getCallerRunsCount() {
+
+        return callerRunsCount.get();
+    }
+
+    long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    /**
+     * Returns the average time in milliseconds from submitting an event until it was published.
+     */
+    double getAveragePublishLatency() {
+
+        long published = publishedEventCount.get();
+        return published > 0 ? totalPublishLatency.get() / (published * 1_000_000d) : 0;
+    }
+
+    /**
+     * Returns the maximum time in milliseconds from submitting an event until it was published.
+     */
+    double getMaxPublishLatency() {
+
+        return maxPublishLatency.get() / 1_000_000d;
+    }
+}
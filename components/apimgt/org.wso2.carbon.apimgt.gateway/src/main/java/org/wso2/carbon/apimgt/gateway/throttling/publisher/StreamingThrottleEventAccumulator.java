@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.axiom.util.UIDGenerator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONObject;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates the throttle events of a single streaming API connection (WebSocket, GraphQL subscription or SSE).
+ * Instead of publishing an event per frame, the frames and bytes are counted per throttle key and published as a
+ * single event carrying the requestCount and messageSize properties, once the configured number of frames is reached
+ * or the window time elapses. Throttle decisions are still taken locally on each frame by the callers.
+ * <p>
+ * The pending events of a WebSocket or GraphQL subscription connection are flushed when the connection is closed,
+ * and those of an SSE stream when the gateway ends the stream. Accumulators with pending events are also flushed by a
+ * shared background task, hence connections going idle, closing without notice or ended by the backend do not hold
+ * back their events for longer than the window time. While a custom (global) policy is
+ * deployed, the frames are published one event each, as custom policies count events.
+ */
+public class StreamingThrottleEventAccumulator {
+
+    private static final Log log = LogFactory.getLog(StreamingThrottleEventAccumulator.class);
+
+    private static final String THROTTLE_STREAM_ID = "org.wso2.throttle.request.stream:1.0.0";
+    private static final int IDLE_WINDOWS_BEFORE_EXPIRY = 10;
+
+    private static final Set<StreamingThrottleEventAccumulator> activeAccumulators = ConcurrentHashMap.newKeySet();
+    private static ScheduledExecutorService flushExecutor;
+
+    private static final AtomicLong receivedFrameCount = new AtomicLong();
+    private static final AtomicLong publishedEventCount = new AtomicLong();
+
+    private final long windowTime;
+    private final int maxEventCount;
+    private final Map<List<String>, PendingEvent> pendingEvents = new ConcurrentHashMap<>();
+    private final AtomicBoolean registered = new AtomicBoolean();
+    private volatile long lastActivityTime;
+
+    public StreamingThrottleEventAccumulator(long windowTime, int maxEventCount) {
+
+        this.windowTime = windowTime;
+        this.maxEventCount = Math.max(maxEventCount, 1);
+    }
+
+    /**
+     * Creates an accumulator for a new streaming connection.
+     *
+     * @return accumulator, or null if throttle event aggregation is not enabled
+     */
+    public static StreamingThrottleEventAccumulator newAccumulator() {
+
+        ThrottleProperties throttleProperties = ServiceReferenceHolder.getInstance().getThrottleProperties();
+        if (throttleProperties == null) {
+            return null;
+        }
+        ThrottleProperties.DataPublisherEventAggregation eventAggregation =
+                throttleProperties.getDataPublisherEventAggregation();
+        if (eventAggregation == null || !eventAggregation.isEnabled() || eventAggregation.getWindowTime() <= 0) {
+            return null;
+        }
+        return new StreamingThrottleEventAccumulator(eventAggregation.getWindowTime(),
+                eventAggregation.getMaxEventCount());
+    }
+
+    /**
+     * Accumulates frames of the connection.
+     *
+     * @param throttleData throttle attributes of the event, in the order of the throttle request stream
+     * @param properties   properties map of the event, without the message size
+     * @param frameCount   number of frames, nothing is accumulated if not positive
+     * @param messageSize  total size of the frames in bytes
+     */
+    public void add(String[] throttleData, Map<String, Object> properties, int frameCount, long messageSize) {
+
+        if (frameCount <= 0) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        lastActivityTime = currentTime;
+        receivedFrameCount.addAndGet(frameCount);
+        if (!isEventAggregationAllowed()) {
+            publishUnaggregated(throttleData, properties, frameCount, messageSize, currentTime);
+            return;
+        }
+        PendingEvent[] completedEvent = new PendingEvent[1];
+        pendingEvents.compute(Arrays.asList(throttleData), (key, pendingEvent) -> {
+            if (pendingEvent == null) {
+                pendingEvent = new PendingEvent(throttleData, properties, currentTime);
+            }
+            pendingEvent.frameCount += frameCount;
+            pendingEvent.messageSize += messageSize;
+            if (pendingEvent.frameCount >= maxEventCount || currentTime - pendingEvent.firstFrameTime >= windowTime) {
+                completedEvent[0] = pendingEvent;
+                return null;
+            }
+            return pendingEvent;
+        });
+        if (completedEvent[0] != null) {
+            publish(completedEvent[0]);
+        } else if (registered.compareAndSet(false, true)) {
+            register(this);
+        }
+    }
+
+    /**
+     * Publishes all the pending events of the connection. Called when the connection is closed.
+     */
+    public void flush() {
+
+        flush(true);
+    }
+
+    private void flush(boolean force) {
+
+        long currentTime = System.currentTimeMillis();
+        for (List<String> key : pendingEvents.keySet()) {
+            PendingEvent[] completedEvent = new PendingEvent[1];
+            pendingEvents.computeIfPresent(key, (k, pendingEvent) -> {
+                if (force || currentTime - pendingEvent.firstFrameTime >= windowTime) {
+                    completedEvent[0] = pendingEvent;
+                    return null;
+                }
+                return pendingEvent;
+            });
+            if (completedEvent[0] != null) {
+                publish(completedEvent[0]);
+            }
+        }
+    }
+
+    private void publishUnaggregated(String[] throttleData, Map<String, Object> properties, int frameCount,
+                                     long messageSize, long currentTime) {
+
+        for (int i = 0; i < frameCount; i++) {
+            PendingEvent event = new PendingEvent(throttleData, properties, currentTime);
+            event.frameCount = 1;
+            // the size of the frames is not known individually, so the last frame carries the remainder
+            event.messageSize = i < frameCount - 1 ? messageSize / frameCount
+                    : messageSize - (messageSize / frameCount) * (frameCount - 1);
+            publish(event);
+        }
+    }
+
+    private void publish(PendingEvent pendingEvent) {
+
+        JSONObject properties = new JSONObject();
+        properties.putAll(pendingEvent.properties);
+        properties.put(ThrottleEventAggregator.REQUEST_COUNT, pendingEvent.frameCount);
+        properties.put(APIThrottleConstants.MESSAGE_SIZE, pendingEvent.messageSize);
+        Object[] objects = new Object[pendingEvent.throttleData.length + 2];
+        objects[0] = UIDGenerator.generateURNString();
+        System.arraycopy(pendingEvent.throttleData, 0, objects, 1, pendingEvent.throttleData.length);
+        objects[objects.length - 1] = properties.toString();
+        DataPublisher dataPublisher = getDataPublisher();
+        if (dataPublisher == null) {
+            log.error("Cannot publish events to traffic manager because ThrottleDataPublisher "
+                    + "has not been initialised");
+            return;
+        }
+        dataPublisher.tryPublish(new Event(THROTTLE_STREAM_ID, pendingEvent.firstFrameTime, null, null, objects));
+        publishedEventCount.incrementAndGet();
+    }
+
+    protected DataPublisher getDataPublisher() {
+
+        return ThrottleDataPublisher.getDataPublisher();
+    }
+
+    protected boolean isEventAggregationAllowed() {
+
+        return ThrottleDataPublisher.isEventAggregationAllowed();
+    }
+
+    int getPendingEventCount() {
+
+        return pendingEvents.size();
+    }
+
+    private static synchronized void register(StreamingThrottleEventAccumulator accumulator) {
+
+        activeAccumulators.add(accumulator);
+        if (flushExecutor == null) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "StreamingThrottleEventAccumulator");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(accumulator.windowTime / 2, 1);
+            flushExecutor.scheduleWithFixedDelay(StreamingThrottleEventAccumulator::flushExpiredEvents, period,
+                    period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void flushExpiredEvents() {
+
+        long currentTime = System.currentTimeMillis();
+        for (StreamingThrottleEventAccumulator accumulator : activeAccumulators) {
+            try {
+                accumulator.flush(false);
+                if (accumulator.pendingEvents.isEmpty() && currentTime - accumulator.lastActivityTime
+                        > accumulator.windowTime * IDLE_WINDOWS_BEFORE_EXPIRY) {
+                    activeAccumulators.remove(accumulator);
+                    accumulator.registered.set(false);
+                    // An event may have been added while expiring the accumulator
+                    if (!accumulator.pendingEvents.isEmpty() && accumulator.registered.compareAndSet(false, true)) {
+                        activeAccumulators.add(accumulator);
+                    }
+                }
+            } catch (Throwable e) {
+                log.error("Error while publishing accumulated throttle events of streaming API", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of frames received by all the streaming connections.
+     */
+    public static long getReceivedFrameCount() {
+
+        return receivedFrameCount.get();
+    }
+
+    /**
+     * Returns the number of throttle events published for all the streaming connections.
+     */
+    public static long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    private static final class PendingEvent {
+
+        private final String[] throttleData;
+        private final Map<String, Object> properties;
+        private final long firstFrameTime;
+        private long frameCount;
+        private long messageSize;
+
+        private PendingEvent(String[] throttleData, Map<String, Object> properties, long firstFrameTime) {
+
+            this.throttleData = throttleData;
+            this.properties = properties;
+            this.firstFrameTime = firstFrameTime;
+        }
+    }
+}
@@ -24,6 +24,8 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.synapse.MessageContext;
 import org.wso2.carbon.apimgt.gateway.handlers.security.AuthenticationContext;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.gateway.throttling.ThrottleDataHolder;
+import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.databridge.agent.DataPublisher;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointAgentConfigurationException;
@@ -31,12 +33,12 @@ import org.wso2.carbon.databridge.agent.exception.DataEndpointAuthenticationExce
 import org.wso2.carbon.databridge.agent.exception.DataEndpointConfigurationException;
 import org.wso2.carbon.databridge.agent.exception.DataEndpointException;
 import org.wso2.carbon.databridge.commons.exception.TransportException;
+import org.wso2.carbon.metrics.manager.Gauge;
+import org.wso2.carbon.metrics.manager.Level;
+import org.wso2.carbon.metrics.manager.MetricManager;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -49,13 +51,34 @@ public class ThrottleDataPublisher {
 
     public static final Log log = LogFactory.getLog(ThrottleDataPublisher.class);
 
+    private static final String METRICS_NAME = "ThrottleDataPublisher";
+
     public static DataPublisher getDataPublisher() {
         return dataPublisher;
     }
 
     private static volatile DataPublisher dataPublisher = null;
 
-    Executor executor;
+    private static volatile ThrottleEventAggregator eventAggregator = null;
+
+    /**
+     * Returns the aggregator merging throttle events before publishing, or null if event aggregation is disabled.
+     */
+    public static ThrottleEventAggregator getEventAggregator() {
+        return eventAggregator;
+    }
+
+    /**
+     * Returns whether throttle events may be published aggregated. Custom (global) policies are user written queries
+     * which count the events instead of summing their requestCount property, hence the events are published one per
+     * request while a custom policy is deployed.
+     */
+    public static boolean isEventAggregationAllowed() {
+        ThrottleDataHolder throttleDataHolder = ServiceReferenceHolder.getInstance().getThrottleDataHolder();
+        return throttleDataHolder == null || !throttleDataHolder.isKeyTemplatesPresent();
+    }
+
+    DataPublisherThreadPoolExecutor executor;
 
     /**
      * This method will initialize throttle data publisher. Inside this we will start executor and initialize data
@@ -77,13 +100,26 @@ public class ThrottleDataPublisher {
                             .getKeepAliveTime(),
                             TimeUnit
                                     .SECONDS,
-                            new LinkedBlockingDeque<Runnable>() {
-                            });
+                            dataPublisherThreadPoolConfiguration.getQueueSize(),
+                            DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig(
+                                    dataPublisherThreadPoolConfiguration.getOverflowPolicy()),
+                            dataPublisherThreadPoolConfiguration.getSamplingRate(), dataPublisherPool);
+                    registerMetrics(executor);
                     dataPublisher = new DataPublisher(dataPublisherConfiguration.getType(), dataPublisherConfiguration
                             .getReceiverUrlGroup(), dataPublisherConfiguration.getAuthUrlGroup(), dataPublisherConfiguration
                             .getUsername(),
                             dataPublisherConfiguration.getPassword());
 
+                    ThrottleProperties.DataPublisherEventAggregation eventAggregationConfiguration =
+                            throttleProperties.getDataPublisherEventAggregation();
+                    if (eventAggregationConfiguration != null && eventAggregationConfiguration.isEnabled()
+                            && eventAggregationConfiguration.getWindowTime() > 0) {
+                        ThrottleEventAggregator aggregator = new ThrottleEventAggregator(dataPublisher,
+                                DataProcessAndPublishingAgent.streamID, eventAggregationConfiguration.getWindowTime());
+                        aggregator.start();
+                        eventAggregator = aggregator;
+                    }
+
                 } catch (DataEndpointAgentConfigurationException e) {
                     log.error("Error in initializing binary data-publisher to send requests to global throttling engine " +
                             e.getMessage(), e);
@@ -145,33 +181,40 @@ public class ThrottleDataPublisher {
         }
     }
 
-    /**
-     * This class will act as thread pool executor and after executing each thread it will return runnable
-     * object back to pool. This implementation specifically used to minimize number of objectes created during
-     * runtime. In this queuing strategy the submitted task will wait in the queue if the corePoolsize theads are
-     * busy and the task will be allocated if any of the threads become idle.Thus ThreadPool will always have number
-     * of threads running  as mentioned in the corePoolSize.
-     * LinkedBlockingQueue without the capacity can be used for this queuing strategy.If the corePoolsize of the
-     * threadpool is less and there are more number of time consuming task were submitted,there is more possibility
-     * that the task has to wait in the queue for more time before it is run by any of the ideal thread.
-     * So tuning core pool size is something we need to tune properly.
-     * Also no task will be rejected in Threadpool until the threadpool was shutdown.
-     */
-    private class DataPublisherThreadPoolExecutor extends ThreadPoolExecutor {
-        public DataPublisherThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime,
-                                               TimeUnit unit, LinkedBlockingDeque<Runnable> workQueue) {
-            super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue);
+    private void registerMetrics(final DataPublisherThreadPoolExecutor publisherExecutor) {
+        try {
+            MetricManager.gauge(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, METRICS_NAME,
+                    "queueDepth"), (Gauge<Integer>) publisherExecutor::getQueueDepth);
+            MetricManager.gauge(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, METRICS_NAME,
+                    "droppedEvents"), (Gauge<Long>) publisherExecutor::getDroppedEventCount);
+            MetricManager.gauge(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, METRICS_NAME,
+                    "callerRunsEvents"), (Gauge<Long>) publisherExecutor::getCallerRunsCount);
+            MetricManager.gauge(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, METRICS_NAME,
+                    "averagePublishLatency"), (Gauge<Double>) publisherExecutor::getAveragePublishLatency);
+            MetricManager.gauge(Level.INFO, MetricManager.name(APIConstants.METRICS_PREFIX, METRICS_NAME,
+                    "maxPublishLatency"), (Gauge<Double>) publisherExecutor::getMaxPublishLatency);
+        } catch (Exception e) {
+            log.warn("Error while registering throttle data publisher metrics", e);
         }
+    }
 
-        protected void afterExecute(java.lang.Runnable r, java.lang.Throwable t) {
-            try {
-                DataProcessAndPublishingAgent agent = (DataProcessAndPublishingAgent) r;
-                //agent.setDataReference(null);
-                ThrottleDataPublisher.dataPublisherPool.release(agent);
-            } catch (Exception e) {
-                log.error("Error while returning Throttle data publishing agent back to pool" + e.getMessage());
-            }
-        }
+    public int getQueueDepth() {
+        return executor != null ? executor.getQueueDepth() : 0;
+    }
+
+    public long getDroppedEventCount() {
+        return executor != null ? executor.getDroppedEventCount() : 0;
     }
-}
 
+    public long getCallerRunsCount() {
+        return executor != null ? executor.getCallerRunsCount() : 0;
+    }
+
+    public double getAveragePublishLatency() {
+        return executor != null ? executor.getAveragePublishLatency() : 0;
+    }
+
+    public double getMaxPublishLatency() {
+        return executor != null ? executor.getMaxPublishLatency() : 0;
+    }
+}
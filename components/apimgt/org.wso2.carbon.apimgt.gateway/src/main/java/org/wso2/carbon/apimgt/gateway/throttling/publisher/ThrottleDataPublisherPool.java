@@ -20,42 +20,39 @@ package org.wso2.carbon.apimgt.gateway.throttling.publisher;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.commons.pool.BasePoolableObjectFactory;
-import org.apache.commons.pool.ObjectPool;
-import org.apache.commons.pool.impl.StackObjectPool;
 import org.wso2.carbon.apimgt.gateway.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class implemented to hold throttle data publishing agent pool. Reason for implement this is to
- * reduce unwanted object creation. This is using stack object pool as we may need to handle some scenarios
- * where unexpected load comes. In such cases we cannot have fixed size pool.
+ * reduce unwanted object creation. When the pool is empty new agents are created, hence we can handle scenarios
+ * where unexpected load comes without having a fixed size pool. Idle agents are kept in a lock free queue so that
+ * borrowing and returning agents does not contend on a pool wide lock in the request path.
  */
 public class ThrottleDataPublisherPool {
 
     private static final Log log = LogFactory.getLog(ThrottleDataPublisherPool.class);
 
-    private  ObjectPool clientPool;
+    private final Queue<DataProcessAndPublishingAgent> idleAgents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleAgentCount = new AtomicInteger();
+    private final int maxIdle;
 
     private ThrottleDataPublisherPool() {
-        //Using stack object pool to handle high concurrency scenarios without droping any messages.
-        //Tuning this pool is mandatory according to use cases.
-        //A finite number of "sleeping" or idle instances is enforced, but when the pool is empty, new instances
-        // are created to support the new load. Hence this following data stricture places no limit on the number of "
-        // active" instance created by the pool, but is quite useful for re-using Objects without introducing
-        // artificial limits.
+        //A finite number of idle instances is kept, but when the pool is empty, new instances are created to
+        //support the new load. Hence this places no limit on the number of active instances created by the pool.
         //Proper tuning is mandatory for good performance according to system load.
         ThrottleProperties.DataPublisherPool dataPublisherPoolConfiguration = ServiceReferenceHolder
                 .getInstance().getThrottleProperties().getDataPublisherPool();
-        clientPool = new StackObjectPool(new BasePoolableObjectFactory() {
-            @Override
-            public Object makeObject() throws Exception {
-                if(log.isDebugEnabled()) {
-                    log.debug("Initializing new ThrottleDataPublisher instance");
-                }
-                return new DataProcessAndPublishingAgent();
-            }
-        }, dataPublisherPoolConfiguration.getMaxIdle(), dataPublisherPoolConfiguration.getInitIdleCapacity());
+        maxIdle = dataPublisherPoolConfiguration.getMaxIdle();
+        int initIdleCapacity = Math.min(dataPublisherPoolConfiguration.getInitIdleCapacity(), maxIdle);
+        for (int i = 0; i < initIdleCapacity; i++) {
+            idleAgents.offer(createAgent());
+            idleAgentCount.incrementAndGet();
+        }
     }
 
     private static class ThrottleDataPublisherPoolHolder {
@@ -68,22 +65,38 @@ public class ThrottleDataPublisherPool {
         return ThrottleDataPublisherPoolHolder.INSTANCE;
     }
 
-    public DataProcessAndPublishingAgent get() throws Exception {
-        return (DataProcessAndPublishingAgent) clientPool.borrowObject();
+    public DataProcessAndPublishingAgent get() {
+        DataProcessAndPublishingAgent agent = idleAgents.poll();
+        if (agent == null) {
+            return createAgent();
+        }
+        idleAgentCount.decrementAndGet();
+        return agent;
     }
 
-    public void release(DataProcessAndPublishingAgent client) throws Exception {
+    public void release(DataProcessAndPublishingAgent client) {
         //We must clean data references as it can caused to pass old data to global policy server.
         client.clearDataReference();
-        clientPool.returnObject(client);
+        if (idleAgentCount.incrementAndGet() <= maxIdle) {
+            idleAgents.offer(client);
+        } else {
+            idleAgentCount.decrementAndGet();
+        }
+    }
+
+    public int getIdleAgentCount() {
+        return idleAgentCount.get();
     }
 
     public void cleanup() {
-        try {
-            clientPool.close();
-        } catch (Exception e) {
-            log.warn("Error while cleaning up the object pool", e);
-        }
+        idleAgents.clear();
+        idleAgentCount.set(0);
     }
 
+    private DataProcessAndPublishingAgent createAgent() {
+        if (log.isDebugEnabled()) {
+            log.debug("Initializing new ThrottleDataPublisher instance");
+        }
+        return new DataProcessAndPublishingAgent();
+    }
 }
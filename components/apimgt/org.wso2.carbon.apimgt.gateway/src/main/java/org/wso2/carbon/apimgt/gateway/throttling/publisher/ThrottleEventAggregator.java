@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONObject;
+import org.wso2.carbon.apimgt.gateway.handlers.throttling.APIThrottleConstants;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Aggregates throttle events on the gateway before they are sent to the traffic manager. Events carrying the same
+ * throttle keys and properties within a window are merged into a single event, and the number of requests it stands
+ * for is sent in the requestCount property of the properties map. For content aware events the message sizes are
+ * summed up into the messageSize property. The traffic manager execution plans read the request count using the
+ * throttler:requestCount function, hence an event without the property is still counted as a single request.
+ */
+public class ThrottleEventAggregator {
+
+    private static final Log log = LogFactory.getLog(ThrottleEventAggregator.class);
+
+    public static final String REQUEST_COUNT = "requestCount";
+
+    private final DataPublisher dataPublisher;
+    private final String streamId;
+    private final long windowTime;
+    private final ReentrantReadWriteLock windowLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<EventKey, AggregatedEvent> window = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushExecutor;
+
+    private final AtomicLong receivedEventCount = new AtomicLong();
+    private final AtomicLong publishedEventCount = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong totalWindowLatency = new AtomicLong();
+    private final AtomicLong maxWindowLatency = new AtomicLong();
+
+    public ThrottleEventAggregator(DataPublisher dataPublisher, String streamId, long windowTime) {
+
+        this.dataPublisher = dataPublisher;
+        this.streamId = streamId;
+        this.windowTime = windowTime;
+    }
+
+    /**
+     * Starts flushing the aggregated events to the traffic manager at the end of every window.
+     */
+    public synchronized void start() {
+
+        if (flushExecutor != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ThrottleEventAggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Throwable e) {
+                log.error("Error while publishing aggregated throttle events to traffic manager", e);
+            }
+        }, windowTime, windowTime, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the periodic flushing and publishes the events of the current window.
+     */
+    public synchronized void shutdown() {
+
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+        flush();
+    }
+
+    /**
+     * Adds a throttle event to the current window. The properties map is owned by the aggregator once passed in.
+     *
+     * @param messageId    message id of the request
+     * @param throttleData throttle attributes of the event, in the order of the throttle request stream
+     * @param properties   properties map of the event
+     * @param contentAware whether the message size should be aggregated
+     * @param messageSize  message size of the request in bytes
+     */
+    public void add(String messageId, String[] throttleData, Map<String, Object> properties, boolean contentAware,
+                    long messageSize) {
+
+        properties.remove(APIThrottleConstants.MESSAGE_SIZE);
+        EventKey key = new EventKey(throttleData, properties);
+        windowLock.readLock().lock();
+        try {
+            window.computeIfAbsent(key, k -> new AggregatedEvent(messageId, contentAware)).add(messageSize);
+        } finally {
+            windowLock.readLock().unlock();
+        }
+        receivedEventCount.incrementAndGet();
+    }
+
+    /**
+     * Closes the current window and publishes one event per distinct throttle key of it.
+     */
+    public void flush() {
+
+        Map<EventKey, AggregatedEvent> closedWindow;
+        windowLock.writeLock().lock();
+        try {
+            if (window.isEmpty()) {
+                return;
+            }
+            closedWindow = window;
+            window = new ConcurrentHashMap<>();
+        } finally {
+            windowLock.writeLock().unlock();
+        }
+        long currentTime = System.currentTimeMillis();
+        for (Map.Entry<EventKey, AggregatedEvent> entry : closedWindow.entrySet()) {
+            publish(entry.getKey(), entry.getValue());
+            long latency = currentTime - entry.getValue().firstEventTime;
+            totalWindowLatency.addAndGet(latency);
+            maxWindowLatency.accumulateAndGet(latency, Math::max);
+        }
+        publishedEventCount.addAndGet(closedWindow.size());
+        flushCount.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug("Published " + closedWindow.size() + " aggregated throttle events to traffic manager");
+        }
+    }
+
+    private void publish(EventKey key, AggregatedEvent aggregatedEvent) {
+
+        JSONObject properties = new JSONObject();
+        properties.putAll(key.properties);
+        properties.put(REQUEST_COUNT, aggregatedEvent.requestCount.sum());
+        if (aggregatedEvent.contentAware) {
+            properties.put(APIThrottleConstants.MESSAGE_SIZE, aggregatedEvent.messageSize.sum());
+        }
+        Object[] objects = new Object[key.throttleData.length + 2];
+        objects[0] = aggregatedEvent.messageId;
+        System.arraycopy(key.throttleData, 0, objects, 1, key.throttleData.length);
+        objects[objects.length - 1] = properties.toString();
+        dataPublisher.tryPublish(new Event(streamId, aggregatedEvent.firstEventTime, null, null, objects));
+    }
+
+    public long getReceivedEventCount() {
+
+        return receivedEventCount.get();
+    }
+
+    public long getPublishedEventCount() {
+
+        return publishedEventCount.get();
+    }
+
+    /**
+     * Returns the number of events saved by aggregation, that is the received events that were merged into another
+     * event instead of being published.
+     */
+    public long getSavedEventCount() {
+
+        return receivedEventCount.get() - publishedEventCount.get() - window.size();
+    }
+
+    public long getFlushCount() {
+
+        return flushCount.get();
+    }
+
+    public long getMaxWindowLatency() {
+
+        return maxWindowLatency.get();
+    }
+
+    public long getAverageWindowLatency() {
+
+        long published = publishedEventCount.get();
+        return published > 0 ? totalWindowLatency.get() / published : 0;
+    }
+
+    private static final class EventKey {
+
+        private final String[] throttleData;
+        private final Map<String, Object> properties;
+        private final int hash;
+
+        private EventKey(String[] throttleData, Map<String, Object> properties) {
+
+            this.throttleData = throttleData;
+            this.properties = properties;
+            this.hash = 31 * Arrays.hashCode(throttleData) + properties.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EventKey)) {
+                return false;
+            }
+            EventKey eventKey = (EventKey) o;
+            return hash == eventKey.hash && Arrays.equals(throttleData, eventKey.throttleData)
+                    && properties.equals(eventKey.properties);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+
+    private static final class AggregatedEvent {
+
+        private final String messageId;
+        private final long firstEventTime = System.currentTimeMillis();
+        private final boolean contentAware;
+        private final LongAdder requestCount = new LongAdder();
+        private final LongAdder messageSize = new LongAdder();
+
+        private AggregatedEvent(String messageId, boolean contentAware) {
+
+            this.messageId = messageId;
+            this.contentAware = contentAware;
+        }
+
+        private void add(long size) {
+
+            requestCount.increment();
+            messageSize.add(size);
+        }
+    }
+}
@@ -456,11 +456,12 @@ public class GatewayUtils {
                 while ((length = bufferedInputStream.read(buffer)) > -1) {
                     byteArrayOutputStream.write(buffer, 0, length);
                 }
-                byteArrayOutputStream.flush();
-                inputStreamSchema = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamXml = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamOriginal = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
-                inputStreamJSON = new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+                // the payload is copied once and the same bytes are read by the analyzers and by the message builder
+                byte[] payload = byteArrayOutputStream.toByteArray();
+                inputStreamSchema = new ByteArrayInputStream(payload);
+                inputStreamXml = new ByteArrayInputStream(payload);
+                inputStreamOriginal = new ByteArrayInputStream(payload);
+                inputStreamJSON = new ByteArrayInputStream(payload);
             } else {
                 String payload;
                 if (ThreatProtectorConstants.APPLICATION_JSON.equals(contentType)) {
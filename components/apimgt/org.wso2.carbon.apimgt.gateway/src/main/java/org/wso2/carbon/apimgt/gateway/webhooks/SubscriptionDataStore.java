@@ -37,7 +37,9 @@ import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -52,7 +54,7 @@ public class SubscriptionDataStore {
     private String tenantDomain = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
     public static final int retrievalRetries = 15;
     private static final Log log = LogFactory.getLog(SubscriptionDataStore.class);
-    private Map<String, Map<String, WebhooksDTO>> subscribersMap;
+    private Map<String, Subscribers> subscribersMap;
     private Map<String, Boolean> throttlingStatusMap;
     ExecutorService executor = Executors.newSingleThreadExecutor();
 
@@ -74,12 +76,24 @@ public class SubscriptionDataStore {
         this.throttlingStatusMap = new ConcurrentHashMap<>();
         executor.submit(() -> {
             List<WebhooksDTO> subscriptions = loadSubscriptions();
+            Map<String, Map<String, WebhooksDTO>> loadedSubscribers = new HashMap<>();
             for (WebhooksDTO subscriber: subscriptions) {
                 String subscriptionKey = subscriber.getApiUUID() + "_" + subscriber.getTopicName();
                 String throttleKey = subscriber.getAppID() + "_" + subscriber.getApiUUID();
-                addSubscriber(subscriptionKey, subscriber);
+                loadedSubscribers.computeIfAbsent(subscriptionKey, key -> new LinkedHashMap<>())
+                        .put(subscriber.getCallbackURL(), subscriber);
                 throttlingStatusMap.put(throttleKey, false);
             }
+            // each subscriber set is built once, merging the subscribers added while the subscriptions were loaded
+            for (Map.Entry<String, Map<String, WebhooksDTO>> entry : loadedSubscribers.entrySet()) {
+                subscribersMap.compute(entry.getKey(), (subscriptionKey, existingSubscribers) -> {
+                    Map<String, WebhooksDTO> subscribers = entry.getValue();
+                    if (existingSubscribers != null) {
+                        subscribers.putAll(existingSubscribers.subscribersByCallback);
+                    }
+                    return new Subscribers(subscribers);
+                });
+            }
         });
     }
 
@@ -90,15 +104,12 @@ public class SubscriptionDataStore {
      * @param subscriber        the subscriber.
      */
     public void addSubscriber(String key, WebhooksDTO subscriber) {
-        Map<String, WebhooksDTO> subscribersOfAPIMap = subscribersMap.get(key);
-        if (subscribersOfAPIMap != null) {
-            subscribersOfAPIMap.put(subscriber.getCallbackURL(), subscriber);
-            subscribersMap.replace(key, subscribersOfAPIMap);
-        } else {
-            subscribersOfAPIMap = new HashMap<>();
-            subscribersOfAPIMap.put(subscriber.getCallbackURL(), subscriber);
-            subscribersMap.put(key, subscribersOfAPIMap);
-        }
+        subscribersMap.compute(key, (subscriptionKey, existingSubscribers) -> {
+            Map<String, WebhooksDTO> subscribers = existingSubscribers != null ?
+                    new LinkedHashMap<>(existingSubscribers.subscribersByCallback) : new LinkedHashMap<>();
+            subscribers.put(subscriber.getCallbackURL(), subscriber);
+            return new Subscribers(subscribers);
+        });
     }
 
     /**
@@ -131,12 +142,11 @@ public class SubscriptionDataStore {
      * @param subscriber        the subscriber.
      */
     public void removeSubscriber(String key, WebhooksDTO subscriber) {
-        Map<String, WebhooksDTO> existingSubscribers = subscribersMap.get(key);
-        if (existingSubscribers != null) {
-            existingSubscribers.values().removeIf(existingSubscriber -> existingSubscriber.getCallbackURL().equals(
-                    subscriber.getCallbackURL()));
-            subscribersMap.replace(key, existingSubscribers);
-        }
+        subscribersMap.computeIfPresent(key, (subscriptionKey, existingSubscribers) -> {
+            Map<String, WebhooksDTO> subscribers = new LinkedHashMap<>(existingSubscribers.subscribersByCallback);
+            subscribers.remove(subscriber.getCallbackURL());
+            return new Subscribers(subscribers);
+        });
     }
 
     /**
@@ -202,18 +212,54 @@ public class SubscriptionDataStore {
      * This method is used to get subscribers lists of a given API key.
      *
      * @param api the api key
-     * @return the subscription list.
+     * @return the unmodifiable subscription list.
      */
     public List<WebhooksDTO> getSubscribers(String api) {
-        Map<String, WebhooksDTO> subscribers = subscribersMap.get(api);
+        Subscribers subscribers = subscribersMap.get(api);
         if (subscribers != null) {
-            Map<String, WebhooksDTO> existingSubscribers = subscribersMap.get(api);
             long now = Instant.now().toEpochMilli();
-            existingSubscribers.values().removeIf(existingSubscriber -> existingSubscriber.getExpiryTime() != 0 &&
-                    existingSubscriber.getExpiryTime() < now);
-            subscribersMap.replace(api, existingSubscribers);
-            return new ArrayList<WebhooksDTO>(existingSubscribers.values());
+            if (subscribers.hasExpiredSubscribers(now)) {
+                subscribers = subscribersMap.computeIfPresent(api, (subscriptionKey, existingSubscribers) -> {
+                    Map<String, WebhooksDTO> unexpiredSubscribers =
+                            new LinkedHashMap<>(existingSubscribers.subscribersByCallback);
+                    unexpiredSubscribers.values().removeIf(existingSubscriber ->
+                            existingSubscriber.getExpiryTime() != 0 && existingSubscriber.getExpiryTime() < now);
+                    return new Subscribers(unexpiredSubscribers);
+                });
+                if (subscribers == null) {
+                    return null;
+                }
+            }
+            return subscribers.subscriberList;
         }
         return null;
     }
+
+    /**
+     * Immutable set of the subscribers of a subscription key. A change to the subscribers replaces the set, so
+     * that the subscribers can be read and iterated without locking while the deliveries of an event are in
+     * progress.
+     */
+    private static final class Subscribers {
+
+        private final Map<String, WebhooksDTO> subscribersByCallback;
+        private final List<WebhooksDTO> subscriberList;
+        private final long earliestExpiryTime;
+
+        Subscribers(Map<String, WebhooksDTO> subscribersByCallback) {
+            this.subscribersByCallback = Collections.unmodifiableMap(subscribersByCallback);
+            this.subscriberList = Collections.unmodifiableList(new ArrayList<>(subscribersByCallback.values()));
+            long earliestExpiry = Long.MAX_VALUE;
+            for (WebhooksDTO subscriber : subscriberList) {
+                if (subscriber.getExpiryTime() != 0) {
+                    earliestExpiry = Math.min(earliestExpiry, subscriber.getExpiryTime());
+                }
+            }
+            this.earliestExpiryTime = earliestExpiry;
+        }
+
+        boolean hasExpiredSubscribers(long now) {
+            return earliestExpiryTime < now;
+        }
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import com.google.gson.Gson;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.apimgt.gateway.utils.WebhooksUtils;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class publishes the delivery statuses of webhooks subscribers to the event hub in batches, so that a
+ * delivery does not wait for a call to the event hub. Only the latest status of a subscriber is kept until the
+ * next batch is published, as the event hub stores only the latest status of each subscriber.
+ */
+public class WebhooksDeliveryStatusPublisher {
+
+    private static final Log log = LogFactory.getLog(WebhooksDeliveryStatusPublisher.class);
+    private static final long DEFAULT_PUBLISH_INTERVAL = 1000;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 500;
+    private static final int PERSIST_RETRIES = 15;
+    private static final WebhooksDeliveryStatusPublisher instance =
+            new WebhooksDeliveryStatusPublisher(DEFAULT_PUBLISH_INTERVAL, DEFAULT_MAX_BATCH_SIZE);
+
+    private final int maxBatchSize;
+    private final Map<String, WebhooksDeliveryStatusDTO> pendingStatuses = new LinkedHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final Gson gson = new Gson();
+
+    WebhooksDeliveryStatusPublisher(long publishInterval, int maxBatchSize) {
+
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebhooksDeliveryStatusPublisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::publishPendingStatuses, publishInterval, publishInterval,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static WebhooksDeliveryStatusPublisher getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Adds the delivery status of a subscriber to the next batch. A batch is published as soon as it is full, or
+     * otherwise at the end of the publish interval.
+     *
+     * @param deliveryStatus delivery status of the subscriber
+     */
+    public void publish(WebhooksDeliveryStatusDTO deliveryStatus) {
+
+        String subscriberKey = deliveryStatus.getTenantDomain() + "_" + deliveryStatus.getApiUUID() + "_"
+                + deliveryStatus.getAppID() + "_" + deliveryStatus.getTopic() + "_" + deliveryStatus.getCallback();
+        boolean batchFull;
+        synchronized (pendingStatuses) {
+            pendingStatuses.put(subscriberKey, deliveryStatus);
+            batchFull = pendingStatuses.size() == maxBatchSize;
+        }
+        if (batchFull) {
+            executor.execute(this::publishPendingStatuses);
+        }
+    }
+
+    /**
+     * Publishes the pending delivery statuses in batches. Publishing is serialized, so that the statuses added before
+     * a call returns are published once it returns.
+     */
+    synchronized void publishPendingStatuses() {
+
+        while (true) {
+            List<WebhooksDeliveryStatusDTO> batch;
+            synchronized (pendingStatuses) {
+                if (pendingStatuses.isEmpty()) {
+                    return;
+                }
+                batch = new ArrayList<>(Math.min(pendingStatuses.size(), maxBatchSize));
+                Iterator<WebhooksDeliveryStatusDTO> iterator = pendingStatuses.values().iterator();
+                while (iterator.hasNext() && batch.size() < maxBatchSize) {
+                    batch.add(iterator.next());
+                    iterator.remove();
+                }
+            }
+            try {
+                long startTime = System.currentTimeMillis();
+                sendBatch(gson.toJson(batch));
+                if (log.isDebugEnabled()) {
+                    log.debug("Published the delivery statuses of " + batch.size() + " webhooks subscribers in "
+                            + (System.currentTimeMillis() - startTime) + " ms");
+                }
+            } catch (IOException | RuntimeException e) {
+                // a runtime exception is caught as well, since it would cancel the scheduled publishing
+                log.error("Error while publishing the delivery statuses of " + batch.size()
+                        + " webhooks subscribers", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of delivery statuses to the event hub.
+     *
+     * @param deliveryStatuses delivery statuses as a JSON array
+     * @throws IOException          if the batch could not be sent
+     * @throws InterruptedException if the thread is interrupted while waiting to retry
+     */
+    protected void sendBatch(String deliveryStatuses) throws IOException, InterruptedException {
+
+        HttpResponse response = WebhooksUtils.persistData(deliveryStatuses, PERSIST_RETRIES,
+                APIConstants.Webhooks.DELIVERY_BATCH_EVENT_TYPE);
+        EntityUtils.consumeQuietly(response.getEntity());
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode >= 300) {
+            throw new IOException("Event hub responded with status code " + statusCode);
+        }
+    }
+
+    void shutdown() {
+
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * This class delivers the events of a webhooks API to the callbacks of its subscribers. An event is handed over to
+ * the engine without waiting for the deliveries, which run on a bounded pool of workers using pooled HTTP
+ * connections. At most a configured number of deliveries run against a callback host at a time, while the rest of
+ * the deliveries to the host wait in its queue without holding a worker. A failed delivery is retried with an
+ * exponential backoff and a random jitter, so that the retries of the subscribers of a failing host are spread
+ * out. The final status of each delivery is published in batches by {@link WebhooksDeliveryStatusPublisher}.
+ */
+public class WebhooksFanOutEngine {
+
+    private static final Log log = LogFactory.getLog(WebhooksFanOutEngine.class);
+    private static final int DEFAULT_WORKER_COUNT = 50;
+    private static final int DEFAULT_MAX_DELIVERIES_PER_HOST = 10;
+    private static final int DEFAULT_MAX_ATTEMPTS = 4;
+    private static final long DEFAULT_INITIAL_BACKOFF = 1000;
+    private static final long DEFAULT_MAX_BACKOFF = 64000;
+    private static final int DELIVERY_TIMEOUT = 60000;
+    private static final int LATENCY_SAMPLE_SIZE = 1024;
+    private static final long LATENCY_REPORT_INTERVAL = 60000;
+    private static final String SIGNATURE_HEADER = "X-Hub-Signature";
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA1";
+    private static volatile WebhooksFanOutEngine instance;
+
+    private final int maxDeliveriesPerHost;
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final WebhooksDeliveryStatusPublisher statusPublisher;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, HostQueue> hostQueues = new ConcurrentHashMap<>();
+    private final Set<Delivery> retryingDeliveries = ConcurrentHashMap.newKeySet();
+    private final Map<String, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final long[] latencySamples = new long[LATENCY_SAMPLE_SIZE];
+    private long latencySampleCount;
+
+    WebhooksFanOutEngine(int workerCount, int maxDeliveriesPerHost, int maxAttempts, long initialBackoff,
+                         long maxBackoff, WebhooksDeliveryStatusPublisher statusPublisher) {
+
+        this.maxDeliveriesPerHost = maxDeliveriesPerHost;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.statusPublisher = statusPublisher;
+        AtomicInteger workerIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "WebhooksFanOutWorker-" + workerIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebhooksFanOutScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reportLatencies, LATENCY_REPORT_INTERVAL, LATENCY_REPORT_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static WebhooksFanOutEngine getInstance() {
+
+        if (instance == null) {
+            synchronized (WebhooksFanOutEngine.class) {
+                if (instance == null) {
+                    instance = new WebhooksFanOutEngine(DEFAULT_WORKER_COUNT, DEFAULT_MAX_DELIVERIES_PER_HOST,
+                            DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF,
+                            WebhooksDeliveryStatusPublisher.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts down the engine if it has been started. The deliveries waiting for a retry are reported as failed.
+     */
+    public static void shutdownInstance() {
+
+        synchronized (WebhooksFanOutEngine.class) {
+            if (instance != null) {
+                instance.shutdown();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Delivers an event to the callback of a subscriber without waiting for the delivery.
+     *
+     * @param subscriber  the subscriber
+     * @param payload     the event payload
+     * @param contentType the content type of the event, or null if the event is JSON
+     * @return the status code the callback finally responded with, or an exceptional result if the callback could
+     * not be reached
+     */
+    public CompletableFuture<Integer> dispatch(WebhooksDTO subscriber, String payload, String contentType) {
+
+        Delivery delivery = new Delivery(subscriber, payload, contentType);
+        try {
+            URL callbackURL = new URL(subscriber.getCallbackURL());
+            delivery.host = callbackURL.getHost() + ":" + callbackURL.getPort();
+        } catch (MalformedURLException e) {
+            delivery.lastError = e;
+            complete(delivery);
+            return delivery.result;
+        }
+        enqueue(delivery);
+        return delivery.result;
+    }
+
+    private void enqueue(Delivery delivery) {
+
+        HostQueue hostQueue = hostQueues.computeIfAbsent(delivery.host, host -> new HostQueue());
+        synchronized (hostQueue) {
+            if (hostQueue.activeDeliveries == maxDeliveriesPerHost) {
+                hostQueue.pendingDeliveries.add(delivery);
+                return;
+            }
+            hostQueue.activeDeliveries++;
+        }
+        execute(delivery);
+    }
+
+    private void release(String host) {
+
+        HostQueue hostQueue = hostQueues.get(host);
+        Delivery nextDelivery;
+        synchronized (hostQueue) {
+            nextDelivery = hostQueue.pendingDeliveries.poll();
+            if (nextDelivery == null) {
+                hostQueue.activeDeliveries--;
+                return;
+            }
+        }
+        execute(nextDelivery);
+    }
+
+    private void execute(Delivery delivery) {
+
+        try {
+            workers.execute(() -> attempt(delivery));
+        } catch (RejectedExecutionException e) {
+            release(delivery.host);
+            delivery.lastError = new IOException("Webhooks fan-out engine is shut down", e);
+            complete(delivery);
+        }
+    }
+
+    private void attempt(Delivery delivery) {
+
+        delivery.attempts++;
+        delivery.lastError = null;
+        try {
+            delivery.lastStatusCode = deliver(delivery.subscriber.getCallbackURL(), delivery.payload,
+                    delivery.contentType, delivery.signature);
+        } catch (IOException | RuntimeException e) {
+            // a runtime exception is caught as well, so that the slot of the host is always released
+            delivery.lastError = e;
+        } finally {
+            release(delivery.host);
+        }
+        boolean failed = delivery.lastError != null || delivery.lastStatusCode >= 500
+                || delivery.lastStatusCode == 429;
+        if (failed && delivery.attempts < maxAttempts) {
+            long backoff = getBackoff(delivery.attempts);
+            if (log.isDebugEnabled()) {
+                log.debug("Retrying the delivery to " + delivery.subscriber.getCallbackURL() + " in " + backoff
+                        + " ms after attempt " + delivery.attempts);
+            }
+            retryingDeliveries.add(delivery);
+            try {
+                scheduler.schedule(() -> {
+                    if (retryingDeliveries.remove(delivery)) {
+                        enqueue(delivery);
+                    }
+                }, backoff, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (!retryingDeliveries.remove(delivery)) {
+                    return;
+                }
+            }
+        }
+        complete(delivery);
+    }
+
+    /**
+     * Returns the delay before the next attempt of a delivery. The delay doubles with each attempt up to the
+     * maximum backoff, and a random half of it is added as jitter.
+     *
+     * @param attempts the number of attempts made so far
+     * @return the delay in milliseconds
+     */
+    long getBackoff(int attempts) {
+
+        long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempts - 1, 30));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private void complete(Delivery delivery) {
+
+        recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - delivery.startTime));
+        WebhooksDTO subscriber = delivery.subscriber;
+        boolean delivered = delivery.lastError == null && delivery.lastStatusCode >= 200
+                && delivery.lastStatusCode < 300;
+        WebhooksDeliveryStatusDTO deliveryStatus = new WebhooksDeliveryStatusDTO();
+        deliveryStatus.setApiUUID(subscriber.getApiUUID());
+        deliveryStatus.setAppID(subscriber.getAppID());
+        deliveryStatus.setTenantDomain(subscriber.getTenantDomain());
+        deliveryStatus.setCallback(subscriber.getCallbackURL());
+        deliveryStatus.setTopic(subscriber.getTopicName());
+        deliveryStatus.setStatus(delivered ? 1 : 2);
+        statusPublisher.publish(deliveryStatus);
+        if (delivery.lastError != null) {
+            log.warn("Failed to deliver the event to " + subscriber.getCallbackURL() + " after "
+                    + delivery.attempts + " attempts: " + delivery.lastError.getMessage());
+            delivery.result.completeExceptionally(delivery.lastError);
+        } else {
+            if (!delivered) {
+                log.warn("Callback " + subscriber.getCallbackURL() + " responded with status code "
+                        + delivery.lastStatusCode + " after " + delivery.attempts + " attempts");
+            }
+            delivery.result.complete(delivery.lastStatusCode);
+        }
+    }
+
+    /**
+     * Sends an event to the callback of a subscriber.
+     *
+     * @param callbackURL the callback URL
+     * @param payload     the event payload
+     * @param contentType the content type of the event, or null if the event is JSON
+     * @param signature   the value of the signature header, or null if the subscriber has no secret
+     * @return the status code of the response
+     * @throws IOException if the callback could not be reached
+     */
+    protected int deliver(String callbackURL, String payload, String contentType, String signature)
+            throws IOException {
+
+        HttpPost method = new HttpPost(callbackURL);
+        method.setConfig(RequestConfig.custom().setConnectTimeout(DELIVERY_TIMEOUT)
+                .setSocketTimeout(DELIVERY_TIMEOUT).build());
+        method.setEntity(new StringEntity(payload,
+                contentType != null ? ContentType.parse(contentType) : ContentType.APPLICATION_JSON));
+        if (signature != null) {
+            method.setHeader(SIGNATURE_HEADER, signature);
+        }
+        URL url = new URL(callbackURL);
+        // a client is kept per protocol, so that the connections to a callback host are reused
+        HttpClient httpClient = httpClients.computeIfAbsent(url.getProtocol(),
+                protocol -> APIUtil.getHttpClient(url.getPort(), protocol));
+        HttpResponse response = httpClient.execute(method);
+        EntityUtils.consumeQuietly(response.getEntity());
+        return response.getStatusLine().getStatusCode();
+    }
+
+    private void recordLatency(long latency) {
+
+        synchronized (latencySamples) {
+            latencySamples[(int) (latencySampleCount++ % LATENCY_SAMPLE_SIZE)] = latency;
+        }
+    }
+
+    /**
+     * Returns a percentile of the latencies of the latest deliveries. The latency of a delivery is the time from
+     * dispatching the event until the final attempt completes.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in milliseconds, or -1 if no delivery has completed
+     */
+    public long getLatencyPercentile(double percentile) {
+
+        long[] latencies;
+        synchronized (latencySamples) {
+            latencies = Arrays.copyOf(latencySamples, (int) Math.min(latencySampleCount, LATENCY_SAMPLE_SIZE));
+        }
+        if (latencies.length == 0) {
+            return -1;
+        }
+        Arrays.sort(latencies);
+        int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+        return latencies[Math.max(rank, 1) - 1];
+    }
+
+    private void reportLatencies() {
+
+        if (log.isDebugEnabled() && getLatencyPercentile(50) >= 0) {
+            log.debug("Webhooks delivery latency of the latest deliveries: p50=" + getLatencyPercentile(50)
+                    + " ms, p95=" + getLatencyPercentile(95) + " ms, p99=" + getLatencyPercentile(99) + " ms");
+        }
+    }
+
+    void shutdown() {
+
+        scheduler.shutdownNow();
+        workers.shutdown();
+        IOException shutdownError = new IOException("Webhooks fan-out engine is shut down");
+        for (HostQueue hostQueue : hostQueues.values()) {
+            Delivery delivery;
+            while ((delivery = pollPendingDelivery(hostQueue)) != null) {
+                delivery.lastError = shutdownError;
+                complete(delivery);
+            }
+        }
+        for (Delivery delivery : retryingDeliveries) {
+            if (retryingDeliveries.remove(delivery)) {
+                complete(delivery);
+            }
+        }
+    }
+
+    private static Delivery pollPendingDelivery(HostQueue hostQueue) {
+
+        synchronized (hostQueue) {
+            return hostQueue.pendingDeliveries.poll();
+        }
+    }
+
+    private static String generateSignature(String payload, String secret) {
+
+        if (secret == null || secret.isEmpty()) {
+            return null;
+        }
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+            return "sha1=" + Hex.encodeHexString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            log.error("Error while generating the signature of the webhooks event", e);
+            return null;
+        }
+    }
+
+    /**
+     * The deliveries to a callback host. Guarded by the queue itself.
+     */
+    private static final class HostQueue {
+
+        private final Queue<Delivery> pendingDeliveries = new ArrayDeque<>();
+        private int activeDeliveries;
+    }
+
+    /**
+     * A delivery of an event to a subscriber. An attempt of the delivery happens after the previous one, so the
+     * fields are not accessed concurrently.
+     */
+    private static final class Delivery {
+
+        private final WebhooksDTO subscriber;
+        private final String payload;
+        private final String contentType;
+        private final String signature;
+        private final long startTime = System.nanoTime();
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private String host;
+        private int attempts;
+        private int lastStatusCode;
+        private Exception lastError;
+
+        Delivery(WebhooksDTO subscriber, String payload, String contentType) {
+
+            this.subscriber = subscriber;
+            this.payload = payload;
+            this.contentType = contentType;
+            this.signature = generateSignature(payload, subscriber.getSecret());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class APIDeploymentPipelineTest {
+
+    @Test
+    public void testArtifactsAreRegisteredInOrder() throws Exception {
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            artifacts.add("api-" + i);
+        }
+        List<String> registered = new ArrayList<>();
+        APIDeploymentPipeline pipeline = new APIDeploymentPipeline(4);
+        int errorCount = pipeline.run(artifacts, artifact -> {
+            // artifacts take different times to prepare, so that they are prepared out of order
+            sleep(ThreadLocalRandom.current().nextInt(5));
+            return artifact;
+        }, registered::add);
+        Assert.assertEquals(0, errorCount);
+        Assert.assertEquals(artifacts, registered);
+    }
+
+    @Test
+    public void testPreparedArtifactsWaitingForRegistrationAreBounded() throws Exception {
+        List<String> artifacts = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            artifacts.add("api-" + i);
+        }
+        AtomicInteger pendingCount = new AtomicInteger();
+        AtomicInteger maxPendingCount = new AtomicInteger();
+        APIDeploymentPipeline pipeline = new APIDeploymentPipeline(2);
+        int errorCount = pipeline.run(artifacts, artifact -> {
+            maxPendingCount.accumulateAndGet(pendingCount.incrementAndGet(), Math::max);
+            return artifact;
+        }, artifact -> {
+            // registration is slower than preparation, so that prepared artifacts pile up if not bounded
+            sleep(2);
+            pendingCount.decrementAndGet();
+            return true;
+        });
+        Assert.assertEquals(0, errorCount);
+        Assert.assertEquals(0, pendingCount.get());
+        Assert.assertTrue("Pending artifacts: " + maxPendingCount.get(), maxPendingCount.get() <= 4);
+    }
+
+    @Test
+    public void testFailedArtifactsAreCounted() throws Exception {
+        List<String> artifacts = Arrays.asList("api-1", "invalid-1", "", "api-2", "unregistrable", "invalid-2",
+                "api-3");
+        List<String> registered = new ArrayList<>();
+        APIDeploymentPipeline pipeline = new APIDeploymentPipeline(3);
+        int errorCount = pipeline.run(artifacts, artifact -> {
+            if (artifact.startsWith("invalid")) {
+                throw new IllegalStateException("Malformed artifact " + artifact);
+            }
+            // empty artifacts have nothing to register and are not failures
+            return artifact.isEmpty() ? null : artifact;
+        }, artifact -> !"unregistrable".equals(artifact) && registered.add(artifact));
+        Assert.assertEquals(3, errorCount);
+        Assert.assertEquals(Arrays.asList("api-1", "api-2", "api-3"), registered);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test class for {@link GatewayArtifactSnapshot}.
+ */
+public class GatewayArtifactSnapshotTest {
+
+    @Test
+    public void testLoadWithoutSnapshot() throws IOException {
+        Path directory = Files.createTempDirectory("snapshot");
+        GatewayArtifactSnapshot snapshot = new GatewayArtifactSnapshot(directory.resolve("tenant.snapshot"));
+        Assert.assertTrue(snapshot.load().isEmpty());
+    }
+
+    @Test
+    public void testWriteAndLoad() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("data").resolve("tenant.snapshot");
+        GatewayArtifactSnapshot snapshot = new GatewayArtifactSnapshot(snapshotFile);
+        Map<String, String> artifacts = new LinkedHashMap<>();
+        artifacts.put("api1", "{\"name\":\"\u00fc\"}");
+        artifacts.put("api2", "");
+        snapshot.write(artifacts);
+        Map<String, String> loadedArtifacts = new GatewayArtifactSnapshot(snapshotFile).load();
+        Assert.assertEquals(artifacts, loadedArtifacts);
+        Assert.assertEquals(Arrays.asList("api1", "api2"), new ArrayList<>(loadedArtifacts.keySet()));
+        Assert.assertFalse(Files.exists(snapshotFile.resolveSibling("tenant.snapshot.tmp")));
+    }
+
+    @Test
+    public void testSnapshotIsReadableByOwnerOnly() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        Assume.assumeTrue(snapshotFile.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        // a file left over by an earlier write is replaced, as its permissions may be wider
+        Files.createFile(snapshotFile.resolveSibling("tenant.snapshot.tmp"),
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-r--r--")));
+        new GatewayArtifactSnapshot(snapshotFile).write(Collections.singletonMap("api1", "{}"));
+        Assert.assertEquals(PosixFilePermissions.fromString("rw-------"),
+                Files.getPosixFilePermissions(snapshotFile));
+    }
+
+    @Test
+    public void testAppendedRecords() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        GatewayArtifactSnapshot snapshot = new GatewayArtifactSnapshot(snapshotFile);
+        snapshot.put("api1", "artifact1");
+        snapshot.put("api2", "artifact2");
+        snapshot.put("api1", "artifact3");
+        snapshot.remove("api2");
+        snapshot.remove("api4");
+        Map<String, String> artifacts = snapshot.load();
+        Assert.assertEquals(1, artifacts.size());
+        Assert.assertEquals("artifact3", artifacts.get("api1"));
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        GatewayArtifactSnapshot snapshot = new GatewayArtifactSnapshot(snapshotFile);
+        snapshot.put("api1", "artifact1");
+        long size = Files.size(snapshotFile);
+        snapshot.put("api2", "artifact2");
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size + 10);
+        }
+        Map<String, String> artifacts = snapshot.load();
+        Assert.assertEquals(1, artifacts.size());
+        Assert.assertEquals("artifact1", artifacts.get("api1"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedFormat() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        Files.write(snapshotFile, "not a snapshot".getBytes());
+        new GatewayArtifactSnapshot(snapshotFile).load();
+    }
+
+    @Test
+    public void testSnapshotIsCompacted() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        GatewayArtifactSnapshot snapshot = new GatewayArtifactSnapshot(snapshotFile);
+        for (int i = 0; i < 2000; i++) {
+            snapshot.put("api" + (i % 2), "artifact" + i);
+        }
+        // each record is at least 20 bytes, so the file holds less than half of the records once compacted
+        Assert.assertTrue(Files.size(snapshotFile) < 2000 * 20);
+        Map<String, String> artifacts = snapshot.load();
+        Assert.assertEquals("artifact1998", artifacts.get("api0"));
+        Assert.assertEquals("artifact1999", artifacts.get("api1"));
+    }
+
+    @Test
+    public void testSameInstanceIsReturnedForFile() throws IOException {
+        Path snapshotFile = Files.createTempDirectory("snapshot").resolve("tenant.snapshot");
+        Assert.assertSame(GatewayArtifactSnapshot.getSnapshot(snapshotFile),
+                GatewayArtifactSnapshot.getSnapshot(snapshotFile));
+    }
+}
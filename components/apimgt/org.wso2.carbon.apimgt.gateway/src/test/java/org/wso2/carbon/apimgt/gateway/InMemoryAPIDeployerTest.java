@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.gateway.GatewayAPIDTO;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryAPIDeployerTest {
+
+    @Test
+    public void testConcurrentDeploymentsOfDifferentAPIsAreSerialized() throws Exception {
+        RecordingAPIDeployer apiDeployer = new RecordingAPIDeployer(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Boolean>> deployments = new ArrayList<>();
+            for (String apiId : new String[]{"api-1", "api-2"}) {
+                deployments.add(executor.submit(() -> apiDeployer.deployAPI(createDeployEvent(apiId))));
+            }
+            for (Future<Boolean> deployment : deployments) {
+                Assert.assertTrue(deployment.get(10, TimeUnit.SECONDS));
+            }
+            // both artifacts are retrieved before either API is deployed, while the deployments do not overlap
+            Assert.assertEquals(0, apiDeployer.retrievals.getCount());
+            Assert.assertEquals(2, apiDeployer.deployedAPIs.size());
+            Assert.assertEquals(1, apiDeployer.maxConcurrentDeployments.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static DeployAPIInGatewayEvent createDeployEvent(String apiId) {
+        return new DeployAPIInGatewayEvent(UUID.randomUUID().toString(), System.currentTimeMillis(),
+                APIConstants.EventType.DEPLOY_API_IN_GATEWAY.name(), "carbon.super", 1, apiId,
+                Collections.singleton("Default"), apiId, "1.0.0", "admin", "HTTP", "/" + apiId);
+    }
+
+    /**
+     * A deployer which records the deployments instead of changing the Synapse configuration.
+     */
+    private static class RecordingAPIDeployer extends InMemoryAPIDeployer {
+
+        private final CountDownLatch retrievals;
+        private final AtomicInteger concurrentDeployments = new AtomicInteger();
+        private final AtomicInteger maxConcurrentDeployments = new AtomicInteger();
+        private final List<String> deployedAPIs = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingAPIDeployer(int apiCount) {
+            super(null, new GatewayArtifactSynchronizerProperties());
+            this.retrievals = new CountDownLatch(apiCount);
+        }
+
+        @Override
+        String retrieveArtifact(String apiId, Set<String> gatewayLabels) {
+            retrievals.countDown();
+            try {
+                // the artifacts of the APIs are retrieved at the same time
+                retrievals.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"name\":\"" + apiId + "\",\"apiId\":\"" + apiId + "\"}";
+        }
+
+        @Override
+        void deployAPI(DeployAPIInGatewayEvent gatewayEvent, GatewayAPIDTO gatewayAPIDTO,
+                       String gatewayRuntimeArtifact) {
+            maxConcurrentDeployments.accumulateAndGet(concurrentDeployments.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            deployedAPIs.add(gatewayAPIDTO.getApiId());
+            concurrentDeployments.decrementAndGet();
+        }
+    }
+}
@@ -46,6 +46,7 @@ import org.wso2.carbon.apimgt.gateway.inbound.InboundMessageContextDataHolder;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.InboundProcessorResponseDTO;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.InboundWebSocketProcessor;
 import org.wso2.carbon.apimgt.gateway.inbound.websocket.utils.InboundWebsocketProcessorUtil;
+import org.wso2.carbon.apimgt.gateway.throttling.publisher.StreamingThrottleEventAccumulator;
 import org.wso2.carbon.apimgt.gateway.utils.APIMgtGoogleAnalyticsUtils;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.utils.APIUtil;
@@ -120,6 +121,20 @@ public class WebsocketInboundHandlerTestCase {
                 .containsKey(channelIdString))); // Closing connection. Remove context from data-holder map.
     }
 
+    @Test
+    public void testThrottleEventsAreFlushedOnClose() throws Exception {
+
+        InboundMessageContext inboundMessageContext = createWebSocketApiMessageContext();
+        StreamingThrottleEventAccumulator throttleEventAccumulator =
+                Mockito.mock(StreamingThrottleEventAccumulator.class);
+        inboundMessageContext.setThrottleEventAccumulator(throttleEventAccumulator);
+        InboundMessageContextDataHolder.getInstance().addInboundMessageContextForConnection(channelIdString,
+                inboundMessageContext);
+        CloseWebSocketFrame closeWebSocketFrame = Mockito.mock(CloseWebSocketFrame.class);
+        websocketInboundHandler.channelRead(channelHandlerContext, closeWebSocketFrame);
+        Mockito.verify(throttleEventAccumulator).flush();
+    }
+
     @Test
     public void testWSHandshakeResponse() throws Exception {
 
@@ -0,0 +1,87 @@
+/*
+ *   Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *   WSO2 Inc. licenses this file to you under the Apache License,
+ *   Version 2.0 (the "License"); you may not use this file except
+ *   in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.graphQL;
+
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+import graphql.schema.idl.UnExecutableSchemaGenerator;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.api.gateway.GraphQLSchemaDTO;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Unit test cases related GraphQLSchemaMetadata.
+ */
+public class GraphQLSchemaMetadataTest {
+
+    private GraphQLSchemaMetadata metadata;
+
+    @Before
+    public void setup() throws IOException {
+
+        String relativePath = "graphQL" + File.separator + "schema_with_additional_props.graphql";
+        String schemaString = IOUtils.toString(getClass().getClassLoader().getResourceAsStream(relativePath));
+        TypeDefinitionRegistry registry = new SchemaParser().parse(schemaString);
+        GraphQLSchema schema = UnExecutableSchemaGenerator.makeUnExecutableSchema(registry);
+        metadata = new GraphQLSchemaMetadata(new GraphQLSchemaDTO(schema, registry));
+    }
+
+    @Test
+    public void testMappingsAreExtractedFromSchema() {
+
+        Assert.assertEquals("Unlimited", metadata.getOperationThrottlingMapping().get("allLifts"));
+        Assert.assertEquals(Boolean.TRUE, metadata.getOperationAuthSchemeMapping().get("allLifts"));
+        Assert.assertEquals(metadata.getOperationThrottlingMapping().keySet(),
+                metadata.getOperationAuthSchemeMapping().keySet());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMappingsAreUnmodifiable() {
+
+        metadata.getOperationThrottlingMapping().put("allLifts", "Gold");
+    }
+
+    @Test
+    public void testParsedQueriesAreCached() {
+
+        GraphQLParsedQuery parsedQuery = metadata.getParsedQuery("{allLifts{name}}");
+        Assert.assertNull(parsedQuery.getValidationErrorMessage());
+        Assert.assertSame(parsedQuery, metadata.getParsedQuery("{allLifts{name}}"));
+        Assert.assertNotSame(parsedQuery, metadata.getParsedQuery("{allTrails{name}}"));
+
+        GraphQLParsedQuery invalidQuery = metadata.getParsedQuery("{allLifts{unknownField}}");
+        Assert.assertNotNull(invalidQuery.getValidationErrorMessage());
+        Assert.assertSame(invalidQuery, metadata.getParsedQuery("{allLifts{unknownField}}"));
+    }
+
+    @Test
+    public void testParsedQueryCacheIsBounded() {
+
+        for (int i = 0; i < GraphQLSchemaMetadata.PARSED_QUERY_CACHE_SIZE + 100; i++) {
+            metadata.getParsedQuery("query q" + i + " {allLifts{name}}");
+        }
+        Assert.assertEquals(GraphQLSchemaMetadata.PARSED_QUERY_CACHE_SIZE, metadata.getParsedQueryCacheSize());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.APIInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.ResourceInfoDTO;
+import org.wso2.carbon.apimgt.impl.dto.VerbInfoDTO;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class APIResourceIndexTestCase {
+
+    private APIResourceIndex resourceIndex;
+
+    @Before
+    public void init() {
+
+        APIInfoDTO apiInfoDTO = new APIInfoDTO();
+        Set<ResourceInfoDTO> resources = new LinkedHashSet<>();
+        resources.add(getResource("/*", "GET", "wildcard"));
+        ResourceInfoDTO petsResource = getResource("/pets", "GET", "listPets");
+        VerbInfoDTO addPetVerb = new VerbInfoDTO();
+        addPetVerb.setHttpVerb("POST");
+        addPetVerb.setThrottling("addPet");
+        petsResource.getHttpVerbs().add(addPetVerb);
+        resources.add(petsResource);
+        resources.add(getResource("/pets/{petId}", "GET", "getPet"));
+        resources.add(getResource("/pets/findByStatus", "GET", "findByStatus"));
+        resources.add(getResource("/pets/{petId}/photos/*", "PUT", "uploadPhoto"));
+        resources.add(getResource("/stores/", "GET", "listStores"));
+        resources.add(getResource("/foo?bar={b}", "GET", "getFoo"));
+        resources.add(getResource("/orders{?status}", "GET", "listOrders"));
+        apiInfoDTO.setResources(resources);
+        resourceIndex = new APIResourceIndex(apiInfoDTO);
+    }
+
+    @Test
+    public void testLiteralMatch() {
+
+        Assert.assertEquals("listPets", resourceIndex.findVerb("/pets", "GET").getThrottling());
+        Assert.assertEquals("addPet", resourceIndex.findVerb("/pets", "POST").getThrottling());
+        Assert.assertEquals("listStores", resourceIndex.findVerb("/stores", "GET").getThrottling());
+    }
+
+    @Test
+    public void testLiteralTakesPrecedenceOverTemplate() {
+
+        Assert.assertEquals("findByStatus", resourceIndex.findVerb("/pets/findByStatus", "GET").getThrottling());
+        Assert.assertEquals("getPet", resourceIndex.findVerb("/pets/123", "GET").getThrottling());
+        Assert.assertEquals("getPet", resourceIndex.findVerb("/pets/123?fields=name", "GET").getThrottling());
+    }
+
+    @Test
+    public void testWildcardMatch() {
+
+        Assert.assertEquals("uploadPhoto", resourceIndex.findVerb("/pets/1/photos", "PUT").getThrottling());
+        Assert.assertEquals("uploadPhoto", resourceIndex.findVerb("/pets/1/photos/a/b", "PUT").getThrottling());
+        Assert.assertEquals("wildcard", resourceIndex.findVerb("/pets/1/owner", "GET").getThrottling());
+        Assert.assertEquals("wildcard", resourceIndex.findVerb("/", "GET").getThrottling());
+    }
+
+    @Test
+    public void testQueryTemplateIsNotPartOfPath() {
+
+        Assert.assertEquals("getFoo", resourceIndex.findVerb("/foo", "GET").getThrottling());
+        Assert.assertEquals("getFoo", resourceIndex.findVerb("/foo?bar=1", "GET").getThrottling());
+        Assert.assertEquals("listOrders", resourceIndex.findVerb("/orders?status=open", "GET").getThrottling());
+        // the query templates do not turn the resources into path variables matching any segment
+        Assert.assertEquals("wildcard", resourceIndex.findVerb("/bar", "GET").getThrottling());
+        Assert.assertEquals("wildcard", resourceIndex.findVerb("/foo/1", "GET").getThrottling());
+    }
+
+    @Test
+    public void testNoMatch() {
+
+        Assert.assertNull(resourceIndex.findVerb("/pets/1", "DELETE"));
+        Assert.assertNull(resourceIndex.findVerb("/pets/1/photos", "POST"));
+    }
+
+    @Test
+    public void testGetResourcesByPattern() {
+
+        Assert.assertEquals(1, resourceIndex.getResourcesByPattern("/Pets/{petId}").size());
+        Assert.assertEquals(1, resourceIndex.getResourcesByPattern("/stores").size());
+        Assert.assertEquals(1, resourceIndex.getResourcesByPattern("/stores/").size());
+        Assert.assertTrue(resourceIndex.getResourcesByPattern("/owners").isEmpty());
+    }
+
+    private ResourceInfoDTO getResource(String urlPattern, String httpVerb, String throttling) {
+
+        ResourceInfoDTO resourceInfoDTO = new ResourceInfoDTO();
+        resourceInfoDTO.setUrlPattern(urlPattern);
+        Set<VerbInfoDTO> verbs = new LinkedHashSet<>();
+        VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+        verbInfoDTO.setHttpVerb(httpVerb);
+        verbInfoDTO.setThrottling(throttling);
+        verbs.add(verbInfoDTO);
+        resourceInfoDTO.setHttpVerbs(verbs);
+        return resourceInfoDTO;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.handlers.security.utils;
+
+import com.atlassian.oai.validator.OpenApiInteractionValidator;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class OpenAPIValidatorCacheTest {
+
+    private static final String API_UUID = "b3e3ce4e-3b0a-4e7b-9a2a-0c1f6a7f4a11";
+    private String swagger;
+
+    @Before
+    public void init() throws IOException {
+
+        swagger = IOUtils.toString(this.getClass().getResourceAsStream("/swaggerEntry/openapi.json"));
+        OpenAPIValidatorCache.getInstance().clear();
+    }
+
+    @Test
+    public void testValidatorIsReusedForSameDefinition() {
+
+        OpenAPIValidatorCache cache = OpenAPIValidatorCache.getInstance();
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+        OpenApiInteractionValidator first = cache.getValidator(API_UUID, swagger);
+        OpenApiInteractionValidator second = cache.getValidator(API_UUID, swagger);
+        Assert.assertSame(first, second);
+        Assert.assertEquals(misses + 1, cache.getMissCount());
+        Assert.assertEquals(hits + 1, cache.getHitCount());
+    }
+
+    @Test
+    public void testValidatorIsRebuiltWhenDefinitionChanges() {
+
+        OpenAPIValidatorCache cache = OpenAPIValidatorCache.getInstance();
+        OpenApiInteractionValidator first = cache.getValidator(API_UUID, swagger);
+        String updatedSwagger = swagger.replaceFirst("\\{", "{\"x-revision\": \"2\",");
+        OpenApiInteractionValidator second = cache.getValidator(API_UUID, updatedSwagger);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testValidatorIsRebuiltForDefinitionWithSameHashCode() {
+
+        OpenAPIValidatorCache cache = OpenAPIValidatorCache.getInstance();
+        String firstSwagger = swagger.replaceFirst("\\{", "{\"x-revision\": \"Aa\",");
+        String secondSwagger = swagger.replaceFirst("\\{", "{\"x-revision\": \"BB\",");
+        Assert.assertEquals(firstSwagger.length(), secondSwagger.length());
+        Assert.assertEquals(firstSwagger.hashCode(), secondSwagger.hashCode());
+        OpenApiInteractionValidator first = cache.getValidator(null, firstSwagger);
+        OpenApiInteractionValidator second = cache.getValidator(null, secondSwagger);
+        Assert.assertNotSame(first, second);
+        Assert.assertSame(second, cache.getValidator(null, new String(secondSwagger)));
+    }
+
+    @Test
+    public void testInvalidate() {
+
+        OpenAPIValidatorCache cache = OpenAPIValidatorCache.getInstance();
+        OpenApiInteractionValidator first = cache.getValidator(API_UUID, swagger);
+        cache.invalidate(API_UUID);
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNotSame(first, cache.getValidator(API_UUID, swagger));
+    }
+}
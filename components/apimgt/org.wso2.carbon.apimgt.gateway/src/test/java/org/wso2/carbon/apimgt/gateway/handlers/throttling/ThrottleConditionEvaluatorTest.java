@@ -889,6 +889,60 @@ public class ThrottleConditionEvaluatorTest {
         return conditionDto;
     }
 
+    @Test
+    public void testApplicabilityOfManyConditionGroups() {
+
+        ConditionGroupDTO[] conditionGroupDTOS = new ConditionGroupDTO[101];
+        for (int i = 0; i < 100; i++) {
+            ConditionDTO jwtCondition = new ConditionDTO();
+            jwtCondition.setConditionType("JWTClaims");
+            jwtCondition.setConditionName("http://wso2.org/claims/subscriber");
+            jwtCondition.setConditionValue(i % 2 == 0 ? "^adm.n$" : "^user" + i + "$");
+            ConditionDTO headerCondition = new ConditionDTO();
+            headerCondition.setConditionType("Header");
+            headerCondition.setConditionName("User-Agent");
+            headerCondition.setConditionValue(i % 4 == 0 ? "Mozilla/[0-9]+" : "Chrome/" + i);
+            ConditionGroupDTO conditionGroupDTO = new ConditionGroupDTO();
+            conditionGroupDTO.setConditionGroupId("conditionGroup" + i);
+            conditionGroupDTO.setConditions(new ConditionDTO[]{jwtCondition, headerCondition});
+            conditionGroupDTOS[i] = conditionGroupDTO;
+        }
+        conditionGroupDTOS[100] = defaultConditionGroupDTO;
+
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        authenticationContext.setCallerToken(JWTToken);
+        for (int request = 0; request < 3; request++) {
+            MessageContext messageContext = TestUtils.getMessageContext(apiContext, apiVersion);
+            Map<String, String> headers = new TreeMap<>();
+            headers.put("User-Agent", "Mozilla/5");
+            ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                    .setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, headers);
+            List<ConditionGroupDTO> matchingConditionGroups = throttleConditionEvaluator.getApplicableConditions
+                    (messageContext, authenticationContext, conditionGroupDTOS);
+            Assert.assertEquals(25, matchingConditionGroups.size());
+            for (int i = 0; i < 25; i++) {
+                Assert.assertEquals("conditionGroup" + (i * 4), matchingConditionGroups.get(i).getConditionGroupId());
+            }
+        }
+    }
+
+    @Test
+    public void testGetThrottledInConditionWithJWTConditionWithoutCallerToken() {
+
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableJwtConditions(true);
+        ServiceReferenceHolder.getInstance().setThrottleProperties(throttleProperties);
+        MessageContext messageContext = TestUtils.getMessageContext(apiContext, apiVersion);
+
+        Map<String, List<ConditionDto>> conditionMap = new HashMap<>();
+        conditionMap.put("condition1", Arrays.asList(new ConditionDto[]{getJWTCondition(false)}));
+        conditionMap.put("default", Arrays.asList(new ConditionDto[]{getJWTCondition(false)}));
+        throttleConditionEvaluator.compileConditions(conditionMap.get("condition1"));
+        String condition = throttleConditionEvaluator.getThrottledInCondition(messageContext,
+                new AuthenticationContext(), conditionMap);
+        Assert.assertEquals(condition, "default");
+    }
+
     private ConditionDto getComplexCondition1() {
 
         ConditionDto conditionDto = new ConditionDto();
@@ -0,0 +1,105 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.jwt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class RevokedJWTStoreTest {
+
+    private static final long NOW = 1_600_000_000L;
+
+    @Test
+    public void testAddAndContains() {
+        RevokedJWTStore store = new RevokedJWTStore();
+        store.add("signature-1", NOW + 3600);
+        Assert.assertTrue(store.contains("signature-1"));
+        Assert.assertFalse(store.contains("signature-2"));
+        store.add("signature-1", NOW + 7200);
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testExpiredTokensAreRemoved() {
+        RevokedJWTStore store = new RevokedJWTStore();
+        for (int i = 0; i < 5000; i++) {
+            store.add("expired-" + i, NOW - 600 - i);
+            store.add("active-" + i, NOW + 600 + i);
+        }
+        Assert.assertEquals(10000, store.size());
+
+        Assert.assertEquals(5000, store.removeExpired(NOW));
+        Assert.assertEquals(5000, store.size());
+        for (int i = 0; i < 5000; i++) {
+            Assert.assertFalse(store.contains("expired-" + i));
+            Assert.assertTrue(store.contains("active-" + i));
+        }
+        // Nothing left to remove until the active tokens expire
+        Assert.assertEquals(0, store.removeExpired(NOW));
+        Assert.assertEquals(5000, store.removeExpired(NOW + 7200));
+        Assert.assertEquals(0, store.size());
+        Assert.assertFalse(store.contains("active-1"));
+    }
+
+    @Test
+    public void testTokenRevokedAgainWithLaterExpiryIsKept() {
+        RevokedJWTStore store = new RevokedJWTStore();
+        store.add("signature-1", NOW - 600);
+        store.add("signature-1", NOW + 600);
+        Assert.assertEquals(0, store.removeExpired(NOW));
+        Assert.assertTrue(store.contains("signature-1"));
+        Assert.assertEquals(1, store.removeExpired(NOW + 1200));
+        Assert.assertFalse(store.contains("signature-1"));
+    }
+
+    @Test
+    public void testConcurrentLookupsWhileAdding() throws Exception {
+        RevokedJWTStore store = new RevokedJWTStore();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Future<?> writer = executorService.submit(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    store.add("signature-" + i, NOW + i);
+                }
+            });
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                readers.add(executorService.submit(() -> {
+                    for (int i = 0; i < 100000; i++) {
+                        Assert.assertFalse(store.contains("valid-" + i));
+                    }
+                }));
+            }
+            writer.get(60, TimeUnit.SECONDS);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(100000, store.size());
+        for (int i = 0; i < 100000; i++) {
+            Assert.assertTrue(store.contains("signature-" + i));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.listeners;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GatewayEventDispatcherTest {
+
+    @Test
+    public void testEventsOfKeyAreProcessedInOrder() throws Exception {
+        GatewayEventDispatcher dispatcher = new GatewayEventDispatcher(4, 100);
+        try {
+            List<List<Integer>> processed = new ArrayList<>();
+            CountDownLatch latch = new CountDownLatch(8 * 50);
+            for (int key = 0; key < 8; key++) {
+                processed.add(Collections.synchronizedList(new ArrayList<>()));
+            }
+            for (int i = 0; i < 50; i++) {
+                for (int key = 0; key < 8; key++) {
+                    List<Integer> processedOfKey = processed.get(key);
+                    int sequence = i;
+                    dispatcher.dispatch("api:" + key, () -> {
+                        processedOfKey.add(sequence);
+                        latch.countDown();
+                    });
+                }
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            for (List<Integer> processedOfKey : processed) {
+                Assert.assertEquals(50, processedOfKey.size());
+                for (int i = 0; i < 50; i++) {
+                    Assert.assertEquals(i, processedOfKey.get(i).intValue());
+                }
+            }
+            Assert.assertEquals(0, dispatcher.getQueueDepth());
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testBlockedKeyDoesNotDelayOtherWorkers() throws Exception {
+        GatewayEventDispatcher dispatcher = new GatewayEventDispatcher(2, 10);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            String blockedKey = findKeyOfWorker(0, 2);
+            String otherKey = findKeyOfWorker(1, 2);
+            dispatcher.dispatch(blockedKey, () -> await(release));
+            CountDownLatch processed = new CountDownLatch(1);
+            dispatcher.dispatch(otherKey, processed::countDown);
+            Assert.assertTrue(processed.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testDispatchWaitsForFullQueue() throws Exception {
+        GatewayEventDispatcher dispatcher = new GatewayEventDispatcher(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            dispatcher.dispatch("api:1", () -> {
+                started.countDown();
+                await(release);
+            });
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            dispatcher.dispatch("api:1", () -> { });
+            Assert.assertEquals(1, dispatcher.getQueueDepth());
+            CountDownLatch dispatched = new CountDownLatch(1);
+            Thread consumer = new Thread(() -> {
+                try {
+                    dispatcher.dispatch("api:1", () -> { });
+                    dispatched.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            consumer.start();
+            Assert.assertFalse(dispatched.await(200, TimeUnit.MILLISECONDS));
+            release.countDown();
+            Assert.assertTrue(dispatched.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(dispatcher.getMaxLag() >= 200);
+        } finally {
+            release.countDown();
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedEventDoesNotStopWorker() throws Exception {
+        GatewayEventDispatcher dispatcher = new GatewayEventDispatcher(1, 10);
+        try {
+            dispatcher.dispatch("api:1", () -> {
+                throw new IllegalStateException("failed");
+            });
+            CountDownLatch processed = new CountDownLatch(1);
+            dispatcher.dispatch("api:1", processed::countDown);
+            Assert.assertTrue(processed.await(5, TimeUnit.SECONDS));
+        } finally {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testPolicyEventsShareKeyWithEventsReferringToThem() {
+        String policyKey = GatewayJMSMessageListener.getEventKey("POLICY_CREATE",
+                "{\"tenantDomain\":\"carbon.super\",\"policyType\":\"SUBSCRIPTION\",\"policyName\":\"Gold\"}");
+        String subscriptionKey = GatewayJMSMessageListener.getEventKey("SUBSCRIPTIONS_CREATE",
+                "{\"tenantDomain\":\"carbon.super\",\"applicationId\":1,\"apiId\":2,\"policyId\":\"Gold\"}");
+        String applicationKey = GatewayJMSMessageListener.getEventKey("APPLICATION_CREATE",
+                "{\"tenantDomain\":\"carbon.super\",\"applicationId\":3,\"applicationPolicy\":\"10PerMin\"}");
+        String keyMappingKey = GatewayJMSMessageListener.getEventKey("REMOVE_APPLICATION_KEYMAPPING",
+                "{\"tenantDomain\":\"carbon.super\",\"applicationId\":3}");
+        Assert.assertEquals(policyKey, subscriptionKey);
+        Assert.assertEquals(policyKey, applicationKey);
+        Assert.assertEquals(policyKey, keyMappingKey);
+        Assert.assertNotEquals(policyKey, GatewayJMSMessageListener.getEventKey("POLICY_CREATE",
+                "{\"tenantDomain\":\"wso2.com\",\"policyType\":\"SUBSCRIPTION\",\"policyName\":\"Gold\"}"));
+    }
+
+    @Test
+    public void testEventsOfAPIShareKey() {
+        String deployKey = GatewayJMSMessageListener.getEventKey("DEPLOY_API_IN_GATEWAY",
+                "{\"tenantDomain\":\"carbon.super\",\"uuid\":\"api-1\",\"apiId\":1}");
+        Assert.assertEquals(deployKey, GatewayJMSMessageListener.getEventKey("REMOVE_API_FROM_GATEWAY",
+                "{\"tenantDomain\":\"carbon.super\",\"uuid\":\"api-1\",\"apiId\":1}"));
+        Assert.assertEquals(deployKey, GatewayJMSMessageListener.getEventKey("API_UPDATE",
+                "{\"tenantDomain\":\"carbon.super\",\"uuid\":\"api-1\",\"apiId\":1}"));
+        // the deployments of different APIs are processed in parallel
+        Assert.assertNotEquals(deployKey, GatewayJMSMessageListener.getEventKey("DEPLOY_API_IN_GATEWAY",
+                "{\"tenantDomain\":\"carbon.super\",\"uuid\":\"api-2\",\"apiId\":2}"));
+        Assert.assertNotEquals(deployKey, GatewayJMSMessageListener.getEventKey("SUBSCRIPTIONS_CREATE",
+                "{\"tenantDomain\":\"carbon.super\",\"applicationId\":1,\"apiId\":1}"));
+    }
+
+    private static String findKeyOfWorker(int worker, int workerCount) {
+        for (int i = 0; ; i++) {
+            String key = "api:" + i;
+            if ((key.hashCode() & Integer.MAX_VALUE) % workerCount == worker) {
+                return key;
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
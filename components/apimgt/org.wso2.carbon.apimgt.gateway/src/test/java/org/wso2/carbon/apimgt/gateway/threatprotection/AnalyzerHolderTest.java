@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.gateway.threatprotection;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.APIMThreatAnalyzer;
+import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.JSONAnalyzer;
+import org.wso2.carbon.apimgt.gateway.threatprotection.analyzer.XMLAnalyzer;
+import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.JSONConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.configuration.XMLConfig;
+import org.wso2.carbon.apimgt.gateway.threatprotection.utils.ThreatProtectorConstants;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test class for {@link AnalyzerHolder} and the analyzers held by it.
+ */
+public class AnalyzerHolderTest {
+
+    @Test
+    public void testAnalyzersAreReusedWithinThread() throws Exception {
+        APIMThreatAnalyzer jsonAnalyzer = AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.APPLICATION_JSON);
+        APIMThreatAnalyzer xmlAnalyzer = AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.APPLICATION_XML);
+        Assert.assertTrue(jsonAnalyzer instanceof JSONAnalyzer);
+        Assert.assertTrue(xmlAnalyzer instanceof XMLAnalyzer);
+        AnalyzerHolder.returnObject(jsonAnalyzer);
+        AnalyzerHolder.returnObject(xmlAnalyzer);
+        AnalyzerHolder.returnObject(null);
+        Assert.assertSame(jsonAnalyzer, AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.TEXT_JSON));
+        Assert.assertSame(xmlAnalyzer, AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.TEXT_XML));
+        Assert.assertNull(AnalyzerHolder.getAnalyzer("text/plain"));
+
+        AtomicReference<APIMThreatAnalyzer> otherThreadAnalyzer = new AtomicReference<>();
+        Thread thread = new Thread(() -> otherThreadAnalyzer.set(
+                AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.APPLICATION_JSON)));
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(otherThreadAnalyzer.get());
+        Assert.assertNotSame(jsonAnalyzer, otherThreadAnalyzer.get());
+    }
+
+    @Test
+    public void testJSONAnalyzerReadsPayloadBytes() throws Exception {
+        JSONConfig jsonConfig = new JSONConfig();
+        jsonConfig.setMaxPropertyCount(5);
+        jsonConfig.setMaxStringLength(5);
+        jsonConfig.setMaxArrayElementCount(5);
+        jsonConfig.setMaxKeyLength(5);
+        jsonConfig.setMaxJsonDepth(5);
+        APIMThreatAnalyzer analyzer = AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.APPLICATION_JSON);
+        analyzer.configure(jsonConfig);
+        try {
+            // five characters which are encoded in ten bytes are within the string length limit
+            analyzer.analyze(new ByteArrayInputStream("{\"name\":\"\u00fc\u00fc\u00fc\u00fc\u00fc\"}"
+                    .getBytes(StandardCharsets.UTF_8)), "/test");
+            try {
+                analyzer.analyze(new ByteArrayInputStream("{\"name\":\"\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\"}"
+                        .getBytes(StandardCharsets.UTF_8)), "/test");
+                Assert.fail("String length limit is not enforced");
+            } catch (APIMThreatAnalyzerException e) {
+                Assert.assertTrue(e.getMessage().contains("Max String Length"));
+            }
+        } finally {
+            AnalyzerHolder.returnObject(analyzer);
+        }
+    }
+
+    @Test
+    public void testXMLAnalyzerReadsPayloadBytes() throws Exception {
+        XMLConfig xmlConfig = new XMLConfig();
+        xmlConfig.setMaxDepth(2);
+        xmlConfig.setMaxElementCount(10);
+        xmlConfig.setMaxAttributeCount(5);
+        xmlConfig.setMaxAttributeLength(10);
+        xmlConfig.setMaxChildrenPerElement(5);
+        APIMThreatAnalyzer analyzer = AnalyzerHolder.getAnalyzer(ThreatProtectorConstants.APPLICATION_XML);
+        analyzer.configure(xmlConfig);
+        try {
+            analyzer.analyze(new ByteArrayInputStream("<?xml version=\"1.0\" encoding=\"UTF-8\"?><a><b>\u00fc</b></a>"
+                    .getBytes(StandardCharsets.UTF_8)), "/test");
+            try {
+                analyzer.analyze(new ByteArrayInputStream("<a><b><c/></b></a>".getBytes(StandardCharsets.UTF_8)),
+                        "/test");
+                Assert.fail("Depth limit is not enforced");
+            } catch (APIMThreatAnalyzerException e) {
+                Assert.assertTrue(e.getMessage().startsWith("XML Validation Failed"));
+            }
+        } finally {
+            AnalyzerHolder.returnObject(analyzer);
+        }
+    }
+}
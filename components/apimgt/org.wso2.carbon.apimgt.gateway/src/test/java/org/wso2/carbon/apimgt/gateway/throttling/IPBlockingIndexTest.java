@@ -0,0 +1,163 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.throttling;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.gateway.dto.IPRange;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class IPBlockingIndexTest {
+
+    @Test
+    public void testOverlappingRangesAreMerged() {
+        IPBlockingIndex index = new IPBlockingIndex(Arrays.asList(
+                getRange(1, "10.0.0.0", "10.0.0.100", false),
+                getRange(2, "10.0.0.50", "10.0.1.0", false),
+                getRange(3, "10.0.0.255", "10.0.2.0", false),
+                getRange(4, "172.16.0.0", "172.16.0.10", false)));
+        Assert.assertEquals(2, index.getRangeCount());
+        Assert.assertFalse(index.isBlocked("10.0.0.0"));
+        Assert.assertTrue(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.1.128"));
+        Assert.assertTrue(index.isBlocked("10.0.1.255"));
+        Assert.assertFalse(index.isBlocked("10.0.2.0"));
+        Assert.assertTrue(index.isBlocked("172.16.0.5"));
+        Assert.assertFalse(index.isBlocked("172.16.0.10"));
+        Assert.assertFalse(index.isBlocked("8.8.8.8"));
+    }
+
+    @Test
+    public void testIPv6Ranges() {
+        IPBlockingIndex index = new IPBlockingIndex(Collections.singletonList(
+                getRange(1, "2001:db8::", "2001:db8::ffff:ffff:ffff:ffff", false)));
+        Assert.assertTrue(index.isBlocked("2001:db8::1"));
+        Assert.assertTrue(index.isBlocked("2001:0db8:0000:0000:0000:0000:abcd:0001"));
+        Assert.assertFalse(index.isBlocked("2001:db8:0:1::1"));
+        Assert.assertFalse(index.isBlocked("10.0.0.1"));
+    }
+
+    @Test
+    public void testInvertedConditions() {
+        IPBlockingIndex index = new IPBlockingIndex(Collections.singletonList(getFixedIp(1, "10.0.0.1", true)));
+        Assert.assertFalse(index.isBlocked("10.0.0.1"));
+        Assert.assertTrue(index.isBlocked("10.0.0.2"));
+
+        index = new IPBlockingIndex(Arrays.asList(getRange(1, "10.0.0.0", "10.0.1.0", true),
+                getRange(2, "10.0.0.100", "10.0.2.0", true)));
+        Assert.assertTrue(index.isBlocked("10.0.0.50"));
+        Assert.assertFalse(index.isBlocked("10.0.0.150"));
+        Assert.assertTrue(index.isBlocked("10.0.1.50"));
+
+        index = new IPBlockingIndex(Arrays.asList(getRange(1, "10.0.0.0", "10.0.1.0", true),
+                getRange(2, "10.0.2.0", "10.0.3.0", true)));
+        Assert.assertTrue(index.isBlocked("10.0.0.50"));
+        Assert.assertTrue(index.isBlocked("10.0.2.50"));
+    }
+
+    @Test
+    public void testMatchesLinearEvaluation() {
+        Random random = new Random(42);
+        List<IPRange> ipRanges = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String start = getRandomIp(random);
+            String end = getRandomIp(random);
+            if (i % 10 == 0) {
+                ipRanges.add(getFixedIp(i, start, false));
+            } else {
+                ipRanges.add(getRange(i, start, end, false));
+            }
+        }
+        IPBlockingIndex index = new IPBlockingIndex(ipRanges);
+        for (int i = 0; i < 20000; i++) {
+            String ip = i % 100 == 0 ? ipRanges.get(random.nextInt(ipRanges.size())).getFixedIp() : null;
+            if (ip == null) {
+                ip = getRandomIp(random);
+            }
+            Assert.assertEquals(ip, isBlockedLinear(ipRanges, ip), index.isBlocked(ip));
+        }
+    }
+
+    @Test
+    public void testParseIPv6() {
+        long[] result = new long[2];
+        Assert.assertTrue(IPBlockingIndex.parseIPv6("::1", result));
+        Assert.assertEquals(0, result[0]);
+        Assert.assertEquals(1, result[1]);
+        Assert.assertTrue(IPBlockingIndex.parseIPv6("2001:db8::2:1", result));
+        Assert.assertEquals(0x20010db800000000L, result[0]);
+        Assert.assertEquals(0x0000000000020001L, result[1]);
+        Assert.assertTrue(IPBlockingIndex.parseIPv6("::ffff:a00:1", result));
+        Assert.assertEquals(0x0a000001L, result[1]);
+        Assert.assertFalse(IPBlockingIndex.parseIPv6("1::2::3", result));
+        Assert.assertFalse(IPBlockingIndex.parseIPv6("1:2:3:4:5:6:7", result));
+        Assert.assertFalse(IPBlockingIndex.parseIPv6("fe80::1%eth0", result));
+        Assert.assertEquals(-1, IPBlockingIndex.parseIPv4("10.0.0.256"));
+        Assert.assertEquals(0x0a000001L, IPBlockingIndex.parseIPv4("10.0.0.1"));
+    }
+
+    private boolean isBlockedLinear(List<IPRange> ipRanges, String ip) {
+        BigInteger ipValue = APIUtil.ipToBigInteger(ip);
+        for (IPRange ipRange : ipRanges) {
+            if (APIConstants.BLOCKING_CONDITIONS_IP.equals(ipRange.getType())) {
+                if (ip.equals(ipRange.getFixedIp()) != ipRange.isInvert()) {
+                    return true;
+                }
+            } else if (ipValue.compareTo(ipRange.getStartingIpBigIntValue()) > 0
+                    && ipValue.compareTo(ipRange.getEndingIpBigIntValue()) < 0) {
+                if (!ipRange.isInvert()) {
+                    return true;
+                }
+            } else if (ipRange.isInvert()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getRandomIp(Random random) {
+        return "10." + random.nextInt(4) + "." + random.nextInt(256) + "." + random.nextInt(256);
+    }
+
+    private IPRange getFixedIp(int id, String ip, boolean invert) {
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCKING_CONDITIONS_IP);
+        ipRange.setFixedIp(ip);
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+
+    private IPRange getRange(int id, String startingIp, String endingIp, boolean invert) {
+        IPRange ipRange = new IPRange();
+        ipRange.setId(id);
+        ipRange.setType(APIConstants.BLOCK_CONDITION_IP_RANGE);
+        ipRange.setStartingIP(startingIp);
+        ipRange.setStartingIpBigIntValue(APIUtil.ipToBigInteger(startingIp));
+        ipRange.setEndingIp(endingIp);
+        ipRange.setEndingIpBigIntValue(APIUtil.ipToBigInteger(endingIp));
+        ipRange.setInvert(invert);
+        return ipRange;
+    }
+}
@@ -18,9 +18,15 @@
 
 package org.wso2.carbon.apimgt.gateway.throttling;
 
+import org.junit.Assert;
 import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.ConditionDto;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 
@@ -56,6 +62,15 @@ public class ThrottleDataHolderTest {
         throttleDataHolder.setKeyTemplatesPresent(true);
     }
 
+    @Test
+    public void addThrottledApiConditionsWithInvalidRegex() throws Exception {
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        List<ConditionDto> conditions = Arrays.asList(getHeaderCondition("[a-z"), getHeaderCondition("^Mozilla.*"));
+        throttleDataHolder.addThrottledApiConditions("/api/1.0.0", "condition1", conditions);
+        Assert.assertTrue(throttleDataHolder.isConditionsAvailable("/api/1.0.0"));
+        Assert.assertEquals(conditions, throttleDataHolder.getConditionDtoMap("/api/1.0.0").get("condition1"));
+    }
+
     @Test
     public void addApplicationBlockingCondition() throws Exception {
     }
@@ -66,6 +81,17 @@ public class ThrottleDataHolderTest {
 
     @Test
     public void addIplockingCondition() throws Exception {
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        throttleDataHolder.addIpBlockingCondition("carbon.super", 1, "{\"fixedIp\":\"10.0.0.1\",\"invert\":false}",
+                APIConstants.BLOCKING_CONDITIONS_IP);
+        throttleDataHolder.addIpBlockingCondition("carbon.super", 2,
+                "{\"startingIp\":\"192.168.0.0\",\"endingIp\":\"192.168.1.0\",\"invert\":false}",
+                APIConstants.BLOCK_CONDITION_IP_RANGE);
+        Assert.assertTrue(isIpBlocked(throttleDataHolder, "carbon.super", "10.0.0.1"));
+        Assert.assertTrue(isIpBlocked(throttleDataHolder, "carbon.super", "192.168.0.200"));
+        Assert.assertFalse(isIpBlocked(throttleDataHolder, "carbon.super", "192.168.1.1"));
+        Assert.assertFalse(isIpBlocked(throttleDataHolder, "carbon.super", "10.0.0.2"));
+        Assert.assertFalse(isIpBlocked(throttleDataHolder, "wso2.com", "10.0.0.1"));
     }
 
     @Test
@@ -98,6 +124,14 @@ public class ThrottleDataHolderTest {
 
     @Test
     public void removeIpBlockingCondition() throws Exception {
+        ThrottleDataHolder throttleDataHolder = new ThrottleDataHolder();
+        throttleDataHolder.addIpBlockingCondition("carbon.super", 1,
+                "{\"startingIp\":\"192.168.0.0\",\"endingIp\":\"192.168.1.0\",\"invert\":true}",
+                APIConstants.BLOCK_CONDITION_IP_RANGE);
+        Assert.assertTrue(isIpBlocked(throttleDataHolder, "carbon.super", "10.0.0.1"));
+        Assert.assertFalse(isIpBlocked(throttleDataHolder, "carbon.super", "192.168.0.1"));
+        throttleDataHolder.removeIpBlockingCondition("carbon.super", 1);
+        Assert.assertFalse(isIpBlocked(throttleDataHolder, "carbon.super", "10.0.0.1"));
     }
 
     @Test
@@ -140,4 +174,15 @@ public class ThrottleDataHolderTest {
     public void setKeyTemplatesPresent() throws Exception {
     }
 
+    private boolean isIpBlocked(ThrottleDataHolder throttleDataHolder, String tenantDomain, String ip) {
+        return throttleDataHolder.isRequestBlocked("api", "application", "user", ip, tenantDomain, "subscription");
+    }
+
+    private ConditionDto getHeaderCondition(String regex) {
+        ConditionDto conditionDto = new ConditionDto();
+        ConditionDto.HeaderConditions headerConditions = new ConditionDto.HeaderConditions();
+        headerConditions.setValues(Collections.singletonMap("User-Agent", regex));
+        conditionDto.setHeaderConditions(headerConditions);
+        return conditionDto;
+    }
 }
\ No newline at end of file
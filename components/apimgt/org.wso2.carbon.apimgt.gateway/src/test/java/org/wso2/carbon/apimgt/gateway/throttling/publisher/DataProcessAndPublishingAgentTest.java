@@ -24,7 +24,11 @@ import org.apache.synapse.MessageContext;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.RESTConstants;
 import org.apache.synapse.transport.nhttp.NhttpConstants;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.wso2.carbon.apimgt.gateway.APIMgtGatewayConstants;
@@ -448,4 +452,52 @@ public class DataProcessAndPublishingAgentTest {
         dataProcessAndPublishingAgent.run();
     }
 
+    @Test
+    public void testRequestCountSentByClientIsOverridden() throws Exception {
+        ThrottleProperties throttleProperties = new ThrottleProperties();
+        throttleProperties.setEnableHeaderConditions(true);
+        throttleProperties.setEnableQueryParamConditions(true);
+        DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        DataProcessAndPublishingAgent dataProcessAndPublishingAgent = new DataProcessAndPublishingAgentWrapper
+                (throttleProperties) {
+            @Override
+            protected DataPublisher getDataPublisher() {
+                return dataPublisher;
+            }
+        };
+        AuthenticationContext authenticationContext = new AuthenticationContext();
+        MessageContext messageContext = Mockito.mock(Axis2MessageContext.class);
+        org.apache.axis2.context.MessageContext axis2MsgCntxt = Mockito.mock(org.apache.axis2.context.MessageContext
+                .class);
+        Mockito.when(((Axis2MessageContext) messageContext).getAxis2MessageContext()).thenReturn(axis2MsgCntxt);
+        Mockito.when(axis2MsgCntxt.getProperty(NhttpConstants.REST_URL_POSTFIX)).thenReturn("?requestCount=0&a=1");
+        TreeMap headers = new TreeMap();
+        headers.put(ThrottleEventAggregator.REQUEST_COUNT, "-1000");
+        Mockito.when(axis2MsgCntxt.getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS))
+                .thenReturn(headers);
+        VerbInfoDTO verbInfoDTO = new VerbInfoDTO();
+        verbInfoDTO.setContentAware(false);
+        ArrayList<VerbInfoDTO> list = new ArrayList<VerbInfoDTO>();
+        list.add(verbInfoDTO);
+        API api = new API();
+        api.setUuid(UUID.randomUUID().toString());
+        api.setApiName(apiName);
+        api.setApiVersion(apiVersion);
+        api.setApiProvider("admin");
+        Mockito.when(messageContext.getProperty(APIMgtGatewayConstants.API_OBJECT)).thenReturn(api);
+        Mockito.when(messageContext.getProperty(APIConstants.VERB_INFO_DTO)).thenReturn(list);
+        dataProcessAndPublishingAgent.setDataReference(applicationLevelThrottleKey, applicationLevelTier,
+                apiLevelThrottleKey, apiLevelTier, subscriptionLevelThrottleKey, subscriptionLevelTier,
+                resourceLevelThrottleKey, resourceLevelTier, authorizedUser, apiContext, apiVersion, appTenant,
+                apiTenant, appId, messageContext, authenticationContext);
+        dataProcessAndPublishingAgent.run();
+
+        ArgumentCaptor<Event> event = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher).tryPublish(event.capture());
+        Object[] payloadData = event.getValue().getPayloadData();
+        JSONObject properties = (JSONObject) new JSONParser().parse((String) payloadData[payloadData.length - 1]);
+        Assert.assertEquals("1", properties.get("a"));
+        Assert.assertEquals(1L, properties.get(ThrottleEventAggregator.REQUEST_COUNT));
+    }
+
 }
\ No newline at end of file
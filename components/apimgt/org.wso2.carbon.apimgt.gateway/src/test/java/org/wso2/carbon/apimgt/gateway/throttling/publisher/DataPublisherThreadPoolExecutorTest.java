@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DataPublisherThreadPoolExecutorTest {
+
+    @Test
+    public void testOverflowPolicyFromConfig() {
+        Assert.assertEquals(DataPublisherThreadPoolExecutor.OverflowPolicy.DROP_OLDEST,
+                DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig("DropOldest"));
+        Assert.assertEquals(DataPublisherThreadPoolExecutor.OverflowPolicy.DROP_NEWEST,
+                DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig("drop_newest"));
+        Assert.assertEquals(DataPublisherThreadPoolExecutor.OverflowPolicy.SAMPLE,
+                DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig("Sample"));
+        Assert.assertEquals(DataPublisherThreadPoolExecutor.OverflowPolicy.CALLER_RUNS,
+                DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig("unknown"));
+        Assert.assertEquals(DataPublisherThreadPoolExecutor.OverflowPolicy.CALLER_RUNS,
+                DataPublisherThreadPoolExecutor.OverflowPolicy.fromConfig(null));
+    }
+
+    @Test
+    public void testDropNewestWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger published = new AtomicInteger();
+        DataPublisherThreadPoolExecutor executor = getExecutor(DataPublisherThreadPoolExecutor.OverflowPolicy
+                .DROP_NEWEST);
+        try {
+            // One event is held by the worker, two wait in the queue and the remaining are dropped
+            for (int i = 0; i < 10; i++) {
+                executor.execute(new BlockingAgent(release, published, null));
+            }
+            Assert.assertEquals(2, executor.getQueueDepth());
+            Assert.assertEquals(7, executor.getDroppedEventCount());
+            release.countDown();
+            waitForCompletion(executor, 3);
+            Assert.assertEquals(3, published.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDropOldestWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger published = new AtomicInteger();
+        List<String> publishedIds = new ArrayList<>();
+        DataPublisherThreadPoolExecutor executor = getExecutor(DataPublisherThreadPoolExecutor.OverflowPolicy
+                .DROP_OLDEST);
+        try {
+            for (int i = 0; i < 10; i++) {
+                executor.execute(new BlockingAgent(release, published, publishedIds, "event" + i));
+            }
+            Assert.assertEquals(7, executor.getDroppedEventCount());
+            release.countDown();
+            waitForCompletion(executor, 3);
+            synchronized (publishedIds) {
+                Assert.assertTrue(publishedIds.contains("event8"));
+                Assert.assertTrue(publishedIds.contains("event9"));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCallerRunsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger published = new AtomicInteger();
+        DataPublisherThreadPoolExecutor executor = getExecutor(DataPublisherThreadPoolExecutor.OverflowPolicy
+                .CALLER_RUNS);
+        try {
+            executor.execute(new BlockingAgent(release, published, null));
+            executor.execute(new BlockingAgent(release, published, null));
+            executor.execute(new BlockingAgent(release, published, null));
+            // The queue is full, this event is published on the calling thread
+            executor.execute(new BlockingAgent(null, published, null));
+            Assert.assertEquals(1, executor.getCallerRunsCount());
+            Assert.assertEquals(0, executor.getDroppedEventCount());
+            release.countDown();
+            waitForCompletion(executor, 4);
+            Assert.assertEquals(4, published.get());
+            Assert.assertTrue(executor.getMaxPublishLatency() >= executor.getAveragePublishLatency());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSampleWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger published = new AtomicInteger();
+        DataPublisherThreadPoolExecutor executor = new DataPublisherThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                2, DataPublisherThreadPoolExecutor.OverflowPolicy.SAMPLE, 5, null);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(new BlockingAgent(release, published, null));
+            }
+            for (int i = 0; i < 10; i++) {
+                executor.execute(new BlockingAgent(null, published, null));
+            }
+            Assert.assertEquals(2, executor.getCallerRunsCount());
+            Assert.assertEquals(8, executor.getDroppedEventCount());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private DataPublisherThreadPoolExecutor getExecutor(DataPublisherThreadPoolExecutor.OverflowPolicy policy) {
+        return new DataPublisherThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, 2, policy, 10, null);
+    }
+
+    private void waitForCompletion(DataPublisherThreadPoolExecutor executor, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getPublishedEventCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class BlockingAgent extends DataProcessAndPublishingAgent {
+        private final CountDownLatch release;
+        private final AtomicInteger published;
+        private final List<String> publishedIds;
+        private final String id;
+
+        BlockingAgent(CountDownLatch release, AtomicInteger published, List<String> publishedIds) {
+            this(release, published, publishedIds, null);
+        }
+
+        BlockingAgent(CountDownLatch release, AtomicInteger published, List<String> publishedIds, String id) {
+            this.release = release;
+            this.published = published;
+            this.publishedIds = publishedIds;
+            this.id = id;
+        }
+
+        @Override
+        public void run() {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            published.incrementAndGet();
+            if (publishedIds != null) {
+                synchronized (publishedIds) {
+                    publishedIds.add(id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StreamingThrottleEventAccumulatorTest {
+
+    private static final Log log = LogFactory.getLog(StreamingThrottleEventAccumulatorTest.class);
+
+    @Test
+    public void testFramesAreFlushedOnCountThreshold() throws Exception {
+        CountingDataPublisher counter = new CountingDataPublisher();
+        StreamingThrottleEventAccumulator accumulator = new TestAccumulator(60000, 10, counter.dataPublisher);
+        for (int i = 0; i < 25; i++) {
+            accumulator.add(getThrottleData("/graphql:subscription"), getProperties(), 1, 100);
+        }
+        Assert.assertEquals(2, counter.events.get());
+        Assert.assertEquals(20, counter.requests.get());
+        Assert.assertEquals(2000, counter.bytes.get());
+        Assert.assertEquals(1, accumulator.getPendingEventCount());
+
+        accumulator.flush();
+        Assert.assertEquals(3, counter.events.get());
+        Assert.assertEquals(25, counter.requests.get());
+        Assert.assertEquals(0, accumulator.getPendingEventCount());
+    }
+
+    @Test
+    public void testFramesAreAccumulatedPerThrottleKey() throws Exception {
+        CountingDataPublisher counter = new CountingDataPublisher();
+        StreamingThrottleEventAccumulator accumulator = new TestAccumulator(60000, 100, counter.dataPublisher);
+        accumulator.add(getThrottleData("/graphql:subscription-a"), getProperties(), 1, 10);
+        accumulator.add(getThrottleData("/graphql:subscription-b"), getProperties(), 3, 10);
+        accumulator.add(getThrottleData("/graphql:subscription-a"), getProperties(), 1, 10);
+        Assert.assertEquals(2, accumulator.getPendingEventCount());
+        accumulator.flush();
+        Assert.assertEquals(2, counter.events.get());
+        Assert.assertEquals(5, counter.requests.get());
+    }
+
+    @Test
+    public void testEmptyChunksAreNotPublished() throws Exception {
+        CountingDataPublisher counter = new CountingDataPublisher();
+        StreamingThrottleEventAccumulator accumulator = new TestAccumulator(60000, 100, counter.dataPublisher);
+        accumulator.add(getThrottleData("/sse"), getProperties(), 0, 0);
+        Assert.assertEquals(0, accumulator.getPendingEventCount());
+        accumulator.add(getThrottleData("/sse"), getProperties(), 2, 0);
+        accumulator.add(getThrottleData("/sse"), getProperties(), 0, 0);
+        accumulator.flush();
+        Assert.assertEquals(1, counter.events.get());
+        Assert.assertEquals(2, counter.requests.get());
+    }
+
+    @Test
+    public void testPendingFramesAreFlushedAfterWindowTime() throws Exception {
+        CountingDataPublisher counter = new CountingDataPublisher();
+        StreamingThrottleEventAccumulator accumulator = new TestAccumulator(50, 1000, counter.dataPublisher);
+        accumulator.add(getThrottleData("/ws"), getProperties(), 1, 10);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (counter.events.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, counter.events.get());
+        Assert.assertEquals(0, accumulator.getPendingEventCount());
+    }
+
+    @Test
+    public void testFramesAreNotAccumulatedWhileCustomPolicyIsDeployed() throws Exception {
+        CountingDataPublisher counter = new CountingDataPublisher();
+        TestAccumulator accumulator = new TestAccumulator(60000, 100, counter.dataPublisher);
+        accumulator.eventAggregationAllowed = false;
+        accumulator.add(getThrottleData("/ws"), getProperties(), 1, 10);
+        accumulator.add(getThrottleData("/ws"), getProperties(), 3, 100);
+        Assert.assertEquals(4, counter.events.get());
+        Assert.assertEquals(4, counter.requests.get());
+        Assert.assertEquals(110, counter.bytes.get());
+        Assert.assertEquals(0, accumulator.getPendingEventCount());
+    }
+
+    @Test
+    public void testEventsSavedWithSimulatedConnections() throws Exception {
+        int connections = 200;
+        int framesPerConnection = 2000;
+        CountingDataPublisher counter = new CountingDataPublisher();
+        ExecutorService connectionExecutor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < connections; i++) {
+                String resource = "/chat/" + i + ":subscription";
+                futures.add(connectionExecutor.submit(() -> {
+                    StreamingThrottleEventAccumulator accumulator =
+                            new TestAccumulator(1000, 100, counter.dataPublisher);
+                    for (int frame = 0; frame < framesPerConnection; frame++) {
+                        accumulator.add(getThrottleData(resource), getProperties(), 1, 64);
+                    }
+                    accumulator.flush();
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            connectionExecutor.shutdownNow();
+        }
+        long frames = (long) connections * framesPerConnection;
+        long savedEvents = frames - counter.events.get();
+        log.info("Published " + counter.events.get() + " throttle events for " + frames + " frames of "
+                + connections + " connections, saved " + savedEvents + " events ("
+                + (savedEvents * 100 / frames) + "%)");
+        Assert.assertEquals(frames, counter.requests.get());
+        Assert.assertEquals(frames * 64, counter.bytes.get());
+        Assert.assertTrue(counter.events.get() <= frames / 100 + connections);
+    }
+
+    private String[] getThrottleData(String resourceKey) {
+        return new String[]{"1:admin@carbon.super", "Unlimited", "/chat:1.0.0", "", "1:/chat:1.0.0", "Gold",
+                resourceKey, "Unlimited", "admin@carbon.super", "/chat", "1.0.0", "carbon.super", "carbon.super",
+                "1", "ChatAPI"};
+    }
+
+    private Map<String, Object> getProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("ip", 2130706433L);
+        return properties;
+    }
+
+    private static class TestAccumulator extends StreamingThrottleEventAccumulator {
+        private final DataPublisher dataPublisher;
+        private boolean eventAggregationAllowed = true;
+
+        TestAccumulator(long windowTime, int maxEventCount, DataPublisher dataPublisher) {
+            super(windowTime, maxEventCount);
+            this.dataPublisher = dataPublisher;
+        }
+
+        @Override
+        protected DataPublisher getDataPublisher() {
+            return dataPublisher;
+        }
+
+        @Override
+        protected boolean isEventAggregationAllowed() {
+            return eventAggregationAllowed;
+        }
+    }
+
+    private static class CountingDataPublisher {
+        private final AtomicLong events = new AtomicLong();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private final DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+
+        CountingDataPublisher() {
+            Mockito.when(dataPublisher.tryPublish(Mockito.any(Event.class))).thenAnswer(invocation -> {
+                Event event = (Event) invocation.getArguments()[0];
+                Object[] payload = event.getPayloadData();
+                JSONObject properties = parse((String) payload[payload.length - 1]);
+                events.incrementAndGet();
+                requests.addAndGet((Long) properties.get(ThrottleEventAggregator.REQUEST_COUNT));
+                bytes.addAndGet((Long) properties.get("messageSize"));
+                return true;
+            });
+        }
+
+        private JSONObject parse(String properties) throws ParseException {
+            return (JSONObject) new JSONParser().parse(properties);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.throttling.publisher;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.wso2.carbon.databridge.agent.DataPublisher;
+import org.wso2.carbon.databridge.commons.Event;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ThrottleEventAggregatorTest {
+
+    private static final String STREAM_ID = "org.wso2.throttle.request.stream:1.0.0";
+
+    @Test
+    public void testEventsWithSameKeysAreAggregated() throws Exception {
+        DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        ThrottleEventAggregator aggregator = new ThrottleEventAggregator(dataPublisher, STREAM_ID, 60000);
+        for (int i = 0; i < 100; i++) {
+            aggregator.add("msg" + i, getThrottleData("app1"), getProperties(), true, 10);
+        }
+        aggregator.add("msg100", getThrottleData("app2"), getProperties(), false, 0);
+        Mockito.verify(dataPublisher, Mockito.never()).tryPublish(Mockito.any(Event.class));
+
+        aggregator.flush();
+        ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher, Mockito.times(2)).tryPublish(eventCaptor.capture());
+        Map<String, JSONObject> propertiesByAppKey = new HashMap<>();
+        for (Event event : eventCaptor.getAllValues()) {
+            Assert.assertEquals(STREAM_ID, event.getStreamId());
+            Assert.assertEquals(17, event.getPayloadData().length);
+            propertiesByAppKey.put((String) event.getPayloadData()[1],
+                    (JSONObject) new JSONParser().parse((String) event.getPayloadData()[16]));
+        }
+        Assert.assertEquals(100L, propertiesByAppKey.get("app1").get(ThrottleEventAggregator.REQUEST_COUNT));
+        Assert.assertEquals(1000L, propertiesByAppKey.get("app1").get("messageSize"));
+        Assert.assertEquals("10.100.1.1", propertiesByAppKey.get("app1").get("x-forwarded-for"));
+        Assert.assertEquals(1L, propertiesByAppKey.get("app2").get(ThrottleEventAggregator.REQUEST_COUNT));
+        Assert.assertNull(propertiesByAppKey.get("app2").get("messageSize"));
+
+        Assert.assertEquals(101, aggregator.getReceivedEventCount());
+        Assert.assertEquals(2, aggregator.getPublishedEventCount());
+        Assert.assertEquals(99, aggregator.getSavedEventCount());
+        Assert.assertEquals(1, aggregator.getFlushCount());
+    }
+
+    @Test
+    public void testEventsWithDifferentPropertiesAreNotAggregated() {
+        DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        ThrottleEventAggregator aggregator = new ThrottleEventAggregator(dataPublisher, STREAM_ID, 60000);
+        Map<String, Object> properties = getProperties();
+        properties.put("x-forwarded-for", "10.100.1.2");
+        aggregator.add("msg1", getThrottleData("app1"), getProperties(), false, 0);
+        aggregator.add("msg2", getThrottleData("app1"), properties, false, 0);
+        aggregator.flush();
+        Mockito.verify(dataPublisher, Mockito.times(2)).tryPublish(Mockito.any(Event.class));
+
+        // Nothing is published for an empty window
+        aggregator.flush();
+        Mockito.verify(dataPublisher, Mockito.times(2)).tryPublish(Mockito.any(Event.class));
+        Assert.assertEquals(1, aggregator.getFlushCount());
+    }
+
+    @Test
+    public void testPendingEventsArePublishedOnShutdown() {
+        DataPublisher dataPublisher = Mockito.mock(DataPublisher.class);
+        ThrottleEventAggregator aggregator = new ThrottleEventAggregator(dataPublisher, STREAM_ID, 60000);
+        aggregator.start();
+        aggregator.add("msg1", getThrottleData("app1"), getProperties(), false, 0);
+        aggregator.shutdown();
+        ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+        Mockito.verify(dataPublisher, Mockito.times(1)).tryPublish(eventCaptor.capture());
+        List<Event> events = eventCaptor.getAllValues();
+        Assert.assertEquals("msg1", events.get(0).getPayloadData()[0]);
+    }
+
+    private String[] getThrottleData(String applicationKey) {
+        return new String[]{applicationKey, "Unlimited", "/pizzashack/1.0.0", "", "sub1", "Gold",
+                "/pizzashack/1.0.0/menu:GET", "Unlimited", "admin@carbon.super", "/pizzashack/1.0.0", "1.0.0",
+                "carbon.super", "carbon.super", "1", "PizzaShackAPI"};
+    }
+
+    private Map<String, Object> getProperties() {
+        Map<String, Object> properties = new JSONObject();
+        properties.put("ip", 174391553L);
+        properties.put("x-forwarded-for", "10.100.1.1");
+        properties.put("messageSize", 10L);
+        return properties;
+    }
+}
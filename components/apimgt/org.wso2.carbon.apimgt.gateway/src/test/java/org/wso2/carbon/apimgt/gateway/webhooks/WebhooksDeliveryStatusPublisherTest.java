@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import com.google.gson.Gson;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class WebhooksDeliveryStatusPublisherTest {
+
+    @Test
+    public void testStatusesOfSubscriberAreCoalesced() {
+        List<WebhooksDeliveryStatusDTO[]> batches = new CopyOnWriteArrayList<>();
+        WebhooksDeliveryStatusPublisher publisher = createPublisher(batches, 100);
+        try {
+            publisher.publish(createDeliveryStatus("http://callback1", 2));
+            publisher.publish(createDeliveryStatus("http://callback2", 1));
+            publisher.publish(createDeliveryStatus("http://callback1", 1));
+            publisher.publishPendingStatuses();
+            Assert.assertEquals(1, batches.size());
+            WebhooksDeliveryStatusDTO[] batch = batches.get(0);
+            Assert.assertEquals(2, batch.length);
+            Assert.assertEquals("http://callback1", batch[0].getCallback());
+            Assert.assertEquals(1, batch[0].getStatus());
+            Assert.assertEquals("http://callback2", batch[1].getCallback());
+            publisher.publishPendingStatuses();
+            Assert.assertEquals(1, batches.size());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullBatchIsPublished() throws InterruptedException {
+        List<WebhooksDeliveryStatusDTO[]> batches = new CopyOnWriteArrayList<>();
+        WebhooksDeliveryStatusPublisher publisher = createPublisher(batches, 10);
+        try {
+            for (int i = 0; i < 25; i++) {
+                publisher.publish(createDeliveryStatus("http://callback" + i, 1));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (batches.size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(10, batches.get(0).length);
+            publisher.publishPendingStatuses();
+            int publishedCount = 0;
+            for (WebhooksDeliveryStatusDTO[] batch : batches) {
+                Assert.assertTrue(batch.length <= 10);
+                publishedCount += batch.length;
+            }
+            Assert.assertEquals(25, publishedCount);
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedBatchDoesNotStopPublishing() {
+        List<WebhooksDeliveryStatusDTO[]> batches = new CopyOnWriteArrayList<>();
+        WebhooksDeliveryStatusPublisher publisher = new WebhooksDeliveryStatusPublisher(60000, 1) {
+            @Override
+            protected void sendBatch(String deliveryStatuses) throws IOException {
+                WebhooksDeliveryStatusDTO[] batch = new Gson().fromJson(deliveryStatuses,
+                        WebhooksDeliveryStatusDTO[].class);
+                if ("http://failing".equals(batch[0].getCallback())) {
+                    throw new IOException("Event hub is unavailable");
+                }
+                batches.add(batch);
+            }
+        };
+        try {
+            publisher.publish(createDeliveryStatus("http://failing", 1));
+            publisher.publish(createDeliveryStatus("http://callback", 1));
+            publisher.publishPendingStatuses();
+            Assert.assertEquals(1, batches.size());
+            Assert.assertEquals("http://callback", batches.get(0)[0].getCallback());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    private static WebhooksDeliveryStatusPublisher createPublisher(List<WebhooksDeliveryStatusDTO[]> batches,
+                                                                   int maxBatchSize) {
+        return new WebhooksDeliveryStatusPublisher(60000, maxBatchSize) {
+            @Override
+            protected void sendBatch(String deliveryStatuses) {
+                batches.add(new Gson().fromJson(deliveryStatuses, WebhooksDeliveryStatusDTO[].class));
+            }
+        };
+    }
+
+    private static WebhooksDeliveryStatusDTO createDeliveryStatus(String callback, int status) {
+        WebhooksDeliveryStatusDTO deliveryStatus = new WebhooksDeliveryStatusDTO();
+        deliveryStatus.setApiUUID("api");
+        deliveryStatus.setAppID("1");
+        deliveryStatus.setTenantDomain("carbon.super");
+        deliveryStatus.setCallback(callback);
+        deliveryStatus.setTopic("topic");
+        deliveryStatus.setStatus(status);
+        return deliveryStatus;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2021 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.gateway.webhooks;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDTO;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WebhooksFanOutEngineTest {
+
+    private final List<WebhooksDeliveryStatusDTO> statuses = new CopyOnWriteArrayList<>();
+    private final WebhooksDeliveryStatusPublisher statusPublisher = new WebhooksDeliveryStatusPublisher(60000, 100) {
+        @Override
+        public void publish(WebhooksDeliveryStatusDTO deliveryStatus) {
+            statuses.add(deliveryStatus);
+        }
+    };
+
+    @After
+    public void tearDown() {
+        statusPublisher.shutdown();
+    }
+
+    @Test
+    public void testConcurrentDeliveriesToHostAreBounded() throws Exception {
+        Map<String, AtomicInteger> activeDeliveries = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> maxActiveDeliveries = new ConcurrentHashMap<>();
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(10, 2, 1, 10, 100, statusPublisher) {
+            @Override
+            protected int deliver(String callbackURL, String payload, String contentType, String signature) {
+                String host = callbackURL.substring(0, callbackURL.lastIndexOf('/'));
+                int active = activeDeliveries.computeIfAbsent(host, key -> new AtomicInteger()).incrementAndGet();
+                maxActiveDeliveries.computeIfAbsent(host, key -> new AtomicInteger()).accumulateAndGet(active,
+                        Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                activeDeliveries.get(host).decrementAndGet();
+                return 200;
+            }
+        };
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(engine.dispatch(createSubscriber("http://host1:8080/callback" + i, null), "{}", null));
+                results.add(engine.dispatch(createSubscriber("http://host2:8080/callback" + i, null), "{}", null));
+            }
+            for (CompletableFuture<Integer> result : results) {
+                Assert.assertEquals(200, result.get(10, TimeUnit.SECONDS).intValue());
+            }
+            Assert.assertEquals(2, maxActiveDeliveries.get("http://host1:8080").get());
+            Assert.assertEquals(2, maxActiveDeliveries.get("http://host2:8080").get());
+            Assert.assertEquals(12, statuses.size());
+            for (WebhooksDeliveryStatusDTO status : statuses) {
+                Assert.assertEquals(1, status.getStatus());
+            }
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedDeliveryIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(2, 2, 4, 10, 100, statusPublisher) {
+            @Override
+            protected int deliver(String callbackURL, String payload, String contentType, String signature)
+                    throws IOException {
+                switch (attempts.incrementAndGet()) {
+                    case 1:
+                        throw new IOException("Connection refused");
+                    case 2:
+                        return 503;
+                    default:
+                        return 200;
+                }
+            }
+        };
+        try {
+            CompletableFuture<Integer> result = engine.dispatch(createSubscriber("http://host1/callback", null),
+                    "{}", null);
+            Assert.assertEquals(200, result.get(10, TimeUnit.SECONDS).intValue());
+            Assert.assertEquals(3, attempts.get());
+            Assert.assertEquals(1, statuses.size());
+            Assert.assertEquals(1, statuses.get(0).getStatus());
+            Assert.assertEquals("http://host1/callback", statuses.get(0).getCallback());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testDeliveryFailsAfterMaxAttempts() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(2, 2, 3, 10, 100, statusPublisher) {
+            @Override
+            protected int deliver(String callbackURL, String payload, String contentType, String signature)
+                    throws IOException {
+                attempts.incrementAndGet();
+                throw new IOException("Connection refused");
+            }
+        };
+        try {
+            CompletableFuture<Integer> result = engine.dispatch(createSubscriber("http://host1/callback", null),
+                    "{}", null);
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                Assert.fail("The delivery should have failed");
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IOException);
+            }
+            Assert.assertEquals(3, attempts.get());
+            Assert.assertEquals(1, statuses.size());
+            Assert.assertEquals(2, statuses.get(0).getStatus());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(2, 2, 3, 10, 100, statusPublisher) {
+            @Override
+            protected int deliver(String callbackURL, String payload, String contentType, String signature) {
+                attempts.incrementAndGet();
+                return 404;
+            }
+        };
+        try {
+            CompletableFuture<Integer> result = engine.dispatch(createSubscriber("http://host1/callback", null),
+                    "{}", null);
+            Assert.assertEquals(404, result.get(10, TimeUnit.SECONDS).intValue());
+            Assert.assertEquals(1, attempts.get());
+            Assert.assertEquals(2, statuses.get(0).getStatus());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testBackoffIsJittered() {
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(1, 1, 3, 100, 1000, statusPublisher);
+        try {
+            for (int i = 0; i < 100; i++) {
+                long backoff = engine.getBackoff(1);
+                Assert.assertTrue(backoff >= 50 && backoff <= 100);
+                backoff = engine.getBackoff(3);
+                Assert.assertTrue(backoff >= 200 && backoff <= 400);
+                backoff = engine.getBackoff(40);
+                Assert.assertTrue(backoff >= 500 && backoff <= 1000);
+            }
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testSignatureIsSentAndLatencyIsRecorded() throws Exception {
+        List<String> signatures = new CopyOnWriteArrayList<>();
+        WebhooksFanOutEngine engine = new WebhooksFanOutEngine(2, 2, 1, 10, 100, statusPublisher) {
+            @Override
+            protected int deliver(String callbackURL, String payload, String contentType, String signature) {
+                signatures.add(String.valueOf(signature));
+                return 200;
+            }
+        };
+        try {
+            Assert.assertEquals(-1, engine.getLatencyPercentile(50));
+            engine.dispatch(createSubscriber("http://host1/callback", "secret"), "{\"event\":1}", null)
+                    .get(10, TimeUnit.SECONDS);
+            engine.dispatch(createSubscriber("http://host1/callback", null), "{\"event\":1}", null)
+                    .get(10, TimeUnit.SECONDS);
+            Assert.assertEquals("sha1=3e88d68b302cd0b8614f2fcadca21d9ecb272151", signatures.get(0));
+            Assert.assertEquals("null", signatures.get(1));
+            Assert.assertTrue(engine.getLatencyPercentile(50) >= 0);
+            Assert.assertTrue(engine.getLatencyPercentile(99) >= engine.getLatencyPercentile(50));
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    private static WebhooksDTO createSubscriber(String callback, String secret) {
+        WebhooksDTO subscriber = new WebhooksDTO();
+        subscriber.setApiUUID("api");
+        subscriber.setAppID("1");
+        subscriber.setTenantDomain("carbon.super");
+        subscriber.setTopicName("topic");
+        subscriber.setCallbackURL(callback);
+        subscriber.setSecret(secret);
+        return subscriber;
+    }
+}
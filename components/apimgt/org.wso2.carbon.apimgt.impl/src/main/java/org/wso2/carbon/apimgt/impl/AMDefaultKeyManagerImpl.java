@@ -48,10 +48,12 @@ import org.wso2.carbon.apimgt.api.model.OAuthAppRequest;
 import org.wso2.carbon.apimgt.api.model.OAuthApplicationInfo;
 import org.wso2.carbon.apimgt.api.model.Scope;
 import org.wso2.carbon.apimgt.api.model.URITemplate;
+import org.wso2.carbon.apimgt.impl.dto.IntrospectionCacheConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.ScopeDTO;
 import org.wso2.carbon.apimgt.impl.dto.UserInfoDTO;
 import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
 import org.wso2.carbon.apimgt.impl.kmclient.ApacheFeignHttpClient;
+import org.wso2.carbon.apimgt.impl.kmclient.CachingIntrospectionClient;
 import org.wso2.carbon.apimgt.impl.kmclient.FormEncoder;
 import org.wso2.carbon.apimgt.impl.kmclient.KMClientErrorDecoder;
 import org.wso2.carbon.apimgt.impl.kmclient.KeyManagerClientException;
@@ -717,7 +719,10 @@ public class AMDefaultKeyManagerImpl extends AbstractKeyManager {
                 .encoder(new FormEncoder())
                 .target(AuthClient.class, tokenEndpoint);
 
-        introspectionClient = Feign.builder()
+        IntrospectionCacheConfigurationDto introspectionCacheConfiguration = ServiceReferenceHolder.getInstance()
+                .getAPIManagerConfigurationService().getAPIManagerConfiguration()
+                .getIntrospectionCacheConfigurationDto();
+        introspectionClient = new CachingIntrospectionClient(Feign.builder()
                 .client(new ApacheFeignHttpClient(APIUtil.getHttpClient(introspectionEndpoint)))
                 .encoder(new GsonEncoder())
                 .decoder(new GsonDecoder())
@@ -726,7 +731,7 @@ public class AMDefaultKeyManagerImpl extends AbstractKeyManager {
                 .requestInterceptor(new TenantHeaderInterceptor(tenantDomain))
                 .errorDecoder(new KMClientErrorDecoder())
                 .encoder(new FormEncoder())
-                .target(IntrospectionClient.class, introspectionEndpoint);
+                .target(IntrospectionClient.class, introspectionEndpoint), introspectionCacheConfiguration);
         scopeClient = Feign.builder()
                 .client(new ApacheFeignHttpClient(APIUtil.getHttpClient(scopeEndpoint)))
                 .encoder(new GsonEncoder())
@@ -726,6 +726,7 @@ public final class APIConstants {
     public static final String SCOPE_CACHE_ENABLED = CACHE_CONFIGS + "EnableScopeCache";
     public static final String PUBLISHER_ROLE_CACHE_ENABLED = CACHE_CONFIGS + "EnablePublisherRoleCache";
     public static final String GATEWAY_RESOURCE_CACHE_TIMEOUT = CACHE_CONFIGS + "GatewayResourceCacheExpiry";
+    public static final String SCHEMA_VALIDATOR_CACHE_SIZE = CACHE_CONFIGS + "SchemaValidatorCacheSize";
     public static final String DEFAULT_CACHE_TIMEOUT = "Cache.DefaultCacheTimeout";
     public static final String REST_API_SCOPE_CACHE = "REST_API_SCOPE_CACHE";
     public static final long DEFAULT_TIMEOUT = 900;
@@ -1920,6 +1921,12 @@ public final class APIConstants {
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_CORE_POOL_SIZE = "CorePoolSize";
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_MAXMIMUM_POOL_SIZE = "MaxmimumPoolSize";
         public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_KEEP_ALIVE_TIME = "KeepAliveTime";
+        public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_QUEUE_SIZE = "QueueSize";
+        public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_OVERFLOW_POLICY = "OverflowPolicy";
+        public static final String DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_SAMPLING_RATE = "SamplingRate";
+        public static final String DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION = "EventAggregation";
+        public static final String DATA_PUBLISHER_EVENT_AGGREGATION_WINDOW_TIME = "WindowTime";
+        public static final String DATA_PUBLISHER_EVENT_AGGREGATION_MAX_EVENT_COUNT = "MaxEventCount";
         public static final String BLOCK_CONDITION_RETRIEVER_INIT_DELAY = "InitDelay";
         public static final String BLOCK_CONDITION_RETRIEVER_PERIOD = "Period";
         public static final String ENABLE_SUBSCRIPTION_SPIKE_ARREST = "EnableSubscriptionSpikeArrest";
@@ -2451,6 +2458,10 @@ public final class APIConstants {
 
         public static final String SERVICE_URL = "ServiceURL";
         public static final String INIT_DELAY = "InitDelay";
+        public static final String MAX_CONCURRENT_LOADS = "MaxConcurrentLoads";
+        public static final String NEGATIVE_CACHE_EXPIRY = "NegativeCacheExpiry";
+        public static final String LOAD_WAIT_TIMEOUT = "LoadWaitTimeout";
+        public static final String SUBSCRIPTION_LOAD_PAGE_SIZE = "SubscriptionLoadPageSize";
         public static final String INTROSPECTION_ENDPOINT = "introspection_endpoint";
         public static final String CLIENT_REGISTRATION_ENDPOINT = "client_registration_endpoint";
         public static final String KEY_MANAGER_OPERATIONS_DCR_ENDPOINT = "/keymanager-operations/dcr/register";
@@ -2597,7 +2608,26 @@ public final class APIConstants {
         ENDPOINT_CERTIFICATE_UPDATE,
         ENDPOINT_CERTIFICATE_REMOVE,
         GA_CONFIG_UPDATE,
-        UDATE_API_LOG_LEVEL
+        UDATE_API_LOG_LEVEL,
+        NOTIFICATION_BATCH
+    }
+
+    public static class NotificationBatching {
+
+        public static final String NOTIFICATION_BATCHING_CONFIG = "NotificationBatching";
+        public static final String ENABLED = "Enabled";
+        public static final String WINDOW = "Window";
+        public static final String MAX_BATCH_SIZE = "MaxBatchSize";
+    }
+
+    public static class IntrospectionCache {
+
+        public static final String INTROSPECTION_CACHE_CONFIG = "IntrospectionCache";
+        public static final String ENABLED = "Enabled";
+        public static final String MAX_SIZE = "MaxSize";
+        public static final String EXPIRY_TIME = "ExpiryTime";
+        public static final String NEGATIVE_EXPIRY_TIME = "NegativeExpiryTime";
+        public static final String REFRESH_AHEAD_TIME = "RefreshAheadTime";
     }
 
     public enum EventAction {
@@ -2615,6 +2645,10 @@ public final class APIConstants {
         public static final String PUBLISH_DIRECTLY_TO_GW_CONFIG = "PublishDirectlyToGW";
         public static final String GATEWAY_LABELS_CONFIG = "GatewayLabels";
         public static final String EVENT_WAITING_TIME_CONFIG = "EventWaitingTime";
+        public static final String DEPLOYMENT_THREAD_COUNT_CONFIG = "DeploymentThreadCount";
+        public static final String ARTIFACT_SNAPSHOT_ENABLED_CONFIG = "ArtifactSnapshotEnabled";
+        public static final String EVENT_PROCESSING_THREAD_COUNT_CONFIG = "EventProcessingThreadCount";
+        public static final String EVENT_QUEUE_SIZE_CONFIG = "EventQueueSize";
         public static final String LABEL_CONFIG = "Label";
         public static final String DB_SAVER_NAME = "DBSaver";
         public static final String DB_RETRIEVER_NAME = "DBRetriever";
@@ -2691,6 +2725,7 @@ public final class APIConstants {
         public static final String IS_THROTTLED = "isThrottled";
         public static final String SUBSCRIPTION_EVENT_TYPE = "subscriptionEventType";
         public static final String DELIVERY_EVENT_TYPE = "diliveryStatusEventType";
+        public static final String DELIVERY_BATCH_EVENT_TYPE = "deliveryStatusBatchEventType";
         public static final String GET_SUBSCRIPTIONS_URL = "/webhooks-subscriptions";
         public static final String HUB_TOPIC_QUERY_PARAM = "hub.topic";
         public static final String HUB_CALLBACK_QUERY_PARAM = "hub.callback";
@@ -41,6 +41,8 @@ import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.ExtendedJWTConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
 import org.wso2.carbon.apimgt.impl.dto.GatewayCleanupSkipList;
+import org.wso2.carbon.apimgt.impl.dto.IntrospectionCacheConfigurationDto;
+import org.wso2.carbon.apimgt.impl.dto.NotificationBatchingConfigurationDto;
 import org.wso2.carbon.apimgt.impl.dto.RedisConfig;
 import org.wso2.carbon.apimgt.impl.dto.ThrottleProperties;
 import org.wso2.carbon.apimgt.impl.dto.WorkflowProperties;
@@ -156,6 +158,10 @@ public class APIManagerConfiguration {
 
     private Set<APIStore> externalAPIStores = new HashSet<APIStore>();
     private EventHubConfigurationDto eventHubConfigurationDto;
+    private NotificationBatchingConfigurationDto notificationBatchingConfigurationDto =
+            new NotificationBatchingConfigurationDto();
+    private IntrospectionCacheConfigurationDto introspectionCacheConfigurationDto =
+            new IntrospectionCacheConfigurationDto();
     private MonetizationConfigurationDto monetizationConfigurationDto = new MonetizationConfigurationDto();
 
     public MonetizationConfigurationDto getMonetizationConfigurationDto() {
@@ -547,6 +553,10 @@ public class APIManagerConfiguration {
                 setGlobalCacheInvalidationConfiguration(element);
             } else if (APIConstants.KeyManager.EVENT_HUB_CONFIGURATIONS.equals(localName)) {
                 setEventHubConfiguration(element);
+            } else if (APIConstants.NotificationBatching.NOTIFICATION_BATCHING_CONFIG.equals(localName)) {
+                setNotificationBatchingConfiguration(element);
+            } else if (APIConstants.IntrospectionCache.INTROSPECTION_CACHE_CONFIG.equals(localName)) {
+                setIntrospectionCacheConfiguration(element);
             } else if (APIConstants.GatewayArtifactSynchronizer.SYNC_RUNTIME_ARTIFACTS_PUBLISHER_CONFIG.equals(localName)) {
                 setRuntimeArtifactsSyncPublisherConfig(element);
             } else if (APIConstants.GatewayArtifactSynchronizer.SYNC_RUNTIME_ARTIFACTS_GATEWAY_CONFIG.equals(localName)) {
@@ -1182,8 +1192,55 @@ public class APIManagerConfiguration {
                         if (keepAliveTimeElement != null) {
                             dataPublisherThreadPool.setKeepAliveTime(Long.parseLong(keepAliveTimeElement.getText()));
                         }
+                        OMElement queueSizeElement = dataPublisherThreadPoolConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_QUEUE_SIZE));
+                        if (queueSizeElement != null) {
+                            dataPublisherThreadPool.setQueueSize(Integer.parseInt(queueSizeElement.getText()));
+                        }
+                        OMElement overflowPolicyElement = dataPublisherThreadPoolConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_OVERFLOW_POLICY));
+                        if (overflowPolicyElement != null) {
+                            dataPublisherThreadPool.setOverflowPolicy(overflowPolicyElement.getText().trim());
+                        }
+                        OMElement samplingRateElement = dataPublisherThreadPoolConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_THREAD_POOL_CONFIGURATION_SAMPLING_RATE));
+                        if (samplingRateElement != null) {
+                            dataPublisherThreadPool.setSamplingRate(Integer.parseInt(samplingRateElement.getText()));
+                        }
                     }
                     throttleProperties.setDataPublisherThreadPool(dataPublisherThreadPool);
+
+                    // Throttle event aggregation configuration
+
+                    OMElement eventAggregationConfigurationElement = dataPublisherConfigurationElement
+                            .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                    .DATA_PUBLISHER_EVENT_AGGREGATION_CONFIGURATION));
+                    ThrottleProperties.DataPublisherEventAggregation eventAggregation =
+                            new ThrottleProperties.DataPublisherEventAggregation();
+                    if (eventAggregationConfigurationElement != null) {
+                        OMElement eventAggregationEnabledElement = eventAggregationConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants.ENABLED));
+                        if (eventAggregationEnabledElement != null) {
+                            eventAggregation.setEnabled(
+                                    JavaUtils.isTrueExplicitly(eventAggregationEnabledElement.getText()));
+                        }
+                        OMElement windowTimeElement = eventAggregationConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_AGGREGATION_WINDOW_TIME));
+                        if (windowTimeElement != null) {
+                            eventAggregation.setWindowTime(Long.parseLong(windowTimeElement.getText()));
+                        }
+                        OMElement maxEventCountElement = eventAggregationConfigurationElement
+                                .getFirstChildWithName(new QName(APIConstants.AdvancedThrottleConstants
+                                        .DATA_PUBLISHER_EVENT_AGGREGATION_MAX_EVENT_COUNT));
+                        if (maxEventCountElement != null) {
+                            eventAggregation.setMaxEventCount(Integer.parseInt(maxEventCountElement.getText()));
+                        }
+                    }
+                    throttleProperties.setDataPublisherEventAggregation(eventAggregation);
                 }
 
                 // Configuring JMSConnectionDetails
@@ -1848,6 +1905,27 @@ public class APIManagerConfiguration {
             if (initDelay != null) {
                 eventHubConfigurationDto.setInitDelay(Integer.parseInt(initDelay.getText()));
             }
+            OMElement maxConcurrentLoads =
+                    omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.MAX_CONCURRENT_LOADS));
+            if (maxConcurrentLoads != null) {
+                eventHubConfigurationDto.setMaxConcurrentLoads(Integer.parseInt(maxConcurrentLoads.getText()));
+            }
+            OMElement negativeCacheExpiry =
+                    omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.NEGATIVE_CACHE_EXPIRY));
+            if (negativeCacheExpiry != null) {
+                eventHubConfigurationDto.setNegativeCacheExpiry(Long.parseLong(negativeCacheExpiry.getText()));
+            }
+            OMElement loadWaitTimeout =
+                    omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.LOAD_WAIT_TIMEOUT));
+            if (loadWaitTimeout != null) {
+                eventHubConfigurationDto.setLoadWaitTimeout(Long.parseLong(loadWaitTimeout.getText()));
+            }
+            OMElement subscriptionLoadPageSize =
+                    omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.SUBSCRIPTION_LOAD_PAGE_SIZE));
+            if (subscriptionLoadPageSize != null) {
+                eventHubConfigurationDto.setSubscriptionLoadPageSize(
+                        Integer.parseInt(subscriptionLoadPageSize.getText()));
+            }
             OMElement usernameElement = omElement.getFirstChildWithName(new QName(APIConstants.KeyManager.USERNAME));
             if (usernameElement != null) {
                 eventHubConfigurationDto.setUsername(usernameElement.getText());
@@ -1908,6 +1986,56 @@ public class APIManagerConfiguration {
         this.eventHubConfigurationDto = eventHubConfigurationDto;
     }
 
+    private void setNotificationBatchingConfiguration(OMElement omElement) {
+
+        NotificationBatchingConfigurationDto batchingConfigurationDto = new NotificationBatchingConfigurationDto();
+        OMElement enabledElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.NotificationBatching.ENABLED));
+        if (enabledElement != null) {
+            batchingConfigurationDto.setEnabled(Boolean.parseBoolean(enabledElement.getText().trim()));
+        }
+        OMElement windowElement = omElement.getFirstChildWithName(new QName(APIConstants.NotificationBatching.WINDOW));
+        if (windowElement != null) {
+            batchingConfigurationDto.setWindow(Long.parseLong(windowElement.getText().trim()));
+        }
+        OMElement maxBatchSizeElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.NotificationBatching.MAX_BATCH_SIZE));
+        if (maxBatchSizeElement != null) {
+            batchingConfigurationDto.setMaxBatchSize(Integer.parseInt(maxBatchSizeElement.getText().trim()));
+        }
+        this.notificationBatchingConfigurationDto = batchingConfigurationDto;
+    }
+
+    private void setIntrospectionCacheConfiguration(OMElement omElement) {
+
+        IntrospectionCacheConfigurationDto cacheConfigurationDto = new IntrospectionCacheConfigurationDto();
+        OMElement enabledElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.IntrospectionCache.ENABLED));
+        if (enabledElement != null) {
+            cacheConfigurationDto.setEnabled(Boolean.parseBoolean(enabledElement.getText().trim()));
+        }
+        OMElement maxSizeElement = omElement.getFirstChildWithName(new QName(APIConstants.IntrospectionCache.MAX_SIZE));
+        if (maxSizeElement != null) {
+            cacheConfigurationDto.setMaxSize(Integer.parseInt(maxSizeElement.getText().trim()));
+        }
+        OMElement expiryTimeElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.IntrospectionCache.EXPIRY_TIME));
+        if (expiryTimeElement != null) {
+            cacheConfigurationDto.setExpiryTime(Long.parseLong(expiryTimeElement.getText().trim()));
+        }
+        OMElement negativeExpiryTimeElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.IntrospectionCache.NEGATIVE_EXPIRY_TIME));
+        if (negativeExpiryTimeElement != null) {
+            cacheConfigurationDto.setNegativeExpiryTime(Long.parseLong(negativeExpiryTimeElement.getText().trim()));
+        }
+        OMElement refreshAheadTimeElement =
+                omElement.getFirstChildWithName(new QName(APIConstants.IntrospectionCache.REFRESH_AHEAD_TIME));
+        if (refreshAheadTimeElement != null) {
+            cacheConfigurationDto.setRefreshAheadTime(Long.parseLong(refreshAheadTimeElement.getText().trim()));
+        }
+        this.introspectionCacheConfigurationDto = cacheConfigurationDto;
+    }
+
     /**
      * Extracts out the additional parameters of the publisher configuration.
      *
@@ -1943,6 +2071,16 @@ public class APIManagerConfiguration {
         return eventHubConfigurationDto;
     }
 
+    public NotificationBatchingConfigurationDto getNotificationBatchingConfigurationDto() {
+
+        return notificationBatchingConfigurationDto;
+    }
+
+    public IntrospectionCacheConfigurationDto getIntrospectionCacheConfigurationDto() {
+
+        return introspectionCacheConfigurationDto;
+    }
+
     private void setRuntimeArtifactsSyncPublisherConfig (OMElement omElement) {
 
         OMElement enableElement = omElement
@@ -2033,6 +2171,42 @@ public class APIManagerConfiguration {
         } else {
             log.debug("Gateway Startup mode is not set. Set to Sync Mode");
         }
+
+        OMElement deploymentThreadCountElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.DEPLOYMENT_THREAD_COUNT_CONFIG));
+        if (deploymentThreadCountElement != null) {
+            int deploymentThreadCount = Integer.parseInt(deploymentThreadCountElement.getText());
+            gatewayArtifactSynchronizerProperties.setDeploymentThreadCount(deploymentThreadCount);
+        } else {
+            log.debug("Deployment thread count is not set. Set to default thread count");
+        }
+
+        OMElement artifactSnapshotEnabledElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.ARTIFACT_SNAPSHOT_ENABLED_CONFIG));
+        if (artifactSnapshotEnabledElement != null) {
+            gatewayArtifactSynchronizerProperties.setArtifactSnapshotEnabled(
+                    JavaUtils.isTrueExplicitly(artifactSnapshotEnabledElement.getText()));
+        } else {
+            log.debug("Artifact snapshot is not enabled");
+        }
+
+        OMElement eventProcessingThreadCountElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.EVENT_PROCESSING_THREAD_COUNT_CONFIG));
+        if (eventProcessingThreadCountElement != null) {
+            int eventProcessingThreadCount = Integer.parseInt(eventProcessingThreadCountElement.getText());
+            gatewayArtifactSynchronizerProperties.setEventProcessingThreadCount(eventProcessingThreadCount);
+        } else {
+            log.debug("Event processing thread count is not set. Set to default thread count");
+        }
+
+        OMElement eventQueueSizeElement = omElement.getFirstChildWithName(
+                new QName(APIConstants.GatewayArtifactSynchronizer.EVENT_QUEUE_SIZE_CONFIG));
+        if (eventQueueSizeElement != null) {
+            int eventQueueSize = Integer.parseInt(eventQueueSizeElement.getText());
+            gatewayArtifactSynchronizerProperties.setEventQueueSize(eventQueueSize);
+        } else {
+            log.debug("Event queue size is not set. Set to default queue size");
+        }
     }
 
     public GatewayArtifactSynchronizerProperties getGatewayArtifactSynchronizerProperties() {
@@ -89,6 +89,36 @@ public class SubscriptionValidationDAO {
         return subscriptions;
     }
 
+    /*
+     * This method can be used to retrieve all the Subscriptions in the database page by page. The subscriptions are
+     * ordered by their ID so that the ID of the last subscription of a page can be used as the cursor of the next.
+     *
+     * @param after : ID of the last subscription of the previous page, 0 for the first page
+     * @param limit : maximum number of subscriptions to return
+     * @return {@link List<Subscription>}
+     * @throws APIManagementException if the page could not be loaded, so that a failed page is not mistaken for the
+     *                                last one
+     * */
+    public List<Subscription> getAllSubscriptions(int after, int limit) throws APIManagementException {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps =
+                     conn.prepareStatement(SubscriptionValidationSQLConstants.GET_ALL_SUBSCRIPTIONS_PAGE_SQL)) {
+            ps.setInt(1, after);
+            ps.setMaxRows(limit);
+
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateSubscriptionsList(subscriptions, resultSet);
+            }
+        } catch (SQLException e) {
+            String msg = "Error in loading Subscriptions after subscription : " + after;
+            log.error(msg, e);
+            throw new APIManagementException(msg, e);
+        }
+        return subscriptions;
+    }
+
     /*
      * This method can be used to retrieve all the APIs of a given organization in the database
      *
@@ -112,6 +142,40 @@ public class SubscriptionValidationDAO {
         return subscriptions;
     }
 
+    /*
+     * This method can be used to retrieve the subscriptions of a given organization page by page. The subscriptions
+     * are ordered by their ID so that the ID of the last subscription of a page can be used as the cursor of the next.
+     *
+     * @param organization : organization Id
+     * @param after : ID of the last subscription of the previous page, 0 for the first page
+     * @param limit : maximum number of subscriptions to return
+     * @return {@link List<Subscription>}
+     * @throws APIManagementException if the page could not be loaded, so that a failed page is not mistaken for the
+     *                                last one
+     * */
+    public List<Subscription> getAllSubscriptionsByOrganization(String organization, int after, int limit)
+            throws APIManagementException {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(
+                     SubscriptionValidationSQLConstants.GET_ORGANIZATION_SUBSCRIPTIONS_PAGE_SQL)) {
+            ps.setString(1, organization);
+            ps.setInt(2, after);
+            ps.setMaxRows(limit);
+
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateSubscriptionsList(subscriptions, resultSet);
+            }
+        } catch (SQLException e) {
+            String msg = "Error in loading Subscriptions for the organization : " + organization
+                    + " after subscription : " + after;
+            log.error(msg, e);
+            throw new APIManagementException(msg, e);
+        }
+        return subscriptions;
+    }
+
     /*
      * This method can be used to retrieve all the Applications in the database
      *
@@ -474,6 +538,47 @@ public class SubscriptionValidationDAO {
         return subscriptions;
     }
 
+    /*
+     * This method can be used to retrieve the subscriptions of a given tenant page by page. The subscriptions are
+     * ordered by their ID so that the ID of the last subscription of a page can be used as the cursor of the next.
+     *
+     * @param tenantDomain : tenant domain
+     * @param after : ID of the last subscription of the previous page, 0 for the first page
+     * @param limit : maximum number of subscriptions to return
+     * @return {@link List<Subscription>}
+     * @throws APIManagementException if the page could not be loaded, so that a failed page is not mistaken for the
+     *                                last one
+     * */
+    public List<Subscription> getAllSubscriptions(String tenantDomain, int after, int limit)
+            throws APIManagementException {
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        try (Connection conn = APIMgtDBUtil.getConnection();
+             PreparedStatement ps =
+                     conn.prepareStatement(SubscriptionValidationSQLConstants.GET_TENANT_SUBSCRIPTIONS_PAGE_SQL)) {
+            int tenantId = 0;
+            try {
+                tenantId = ServiceReferenceHolder.getInstance().getRealmService().getTenantManager()
+                        .getTenantId(tenantDomain);
+            } catch (UserStoreException e) {
+                log.error("Error in getting tenant id for loading Subscriptions for tenant : " + tenantDomain, e);
+            }
+            ps.setInt(1, tenantId);
+            ps.setInt(2, after);
+            ps.setMaxRows(limit);
+
+            try (ResultSet resultSet = ps.executeQuery()) {
+                populateSubscriptionsList(subscriptions, resultSet);
+            }
+        } catch (SQLException e) {
+            String msg = "Error in loading Subscriptions for tenantId : " + tenantDomain + " after subscription : "
+                    + after;
+            log.error(msg, e);
+            throw new APIManagementException(msg, e);
+        }
+        return subscriptions;
+    }
+
     private void populateSubscriptionsList(List<Subscription> subscriptions, ResultSet resultSet) throws SQLException {
 
         if (resultSet != null && subscriptions != null) {
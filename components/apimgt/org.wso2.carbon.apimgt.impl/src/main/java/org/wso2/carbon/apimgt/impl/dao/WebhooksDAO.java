@@ -24,6 +24,7 @@ import org.wso2.carbon.apimgt.api.APIManagementException;
 import org.wso2.carbon.apimgt.api.model.webhooks.Subscription;
 import org.wso2.carbon.apimgt.impl.APIConstants;
 import org.wso2.carbon.apimgt.impl.dao.constants.SQLConstants;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
 import org.wso2.carbon.apimgt.impl.utils.APIMgtDBUtil;
 import org.wso2.carbon.core.util.CryptoException;
 import org.wso2.carbon.core.util.CryptoUtil;
@@ -347,6 +348,46 @@ public class WebhooksDAO {
         }
     }
 
+    /**
+     * Updates the delivery statuses of a batch of webhooks subscribers in a single transaction.
+     *
+     * @param deliveryStatuses delivery statuses of the subscribers
+     * @throws APIManagementException if the delivery statuses could not be stored
+     */
+    public void updateDeliveryStatuses(List<WebhooksDeliveryStatusDTO> deliveryStatuses)
+            throws APIManagementException {
+
+        if (deliveryStatuses.isEmpty()) {
+            return;
+        }
+        try (Connection conn = APIMgtDBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement prepareStmt = conn
+                    .prepareStatement(SQLConstants.WebhooksSqlConstants.UPDATE_DELIVERY_STATE)) {
+                Timestamp updatedTimestamp = new Timestamp(System.currentTimeMillis());
+                for (WebhooksDeliveryStatusDTO deliveryStatus : deliveryStatuses) {
+                    prepareStmt.setTimestamp(1, updatedTimestamp);
+                    prepareStmt.setInt(2, deliveryStatus.getStatus());
+                    prepareStmt.setString(3, deliveryStatus.getApiUUID());
+                    prepareStmt.setString(4, deliveryStatus.getAppID());
+                    prepareStmt.setString(5, deliveryStatus.getTenantDomain());
+                    prepareStmt.setString(6, deliveryStatus.getCallback());
+                    prepareStmt.setString(7, deliveryStatus.getTopic());
+                    prepareStmt.addBatch();
+                }
+                prepareStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                handleConnectionRollBack(conn);
+                throw new APIManagementException("Error while storing a batch of " + deliveryStatuses.size()
+                        + " webhooks delivery statuses", e);
+            }
+        } catch (SQLException e) {
+            throw new APIManagementException("Error while storing a batch of " + deliveryStatuses.size()
+                    + " webhooks delivery statuses", e);
+        }
+    }
+
     private void deleteSubscription(Connection conn, Properties properties) throws APIManagementException {
         try (PreparedStatement preparedStatement = conn
                 .prepareStatement(SQLConstants.WebhooksSqlConstants.DELETE_IF_EXISTS_SUBSCRIBER)) {
@@ -128,6 +128,12 @@ public class SubscriptionValidationSQLConstants {
                     "   SUBS.APPLICATION_ID = APP.APPLICATION_ID AND " +
                     "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
                     "   APP.ORGANIZATION = ? ";
+
+    public static final String GET_ORGANIZATION_SUBSCRIPTIONS_PAGE_SQL =
+            GET_ORGANIZATION_SUBSCRIPTIONS_SQL +
+                    " AND SUBS.SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
     public static final String GET_ALL_SUBSCRIPTIONS_SQL =
             "SELECT " +
                     "   SUBSCRIPTION_ID AS SUB_ID," +
@@ -138,6 +144,11 @@ public class SubscriptionValidationSQLConstants {
                     " FROM " +
                     "   AM_SUBSCRIPTION";
 
+    public static final String GET_ALL_SUBSCRIPTIONS_PAGE_SQL =
+            GET_ALL_SUBSCRIPTIONS_SQL +
+                    " WHERE SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBSCRIPTION_ID";
+
     public static final String GET_SUBSCRIPTION_SQL =
             "SELECT " +
                     "   AM_SUBSCRIPTION.UUID AS SUBSCRIPTION_UUID," +
@@ -271,6 +282,11 @@ public class SubscriptionValidationSQLConstants {
                     "   APP.SUBSCRIBER_ID = SUB.SUBSCRIBER_ID AND " +
                     "   SUB.TENANT_ID = ? ";
 
+    public static final String GET_TENANT_SUBSCRIPTIONS_PAGE_SQL =
+            GET_TENANT_SUBSCRIPTIONS_SQL +
+                    " AND SUBS.SUBSCRIPTION_ID > ? " +
+                    " ORDER BY SUBS.SUBSCRIPTION_ID";
+
     public static final String GET_TENANT_SUBSCRIPTION_POLICIES_SQL =
             "SELECT " +
                     "   APS.POLICY_ID AS POLICY_ID," +
@@ -24,6 +24,10 @@ public class EventHubConfigurationDto {
     private boolean enabled = false;
     private String serviceUrl;
     private int initDelay = 1000;
+    private int maxConcurrentLoads = 10;
+    private long negativeCacheExpiry = 30000;
+    private long loadWaitTimeout = 60000;
+    private int subscriptionLoadPageSize = 10000;
     private String username;
     private char[] password;
     private EventHubReceiverConfiguration eventHubReceiverConfiguration;
@@ -58,6 +62,46 @@ public class EventHubConfigurationDto {
         this.initDelay = initDelay;
     }
 
+    public int getMaxConcurrentLoads() {
+
+        return maxConcurrentLoads;
+    }
+
+    public void setMaxConcurrentLoads(int maxConcurrentLoads) {
+
+        this.maxConcurrentLoads = maxConcurrentLoads;
+    }
+
+    public long getNegativeCacheExpiry() {
+
+        return negativeCacheExpiry;
+    }
+
+    public void setNegativeCacheExpiry(long negativeCacheExpiry) {
+
+        this.negativeCacheExpiry = negativeCacheExpiry;
+    }
+
+    public long getLoadWaitTimeout() {
+
+        return loadWaitTimeout;
+    }
+
+    public void setLoadWaitTimeout(long loadWaitTimeout) {
+
+        this.loadWaitTimeout = loadWaitTimeout;
+    }
+
+    public int getSubscriptionLoadPageSize() {
+
+        return subscriptionLoadPageSize;
+    }
+
+    public void setSubscriptionLoadPageSize(int subscriptionLoadPageSize) {
+
+        this.subscriptionLoadPageSize = subscriptionLoadPageSize;
+    }
+
     public EventHubReceiverConfiguration getEventHubReceiverConfiguration() {
 
         return eventHubReceiverConfiguration;
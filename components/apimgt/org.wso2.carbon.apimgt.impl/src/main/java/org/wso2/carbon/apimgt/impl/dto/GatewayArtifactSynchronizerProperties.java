@@ -16,6 +16,10 @@ public class GatewayArtifactSynchronizerProperties {
     private long retryDuartion = 15000 ;
     private String gatewayStartup = "sync";
     private long eventWaitingTime = 1;
+    private int deploymentThreadCount = 4;
+    private boolean artifactSnapshotEnabled = false;
+    private int eventProcessingThreadCount = 4;
+    private int eventQueueSize = 1000;
 
 
     public String getSaverName() {
@@ -33,6 +37,46 @@ public class GatewayArtifactSynchronizerProperties {
         this.eventWaitingTime = eventWaitingTime;
     }
 
+    public int getDeploymentThreadCount() {
+
+        return deploymentThreadCount;
+    }
+
+    public void setDeploymentThreadCount(int deploymentThreadCount) {
+
+        this.deploymentThreadCount = deploymentThreadCount;
+    }
+
+    public boolean isArtifactSnapshotEnabled() {
+
+        return artifactSnapshotEnabled;
+    }
+
+    public void setArtifactSnapshotEnabled(boolean artifactSnapshotEnabled) {
+
+        this.artifactSnapshotEnabled = artifactSnapshotEnabled;
+    }
+
+    public int getEventProcessingThreadCount() {
+
+        return eventProcessingThreadCount;
+    }
+
+    public void setEventProcessingThreadCount(int eventProcessingThreadCount) {
+
+        this.eventProcessingThreadCount = eventProcessingThreadCount;
+    }
+
+    public int getEventQueueSize() {
+
+        return eventQueueSize;
+    }
+
+    public void setEventQueueSize(int eventQueueSize) {
+
+        this.eventQueueSize = eventQueueSize;
+    }
+
 
     public void setSaverName(String saverName) {
 
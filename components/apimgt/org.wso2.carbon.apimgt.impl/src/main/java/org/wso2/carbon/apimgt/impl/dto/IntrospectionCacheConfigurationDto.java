@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.dto;
+
+/**
+ * Configuration of caching the token introspection results of the key managers.
+ */
+public class IntrospectionCacheConfigurationDto {
+
+    private boolean enabled = false;
+    private int maxSize = 10000;
+    private long expiryTime = 60;
+    private long negativeExpiryTime = 30;
+    private long refreshAheadTime = 10;
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the time in seconds for which the result of an active token is cached.
+     *
+     * @return expiry time in seconds
+     */
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+
+    public void setExpiryTime(long expiryTime) {
+
+        this.expiryTime = expiryTime;
+    }
+
+    /**
+     * Returns the time in seconds for which the result of an inactive token is cached.
+     *
+     * @return expiry time in seconds
+     */
+    public long getNegativeExpiryTime() {
+
+        return negativeExpiryTime;
+    }
+
+    public void setNegativeExpiryTime(long negativeExpiryTime) {
+
+        this.negativeExpiryTime = negativeExpiryTime;
+    }
+
+    /**
+     * Returns the time in seconds before the expiry of a cached result within which a use of the token refreshes the
+     * result in the background.
+     *
+     * @return refresh ahead time in seconds
+     */
+    public long getRefreshAheadTime() {
+
+        return refreshAheadTime;
+    }
+
+    public void setRefreshAheadTime(long refreshAheadTime) {
+
+        this.refreshAheadTime = refreshAheadTime;
+    }
+}
@@ -26,6 +26,7 @@ public class ThrottleProperties {
     private GlobalEngineWSConnection globalEngineWSConnection;
     private DataPublisherPool dataPublisherPool;
     private DataPublisherThreadPool dataPublisherThreadPool;
+    private DataPublisherEventAggregation dataPublisherEventAggregation = new DataPublisherEventAggregation();
     private JMSConnectionProperties jmsConnectionProperties;
     private boolean enableUnlimitedTier;
     private String throttleDataSourceName;
@@ -65,6 +66,14 @@ public class ThrottleProperties {
         this.dataPublisherThreadPool = dataPublisherThreadPool;
     }
 
+    public DataPublisherEventAggregation getDataPublisherEventAggregation() {
+        return dataPublisherEventAggregation;
+    }
+
+    public void setDataPublisherEventAggregation(DataPublisherEventAggregation dataPublisherEventAggregation) {
+        this.dataPublisherEventAggregation = dataPublisherEventAggregation;
+    }
+
     public BlockCondition getBlockCondition() {
         return blockCondition;
     }
@@ -580,6 +589,9 @@ public class ThrottleProperties {
         private int corePoolSize = 200;
         private int maximumPoolSize = 500;
         private long keepAliveTime = 100;
+        private int queueSize = 100000;
+        private String overflowPolicy = "CallerRuns";
+        private int samplingRate = 10;
 
         public int getCorePoolSize() {
 
@@ -605,6 +617,65 @@ public class ThrottleProperties {
         public void setKeepAliveTime(long keepAliveTime) {
             this.keepAliveTime = keepAliveTime;
         }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public String getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(String overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public int getSamplingRate() {
+            return samplingRate;
+        }
+
+        public void setSamplingRate(int samplingRate) {
+            this.samplingRate = samplingRate;
+        }
+    }
+
+    /**
+     * Configuration of the gateway side aggregation of throttle events. When enabled, events with the same throttle
+     * keys are merged over a short window and sent to the traffic manager as a single weighted event. Streaming
+     * APIs additionally flush the events of a connection once maxEventCount frames are accumulated.
+     */
+    public static class DataPublisherEventAggregation {
+        private boolean enabled = false;
+        private long windowTime = 1000;
+        private int maxEventCount = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getWindowTime() {
+            return windowTime;
+        }
+
+        public void setWindowTime(long windowTime) {
+            this.windowTime = windowTime;
+        }
+
+        public int getMaxEventCount() {
+            return maxEventCount;
+        }
+
+        public void setMaxEventCount(int maxEventCount) {
+            this.maxEventCount = maxEventCount;
+        }
     }
 
     public String[] getSkipRedeployingPolicies() {
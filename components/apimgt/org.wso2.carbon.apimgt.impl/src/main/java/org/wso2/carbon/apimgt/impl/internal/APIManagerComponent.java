@@ -75,6 +75,7 @@ import org.wso2.carbon.apimgt.impl.notifier.DeployAPIInGatewayNotifier;
 import org.wso2.carbon.apimgt.impl.notifier.ExternalGatewayNotifier;
 import org.wso2.carbon.apimgt.impl.notifier.ExternallyDeployedApiNotifier;
 import org.wso2.carbon.apimgt.impl.notifier.GoogleAnalyticsNotifier;
+import org.wso2.carbon.apimgt.impl.notifier.NotificationEventBatcher;
 import org.wso2.carbon.apimgt.impl.notifier.Notifier;
 import org.wso2.carbon.apimgt.impl.notifier.PolicyNotifier;
 import org.wso2.carbon.apimgt.impl.notifier.ScopesNotifier;
@@ -322,6 +323,7 @@ public class APIManagerComponent {
         }
 
         registration.unregister();
+        NotificationEventBatcher.shutdownInstance();
         APIManagerFactory.getInstance().clearAll();
     }
 
@@ -0,0 +1,68 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.JWSVerifier;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the keys of the JWKS endpoints of the token issuers. Keys of an endpoint are fetched once and shared
+ * by all the validators of the issuers using the endpoint, and are refreshed by a single background thread.
+ */
+public class JWKSRegistry {
+
+    private static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    private static final long MIN_REFETCH_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+    private static final JWKSRegistry instance = new JWKSRegistry();
+
+    private final Map<String, JWKSSource> jwksSources = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "JWKSRefreshThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private JWKSRegistry() {
+
+    }
+
+    public static JWKSRegistry getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Returns the verifier of a key of a JWKS endpoint.
+     *
+     * @param jwksUrl URL of the JWKS endpoint
+     * @param keyId   key id of the JWT header
+     * @return verifier of the key, or null if the endpoint does not have the key or the key type is not supported
+     */
+    public JWSVerifier getVerifier(String jwksUrl, String keyId) {
+
+        JWKSSource jwksSource = jwksSources.computeIfAbsent(jwksUrl, url -> new JWKSSource(url,
+                DEFAULT_REFRESH_INTERVAL, MIN_REFETCH_INTERVAL, refreshScheduler));
+        return jwksSource.getVerifier(keyId);
+    }
+}
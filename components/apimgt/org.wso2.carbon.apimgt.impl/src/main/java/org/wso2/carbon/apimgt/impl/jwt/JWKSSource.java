@@ -0,0 +1,316 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.wso2.carbon.apimgt.impl.utils.APIUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keys of a JWKS endpoint, shared by all the token issuers using the endpoint.
+ * <p>
+ * The keys are refreshed in the background, honouring the max-age of the JWKS response. A token signed with an
+ * unknown key triggers at most one refetch per refetch interval, however many requests carry the key id, and the
+ * unknown key id is remembered until the next refetch is allowed. Verifiers are created once per key.
+ */
+class JWKSSource {
+
+    private static final Log log = LogFactory.getLog(JWKSSource.class);
+
+    private static final Pattern MAX_AGE_PATTERN = Pattern.compile("max-age\\s*=\\s*(\\d+)");
+    private static final int MAX_UNKNOWN_KEY_ID_COUNT = 1000;
+    private static final long MIN_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final long MAX_REFRESH_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+    private final String jwksUrl;
+    private final long defaultRefreshInterval;
+    private final long minRefetchInterval;
+    private final ScheduledExecutorService refreshScheduler;
+    private final Map<String, Long> unknownKeyIds = new ConcurrentHashMap<>();
+    private volatile KeySnapshot keySnapshot;
+    private volatile long lastFetchTime;
+    private volatile boolean usedSinceRefresh;
+    private volatile ScheduledFuture<?> refreshTask;
+
+    /**
+     * @param jwksUrl                URL of the JWKS endpoint
+     * @param defaultRefreshInterval refresh interval in milliseconds, when the response does not have a max-age
+     * @param minRefetchInterval     minimum interval in milliseconds between two fetches of the keys
+     * @param refreshScheduler       scheduler to refresh the keys in the background, or null to only fetch the keys
+     *                               on demand
+     */
+    JWKSSource(String jwksUrl, long defaultRefreshInterval, long minRefetchInterval,
+               ScheduledExecutorService refreshScheduler) {
+
+        this.jwksUrl = jwksUrl;
+        this.defaultRefreshInterval = defaultRefreshInterval;
+        this.minRefetchInterval = minRefetchInterval;
+        this.refreshScheduler = refreshScheduler;
+    }
+
+    /**
+     * Returns the verifier of the given key. The keys are fetched if the key is not known, unless they were fetched
+     * within the minimum refetch interval.
+     *
+     * @param keyId key id of the JWT header
+     * @return verifier of the key, or null if the key is not found or the key type is not supported
+     */
+    JWSVerifier getVerifier(String keyId) {
+
+        usedSinceRefresh = true;
+        KeySnapshot snapshot = keySnapshot;
+        if (snapshot != null && snapshot.jwkSet.getKeyByKeyId(keyId) != null) {
+            scheduleRefreshIfIdle();
+            return snapshot.getVerifier(keyId);
+        }
+        Long unknownUntil = unknownKeyIds.get(keyId);
+        if (unknownUntil != null && unknownUntil > System.currentTimeMillis()) {
+            return null;
+        }
+        synchronized (this) {
+            // Another request may have fetched the keys while waiting for the lock
+            snapshot = keySnapshot;
+            if ((snapshot == null || snapshot.jwkSet.getKeyByKeyId(keyId) == null) &&
+                    System.currentTimeMillis() - lastFetchTime >= minRefetchInterval) {
+                refresh();
+                snapshot = keySnapshot;
+            }
+            if (snapshot == null || snapshot.jwkSet.getKeyByKeyId(keyId) == null) {
+                if (unknownKeyIds.size() >= MAX_UNKNOWN_KEY_ID_COUNT) {
+                    unknownKeyIds.clear();
+                }
+                unknownKeyIds.put(keyId, lastFetchTime + minRefetchInterval);
+                if (log.isDebugEnabled()) {
+                    log.debug("Key " + keyId + " is not found in the JWKS endpoint " + jwksUrl);
+                }
+                return null;
+            }
+        }
+        return snapshot.getVerifier(keyId);
+    }
+
+    /**
+     * Fetches the keys and schedules the next refresh. The current keys are kept if the keys cannot be fetched.
+     */
+    synchronized void refresh() {
+
+        lastFetchTime = System.currentTimeMillis();
+        usedSinceRefresh = false;
+        long nextRefresh;
+        try {
+            JWKSResponse response = fetch();
+            if (response.content == null) {
+                log.error("Error while retrieving keys from the JWKS endpoint " + jwksUrl);
+                nextRefresh = minRefetchInterval;
+            } else {
+                keySnapshot = new KeySnapshot(JWKSet.parse(response.content));
+                unknownKeyIds.clear();
+                nextRefresh = response.maxAge >= 0 ? response.maxAge : defaultRefreshInterval;
+                nextRefresh = Math.min(Math.max(nextRefresh, MIN_REFRESH_INTERVAL), MAX_REFRESH_INTERVAL);
+                if (log.isDebugEnabled()) {
+                    log.debug("Retrieved " + keySnapshot.jwkSet.getKeys().size() + " keys from the JWKS endpoint "
+                            + jwksUrl);
+                }
+            }
+        } catch (IOException | ParseException e) {
+            log.error("Error while retrieving keys from the JWKS endpoint " + jwksUrl, e);
+            nextRefresh = minRefetchInterval;
+        }
+        scheduleRefresh(nextRefresh);
+    }
+
+    /**
+     * Retrieves the keys from the JWKS endpoint.
+     *
+     * @return JWKS response
+     * @throws IOException if the endpoint cannot be reached
+     */
+    protected JWKSResponse fetch() throws IOException {
+
+        URL url = new URL(jwksUrl);
+        try (CloseableHttpClient httpClient = (CloseableHttpClient) APIUtil
+                .getHttpClient(url.getPort(), url.getProtocol())) {
+            HttpGet httpGet = new HttpGet(jwksUrl);
+            try (CloseableHttpResponse response = httpClient.execute(httpGet)) {
+                if (response.getStatusLine().getStatusCode() != 200) {
+                    return new JWKSResponse(null, -1);
+                }
+                Header cacheControl = response.getFirstHeader(HttpHeaders.CACHE_CONTROL);
+                try (InputStream content = response.getEntity().getContent()) {
+                    return new JWKSResponse(IOUtils.toString(content),
+                            getMaxAge(cacheControl != null ? cacheControl.getValue() : null));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the max-age of a Cache-Control header.
+     *
+     * @param cacheControl value of the Cache-Control header
+     * @return max-age in milliseconds, or -1 if the header does not have a max-age
+     */
+    static long getMaxAge(String cacheControl) {
+
+        if (cacheControl != null) {
+            if (cacheControl.contains("no-cache") || cacheControl.contains("no-store")) {
+                return 0;
+            }
+            Matcher matcher = MAX_AGE_PATTERN.matcher(cacheControl);
+            if (matcher.find()) {
+                try {
+                    return TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1)));
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private synchronized void scheduleRefresh(long delay) {
+
+        if (refreshScheduler == null) {
+            return;
+        }
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+        }
+        refreshTask = refreshScheduler.schedule(this::refreshInBackground, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshInBackground() {
+
+        synchronized (this) {
+            refreshTask = null;
+            // Keys of an endpoint which is no longer used are refreshed again when a request uses them
+            if (!usedSinceRefresh) {
+                return;
+            }
+        }
+        refresh();
+    }
+
+    private void scheduleRefreshIfIdle() {
+
+        if (refreshScheduler != null && refreshTask == null) {
+            synchronized (this) {
+                if (refreshTask == null) {
+                    scheduleRefresh(0);
+                }
+            }
+        }
+    }
+
+    static JWSVerifier createVerifier(JWK jwk) throws JOSEException {
+
+        if (jwk instanceof RSAKey) {
+            return new RSASSAVerifier((RSAKey) jwk);
+        } else if (jwk instanceof ECKey) {
+            return new ECDSAVerifier((ECKey) jwk);
+        } else if (jwk instanceof OctetKeyPair && Curve.Ed25519.equals(((OctetKeyPair) jwk).getCurve())) {
+            try {
+                return new Ed25519Verifier((OctetKeyPair) jwk);
+            } catch (LinkageError e) {
+                // Ed25519 verification depends on the optional Tink library
+                log.error("Ed25519 keys are not supported in this runtime", e);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Response of the JWKS endpoint.
+     */
+    static class JWKSResponse {
+
+        private final String content;
+        private final long maxAge;
+
+        JWKSResponse(String content, long maxAge) {
+
+            this.content = content;
+            this.maxAge = maxAge;
+        }
+    }
+
+    /**
+     * Keys of a response, with the verifiers created for them.
+     */
+    private static class KeySnapshot {
+
+        private final JWKSet jwkSet;
+        private final Map<String, JWSVerifier> verifiers = new ConcurrentHashMap<>();
+
+        KeySnapshot(JWKSet jwkSet) {
+
+            this.jwkSet = jwkSet;
+        }
+
+        JWSVerifier getVerifier(String keyId) {
+
+            JWSVerifier verifier = verifiers.get(keyId);
+            if (verifier == null) {
+                try {
+                    verifier = createVerifier(jwkSet.getKeyByKeyId(keyId));
+                } catch (JOSEException e) {
+                    log.error("Error while creating the verifier of key " + keyId, e);
+                }
+                if (verifier == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Key Algorithm not supported");
+                    }
+                    return null;
+                }
+                verifiers.put(keyId, verifier);
+            }
+            return verifier;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.kmclient;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.dto.IntrospectionCacheConfigurationDto;
+import org.wso2.carbon.apimgt.impl.kmclient.model.IntrospectInfo;
+import org.wso2.carbon.apimgt.impl.kmclient.model.IntrospectionClient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An introspection client which sends a single introspection request for the concurrent lookups of a token, so that
+ * the requests carrying a token which is not yet cached by the gateway do not each introspect it. If caching is
+ * enabled, the results are kept for a short time, the results of inactive tokens for a shorter one, and a result
+ * which is used shortly before it expires is refreshed in the background, so that the tokens in use do not wait for
+ * an introspection request when their results expire. The results of a revoked token are removed with
+ * {@link #invalidateToken(String)}.
+ */
+public class CachingIntrospectionClient implements IntrospectionClient {
+
+    private static final Log log = LogFactory.getLog(CachingIntrospectionClient.class);
+    private static final long EVICTION_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final Executor REFRESH_EXECUTOR = createRefreshExecutor();
+    private static final Set<CachingIntrospectionClient> CLIENTS =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final IntrospectionClient introspectionClient;
+    private final boolean cacheEnabled;
+    private final int maxSize;
+    private final long expiryTime;
+    private final long negativeExpiryTime;
+    private final long refreshAheadTime;
+    private final Executor refreshExecutor;
+    private final Map<String, CompletableFuture<IntrospectInfo>> inFlightLookups = new ConcurrentHashMap<>();
+    private final Map<String, CachedResult> results = new ConcurrentHashMap<>();
+    private volatile long nextEvictionTime;
+
+    /**
+     * @param introspectionClient client which sends the introspection requests
+     * @param configuration       configuration of the cache
+     */
+    public CachingIntrospectionClient(IntrospectionClient introspectionClient,
+                                      IntrospectionCacheConfigurationDto configuration) {
+
+        this(introspectionClient, configuration.isEnabled(), configuration.getMaxSize(),
+                TimeUnit.SECONDS.toMillis(configuration.getExpiryTime()),
+                TimeUnit.SECONDS.toMillis(configuration.getNegativeExpiryTime()),
+                TimeUnit.SECONDS.toMillis(configuration.getRefreshAheadTime()), REFRESH_EXECUTOR);
+    }
+
+    CachingIntrospectionClient(IntrospectionClient introspectionClient, boolean cacheEnabled, int maxSize,
+                               long expiryTime, long negativeExpiryTime, long refreshAheadTime,
+                               Executor refreshExecutor) {
+
+        this.introspectionClient = introspectionClient;
+        this.cacheEnabled = cacheEnabled;
+        this.maxSize = maxSize;
+        this.expiryTime = expiryTime;
+        this.negativeExpiryTime = negativeExpiryTime;
+        this.refreshAheadTime = refreshAheadTime;
+        this.refreshExecutor = refreshExecutor;
+        CLIENTS.add(this);
+    }
+
+    /**
+     * Removes the introspection results of a revoked token from all the clients, so that the token is introspected
+     * again when it is used.
+     *
+     * @param token revoked token
+     */
+    public static void invalidateToken(String token) {
+
+        List<CachingIntrospectionClient> clients;
+        synchronized (CLIENTS) {
+            clients = new ArrayList<>(CLIENTS);
+        }
+        for (CachingIntrospectionClient client : clients) {
+            client.invalidate(token);
+        }
+    }
+
+    /**
+     * Removes the introspection result of a revoked token. The result of an introspection of the token which is in
+     * progress is not cached, and the later lookups of the token introspect it again.
+     *
+     * @param token revoked token
+     */
+    public void invalidate(String token) {
+
+        // the lookup is removed before the result, so that a lookup caching its result afterwards sees the removal
+        inFlightLookups.remove(token);
+        results.remove(token);
+    }
+
+    @Override
+    public IntrospectInfo introspect(String token) throws KeyManagerClientException {
+
+        if (cacheEnabled) {
+            CachedResult cachedResult = results.get(token);
+            if (cachedResult != null) {
+                long currentTime = System.currentTimeMillis();
+                if (currentTime < cachedResult.expiryTime) {
+                    if (currentTime >= cachedResult.refreshTime && cachedResult.refreshing.compareAndSet(false, true)) {
+                        refresh(token, cachedResult);
+                    }
+                    return cachedResult.introspectInfo;
+                }
+                results.remove(token, cachedResult);
+            }
+        }
+        return lookup(token);
+    }
+
+    /**
+     * Introspects a token, or waits for the introspection of the token which is in progress.
+     *
+     * @param token token to be introspected
+     * @return introspection result
+     * @throws KeyManagerClientException if the token could not be introspected
+     */
+    private IntrospectInfo lookup(String token) throws KeyManagerClientException {
+
+        CompletableFuture<IntrospectInfo> lookup = new CompletableFuture<>();
+        CompletableFuture<IntrospectInfo> inFlightLookup = inFlightLookups.putIfAbsent(token, lookup);
+        if (inFlightLookup != null) {
+            return await(inFlightLookup);
+        }
+        try {
+            IntrospectInfo introspectInfo = introspectionClient.introspect(token);
+            // cached before the lookup is removed, so that the later lookups find the result
+            CachedResult cachedResult = cache(token, introspectInfo);
+            if (cachedResult != null && inFlightLookups.get(token) != lookup) {
+                // the token was invalidated while it was being introspected
+                results.remove(token, cachedResult);
+            }
+            lookup.complete(introspectInfo);
+            return introspectInfo;
+        } catch (KeyManagerClientException | RuntimeException e) {
+            lookup.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(token, lookup);
+        }
+    }
+
+    private void refresh(String token, CachedResult cachedResult) {
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    lookup(token);
+                } catch (KeyManagerClientException | RuntimeException e) {
+                    // the cached result is used until it expires, and the next use retries the refresh
+                    cachedResult.refreshing.set(false);
+                    log.debug("Error while refreshing the introspection result of a token", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cachedResult.refreshing.set(false);
+        }
+    }
+
+    private CachedResult cache(String token, IntrospectInfo introspectInfo) {
+
+        if (!cacheEnabled || introspectInfo == null) {
+            return null;
+        }
+        long currentTime = System.currentTimeMillis();
+        long resultExpiryTime;
+        long refreshTime;
+        if (introspectInfo.isActive()) {
+            resultExpiryTime = currentTime + expiryTime;
+            refreshTime = resultExpiryTime - refreshAheadTime;
+            if (introspectInfo.getExpiry() > 0 && introspectInfo.getExpiry() != Long.MAX_VALUE
+                    && introspectInfo.getExpiry() * 1000L <= resultExpiryTime) {
+                // the token expires first, after which there is nothing to refresh
+                resultExpiryTime = introspectInfo.getExpiry() * 1000L;
+                refreshTime = Long.MAX_VALUE;
+            }
+        } else {
+            resultExpiryTime = currentTime + negativeExpiryTime;
+            refreshTime = Long.MAX_VALUE;
+        }
+        if (resultExpiryTime <= currentTime) {
+            return null;
+        }
+        if (results.size() >= maxSize && !results.containsKey(token)) {
+            evictExpiredResults(currentTime);
+            if (results.size() >= maxSize) {
+                return null;
+            }
+        }
+        CachedResult cachedResult = new CachedResult(introspectInfo, resultExpiryTime, refreshTime);
+        results.put(token, cachedResult);
+        return cachedResult;
+    }
+
+    private void evictExpiredResults(long currentTime) {
+
+        if (currentTime < nextEvictionTime) {
+            return;
+        }
+        nextEvictionTime = currentTime + EVICTION_INTERVAL;
+        results.values().removeIf(cachedResult -> cachedResult.expiryTime <= currentTime);
+    }
+
+    private static IntrospectInfo await(CompletableFuture<IntrospectInfo> lookup) throws KeyManagerClientException {
+
+        try {
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KeyManagerClientException("Interrupted while waiting for token introspection", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof KeyManagerClientException) {
+                throw (KeyManagerClientException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new KeyManagerClientException("Error occurred in token introspection", e);
+        }
+    }
+
+    private static Executor createRefreshExecutor() {
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+            Thread thread = new Thread(runnable, "IntrospectionRefresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A cached introspection result.
+     */
+    private static final class CachedResult {
+
+        private final IntrospectInfo introspectInfo;
+        private final long expiryTime;
+        private final long refreshTime;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedResult(IntrospectInfo introspectInfo, long expiryTime, long refreshTime) {
+
+            this.introspectInfo = introspectInfo;
+            this.expiryTime = expiryTime;
+            this.refreshTime = refreshTime;
+        }
+    }
+}
@@ -32,13 +32,26 @@ import org.wso2.carbon.apimgt.impl.utils.APIUtil;
 public abstract class AbstractNotifier implements Notifier {
 
     protected void publishEventToEventHub(Event event) {
-        byte[] bytesEncoded = Base64.encodeBase64(new Gson().toJson(event).getBytes());
-        Object[] objects = new Object[]{event.getType(), event.getTimeStamp(), new String(bytesEncoded)};
+        NotificationEventBatcher notificationEventBatcher = NotificationEventBatcher.getInstance();
+        if (notificationEventBatcher != null) {
+            notificationEventBatcher.add(event);
+            return;
+        }
         //Decoded event string to be logged in the case of failures and debugging
         String loggingEvent = event.toString();
+        publishNotification(event.getType(), event.getTimeStamp(), encodeEvent(new Gson().toJson(event)),
+                event.getTenantDomain(), loggingEvent);
+    }
+
+    static String encodeEvent(String eventJson) {
+        return new String(Base64.encodeBase64(eventJson.getBytes()));
+    }
+
+    static void publishNotification(String eventType, long timeStamp, String encodedEvent, String orgId,
+                                    String loggingEvent) {
+        Object[] objects = new Object[]{eventType, timeStamp, encodedEvent};
         EventPublisherEvent notificationEvent = new EventPublisherEvent(APIConstants.NOTIFICATION_STREAM_ID,
                 System.currentTimeMillis(), objects, loggingEvent);
-        String orgId = event.getTenantDomain();
         notificationEvent.setOrgId(orgId);
         APIUtil.publishEvent(EventPublisherType.NOTIFICATION, notificationEvent, loggingEvent);
     }
@@ -0,0 +1,159 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.notifier;
+
+import org.apache.commons.codec.binary.Base64;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A batch of notification events, which is sent as a single notification of type
+ * {@link org.wso2.carbon.apimgt.impl.APIConstants.EventType#NOTIFICATION_BATCH}. The events of a batch are encoded as
+ * a gzipped sequence of length prefixed records, each holding the type, time stamp and JSON of an event, and the
+ * result is Base64 encoded like the payload of a single notification.
+ */
+public final class NotificationEventBatch {
+
+    private static final int VERSION = 1;
+
+    private final List<Entry> entries;
+
+    public NotificationEventBatch(List<Entry> entries) {
+
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public List<Entry> getEntries() {
+
+        return entries;
+    }
+
+    /**
+     * Encodes the batch as the payload of a notification.
+     *
+     * @return Base64 encoded batch
+     * @throws IOException if the batch could not be encoded
+     */
+    public String encode() throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (DataOutputStream dataOutputStream = new DataOutputStream(new GZIPOutputStream(outputStream))) {
+            dataOutputStream.writeInt(VERSION);
+            dataOutputStream.writeInt(entries.size());
+            for (Entry entry : entries) {
+                writeString(dataOutputStream, entry.getType());
+                dataOutputStream.writeLong(entry.getTimeStamp());
+                writeString(dataOutputStream, entry.getEvent());
+            }
+        }
+        return new String(Base64.encodeBase64(outputStream.toByteArray()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the payload of a batch notification.
+     *
+     * @param encodedBatch Base64 encoded batch
+     * @return decoded batch
+     * @throws IOException if the payload is not a batch of a known version
+     */
+    public static NotificationEventBatch decode(String encodedBatch) throws IOException {
+
+        byte[] compressedBatch = Base64.decodeBase64(encodedBatch);
+        try (DataInputStream dataInputStream = new DataInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(compressedBatch)))) {
+            int version = dataInputStream.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported notification batch version " + version);
+            }
+            int entryCount = dataInputStream.readInt();
+            List<Entry> entries = new ArrayList<>(Math.min(entryCount, 1024));
+            for (int i = 0; i < entryCount; i++) {
+                String type = readString(dataInputStream);
+                long timeStamp = dataInputStream.readLong();
+                entries.add(new Entry(type, timeStamp, readString(dataInputStream)));
+            }
+            return new NotificationEventBatch(entries);
+        }
+    }
+
+    private static void writeString(DataOutputStream dataOutputStream, String value) throws IOException {
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dataOutputStream.writeInt(bytes.length);
+        dataOutputStream.write(bytes);
+    }
+
+    private static String readString(DataInputStream dataInputStream) throws IOException {
+
+        int length = dataInputStream.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid length " + length + " in notification batch");
+        }
+        byte[] bytes = new byte[length];
+        dataInputStream.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * An event of a batch.
+     */
+    public static final class Entry {
+
+        private final String type;
+        private final long timeStamp;
+        private final String event;
+
+        /**
+         * @param type      type of the event
+         * @param timeStamp time stamp of the event
+         * @param event     event as JSON
+         */
+        public Entry(String type, long timeStamp, String event) {
+
+            this.type = type;
+            this.timeStamp = timeStamp;
+            this.event = event;
+        }
+
+        public String getType() {
+
+            return type;
+        }
+
+        public long getTimeStamp() {
+
+            return timeStamp;
+        }
+
+        public String getEvent() {
+
+            return event;
+        }
+    }
+}
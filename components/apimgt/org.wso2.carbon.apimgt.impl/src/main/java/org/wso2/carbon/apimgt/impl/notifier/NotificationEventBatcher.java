@@ -0,0 +1,259 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.notifier;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.carbon.apimgt.impl.dto.NotificationBatchingConfigurationDto;
+import org.wso2.carbon.apimgt.impl.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.impl.notifier.events.Event;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the notification events published within a short window and publishes them to the event hub as one
+ * notification per tenant, so that a bulk change does not become thousands of messages to every gateway. An event
+ * which is published again within the window, with only its id and time stamp changed, replaces the earlier one and
+ * takes its place in the order of the batch, as the receivers apply an event by setting the state it carries. A
+ * window with a single event of a tenant is published as a regular notification.
+ */
+public class NotificationEventBatcher {
+
+    private static final Log log = LogFactory.getLog(NotificationEventBatcher.class);
+    private static volatile NotificationEventBatcher instance;
+    private static volatile boolean initialized;
+
+    private final long window;
+    private final int maxBatchSize;
+    private final Map<String, PendingEvent> pendingEvents = new LinkedHashMap<>();
+    private final ScheduledExecutorService executor;
+    private final Gson gson = new Gson();
+    private boolean publishScheduled;
+    private boolean shutdown;
+
+    NotificationEventBatcher(long window, int maxBatchSize) {
+
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "NotificationEventBatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the batcher of the notification events.
+     *
+     * @return batcher, or null if batching is not enabled
+     */
+    public static NotificationEventBatcher getInstance() {
+
+        if (!initialized) {
+            synchronized (NotificationEventBatcher.class) {
+                if (!initialized) {
+                    APIManagerConfigurationService configurationService =
+                            ServiceReferenceHolder.getInstance().getAPIManagerConfigurationService();
+                    APIManagerConfiguration configuration = configurationService != null ?
+                            configurationService.getAPIManagerConfiguration() : null;
+                    if (configuration == null) {
+                        return null;
+                    }
+                    NotificationBatchingConfigurationDto batchingConfiguration =
+                            configuration.getNotificationBatchingConfigurationDto();
+                    if (batchingConfiguration.isEnabled()) {
+                        instance = new NotificationEventBatcher(batchingConfiguration.getWindow(),
+                                Math.max(batchingConfiguration.getMaxBatchSize(), 1));
+                    }
+                    initialized = true;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Adds an event to the current window.
+     *
+     * @param event notification event
+     */
+    public void add(Event event) {
+
+        JsonObject eventJson = gson.toJsonTree(event).getAsJsonObject();
+        String serializedEvent = gson.toJson(eventJson);
+        eventJson.remove("eventId");
+        eventJson.remove("timeStamp");
+        String eventKey = event.getType() + ":" + gson.toJson(eventJson);
+        PendingEvent pendingEvent = new PendingEvent(event.getType(), event.getTimeStamp(), serializedEvent,
+                event.getTenantDomain(), event.toString());
+        boolean publishNow = false;
+        synchronized (pendingEvents) {
+            if (pendingEvents.remove(eventKey) != null && log.isDebugEnabled()) {
+                log.debug("Replaced a pending notification event with " + pendingEvent.loggingEvent);
+            }
+            pendingEvents.put(eventKey, pendingEvent);
+            if (shutdown) {
+                // the window is not scheduled any longer, hence the event is published right away
+                publishNow = true;
+            } else if (pendingEvents.size() == maxBatchSize) {
+                executor.execute(this::publishPendingEvents);
+            } else if (!publishScheduled) {
+                publishScheduled = true;
+                executor.schedule(this::publishPendingEvents, window, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (publishNow) {
+            publishPendingEvents();
+        }
+    }
+
+    /**
+     * Publishes the pending events. Publishing is serialized, so that the batches are published in the order their
+     * events were added.
+     */
+    synchronized void publishPendingEvents() {
+
+        List<PendingEvent> events;
+        synchronized (pendingEvents) {
+            events = new ArrayList<>(pendingEvents.values());
+            pendingEvents.clear();
+            publishScheduled = false;
+        }
+        Map<String, List<PendingEvent>> eventsOfTenants = new LinkedHashMap<>();
+        for (PendingEvent event : events) {
+            eventsOfTenants.computeIfAbsent(event.tenantDomain, tenantDomain -> new ArrayList<>()).add(event);
+        }
+        for (Map.Entry<String, List<PendingEvent>> eventsOfTenant : eventsOfTenants.entrySet()) {
+            List<PendingEvent> tenantEvents = eventsOfTenant.getValue();
+            for (int start = 0; start < tenantEvents.size(); start += maxBatchSize) {
+                List<PendingEvent> batch = tenantEvents.subList(start, Math.min(start + maxBatchSize,
+                        tenantEvents.size()));
+                try {
+                    publishBatch(eventsOfTenant.getKey(), batch);
+                } catch (IOException | RuntimeException e) {
+                    // a runtime exception is caught as well, since it would stop the remaining batches
+                    log.error("Error while publishing a batch of " + batch.size() + " notification events", e);
+                }
+            }
+        }
+    }
+
+    private void publishBatch(String tenantDomain, List<PendingEvent> batch) throws IOException {
+
+        if (batch.size() == 1) {
+            PendingEvent event = batch.get(0);
+            publish(event.type, event.timeStamp, AbstractNotifier.encodeEvent(event.event), tenantDomain,
+                    event.loggingEvent);
+            return;
+        }
+        List<NotificationEventBatch.Entry> entries = new ArrayList<>(batch.size());
+        StringBuilder loggingEvent = new StringBuilder("NotificationEventBatch{tenantDomain='")
+                .append(tenantDomain).append("', events=[");
+        for (PendingEvent event : batch) {
+            entries.add(new NotificationEventBatch.Entry(event.type, event.timeStamp, event.event));
+            if (loggingEvent.charAt(loggingEvent.length() - 1) != '[') {
+                loggingEvent.append(", ");
+            }
+            loggingEvent.append(event.loggingEvent);
+        }
+        loggingEvent.append("]}");
+        publish(APIConstants.EventType.NOTIFICATION_BATCH.name(), batch.get(batch.size() - 1).timeStamp,
+                new NotificationEventBatch(entries).encode(), tenantDomain, loggingEvent.toString());
+        if (log.isDebugEnabled()) {
+            log.debug("Published " + batch.size() + " notification events of tenant " + tenantDomain
+                    + " as a batch");
+        }
+    }
+
+    /**
+     * Publishes a notification to the event hub.
+     *
+     * @param eventType    type of the notification
+     * @param timeStamp    time stamp of the notification
+     * @param encodedEvent Base64 encoded payload
+     * @param tenantDomain tenant domain of the events
+     * @param loggingEvent description of the notification to be logged
+     */
+    protected void publish(String eventType, long timeStamp, String encodedEvent, String tenantDomain,
+                           String loggingEvent) {
+
+        AbstractNotifier.publishNotification(eventType, timeStamp, encodedEvent, tenantDomain, loggingEvent);
+    }
+
+    /**
+     * Shuts down the batcher of the notification events, if batching is enabled. The events waiting in the current
+     * window are published before returning.
+     */
+    public static void shutdownInstance() {
+
+        synchronized (NotificationEventBatcher.class) {
+            if (instance != null) {
+                instance.shutdown();
+                instance = null;
+            }
+            initialized = false;
+        }
+    }
+
+    /**
+     * Publishes the events waiting in the current window and stops the executor. Events added afterwards are
+     * published as they are added.
+     */
+    void shutdown() {
+
+        synchronized (pendingEvents) {
+            shutdown = true;
+        }
+        publishPendingEvents();
+        executor.shutdownNow();
+    }
+
+    /**
+     * A serialized event waiting in the current window.
+     */
+    private static final class PendingEvent {
+
+        private final String type;
+        private final long timeStamp;
+        private final String event;
+        private final String tenantDomain;
+        private final String loggingEvent;
+
+        private PendingEvent(String type, long timeStamp, String event, String tenantDomain, String loggingEvent) {
+
+            this.type = type;
+            this.timeStamp = timeStamp;
+            this.event = event;
+            this.tenantDomain = tenantDomain;
+            this.loggingEvent = loggingEvent;
+        }
+    }
+}
@@ -93,6 +93,28 @@ public class JWTUtil {
         }
     }
 
+    /**
+     * Verify the JWT token signature with a verifier of the signing key.
+     *
+     * @param jwt      SignedJwt Token
+     * @param verifier verifier of the signing key
+     * @return whether the signature is verified or or not
+     */
+    public static boolean verifyTokenSignature(SignedJWT jwt, JWSVerifier verifier) {
+
+        JWSAlgorithm algorithm = jwt.getHeader().getAlgorithm();
+        if (!verifier.supportedJWSAlgorithms().contains(algorithm)) {
+            log.error("Algorithm " + algorithm + " is not supported by the signing key");
+            return false;
+        }
+        try {
+            return jwt.verify(verifier);
+        } catch (JOSEException e) {
+            log.error("Error while verifying JWT signature", e);
+            return false;
+        }
+    }
+
     /**
      * Verify the JWT token signature.
      *
@@ -0,0 +1,628 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, thread-safe cache with W-TinyLFU eviction.
+ * <p>
+ * Entries are kept in a {@link ConcurrentHashMap}, so reads and writes do not block each other. The eviction policy
+ * is updated in batches by whichever thread acquires the eviction lock: reads are recorded in lossy striped buffers
+ * and writes in a queue, which are drained under the lock. New entries are admitted to a small LRU window, and an
+ * entry leaving the window replaces an entry of the main segmented LRU space only if it has been used more often,
+ * according to a frequency sketch of recent accesses. This keeps frequently used entries in the cache when a burst of
+ * entries used only once passes through it.
+ * <p>
+ * Entries may have a time to live, after which they are not returned. The cache may briefly hold more entries than
+ * its maximum size, until the pending writes are drained.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the values
+ */
+public class TinyLFUCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 16;
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+    private static final int MAX_PENDING_WRITES = 1024;
+    private static final int NUMBER_OF_READ_BUFFERS =
+            ceilingPowerOfTwo(Math.min(4 * Runtime.getRuntime().availableProcessors(), 64));
+
+    private static final byte NOT_LINKED = 0;
+    private static final byte WINDOW = 1;
+    private static final byte PROBATION = 2;
+    private static final byte PROTECTED = 3;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final long defaultTimeToLive;
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReadBuffer<K, V>[] readBuffers;
+
+    // Guarded by the eviction lock
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedSpace = new AccessOrderDeque<>();
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a cache whose entries do not expire.
+     *
+     * @param maximumSize maximum number of entries
+     */
+    public TinyLFUCache(int maximumSize) {
+
+        this(maximumSize, 0);
+    }
+
+    /**
+     * @param maximumSize       maximum number of entries
+     * @param defaultTimeToLive time to live of the entries in milliseconds, or 0 if the entries do not expire
+     */
+    @SuppressWarnings("unchecked")
+    public TinyLFUCache(int maximumSize, long defaultTimeToLive) {
+
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size of the cache should be positive");
+        }
+        this.maximumSize = maximumSize;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.data = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.readBuffers = new ReadBuffer[NUMBER_OF_READ_BUFFERS];
+        for (int i = 0; i < NUMBER_OF_READ_BUFFERS; i++) {
+            readBuffers[i] = new ReadBuffer<>();
+        }
+    }
+
+    /**
+     * Returns the value of the key, or null if the cache does not have an entry for the key or the entry is expired.
+     *
+     * @param key key of the entry
+     * @return value of the entry
+     */
+    public V get(K key) {
+
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (node.isExpired()) {
+            if (removeNode(node)) {
+                afterWrite(() -> onRemove(node));
+            }
+            missCount.increment();
+            return null;
+        }
+        V value = node.value;
+        hitCount.increment();
+        afterRead(node);
+        return value;
+    }
+
+    /**
+     * Adds an entry with the default time to live of the cache.
+     *
+     * @param key   key of the entry
+     * @param value value of the entry
+     * @return previous value of the key, or null if the cache did not have an entry for the key
+     */
+    public V put(K key, V value) {
+
+        return put(key, value, defaultTimeToLive);
+    }
+
+    /**
+     * Adds an entry which expires after the given time.
+     *
+     * @param key        key of the entry
+     * @param value      value of the entry
+     * @param timeToLive time to live of the entry in milliseconds, or 0 if the entry does not expire
+     * @return previous value of the key, or null if the cache did not have an entry for the key
+     */
+    public V put(K key, V value, long timeToLive) {
+
+        if (key == null || value == null) {
+            throw new NullPointerException("Null keys and values are not supported");
+        }
+        long expiryTime = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0;
+        while (true) {
+            Node<K, V> node = data.get(key);
+            if (node == null) {
+                Node<K, V> newNode = new Node<>(key, value, expiryTime);
+                node = data.putIfAbsent(key, newNode);
+                if (node == null) {
+                    afterWrite(() -> onAdd(newNode));
+                    return null;
+                }
+            }
+            V oldValue;
+            synchronized (node) {
+                if (node.retired) {
+                    // The node is being removed from the map, retry with a new node
+                    continue;
+                }
+                oldValue = node.isExpired() ? null : node.value;
+                node.value = value;
+                node.expiryTime = expiryTime;
+            }
+            afterRead(node);
+            return oldValue;
+        }
+    }
+
+    /**
+     * Removes the entry of the key.
+     *
+     * @param key key of the entry
+     * @return value of the removed entry, or null if the cache did not have an entry for the key
+     */
+    public V remove(K key) {
+
+        Node<K, V> node = data.get(key);
+        if (node == null || !removeNode(node)) {
+            return null;
+        }
+        afterWrite(() -> onRemove(node));
+        return node.isExpired() ? null : node.value;
+    }
+
+    /**
+     * Removes all the entries of the cache.
+     */
+    public void clear() {
+
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : data.values()) {
+                if (removeNode(node)) {
+                    writeBuffer.add(() -> onRemove(node));
+                    pendingWrites.incrementAndGet();
+                }
+            }
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of entries, including the expired entries which are not removed yet.
+     *
+     * @return number of entries
+     */
+    public int size() {
+
+        return data.size();
+    }
+
+    public long getHitCount() {
+
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+
+        return evictionCount.sum();
+    }
+
+    /**
+     * Applies the pending reads and writes to the eviction policy, and evicts the entries exceeding the maximum size.
+     */
+    void cleanUp() {
+
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private boolean removeNode(Node<K, V> node) {
+
+        synchronized (node) {
+            if (node.retired) {
+                return false;
+            }
+            node.retired = true;
+        }
+        data.remove(node.key, node);
+        return true;
+    }
+
+    private void afterRead(Node<K, V> node) {
+
+        ReadBuffer<K, V> readBuffer = readBuffers[(int) Thread.currentThread().getId() & (NUMBER_OF_READ_BUFFERS - 1)];
+        if (readBuffer.record(node)) {
+            tryMaintenance();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+
+        writeBuffer.add(task);
+        if (pendingWrites.incrementAndGet() > MAX_PENDING_WRITES) {
+            // Writers wait for the eviction policy to catch up, so that the cache does not grow without bound
+            cleanUp();
+        } else {
+            tryMaintenance();
+        }
+    }
+
+    private void tryMaintenance() {
+
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    private void maintenance() {
+
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        for (ReadBuffer<K, V> readBuffer : readBuffers) {
+            readBuffer.drain(this);
+        }
+        evictEntries();
+    }
+
+    private void onAdd(Node<K, V> node) {
+
+        sketch.increment(node.hash);
+        if (node.retired || node.queue != NOT_LINKED) {
+            return;
+        }
+        node.queue = WINDOW;
+        window.addLast(node);
+        windowSize++;
+    }
+
+    private void onRemove(Node<K, V> node) {
+
+        unlink(node);
+    }
+
+    private void onAccess(Node<K, V> node) {
+
+        sketch.increment(node.hash);
+        if (node.retired) {
+            return;
+        }
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                probationSize--;
+                node.queue = PROTECTED;
+                protectedSpace.addLast(node);
+                protectedSize++;
+                demoteFromProtected();
+                break;
+            case PROTECTED:
+                protectedSpace.moveToLast(node);
+                break;
+            default:
+                // The node is not added to the policy yet
+                break;
+        }
+    }
+
+    private void demoteFromProtected() {
+
+        while (protectedSize > protectedMaximum) {
+            Node<K, V> node = protectedSpace.peekFirst();
+            protectedSpace.remove(node);
+            protectedSize--;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            probationSize++;
+        }
+    }
+
+    private void evictEntries() {
+
+        // Entries leaving the window become the candidates at the tail of the probation space
+        while (windowSize > windowMaximum) {
+            Node<K, V> node = window.peekFirst();
+            window.remove(node);
+            windowSize--;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            probationSize++;
+        }
+        while (windowSize + probationSize + protectedSize > maximumSize) {
+            Node<K, V> victim = probation.peekFirst();
+            Node<K, V> candidate = probation.peekLast();
+            if (victim == null) {
+                victim = protectedSize > 0 ? protectedSpace.peekFirst() : window.peekFirst();
+                evict(victim);
+            } else if (victim == candidate || victim.retired) {
+                evict(victim);
+            } else if (candidate.retired) {
+                evict(candidate);
+            } else if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evict(victim);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node) {
+
+        unlink(node);
+        if (removeNode(node)) {
+            evictionCount.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                windowSize--;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                probationSize--;
+                break;
+            case PROTECTED:
+                protectedSpace.remove(node);
+                protectedSize--;
+                break;
+            default:
+                break;
+        }
+        node.queue = NOT_LINKED;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Entry of the cache, linked into one of the access ordered queues of the eviction policy.
+     */
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final int hash;
+        private volatile V value;
+        private volatile long expiryTime;
+        // Guarded by the node
+        private volatile boolean retired;
+        // Guarded by the eviction lock
+        private byte queue = NOT_LINKED;
+        private Node<K, V> previous;
+        private Node<K, V> next;
+
+        Node(K key, V value, long expiryTime) {
+
+            this.key = key;
+            this.hash = key.hashCode();
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+
+        boolean isExpired() {
+
+            long expiry = expiryTime;
+            return expiry != 0 && System.currentTimeMillis() >= expiry;
+        }
+    }
+
+    /**
+     * Doubly linked queue of nodes, ordered from the least to the most recently used.
+     */
+    private static final class AccessOrderDeque<K, V> {
+
+        private Node<K, V> first;
+        private Node<K, V> last;
+
+        Node<K, V> peekFirst() {
+
+            return first;
+        }
+
+        Node<K, V> peekLast() {
+
+            return last;
+        }
+
+        void addLast(Node<K, V> node) {
+
+            node.previous = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+
+            if (node.previous == null) {
+                first = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+        }
+
+        void moveToLast(Node<K, V> node) {
+
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Lossy buffer of the nodes read by a group of threads. Reads overwrite the older reads when the buffer is not
+     * drained in time, as the reads are only hints for the eviction policy.
+     */
+    private static final class ReadBuffer<K, V> {
+
+        private final AtomicLong writeCount = new AtomicLong();
+        private final AtomicReferenceArray<Node<K, V>> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+        // Guarded by the eviction lock
+        private long readCount;
+
+        /**
+         * @return whether the buffer is full and should be drained
+         */
+        boolean record(Node<K, V> node) {
+
+            long count = writeCount.getAndIncrement();
+            buffer.lazySet((int) (count & READ_BUFFER_MASK), node);
+            return (count & READ_BUFFER_MASK) == READ_BUFFER_MASK;
+        }
+
+        void drain(TinyLFUCache<K, V> cache) {
+
+            long writes = writeCount.get();
+            for (long i = Math.max(readCount, writes - READ_BUFFER_SIZE); i < writes; i++) {
+                Node<K, V> node = buffer.getAndSet((int) (i & READ_BUFFER_MASK), null);
+                if (node != null) {
+                    cache.onAccess(node);
+                }
+            }
+            readCount = writes;
+        }
+    }
+
+    /**
+     * Count-min sketch of the access frequencies of the keys, with four 4-bit counters per key. The counters are
+     * halved periodically, so that the sketch reflects the recent accesses.
+     */
+    static final class FrequencySketch {
+
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+
+            int tableSize = ceilingPowerOfTwo(Math.max(8, Math.min(maximumSize, 1 << 24)));
+            this.table = new long[tableSize];
+            this.tableMask = tableSize - 1;
+            this.sampleSize = 10 * Math.max(8, maximumSize);
+        }
+
+        int frequency(int hash) {
+
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int itemHash = indexHash(hash, i);
+                int offset = (itemHash >>> 28) << 2;
+                int count = (int) ((table[itemHash & tableMask] >>> offset) & 0xfL);
+                frequency = Math.min(frequency, count);
+            }
+            return frequency;
+        }
+
+        void increment(int hash) {
+
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int itemHash = indexHash(hash, i);
+                int index = itemHash & tableMask;
+                int offset = (itemHash >>> 28) << 2;
+                if (((table[index] >>> offset) & 0xfL) != 0xfL) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions = additions / 2;
+        }
+
+        private static int indexHash(int hash, int i) {
+
+            long itemHash = (hash + SEEDS[i]) * SEEDS[i];
+            itemHash += itemHash >>> 32;
+            return (int) itemHash;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.jwt;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.utils.JWTUtil;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class JWKSSourceTest {
+
+    private KeyPair rsaKeyPair;
+    private KeyPair ecKeyPair;
+    private String jwks;
+
+    @Before
+    public void setup() throws Exception {
+        KeyPairGenerator rsaKeyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaKeyPairGenerator.initialize(2048);
+        rsaKeyPair = rsaKeyPairGenerator.generateKeyPair();
+        KeyPairGenerator ecKeyPairGenerator = KeyPairGenerator.getInstance("EC");
+        ecKeyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ecKeyPair = ecKeyPairGenerator.generateKeyPair();
+        jwks = new JWKSet(Arrays.asList(
+                new RSAKey.Builder((RSAPublicKey) rsaKeyPair.getPublic()).keyID("rsaKey").build(),
+                new ECKey.Builder(Curve.P_256, (ECPublicKey) ecKeyPair.getPublic()).keyID("ecKey").build()))
+                .toString();
+    }
+
+    @Test
+    public void testVerifyRSAAndECSignatures() throws Exception {
+        JWKSSource jwksSource = new CountingJWKSSource(jwks, TimeUnit.MINUTES.toMillis(1));
+        SignedJWT rsaJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID("rsaKey").build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        rsaJWT.sign(new RSASSASigner(rsaKeyPair.getPrivate()));
+        SignedJWT ecJWT = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.ES256).keyID("ecKey").build(),
+                new JWTClaimsSet.Builder().subject("admin").build());
+        ecJWT.sign(new ECDSASigner((ECPrivateKey) ecKeyPair.getPrivate()));
+
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(rsaJWT, jwksSource.getVerifier("rsaKey")));
+        Assert.assertTrue(JWTUtil.verifyTokenSignature(ecJWT, jwksSource.getVerifier("ecKey")));
+        Assert.assertFalse(JWTUtil.verifyTokenSignature(ecJWT, jwksSource.getVerifier("rsaKey")));
+    }
+
+    @Test
+    public void testVerifiersAreCached() {
+        CountingJWKSSource jwksSource = new CountingJWKSSource(jwks, TimeUnit.MINUTES.toMillis(1));
+        JWSVerifier verifier = jwksSource.getVerifier("rsaKey");
+        Assert.assertNotNull(verifier);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertSame(verifier, jwksSource.getVerifier("rsaKey"));
+        }
+        Assert.assertEquals(1, jwksSource.fetchCount.get());
+    }
+
+    @Test
+    public void testUnknownKeyIdsAreRateLimited() {
+        CountingJWKSSource jwksSource = new CountingJWKSSource(jwks, TimeUnit.MINUTES.toMillis(1));
+        Assert.assertNotNull(jwksSource.getVerifier("rsaKey"));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull(jwksSource.getVerifier("unknownKey" + i));
+        }
+        Assert.assertEquals(1, jwksSource.fetchCount.get());
+    }
+
+    @Test
+    public void testUnknownKeyIdTriggersRefetch() {
+        CountingJWKSSource jwksSource = new CountingJWKSSource("{\"keys\":[]}", 0);
+        Assert.assertNull(jwksSource.getVerifier("rsaKey"));
+        jwksSource.content = jwks;
+        Assert.assertNotNull(jwksSource.getVerifier("rsaKey"));
+        Assert.assertNotNull(jwksSource.getVerifier("ecKey"));
+        Assert.assertEquals(2, jwksSource.fetchCount.get());
+    }
+
+    @Test
+    public void testGetMaxAge() {
+        Assert.assertEquals(TimeUnit.SECONDS.toMillis(300), JWKSSource.getMaxAge("public, max-age=300"));
+        Assert.assertEquals(0, JWKSSource.getMaxAge("no-cache"));
+        Assert.assertEquals(-1, JWKSSource.getMaxAge("public"));
+        Assert.assertEquals(-1, JWKSSource.getMaxAge(null));
+    }
+
+    private static class CountingJWKSSource extends JWKSSource {
+
+        private final AtomicInteger fetchCount = new AtomicInteger();
+        private volatile String content;
+
+        CountingJWKSSource(String content, long minRefetchInterval) {
+            super("https://localhost:9443/oauth2/jwks", TimeUnit.MINUTES.toMillis(15), minRefetchInterval, null);
+            this.content = content;
+        }
+
+        @Override
+        protected JWKSResponse fetch() {
+            fetchCount.incrementAndGet();
+            return new JWKSResponse(content, -1);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.kmclient;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.kmclient.model.IntrospectInfo;
+import org.wso2.carbon.apimgt.impl.kmclient.model.IntrospectionClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingIntrospectionClientTest {
+
+    @Test
+    public void testConcurrentLookupsAreCoalesced() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        IntrospectionClient introspectionClient = token -> {
+            requestCount.incrementAndGet();
+            await(release);
+            return createIntrospectInfo(true, 0);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, false, 10,
+                60000, 30000, 10000, Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<IntrospectInfo>> lookups = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lookups.add(executor.submit(() -> client.introspect("token")));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (requestCount.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(100);
+            release.countDown();
+            IntrospectInfo introspectInfo = lookups.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<IntrospectInfo> lookup : lookups) {
+                Assert.assertSame(introspectInfo, lookup.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, requestCount.get());
+            client.introspect("token");
+            Assert.assertEquals(2, requestCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsPropagatedToWaitingLookups() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IntrospectionClient introspectionClient = token -> {
+            await(release);
+            throw new KeyManagerClientException(503, "Service Unavailable");
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 10000, Runnable::run);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IntrospectInfo> first = executor.submit(() -> client.introspect("token"));
+            Future<IntrospectInfo> second = executor.submit(() -> client.introspect("token"));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<IntrospectInfo> lookup : Arrays.asList(first, second)) {
+                try {
+                    lookup.get(5, TimeUnit.SECONDS);
+                    Assert.fail("Expected the introspection to fail");
+                } catch (ExecutionException e) {
+                    Assert.assertTrue(e.getCause() instanceof KeyManagerClientException);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInactiveResultIsCached() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        IntrospectionClient introspectionClient = token -> {
+            requestCount.incrementAndGet();
+            return createIntrospectInfo(false, 0);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 10000, Runnable::run);
+        Assert.assertFalse(client.introspect("token").isActive());
+        Assert.assertFalse(client.introspect("token").isActive());
+        Assert.assertEquals(1, requestCount.get());
+    }
+
+    @Test
+    public void testResultIsRefreshedBeforeExpiry() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        IntrospectionClient introspectionClient = token -> {
+            requestCount.incrementAndGet();
+            return createIntrospectInfo(true, 0);
+        };
+        List<Runnable> refreshes = new ArrayList<>();
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 60000, refreshes::add);
+        IntrospectInfo introspectInfo = client.introspect("token");
+        Assert.assertSame(introspectInfo, client.introspect("token"));
+        Assert.assertSame(introspectInfo, client.introspect("token"));
+        Assert.assertEquals(1, requestCount.get());
+        Assert.assertEquals(1, refreshes.size());
+        refreshes.get(0).run();
+        Assert.assertEquals(2, requestCount.get());
+        Assert.assertNotSame(introspectInfo, client.introspect("token"));
+    }
+
+    @Test
+    public void testResultExpiresWithToken() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        IntrospectionClient introspectionClient = token -> {
+            requestCount.incrementAndGet();
+            return createIntrospectInfo(true, System.currentTimeMillis() / 1000 - 1);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 10000, Runnable::run);
+        client.introspect("token");
+        client.introspect("token");
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testCacheSizeIsBounded() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        IntrospectionClient introspectionClient = token -> {
+            requestCount.incrementAndGet();
+            return createIntrospectInfo(true, 0);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 2,
+                60000, 30000, 10000, Runnable::run);
+        client.introspect("token1");
+        client.introspect("token2");
+        client.introspect("token3");
+        client.introspect("token3");
+        Assert.assertEquals(4, requestCount.get());
+        client.introspect("token1");
+        Assert.assertEquals(4, requestCount.get());
+    }
+
+    @Test
+    public void testRevokedTokenIsIntrospectedAgain() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        IntrospectionClient introspectionClient = token -> {
+            // the token is revoked after the first introspection
+            return createIntrospectInfo(requestCount.incrementAndGet() == 1, 0);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 10000, Runnable::run);
+        Assert.assertTrue(client.introspect("token").isActive());
+        Assert.assertTrue(client.introspect("token").isActive());
+        CachingIntrospectionClient.invalidateToken("token");
+        Assert.assertFalse(client.introspect("token").isActive());
+        Assert.assertEquals(2, requestCount.get());
+    }
+
+    @Test
+    public void testResultOfLookupInProgressIsNotCachedAfterRevocation() throws Exception {
+        AtomicInteger requestCount = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IntrospectionClient introspectionClient = token -> {
+            if (requestCount.incrementAndGet() == 1) {
+                started.countDown();
+                await(release);
+            }
+            return createIntrospectInfo(true, 0);
+        };
+        CachingIntrospectionClient client = new CachingIntrospectionClient(introspectionClient, true, 10,
+                60000, 30000, 10000, Runnable::run);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IntrospectInfo> lookup = executor.submit(() -> client.introspect("token"));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            client.invalidate("token");
+            release.countDown();
+            lookup.get(5, TimeUnit.SECONDS);
+            client.introspect("token");
+            Assert.assertEquals(2, requestCount.get());
+            client.introspect("token");
+            Assert.assertEquals(2, requestCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static IntrospectInfo createIntrospectInfo(boolean active, long expiry) {
+        IntrospectInfo introspectInfo = new IntrospectInfo();
+        introspectInfo.setActive(active);
+        introspectInfo.setExpiry(expiry);
+        return introspectInfo;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.notifier;
+
+import com.google.gson.Gson;
+import org.apache.commons.codec.binary.Base64;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.notifier.events.ScopeEvent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class NotificationEventBatcherTest {
+
+    @Test
+    public void testBatchEncoding() throws Exception {
+        List<NotificationEventBatch.Entry> entries = Arrays.asList(
+                new NotificationEventBatch.Entry("SCOPE_CREATE", 1000L, "{\"name\":\"read\"}"),
+                new NotificationEventBatch.Entry("SCOPE_DELETE", 2000L, "{\"name\":\"caf\u00e9\"}"));
+        NotificationEventBatch batch = NotificationEventBatch.decode(new NotificationEventBatch(entries).encode());
+        Assert.assertEquals(2, batch.getEntries().size());
+        Assert.assertEquals("SCOPE_CREATE", batch.getEntries().get(0).getType());
+        Assert.assertEquals(1000L, batch.getEntries().get(0).getTimeStamp());
+        Assert.assertEquals("{\"name\":\"read\"}", batch.getEntries().get(0).getEvent());
+        Assert.assertEquals("{\"name\":\"caf\u00e9\"}", batch.getEntries().get(1).getEvent());
+    }
+
+    @Test
+    public void testEventsAreBatchedPerTenantAndCoalesced() throws Exception {
+        List<String[]> notifications = new CopyOnWriteArrayList<>();
+        NotificationEventBatcher batcher = createBatcher(notifications, 100);
+        try {
+            batcher.add(createScopeEvent("1", "SCOPE_CREATE", "carbon.super", "read"));
+            batcher.add(createScopeEvent("2", "SCOPE_CREATE", "carbon.super", "write"));
+            batcher.add(createScopeEvent("3", "SCOPE_CREATE", "wso2.com", "read"));
+            batcher.add(createScopeEvent("4", "SCOPE_CREATE", "carbon.super", "read"));
+            batcher.publishPendingEvents();
+
+            Assert.assertEquals(2, notifications.size());
+            Assert.assertEquals(APIConstants.EventType.NOTIFICATION_BATCH.name(), notifications.get(0)[0]);
+            Assert.assertEquals("carbon.super", notifications.get(0)[2]);
+            List<NotificationEventBatch.Entry> entries =
+                    NotificationEventBatch.decode(notifications.get(0)[1]).getEntries();
+            Assert.assertEquals(2, entries.size());
+            ScopeEvent first = new Gson().fromJson(entries.get(0).getEvent(), ScopeEvent.class);
+            ScopeEvent second = new Gson().fromJson(entries.get(1).getEvent(), ScopeEvent.class);
+            Assert.assertEquals("write", first.getName());
+            Assert.assertEquals("read", second.getName());
+            Assert.assertEquals("4", second.getEventId());
+
+            // a single event of a tenant is published as a regular notification
+            Assert.assertEquals("SCOPE_CREATE", notifications.get(1)[0]);
+            Assert.assertEquals("wso2.com", notifications.get(1)[2]);
+            ScopeEvent event = new Gson().fromJson(new String(Base64.decodeBase64(notifications.get(1)[1])),
+                    ScopeEvent.class);
+            Assert.assertEquals("3", event.getEventId());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testDifferentEventsAreNotCoalesced() throws Exception {
+        List<String[]> notifications = new CopyOnWriteArrayList<>();
+        NotificationEventBatcher batcher = createBatcher(notifications, 100);
+        try {
+            batcher.add(createScopeEvent("1", "SCOPE_CREATE", "carbon.super", "read"));
+            batcher.add(createScopeEvent("2", "SCOPE_DELETE", "carbon.super", "read"));
+            batcher.publishPendingEvents();
+            List<NotificationEventBatch.Entry> entries =
+                    NotificationEventBatch.decode(notifications.get(0)[1]).getEntries();
+            Assert.assertEquals(2, entries.size());
+            Assert.assertEquals("SCOPE_CREATE", entries.get(0).getType());
+            Assert.assertEquals("SCOPE_DELETE", entries.get(1).getType());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullBatchIsPublished() throws Exception {
+        List<String[]> notifications = new CopyOnWriteArrayList<>();
+        NotificationEventBatcher batcher = createBatcher(notifications, 3);
+        try {
+            for (int i = 0; i < 3; i++) {
+                batcher.add(createScopeEvent(String.valueOf(i), "SCOPE_CREATE", "carbon.super", "scope" + i));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (notifications.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertEquals(1, notifications.size());
+            Assert.assertEquals(3, NotificationEventBatch.decode(notifications.get(0)[1]).getEntries().size());
+        } finally {
+            batcher.shutdown();
+        }
+    }
+
+    @Test
+    public void testPendingEventsArePublishedOnShutdown() throws Exception {
+        List<String[]> notifications = new CopyOnWriteArrayList<>();
+        NotificationEventBatcher batcher = createBatcher(notifications, 100);
+        batcher.add(createScopeEvent("1", "SCOPE_CREATE", "carbon.super", "read"));
+        batcher.add(createScopeEvent("2", "SCOPE_CREATE", "carbon.super", "write"));
+        batcher.shutdown();
+        Assert.assertEquals(1, notifications.size());
+        Assert.assertEquals(2, NotificationEventBatch.decode(notifications.get(0)[1]).getEntries().size());
+
+        // the events added after shutting down are published right away
+        batcher.add(createScopeEvent("3", "SCOPE_DELETE", "carbon.super", "read"));
+        Assert.assertEquals(2, notifications.size());
+        Assert.assertEquals("SCOPE_DELETE", notifications.get(1)[0]);
+    }
+
+    private static NotificationEventBatcher createBatcher(List<String[]> notifications, int maxBatchSize) {
+        return new NotificationEventBatcher(60000, maxBatchSize) {
+            @Override
+            protected void publish(String eventType, long timeStamp, String encodedEvent, String tenantDomain,
+                                   String loggingEvent) {
+                notifications.add(new String[]{eventType, encodedEvent, tenantDomain});
+            }
+        };
+    }
+
+    private static ScopeEvent createScopeEvent(String eventId, String type, String tenantDomain, String name) {
+        return new ScopeEvent(eventId, System.currentTimeMillis(), type, -1234, tenantDomain, name, name, null);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.impl.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TinyLFUCacheTest {
+
+    @Test
+    public void testGetPutAndRemove() {
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10);
+        Assert.assertNull(cache.put("key", "value1"));
+        Assert.assertEquals("value1", cache.put("key", "value2"));
+        Assert.assertEquals("value2", cache.get("key"));
+        Assert.assertEquals("value2", cache.remove("key"));
+        Assert.assertNull(cache.get("key"));
+        Assert.assertNull(cache.remove("key"));
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(9900, cache.getEvictionCount());
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScan() {
+        TinyLFUCache<String, Integer> cache = new TinyLFUCache<>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            cache.put("scan" + i, i);
+            Assert.assertNotNull(cache.get("hot" + (i % 50)));
+        }
+        cache.cleanUp();
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(Integer.valueOf(i), cache.get("hot" + i));
+        }
+    }
+
+    @Test
+    public void testEntriesExpire() throws InterruptedException {
+        TinyLFUCache<String, String> cache = new TinyLFUCache<>(10, 50);
+        cache.put("expiring", "value");
+        cache.put("permanent", "value", 0);
+        Assert.assertEquals("value", cache.get("expiring"));
+        Thread.sleep(100);
+        Assert.assertNull(cache.get("expiring"));
+        Assert.assertEquals("value", cache.get("permanent"));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        TinyLFUCache<Integer, Integer> cache = new TinyLFUCache<>(1000);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            Random random = new Random(thread);
+            futures.add(executorService.submit(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    int key = random.nextInt(4000);
+                    Integer value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        Assert.assertEquals(key, value.intValue());
+                    }
+                    if (i % 100 == 0) {
+                        cache.remove(random.nextInt(4000));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+        cache.cleanUp();
+        Assert.assertTrue(cache.size() <= 1000);
+        Assert.assertEquals(800000, cache.getHitCount() + cache.getMissCount());
+    }
+}
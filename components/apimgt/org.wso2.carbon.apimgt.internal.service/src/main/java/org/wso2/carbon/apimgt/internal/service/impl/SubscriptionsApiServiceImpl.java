@@ -37,7 +37,8 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
 
     @Override
     public Response subscriptionsGet(String xWSO2Tenant, Integer apiId, Integer appId, String apiUUID,
-                                     String applicationUUID, MessageContext messageContext) throws
+                                     String applicationUUID, Integer after, Integer limit,
+                                     MessageContext messageContext) throws
             APIManagementException {
 
         Response result;
@@ -46,6 +47,9 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
         List<Subscription> subscriptionList = new ArrayList<>();
         xWSO2Tenant = SubscriptionValidationDataUtil.validateTenantDomain(xWSO2Tenant, messageContext);
         String organization = RestApiUtil.getOrganization(messageContext);
+        // the bulk loads are paged by a cursor on the subscription ID when a limit is given
+        boolean paged = limit != null && limit > 0;
+        int cursor = after != null ? after : 0;
         if (StringUtils.isNotEmpty(applicationUUID) && StringUtils.isNotEmpty(apiUUID)) {
             Subscription subscription = subscriptionValidationDAO.getSubscription(apiUUID, applicationUUID);
             if (subscription != null) {
@@ -63,17 +67,21 @@ public class SubscriptionsApiServiceImpl implements SubscriptionsApiService {
         } else if (StringUtils.isNotEmpty(organization) &&
                 !organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM)) {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
-                    subscriptionValidationDAO.getAllSubscriptionsByOrganization(organization))).build();
+                    paged ? subscriptionValidationDAO.getAllSubscriptionsByOrganization(organization, cursor, limit)
+                            : subscriptionValidationDAO.getAllSubscriptionsByOrganization(organization))).build();
         } else if (StringUtils.isNotEmpty(organization) && organization.equalsIgnoreCase(APIConstants.ORG_ALL_QUERY_PARAM) &&
                 xWSO2Tenant.equalsIgnoreCase(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
-                    subscriptionValidationDAO.getAllSubscriptions())).build();
+                    paged ? subscriptionValidationDAO.getAllSubscriptions(cursor, limit)
+                            : subscriptionValidationDAO.getAllSubscriptions())).build();
         } else if (StringUtils.isNotEmpty(xWSO2Tenant)) {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
-                    subscriptionValidationDAO.getAllSubscriptions(xWSO2Tenant))).build();
+                    paged ? subscriptionValidationDAO.getAllSubscriptions(xWSO2Tenant, cursor, limit)
+                            : subscriptionValidationDAO.getAllSubscriptions(xWSO2Tenant))).build();
         } else {
             result = Response.ok().entity(SubscriptionValidationDataUtil.fromSubscriptionToSubscriptionListDTO(
-                    subscriptionValidationDAO.getAllSubscriptions())).build();
+                    paged ? subscriptionValidationDAO.getAllSubscriptions(cursor, limit)
+                            : subscriptionValidationDAO.getAllSubscriptions())).build();
         }
 
         return result;
@@ -18,9 +18,12 @@
 package org.wso2.carbon.apimgt.keymgt.model.impl;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
@@ -51,6 +54,7 @@ import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicyList;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLEncoder;
@@ -67,6 +71,9 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
     public static final int retrievalTimeoutInSeconds = 15;
     public static final int retrievalRetries = 15;
     public static final String UTF8 = "UTF-8";
+    private static final String LIST_PROPERTY = "list";
+    private static final Gson gson = new Gson();
+    private volatile HttpClient httpClient;
 
     public SubscriptionDataLoaderImpl() {
 
@@ -78,21 +85,39 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
                         .getGatewayArtifactSynchronizerProperties();
     }
 
+    SubscriptionDataLoaderImpl(EventHubConfigurationDto eventHubConfigurationDto,
+                               GatewayArtifactSynchronizerProperties gatewayArtifactSynchronizerProperties) {
+
+        this.getEventHubConfigurationDto = eventHubConfigurationDto;
+        this.gatewayArtifactSynchronizerProperties = gatewayArtifactSynchronizerProperties;
+    }
+
     @Override
     public List<Subscription> loadAllSubscriptions(String tenantDomain) throws DataLoadingException {
 
         String subscriptionsEP = APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS;
         List<Subscription> subscriptions = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(subscriptionsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + subscriptionsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            subscriptions = (new Gson().fromJson(responseString, SubscriptionList.class)).getList();
+        int pageSize = getEventHubConfigurationDto.getSubscriptionLoadPageSize();
+        if (pageSize <= 0) {
+            readList(subscriptionsEP, tenantDomain, Subscription.class, subscriptions);
+            return subscriptions;
+        }
+        int after = 0;
+        while (true) {
+            int loadedCount = readList(subscriptionsEP + "?after=" + after + "&limit=" + pageSize, tenantDomain,
+                    Subscription.class, subscriptions);
+            // A control plane not supporting pagination returns all the subscriptions in the first page
+            if (loadedCount < pageSize || loadedCount > pageSize) {
+                break;
+            }
+            int lastSubscriptionId = getSubscriptionId(subscriptions.get(subscriptions.size() - 1));
+            if (lastSubscriptionId <= after) {
+                break;
+            }
+            after = lastSubscriptionId;
+            if (log.isDebugEnabled()) {
+                log.debug("Loaded " + subscriptions.size() + " subscriptions of tenant " + tenantDomain);
+            }
         }
         return subscriptions;
     }
@@ -102,17 +127,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
         String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATIONS;
         List<Application> applications = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applications = (new Gson().fromJson(responseString, ApplicationList.class)).getList();
-        }
+        readList(applicationsEP, tenantDomain, Application.class, applications);
         return applications;
     }
 
@@ -121,17 +136,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
         String applicationsEP = APIConstants.SubscriptionValidationResources.APPLICATION_KEY_MAPPINGS;
         List<ApplicationKeyMapping> applicationKeyMappings = new ArrayList<>();
-        String responseString = null;
-        try {
-            responseString = invokeService(applicationsEP, tenantDomain);
-        } catch (IOException e) {
-            String msg = "Error while executing the http client " + applicationsEP;
-            log.error(msg, e);
-            throw new DataLoadingException(msg, e);
-        }
-        if (responseString != null && !responseString.isEmpty()) {
-            applicationKeyMappings = (new Gson().fromJson(responseString, ApplicationKeyMappingList.class)).getList();
-        }
+        readList(applicationsEP, tenantDomain, ApplicationKeyMapping.class, applicationKeyMappings);
         return applicationKeyMappings;
     }
 
@@ -422,8 +427,76 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
 
     }
 
+    /**
+     * Reads the entities of a list response of the internal API while the response is being received, without
+     * buffering the whole response body in memory.
+     *
+     * @param path         resource path
+     * @param tenantDomain tenant domain
+     * @param entityClass  class of the entities of the list
+     * @param entities     list the read entities are added to
+     * @return number of entities read
+     * @throws DataLoadingException if the call fails or the response could not be parsed
+     */
+    <T> int readList(String path, String tenantDomain, Class<T> entityClass, List<T> entities)
+            throws DataLoadingException {
+
+        int count = 0;
+        HttpEntity entity = null;
+        try {
+            entity = executeRequest(path, tenantDomain).getEntity();
+            if (entity == null) {
+                return count;
+            }
+            try (JsonReader reader = new JsonReader(new InputStreamReader(entity.getContent(),
+                    StandardCharsets.UTF_8))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (LIST_PROPERTY.equals(reader.nextName())) {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            entities.add(gson.fromJson(reader, entityClass));
+                            count++;
+                        }
+                        reader.endArray();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            String msg = "Error while reading the response of " + path;
+            log.error(msg, e);
+            throw new DataLoadingException(msg, e);
+        } finally {
+            EntityUtils.consumeQuietly(entity);
+        }
+        return count;
+    }
+
+    private int getSubscriptionId(Subscription subscription) throws DataLoadingException {
+
+        try {
+            return Integer.parseInt(subscription.getSubscriptionId());
+        } catch (NumberFormatException e) {
+            throw new DataLoadingException("Invalid subscription id " + subscription.getSubscriptionId()
+                    + " received while loading subscriptions", e);
+        }
+    }
+
     private String invokeService(String path, String tenantDomain) throws DataLoadingException, IOException {
 
+        HttpResponse httpResponse = executeRequest(path, tenantDomain);
+        String responseString = EntityUtils.toString(httpResponse.getEntity(), UTF8);
+        if (log.isDebugEnabled()) {
+            log.debug("Response : " + responseString);
+        }
+        return responseString;
+    }
+
+    private HttpResponse executeRequest(String path, String tenantDomain) throws DataLoadingException, IOException {
+
         String serviceURLStr = getEventHubConfigurationDto.getServiceUrl().concat(APIConstants.INTERNAL_WEB_APP_EP);
         HttpGet method = new HttpGet(serviceURLStr + path);
 
@@ -437,7 +510,7 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
             if (tenantDomain != null) {
                 method.setHeader(APIConstants.HEADER_TENANT, tenantDomain);
             }
-            HttpClient httpClient = APIUtil.getHttpClient(servicePort, serviceProtocol);
+            HttpClient httpClient = getHttpClient(servicePort, serviceProtocol);
 
             HttpResponse httpResponse = null;
             int retryCount = 0;
@@ -449,6 +522,8 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
                         log.error("Could not retrieve subscriptions for tenantDomain: " + tenantDomain
                                 + ". Received response with status code "
                                 + httpResponse.getStatusLine().getStatusCode());
+                        // Release the pooled connection before retrying
+                        EntityUtils.consumeQuietly(httpResponse.getEntity());
                         throw new DataLoadingException("Error while retrieving subscription");
                     }
                     retry = false;
@@ -473,12 +548,24 @@ public class SubscriptionDataLoaderImpl implements SubscriptionDataLoader {
                 log.error("Could not retrieve subscriptions for tenantDomain : " + tenantDomain);
                 throw new DataLoadingException("Error while retrieving subscription from " + path);
             }
-            String responseString = EntityUtils.toString(httpResponse.getEntity(), UTF8);
-            if (log.isDebugEnabled()) {
-                log.debug("Response : " + responseString);
-            }
-            return responseString;
+            return httpResponse;
+
+    }
 
+    /**
+     * The internal API is always invoked on the same service URL, hence a single pooled http client is reused for
+     * all calls made through this loader instead of creating a new client and connection pool per call.
+     */
+    private HttpClient getHttpClient(int servicePort, String serviceProtocol) {
+
+        if (httpClient == null) {
+            synchronized (this) {
+                if (httpClient == null) {
+                    httpClient = APIUtil.getHttpClient(servicePort, serviceProtocol);
+                }
+            }
+        }
+        return httpClient;
     }
 
     private byte[] getServiceCredentials(EventHubConfigurationDto eventHubConfigurationDto) {
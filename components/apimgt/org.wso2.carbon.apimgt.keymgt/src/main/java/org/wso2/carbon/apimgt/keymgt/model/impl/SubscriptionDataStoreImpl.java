@@ -28,6 +28,7 @@ import org.wso2.carbon.apimgt.impl.caching.CacheInvalidationServiceImpl;
 import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
 import org.wso2.carbon.apimgt.impl.notifier.events.DeployAPIInGatewayEvent;
 import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataLoader;
 import org.wso2.carbon.apimgt.keymgt.model.SubscriptionDataStore;
 import org.wso2.carbon.apimgt.keymgt.model.entity.API;
 import org.wso2.carbon.apimgt.keymgt.model.entity.ApiPolicy;
@@ -39,6 +40,8 @@ import org.wso2.carbon.apimgt.keymgt.model.entity.Scope;
 import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
 import org.wso2.carbon.apimgt.keymgt.model.entity.SubscriptionPolicy;
 import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+import org.wso2.carbon.apimgt.keymgt.model.util.MultiValueIndex;
+import org.wso2.carbon.apimgt.keymgt.model.util.SingleFlightDataLoader;
 import org.wso2.carbon.apimgt.keymgt.model.util.SubscriptionDataStoreUtil;
 
 import java.util.ArrayList;
@@ -48,7 +51,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -71,10 +76,26 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     private Map<String, ApplicationPolicy> appPolicyMap;
     private Map<String, Subscription> subscriptionMap;
     private Map<String, Scope> scopesMap;
+    // Secondary indexes of the above maps. They only hold the cache keys of the entities, and the lookups verify
+    // the entity fetched from the primary map so that a stale index entry never leads to a wrong result. The indexes
+    // are rebuilt off to the side and swapped in, and the updates of an entity type hold its lock so that an update
+    // is never lost by a rebuild.
+    private volatile ApplicationIndexes applicationIndexes;
+    private volatile SubscriptionIndexes subscriptionIndexes;
+    private volatile MultiValueIndex<Integer, ApplicationKeyMappingCacheKey> keyMappingKeysByAppId;
+    private final Object applicationLock = new Object();
+    private final Object subscriptionLock = new Object();
+    private final Object keyMappingLock = new Object();
     private boolean apisInitialized;
     private boolean apiPoliciesInitialized;
     private String tenantDomain;
     private ScheduledExecutorService executorService = Executors.newScheduledThreadPool(LOADING_POOL_SIZE);
+    private ThreadPoolExecutor onDemandLoadingExecutor;
+    private SubscriptionDataLoader subscriptionDataLoader;
+    private SingleFlightDataLoader<Integer, Application> applicationLoader;
+    private SingleFlightDataLoader<ApplicationKeyMappingCacheKey, ApplicationKeyMapping> keyMappingLoader;
+    private SingleFlightDataLoader<String, API> apiLoader;
+    private SingleFlightDataLoader<String, Subscription> subscriptionLoader;
 
     public SubscriptionDataStoreImpl(String tenantDomain) {
 
@@ -82,6 +103,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                 .getAPIManagerConfigurationService().getAPIManagerConfiguration().getEventHubConfigurationDto();
         this.tenantDomain = tenantDomain;
         initializeStore();
+        initializeOnDemandLoaders();
     }
 
     private void initializeStore() {
@@ -96,6 +118,37 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         this.subscriptionMap = new ConcurrentHashMap<>();
         this.scopesMap = new ConcurrentHashMap<>();
         this.apiNameVersionMap = new ConcurrentHashMap<>();
+        this.applicationIndexes = new ApplicationIndexes();
+        this.subscriptionIndexes = new SubscriptionIndexes();
+        this.keyMappingKeysByAppId = new MultiValueIndex<>();
+    }
+
+    /**
+     * Initializes the loaders used to fetch entries missing in the store from the internal API. The loads of all
+     * entity types share a bounded executor so that the number of concurrent calls made by this tenant's store to
+     * the control plane does not exceed the configured limit.
+     */
+    private void initializeOnDemandLoaders() {
+
+        int maxConcurrentLoads = Math.max(eventHubConfiguration.getMaxConcurrentLoads(), 1);
+        long negativeCacheExpiry = eventHubConfiguration.getNegativeCacheExpiry();
+        long loadWaitTimeout = eventHubConfiguration.getLoadWaitTimeout();
+        this.onDemandLoadingExecutor = new ThreadPoolExecutor(maxConcurrentLoads, maxConcurrentLoads, 60L,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "SubscriptionDataLoader-" + tenantDomain);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.onDemandLoadingExecutor.allowCoreThreadTimeOut(true);
+        this.subscriptionDataLoader = new SubscriptionDataLoaderImpl();
+        this.applicationLoader = new SingleFlightDataLoader<>("Application", onDemandLoadingExecutor,
+                negativeCacheExpiry, loadWaitTimeout);
+        this.keyMappingLoader = new SingleFlightDataLoader<>("KeyMapping", onDemandLoadingExecutor,
+                negativeCacheExpiry, loadWaitTimeout);
+        this.apiLoader = new SingleFlightDataLoader<>("API", onDemandLoadingExecutor, negativeCacheExpiry,
+                loadWaitTimeout);
+        this.subscriptionLoader = new SingleFlightDataLoader<>("Subscription", onDemandLoadingExecutor,
+                negativeCacheExpiry, loadWaitTimeout);
     }
 
     @Override
@@ -106,27 +159,25 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Application getApplicationById(int appId) {
 
-        String synchronizeKey = "SubscriptionDataStoreImpl-Application-" + appId;
         Application application = applicationMap.get(appId);
         if (application == null) {
-            synchronized (synchronizeKey.intern()) {
-                application = applicationMap.get(appId);
-                if (application != null) {
-                    return application;
+            application = applicationLoader.load(appId, id -> {
+                Application loadedApplication = applicationMap.get(id);
+                if (loadedApplication != null) {
+                    return loadedApplication;
                 }
-            }
-            try {
-                application = new SubscriptionDataLoaderImpl().getApplicationById(appId);
-            } catch (DataLoadingException e) {
-                log.error("Error while Retrieving Application Metadata From Internal API.", e);
-            }
-            if (application != null && application.getId() != null && application.getId() != 0) {
-                // load to the memory
-                log.debug("Loading Application to the in-memory datastore. applicationId = " + application.getId());
-                addOrUpdateApplication(application);
-            } else {
-                log.debug("Application not found. applicationId = " + appId);
-            }
+                loadedApplication = subscriptionDataLoader.getApplicationById(id);
+                if (loadedApplication != null && loadedApplication.getId() != null
+                        && loadedApplication.getId() != 0) {
+                    // load to the memory
+                    log.debug("Loading Application to the in-memory datastore. applicationId = "
+                            + loadedApplication.getId());
+                    addOrUpdateApplication(loadedApplication);
+                    return loadedApplication;
+                }
+                log.debug("Application not found. applicationId = " + id);
+                return null;
+            });
         }
 
         if (log.isDebugEnabled()) {
@@ -145,27 +196,22 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
 
         ApplicationKeyMappingCacheKey applicationKeyMappingCacheKey = new ApplicationKeyMappingCacheKey(key,
                 keyManager);
-        String synchronizeKey = "SubscriptionDataStoreImpl-KeyMapping-" + applicationKeyMappingCacheKey;
-
         ApplicationKeyMapping applicationKeyMapping = applicationKeyMappingMap.get(applicationKeyMappingCacheKey);
         if (applicationKeyMapping == null) {
-            synchronized (synchronizeKey.intern()) {
-                applicationKeyMapping = applicationKeyMappingMap.get(applicationKeyMappingCacheKey);
-                if (applicationKeyMapping != null) {
-                    return applicationKeyMapping;
-                }
-                try {
-                    applicationKeyMapping = new SubscriptionDataLoaderImpl()
-                            .getKeyMapping(key, keyManager, tenantDomain);
-                } catch (DataLoadingException e) {
-                    log.error("Error while Loading KeyMapping Information from Internal API.", e);
+            applicationKeyMapping = keyMappingLoader.load(applicationKeyMappingCacheKey, cacheKey -> {
+                ApplicationKeyMapping loadedKeyMapping = applicationKeyMappingMap.get(cacheKey);
+                if (loadedKeyMapping != null) {
+                    return loadedKeyMapping;
                 }
-                if (applicationKeyMapping != null && !StringUtils.isEmpty(applicationKeyMapping.getConsumerKey())) {
+                loadedKeyMapping = subscriptionDataLoader.getKeyMapping(key, keyManager, tenantDomain);
+                if (loadedKeyMapping != null && !StringUtils.isEmpty(loadedKeyMapping.getConsumerKey())) {
                     // load to the memory
                     log.debug("Loading Keymapping to the in-memory datastore.");
-                    addOrUpdateApplicationKeyMapping(applicationKeyMapping);
+                    addOrUpdateApplicationKeyMapping(loadedKeyMapping);
+                    return loadedKeyMapping;
                 }
-            }
+                return null;
+            });
         }
 
         if (log.isDebugEnabled()) {
@@ -183,25 +229,22 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public API getApiByContextAndVersion(String context, String version) {
 
         String key = context + DELEM_PERIOD + version;
-        String synchronizeKey = "SubscriptionDataStoreImpl-API-" + key;
         API api = apiMap.get(key);
         if (api == null) {
-            synchronized (synchronizeKey.intern()) {
-                api = apiMap.get(key);
-                if (api != null) {
-                    return api;
-                }
-                try {
-                    api = new SubscriptionDataLoaderImpl().getApi(context, version);
-                } catch (DataLoadingException e) {
-                    log.error("Error while Retrieving Data From Internal Rest API", e);
+            api = apiLoader.load(key, apiKey -> {
+                API loadedAPI = apiMap.get(apiKey);
+                if (loadedAPI != null) {
+                    return loadedAPI;
                 }
-                if (api != null && api.getApiId() != 0) {
+                loadedAPI = subscriptionDataLoader.getApi(context, version);
+                if (loadedAPI != null && loadedAPI.getApiId() != 0) {
                     // load to the memory
                     log.debug("Loading API to the in-memory datastore.");
-                    addOrUpdateAPI(api);
+                    addOrUpdateAPI(loadedAPI);
+                    return loadedAPI;
                 }
-            }
+                return null;
+            });
         }
         if (log.isDebugEnabled()) {
             log.debug("Retrieving API information with Context " + context + " and Version : " + version);
@@ -249,26 +292,23 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public Subscription getSubscriptionById(int appId, int apiId) {
 
         String subscriptionCacheKey = SubscriptionDataStoreUtil.getSubscriptionCacheKey(appId, apiId);
-        String synchronizeKey = "SubscriptionDataStoreImpl-Subscription-" + subscriptionCacheKey;
         Subscription subscription = subscriptionMap.get(subscriptionCacheKey);
         if (subscription == null) {
-            synchronized (synchronizeKey.intern()) {
-                subscription = subscriptionMap.get(subscriptionCacheKey);
-                if (subscription != null) {
-                    return subscription;
+            subscription = subscriptionLoader.load(subscriptionCacheKey, cacheKey -> {
+                Subscription loadedSubscription = subscriptionMap.get(cacheKey);
+                if (loadedSubscription != null) {
+                    return loadedSubscription;
                 }
-                try {
-                    subscription = new SubscriptionDataLoaderImpl().getSubscriptionById(Integer.toString(apiId),
-                            Integer.toString(appId));
-                } catch (DataLoadingException e) {
-                    log.error("Error while Retrieving Subscription Data From Internal API", e);
-                }
-                if (subscription != null && !StringUtils.isEmpty(subscription.getSubscriptionId())) {
+                loadedSubscription = subscriptionDataLoader.getSubscriptionById(Integer.toString(apiId),
+                        Integer.toString(appId));
+                if (loadedSubscription != null && !StringUtils.isEmpty(loadedSubscription.getSubscriptionId())) {
                     // load to the memory
                     log.debug("Loading Subscription to the in-memory datastore.");
-                    subscriptionMap.put(subscription.getCacheKey(), subscription);
+                    putSubscription(loadedSubscription);
+                    return loadedSubscription;
                 }
-            }
+                return null;
+            });
         }
         if (log.isDebugEnabled()) {
             log.debug("Retrieving API Subscription with Application " + appId + " and APIId : " + apiId);
@@ -297,7 +337,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                 () -> {
                     try {
                         log.debug("Calling loadAllApis. ");
-                        List<API> apiList = new SubscriptionDataLoaderImpl().loadAllApis(tenantDomain);
+                        List<API> apiList = subscriptionDataLoader.loadAllApis(tenantDomain);
                         apiByUUIDMap.clear();
                         for (API api : apiList) {
                             apiByUUIDMap.put(api.getUuid(), api);
@@ -318,12 +358,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                 () -> {
                     try {
                         log.debug("Calling loadAllSubscriptions.");
-                        return new SubscriptionDataLoaderImpl().loadAllSubscriptions(tenantDomain);
+                        return subscriptionDataLoader.loadAllSubscriptions(tenantDomain);
                     } catch (APIManagementException e) {
                         log.error("Exception while loading Subscriptions " + e);
                     }
                     return null;
-                });
+                }, this::rebuildSubscriptionIndexes);
 
         executorService.schedule(subscriptionLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
 
@@ -331,12 +371,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                 () -> {
                     try {
                         log.debug("Calling loadAllApplications.");
-                        return new SubscriptionDataLoaderImpl().loadAllApplications(tenantDomain);
+                        return subscriptionDataLoader.loadAllApplications(tenantDomain);
                     } catch (APIManagementException e) {
                         log.error("Exception while loading Applications " + e);
                     }
                     return null;
-                });
+                }, this::rebuildApplicationIndexes);
 
         executorService.schedule(applicationLoadingTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
 
@@ -345,12 +385,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                         () -> {
                             try {
                                 log.debug("Calling loadAllKeyMappings.");
-                                return new SubscriptionDataLoaderImpl().loadAllKeyMappings(tenantDomain);
+                                return subscriptionDataLoader.loadAllKeyMappings(tenantDomain);
                             } catch (APIManagementException e) {
                                 log.error("Exception while loading ApplicationKeyMapping " + e);
                             }
                             return null;
-                        });
+                        }, this::rebuildKeyMappingIndexes);
 
         executorService.schedule(keyMappingsTask, eventHubConfiguration.getInitDelay(), TimeUnit.MILLISECONDS);
 
@@ -360,7 +400,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             try {
                                 log.debug("Calling loadAllSubscriptionPolicies.");
                                 List<ApiPolicy> apiPolicyList =
-                                        new SubscriptionDataLoaderImpl().loadAllAPIPolicies(tenantDomain);
+                                        subscriptionDataLoader.loadAllAPIPolicies(tenantDomain);
                                 apiPoliciesInitialized = true;
                                 return apiPolicyList;
                             } catch (APIManagementException e) {
@@ -376,7 +416,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                         () -> {
                             try {
                                 log.debug("Calling loadAllSubscriptionPolicies.");
-                                return new SubscriptionDataLoaderImpl().loadAllSubscriptionPolicies(tenantDomain);
+                                return subscriptionDataLoader.loadAllSubscriptionPolicies(tenantDomain);
                             } catch (APIManagementException e) {
                                 log.error("Exception while loading Subscription Policies " + e);
                             }
@@ -390,7 +430,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                         () -> {
                             try {
                                 log.debug("Calling loadAllAppPolicies.");
-                                return new SubscriptionDataLoaderImpl().loadAllAppPolicies(tenantDomain);
+                                return subscriptionDataLoader.loadAllAppPolicies(tenantDomain);
                             } catch (APIManagementException e) {
                                 log.error("Exception while loading Application Policies " + e);
                             }
@@ -404,7 +444,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                             try {
                                 log.debug("Calling loadAllScopes.");
                                 List<Scope> scopeList =
-                                        new SubscriptionDataLoaderImpl().loadAllScopes(tenantDomain);
+                                        subscriptionDataLoader.loadAllScopes(tenantDomain);
                                 scopesInitialized = true;
                                 return scopeList;
                             } catch (APIManagementException e) {
@@ -431,9 +471,10 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         String synchronizeKey = "SubscriptionDataStoreImpl-API-" + subscription.getCacheKey();
 
         synchronized (synchronizeKey.intern()) {
+            subscriptionLoader.invalidate(subscription.getCacheKey());
             Subscription retrievedSubscription = subscriptionMap.get(subscription.getCacheKey());
             if (retrievedSubscription == null) {
-                subscriptionMap.put(subscription.getCacheKey(), subscription);
+                putSubscription(subscription);
             } else {
                 if (log.isDebugEnabled()) {
                     log.debug("Retrieved Subscription from Map :" + retrievedSubscription.toString());
@@ -444,7 +485,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     }
                 } else {
                     if (!APIConstants.SubscriptionStatus.ON_HOLD.equals(subscription.getSubscriptionState())) {
-                        subscriptionMap.put(subscription.getCacheKey(), subscription);
+                        putSubscription(subscription);
                     } else {
                         if (log.isDebugEnabled()) {
                             log.debug("Drop the Event " + subscription.toString() + " since the event was marked as " +
@@ -464,7 +505,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public void removeSubscription(Subscription subscription) {
 
-        subscriptionMap.remove(subscription.getCacheKey());
+        removeSubscription(subscription.getCacheKey());
     }
 
     @Override
@@ -474,13 +515,14 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         apiByUUIDMap.put(api.getUuid(), api);
         apiNameVersionMap.put(key, api);
         apiMap.put(api.getCacheKey(), api);
+        apiLoader.invalidate(api.getCacheKey());
     }
 
     @Override
     public void addOrUpdateAPIWithUrlTemplates(API api) {
 
         try {
-            API newAPI = new SubscriptionDataLoaderImpl().getApi(api.getContext(), api.getApiVersion());
+            API newAPI = subscriptionDataLoader.getApi(api.getContext(), api.getApiVersion());
             if (newAPI != null) {
                 apiMap.put(api.getCacheKey(), newAPI);
                 String key = newAPI.getApiName().concat(":").concat(newAPI.getApiVersion());
@@ -505,14 +547,27 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public void addOrUpdateApplicationKeyMapping(ApplicationKeyMapping applicationKeyMapping) {
 
-        applicationKeyMappingMap.remove(applicationKeyMapping.getCacheKey());
-        applicationKeyMappingMap.put(applicationKeyMapping.getCacheKey(), applicationKeyMapping);
+        synchronized (keyMappingLock) {
+            ApplicationKeyMapping existingKeyMapping =
+                    applicationKeyMappingMap.put(applicationKeyMapping.getCacheKey(), applicationKeyMapping);
+            if (existingKeyMapping != null) {
+                keyMappingKeysByAppId.remove(existingKeyMapping.getApplicationId(), existingKeyMapping.getCacheKey());
+            }
+            keyMappingKeysByAppId.add(applicationKeyMapping.getApplicationId(), applicationKeyMapping.getCacheKey());
+        }
+        keyMappingLoader.invalidate(applicationKeyMapping.getCacheKey());
     }
 
     @Override
     public void removeApplicationKeyMapping(ApplicationKeyMapping applicationKeyMapping) {
 
-        applicationKeyMappingMap.remove(applicationKeyMapping.getCacheKey());
+        synchronized (keyMappingLock) {
+            ApplicationKeyMapping existingKeyMapping =
+                    applicationKeyMappingMap.remove(applicationKeyMapping.getCacheKey());
+            if (existingKeyMapping != null) {
+                keyMappingKeysByAppId.remove(existingKeyMapping.getApplicationId(), existingKeyMapping.getCacheKey());
+            }
+        }
     }
 
     @Override
@@ -544,23 +599,39 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public void addOrUpdateApplication(Application application) {
 
-        applicationMap.remove(application.getId());
-        applicationMap.put(application.getId(), application);
+        synchronized (applicationLock) {
+            Application existingApplication = applicationMap.put(application.getId(), application);
+            if (existingApplication != null) {
+                unindexApplication(applicationIndexes, existingApplication);
+            }
+            indexApplication(applicationIndexes, application);
+        }
+        applicationLoader.invalidate(application.getId());
     }
 
     @Override
     public void removeApplication(Application application) {
 
-        applicationMap.remove(application.getId());
-        subscriptionMap.values().removeIf(subscription ->
-                subscription != null && application.getUUID().equals(subscription.getApplicationUUID()));
+        synchronized (applicationLock) {
+            Application existingApplication = applicationMap.remove(application.getId());
+            if (existingApplication != null) {
+                unindexApplication(applicationIndexes, existingApplication);
+            }
+        }
+        for (String subscriptionKey :
+                new ArrayList<>(subscriptionIndexes.subscriptionKeysByAppUUID.get(application.getUUID()))) {
+            Subscription subscription = subscriptionMap.get(subscriptionKey);
+            if (subscription != null && application.getUUID().equals(subscription.getApplicationUUID())) {
+                removeSubscription(subscriptionKey);
+            }
+        }
     }
 
     @Override
     public void addOrUpdateApiPolicy(ApiPolicy apiPolicy) {
 
         try {
-            ApiPolicy policy = new SubscriptionDataLoaderImpl().getAPIPolicy(apiPolicy.getName(), tenantDomain);
+            ApiPolicy policy = subscriptionDataLoader.getAPIPolicy(apiPolicy.getName(), tenantDomain);
             apiPolicyMap.remove(apiPolicy.getCacheKey());
             apiPolicyMap.put(apiPolicy.getCacheKey(), policy);
         } catch (DataLoadingException e) {
@@ -598,8 +669,11 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Subscription getSubscriptionBySubscriptionUUID(String subscriptionUUID) {
 
-        for (Subscription subscription : subscriptionMap.values()) {
-            if (subscriptionUUID.equals(subscription.getSubscriptionUUId())) {
+        String subscriptionKey = subscriptionUUID != null ?
+                subscriptionIndexes.subscriptionKeyByUUIDMap.get(subscriptionUUID) : null;
+        if (subscriptionKey != null) {
+            Subscription subscription = subscriptionMap.get(subscriptionKey);
+            if (subscription != null && subscriptionUUID.equals(subscription.getSubscriptionUUId())) {
                 return subscription;
             }
         }
@@ -610,11 +684,10 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public List<Application> getApplicationsByName(String name) {
 
         List<Application> applicationList = new ArrayList<>();
-        if (applicationMap != null) {
-            for (Application application : applicationMap.values()) {
-                if (application.getName().equals(name)) {
-                    applicationList.add(application);
-                }
+        for (Integer applicationId : applicationIndexes.applicationIdsByName.get(name)) {
+            Application application = applicationMap.get(applicationId);
+            if (application != null && name.equals(application.getName())) {
+                applicationList.add(application);
             }
         }
         return applicationList;
@@ -623,11 +696,11 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Application getApplicationByUUID(String uuid) {
 
-        if (applicationMap != null) {
-            for (Application application : applicationMap.values()) {
-                if (application.getUUID().equals(uuid)) {
-                    return application;
-                }
+        Integer applicationId = uuid != null ? applicationIndexes.applicationIdByUUIDMap.get(uuid) : null;
+        if (applicationId != null) {
+            Application application = applicationMap.get(applicationId);
+            if (application != null && uuid.equals(application.getUUID())) {
+                return application;
             }
         }
         return null;
@@ -637,11 +710,10 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public List<Subscription> getSubscriptionsByAPIId(int apiId) {
 
         List<Subscription> subscriptionList = new ArrayList<>();
-        if (subscriptionMap != null) {
-            for (Subscription subscription : subscriptionMap.values()) {
-                if (subscription.getApiId() == apiId) {
-                    subscriptionList.add(subscription);
-                }
+        for (String subscriptionKey : subscriptionIndexes.subscriptionKeysByApiId.get(apiId)) {
+            Subscription subscription = subscriptionMap.get(subscriptionKey);
+            if (subscription != null && subscription.getApiId() != null && subscription.getApiId() == apiId) {
+                subscriptionList.add(subscription);
             }
         }
         return subscriptionList;
@@ -656,11 +728,12 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     @Override
     public Subscription getSubscriptionByUUID(String apiUUID, String appUUID) {
 
-        if (subscriptionMap != null) {
-            for (Subscription subscription : subscriptionMap.values()) {
-                if (subscription.getApiUUID().equals(apiUUID) && subscription.getApplicationUUID().equals(appUUID)) {
-                    return subscription;
-                }
+        // An application has only a handful of subscriptions, hence filtering them by the API is cheap
+        for (String subscriptionKey : subscriptionIndexes.subscriptionKeysByAppUUID.get(appUUID)) {
+            Subscription subscription = subscriptionMap.get(subscriptionKey);
+            if (subscription != null && appUUID.equals(subscription.getApplicationUUID())
+                    && subscription.getApiUUID() != null && subscription.getApiUUID().equals(apiUUID)) {
+                return subscription;
             }
         }
         return null;
@@ -670,19 +743,113 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
     public List<ApplicationKeyMapping> getKeyMappingByApplicationId(int applicationId) {
 
         List<ApplicationKeyMapping> applicationKeyMappings = new ArrayList<>();
-        if (applicationKeyMappingMap != null) {
-            for (ApplicationKeyMapping applicationKeyMapping : applicationKeyMappingMap.values()) {
-                if (applicationKeyMapping.getApplicationId() == applicationId) {
-                    applicationKeyMappings.add(applicationKeyMapping);
-                }
+        for (ApplicationKeyMappingCacheKey cacheKey : keyMappingKeysByAppId.get(applicationId)) {
+            ApplicationKeyMapping applicationKeyMapping = applicationKeyMappingMap.get(cacheKey);
+            if (applicationKeyMapping != null && applicationKeyMapping.getApplicationId() == applicationId) {
+                applicationKeyMappings.add(applicationKeyMapping);
             }
         }
         return applicationKeyMappings;
     }
 
+    private void putSubscription(Subscription subscription) {
+
+        synchronized (subscriptionLock) {
+            Subscription existingSubscription = subscriptionMap.put(subscription.getCacheKey(), subscription);
+            if (existingSubscription != null) {
+                unindexSubscription(subscriptionIndexes, existingSubscription);
+            }
+            indexSubscription(subscriptionIndexes, subscription);
+        }
+    }
+
+    private void removeSubscription(String subscriptionKey) {
+
+        synchronized (subscriptionLock) {
+            Subscription existingSubscription = subscriptionMap.remove(subscriptionKey);
+            if (existingSubscription != null) {
+                unindexSubscription(subscriptionIndexes, existingSubscription);
+            }
+        }
+    }
+
+    private static void indexSubscription(SubscriptionIndexes indexes, Subscription subscription) {
+
+        String cacheKey = subscription.getCacheKey();
+        if (subscription.getSubscriptionUUId() != null) {
+            indexes.subscriptionKeyByUUIDMap.put(subscription.getSubscriptionUUId(), cacheKey);
+        }
+        indexes.subscriptionKeysByApiId.add(subscription.getApiId(), cacheKey);
+        indexes.subscriptionKeysByAppUUID.add(subscription.getApplicationUUID(), cacheKey);
+    }
+
+    private static void unindexSubscription(SubscriptionIndexes indexes, Subscription subscription) {
+
+        String cacheKey = subscription.getCacheKey();
+        if (subscription.getSubscriptionUUId() != null) {
+            indexes.subscriptionKeyByUUIDMap.remove(subscription.getSubscriptionUUId(), cacheKey);
+        }
+        indexes.subscriptionKeysByApiId.remove(subscription.getApiId(), cacheKey);
+        indexes.subscriptionKeysByAppUUID.remove(subscription.getApplicationUUID(), cacheKey);
+    }
+
+    private static void indexApplication(ApplicationIndexes indexes, Application application) {
+
+        if (application.getUUID() != null) {
+            indexes.applicationIdByUUIDMap.put(application.getUUID(), application.getId());
+        }
+        indexes.applicationIdsByName.add(application.getName(), application.getId());
+    }
+
+    private static void unindexApplication(ApplicationIndexes indexes, Application application) {
+
+        if (application.getUUID() != null) {
+            indexes.applicationIdByUUIDMap.remove(application.getUUID(), application.getId());
+        }
+        indexes.applicationIdsByName.remove(application.getName(), application.getId());
+    }
+
+    /**
+     * Rebuilds the subscription indexes from the subscription map. The new indexes are built while the updates of
+     * the subscriptions wait, and replace the current ones, which serve the lookups until then.
+     */
+    void rebuildSubscriptionIndexes() {
+
+        synchronized (subscriptionLock) {
+            SubscriptionIndexes indexes = new SubscriptionIndexes();
+            for (Subscription subscription : subscriptionMap.values()) {
+                indexSubscription(indexes, subscription);
+            }
+            subscriptionIndexes = indexes;
+        }
+    }
+
+    void rebuildApplicationIndexes() {
+
+        synchronized (applicationLock) {
+            ApplicationIndexes indexes = new ApplicationIndexes();
+            for (Application application : applicationMap.values()) {
+                indexApplication(indexes, application);
+            }
+            applicationIndexes = indexes;
+        }
+    }
+
+    void rebuildKeyMappingIndexes() {
+
+        synchronized (keyMappingLock) {
+            MultiValueIndex<Integer, ApplicationKeyMappingCacheKey> index = new MultiValueIndex<>();
+            for (ApplicationKeyMapping applicationKeyMapping : applicationKeyMappingMap.values()) {
+                index.add(applicationKeyMapping.getApplicationId(), applicationKeyMapping.getCacheKey());
+            }
+            keyMappingKeysByAppId = index;
+        }
+    }
+
     @Override
     public void destroy() {
         executorService.shutdown();
+        onDemandLoadingExecutor.shutdown();
     }
 
     @Override
@@ -731,7 +898,7 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     removeAPI(api);
                 }
             } else {
-                API newAPI = new SubscriptionDataLoaderImpl().getApi(event.getContext(), event.getVersion());
+                API newAPI = subscriptionDataLoader.getApi(event.getContext(), event.getVersion());
                 if (newAPI != null) {
                     addOrUpdateAPI(newAPI);
                 }
@@ -766,15 +933,41 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
         API
     }
 
+    /**
+     * Secondary indexes of the application map.
+     */
+    private static final class ApplicationIndexes {
+
+        private final Map<String, Integer> applicationIdByUUIDMap = new ConcurrentHashMap<>();
+        private final MultiValueIndex<String, Integer> applicationIdsByName = new MultiValueIndex<>();
+    }
+
+    /**
+     * Secondary indexes of the subscription map.
+     */
+    private static final class SubscriptionIndexes {
+
+        private final Map<String, String> subscriptionKeyByUUIDMap = new ConcurrentHashMap<>();
+        private final MultiValueIndex<Integer, String> subscriptionKeysByApiId = new MultiValueIndex<>();
+        private final MultiValueIndex<String, String> subscriptionKeysByAppUUID = new MultiValueIndex<>();
+    }
+
     private static class PopulateTask<K, V extends CacheableEntity<K>> implements Runnable {
 
         private Map<K, V> entityMap;
         private Supplier<List<V>> supplier;
+        private Runnable indexBuilder;
 
         PopulateTask(Map<K, V> entityMap, Supplier<List<V>> supplier) {
 
+            this(entityMap, supplier, null);
+        }
+
+        PopulateTask(Map<K, V> entityMap, Supplier<List<V>> supplier, Runnable indexBuilder) {
+
             this.entityMap = entityMap;
             this.supplier = supplier;
+            this.indexBuilder = indexBuilder;
         }
 
         public void run() {
@@ -788,10 +981,13 @@ public class SubscriptionDataStoreImpl implements SubscriptionDataStore {
                     if (log.isDebugEnabled()) {
                         log.debug(String.format("Adding entry Key : %s Value : %s", v.getCacheKey(), v));
                     }
-
-                    if (!tempMap.isEmpty()) {
-                        entityMap.clear();
-                        entityMap.putAll(tempMap);
+                }
+                if (!tempMap.isEmpty()) {
+                    // the loaded entries replace the current ones without emptying the map in between
+                    entityMap.putAll(tempMap);
+                    entityMap.keySet().retainAll(tempMap.keySet());
+                    if (indexBuilder != null) {
+                        indexBuilder.run();
                     }
                 }
 
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread safe secondary index of the subscription data store, mapping an attribute of an entity to the cache keys
+ * of all the entities having that attribute value. Only the cache keys of the entities are held so that the entity
+ * objects themselves are kept only in the primary maps of the store.
+ *
+ * @param <K> indexed attribute type
+ * @param <V> cache key type of the indexed entity
+ */
+public class MultiValueIndex<K, V> {
+
+    private final Map<K, Set<V>> index = new ConcurrentHashMap<>();
+
+    public void add(K key, V value) {
+
+        if (key == null || value == null) {
+            return;
+        }
+        index.compute(key, (k, values) -> {
+            if (values == null) {
+                values = ConcurrentHashMap.newKeySet(2);
+            }
+            values.add(value);
+            return values;
+        });
+    }
+
+    public void remove(K key, V value) {
+
+        if (key == null || value == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    /**
+     * Returns a read only view of the cache keys indexed under the given attribute value.
+     *
+     * @param key attribute value
+     * @return cache keys of the matching entities, empty if there are none
+     */
+    public Set<V> get(K key) {
+
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        Set<V> values = index.get(key);
+        return values != null ? Collections.unmodifiableSet(values) : Collections.<V>emptySet();
+    }
+
+    public void clear() {
+
+        index.clear();
+    }
+
+    public int size() {
+
+        return index.size();
+    }
+}
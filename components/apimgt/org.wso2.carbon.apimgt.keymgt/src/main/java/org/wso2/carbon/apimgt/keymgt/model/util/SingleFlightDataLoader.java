@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads entries missing in the in-memory subscription data store from the internal REST API so that at most one
+ * load is in flight per key. Concurrent callers asking for the same key wait on the same {@link CompletableFuture}
+ * instead of each issuing their own HTTP call, and the loads themselves run on a bounded executor so that the
+ * number of concurrent calls towards the control plane stays limited. Keys that were not found are remembered for
+ * a configurable period to avoid hammering the control plane with lookups of unknown applications and keys.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class SingleFlightDataLoader<K, V> {
+
+    private static final Log log = LogFactory.getLog(SingleFlightDataLoader.class);
+    private static final int MAX_NEGATIVE_CACHE_SIZE = 10000;
+
+    private final String name;
+    private final Executor executor;
+    private final long negativeCacheExpiry;
+    private final long waitTimeout;
+    private final Map<K, CompletableFuture<V>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Map<K, Long> negativeCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong waitCount = new AtomicLong();
+    private final AtomicLong waitTime = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
+
+    /**
+     * @param name                name of the loaded entity, used for logging
+     * @param executor            bounded executor the loads are run on
+     * @param negativeCacheExpiry time in milliseconds for which a missing key is not looked up again
+     * @param waitTimeout         maximum time in milliseconds a caller waits for a load to complete
+     */
+    public SingleFlightDataLoader(String name, Executor executor, long negativeCacheExpiry, long waitTimeout) {
+
+        this.name = name;
+        this.executor = executor;
+        this.negativeCacheExpiry = negativeCacheExpiry;
+        this.waitTimeout = waitTimeout;
+    }
+
+    /**
+     * Loads the value of the given key, joining a load already in flight for the same key if there is one.
+     *
+     * @param key    key to load
+     * @param loader function performing the actual load. It should return null when the key is not found.
+     * @return loaded value or null if the key is not found, the load failed or it did not complete in time
+     */
+    public V load(K key, Loader<K, V> loader) {
+
+        if (isNegativelyCached(key)) {
+            negativeHitCount.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug(name + " " + key + " was recently not found. Skipping the lookup.");
+            }
+            return null;
+        }
+        CompletableFuture<V> future = inFlightLoads.get(key);
+        if (future != null) {
+            coalescedCount.incrementAndGet();
+        } else {
+            CompletableFuture<V> newFuture = new CompletableFuture<>();
+            future = inFlightLoads.putIfAbsent(key, newFuture);
+            if (future != null) {
+                coalescedCount.incrementAndGet();
+            } else {
+                future = newFuture;
+                startLoad(key, loader, newFuture);
+            }
+        }
+        return await(key, future);
+    }
+
+    /**
+     * Forgets that the given key was not found. Invoked when the entity is added through an event.
+     *
+     * @param key key of the entity
+     */
+    public void invalidate(K key) {
+
+        negativeCache.remove(key);
+    }
+
+    public long getLoadCount() {
+
+        return loadCount.get();
+    }
+
+    public long getCoalescedCount() {
+
+        return coalescedCount.get();
+    }
+
+    public long getWaitCount() {
+
+        return waitCount.get();
+    }
+
+    public long getTotalWaitTime() {
+
+        return waitTime.get();
+    }
+
+    public long getTimeoutCount() {
+
+        return timeoutCount.get();
+    }
+
+    public long getNegativeHitCount() {
+
+        return negativeHitCount.get();
+    }
+
+    public int getInFlightLoadCount() {
+
+        return inFlightLoads.size();
+    }
+
+    private void startLoad(K key, Loader<K, V> loader, CompletableFuture<V> future) {
+
+        loadCount.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                V value = null;
+                try {
+                    value = loader.load(key);
+                    if (value == null) {
+                        addToNegativeCache(key);
+                    }
+                } catch (DataLoadingException e) {
+                    log.error("Error while loading " + name + " " + key + " from the internal API.", e);
+                } catch (RuntimeException e) {
+                    log.error("Unexpected error while loading " + name + " " + key, e);
+                } finally {
+                    inFlightLoads.remove(key, future);
+                    future.complete(value);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.error("Could not schedule the loading of " + name + " " + key, e);
+            inFlightLoads.remove(key, future);
+            future.complete(null);
+        }
+    }
+
+    private V await(K key, CompletableFuture<V> future) {
+
+        if (future.isDone()) {
+            return future.getNow(null);
+        }
+        waitCount.incrementAndGet();
+        long startTime = System.currentTimeMillis();
+        try {
+            return future.get(waitTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeoutCount.incrementAndGet();
+            log.warn("Timed out after " + waitTimeout + "ms while waiting for " + name + " " + key + " to be loaded.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Error while waiting for " + name + " " + key + " to be loaded.", e);
+        } finally {
+            waitTime.addAndGet(System.currentTimeMillis() - startTime);
+        }
+        return null;
+    }
+
+    private boolean isNegativelyCached(K key) {
+
+        if (negativeCacheExpiry <= 0) {
+            return false;
+        }
+        Long expiry = negativeCache.get(key);
+        if (expiry == null) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis()) {
+            negativeCache.remove(key, expiry);
+            return false;
+        }
+        return true;
+    }
+
+    private void addToNegativeCache(K key) {
+
+        if (negativeCacheExpiry <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (negativeCache.size() >= MAX_NEGATIVE_CACHE_SIZE) {
+            negativeCache.values().removeIf(expiry -> expiry < now);
+            if (negativeCache.size() >= MAX_NEGATIVE_CACHE_SIZE) {
+                negativeCache.clear();
+            }
+        }
+        negativeCache.put(key, now + negativeCacheExpiry);
+    }
+
+    /**
+     * Performs the load of a single key.
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    public interface Loader<K, V> {
+
+        V load(K key) throws DataLoadingException;
+    }
+}
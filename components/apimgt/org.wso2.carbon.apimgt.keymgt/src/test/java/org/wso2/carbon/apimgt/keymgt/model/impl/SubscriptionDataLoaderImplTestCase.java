@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.impl.dto.GatewayArtifactSynchronizerProperties;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SubscriptionDataLoaderImplTestCase {
+
+    private static final int PAGE_SIZE = 5;
+
+    @Test
+    public void testSubscriptionsAreLoadedAcrossPageBoundaries() throws Exception {
+
+        for (int subscriptionCount : new int[]{0, 1, PAGE_SIZE - 1, PAGE_SIZE, PAGE_SIZE + 1, 2 * PAGE_SIZE,
+                2 * PAGE_SIZE + 1}) {
+            PagingSubscriptionDataLoader loader = new PagingSubscriptionDataLoader(subscriptionCount, true, -1);
+            List<Subscription> subscriptions = loader.loadAllSubscriptions("carbon.super");
+            Assert.assertEquals(subscriptionCount, subscriptions.size());
+            for (int i = 0; i < subscriptionCount; i++) {
+                Assert.assertEquals(String.valueOf(getSubscriptionId(i)), subscriptions.get(i).getSubscriptionId());
+            }
+            // a full last page is followed by a request for the empty page after it
+            Assert.assertEquals(subscriptionCount / PAGE_SIZE + 1, loader.requestCount);
+        }
+    }
+
+    @Test
+    public void testAllSubscriptionsAreLoadedFromControlPlaneWithoutPaging() throws Exception {
+
+        PagingSubscriptionDataLoader loader = new PagingSubscriptionDataLoader(2 * PAGE_SIZE + 2, false, -1);
+        List<Subscription> subscriptions = loader.loadAllSubscriptions("carbon.super");
+        Assert.assertEquals(2 * PAGE_SIZE + 2, subscriptions.size());
+        Assert.assertEquals(1, loader.requestCount);
+    }
+
+    @Test
+    public void testFailedPageIsNotReturnedAsLastPage() throws Exception {
+
+        PagingSubscriptionDataLoader loader = new PagingSubscriptionDataLoader(3 * PAGE_SIZE, true, 1);
+        try {
+            loader.loadAllSubscriptions("carbon.super");
+            Assert.fail("Expected the loading of the subscriptions to fail");
+        } catch (DataLoadingException e) {
+            Assert.assertEquals(2, loader.requestCount);
+        }
+    }
+
+    private static int getSubscriptionId(int index) {
+
+        // the subscription ids are not contiguous
+        return 3 * index + 7;
+    }
+
+    /**
+     * A loader which reads the subscriptions from an in-memory control plane instead of the internal API.
+     */
+    private static class PagingSubscriptionDataLoader extends SubscriptionDataLoaderImpl {
+
+        private final int subscriptionCount;
+        private final boolean pagingSupported;
+        private final int failedRequest;
+        private int requestCount;
+
+        PagingSubscriptionDataLoader(int subscriptionCount, boolean pagingSupported, int failedRequest) {
+
+            super(createEventHubConfiguration(), new GatewayArtifactSynchronizerProperties());
+            this.subscriptionCount = subscriptionCount;
+            this.pagingSupported = pagingSupported;
+            this.failedRequest = failedRequest;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        <T> int readList(String path, String tenantDomain, Class<T> entityClass, List<T> entities)
+                throws DataLoadingException {
+
+            Assert.assertTrue(path.startsWith(APIConstants.SubscriptionValidationResources.SUBSCRIPTIONS));
+            if (requestCount++ == failedRequest) {
+                throw new DataLoadingException("Error while retrieving subscription from " + path);
+            }
+            int after = 0;
+            int limit = Integer.MAX_VALUE;
+            if (pagingSupported && path.contains("?")) {
+                for (String parameter : path.substring(path.indexOf('?') + 1).split("&")) {
+                    String[] nameAndValue = parameter.split("=");
+                    if ("after".equals(nameAndValue[0])) {
+                        after = Integer.parseInt(nameAndValue[1]);
+                    } else if ("limit".equals(nameAndValue[0])) {
+                        limit = Integer.parseInt(nameAndValue[1]);
+                    }
+                }
+            }
+            List<Subscription> page = new ArrayList<>();
+            for (int i = 0; i < subscriptionCount && page.size() < limit; i++) {
+                if (getSubscriptionId(i) > after) {
+                    Subscription subscription = new Subscription();
+                    subscription.setSubscriptionId(String.valueOf(getSubscriptionId(i)));
+                    page.add(subscription);
+                }
+            }
+            entities.addAll((List<T>) page);
+            return page.size();
+        }
+
+        private static EventHubConfigurationDto createEventHubConfiguration() {
+
+            EventHubConfigurationDto eventHubConfigurationDto = new EventHubConfigurationDto();
+            eventHubConfigurationDto.setSubscriptionLoadPageSize(PAGE_SIZE);
+            return eventHubConfigurationDto;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.impl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.carbon.apimgt.impl.APIManagerConfiguration;
+import org.wso2.carbon.apimgt.impl.APIManagerConfigurationService;
+import org.wso2.carbon.apimgt.impl.dto.EventHubConfigurationDto;
+import org.wso2.carbon.apimgt.keymgt.internal.ServiceReferenceHolder;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Application;
+import org.wso2.carbon.apimgt.keymgt.model.entity.ApplicationKeyMapping;
+import org.wso2.carbon.apimgt.keymgt.model.entity.Subscription;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ServiceReferenceHolder.class})
+public class SubscriptionDataStoreImplTestCase {
+
+    private SubscriptionDataStoreImpl subscriptionDataStore;
+
+    @Before
+    public void init() {
+
+        ServiceReferenceHolder serviceReferenceHolder = Mockito.mock(ServiceReferenceHolder.class);
+        APIManagerConfigurationService configurationService = Mockito.mock(APIManagerConfigurationService.class);
+        APIManagerConfiguration configuration = Mockito.mock(APIManagerConfiguration.class);
+        PowerMockito.mockStatic(ServiceReferenceHolder.class);
+        PowerMockito.when(ServiceReferenceHolder.getInstance()).thenReturn(serviceReferenceHolder);
+        Mockito.when(serviceReferenceHolder.getAPIManagerConfigurationService()).thenReturn(configurationService);
+        Mockito.when(configurationService.getAPIManagerConfiguration()).thenReturn(configuration);
+        Mockito.when(configuration.getEventHubConfigurationDto()).thenReturn(new EventHubConfigurationDto());
+        subscriptionDataStore = new SubscriptionDataStoreImpl("carbon.super");
+    }
+
+    @After
+    public void destroy() {
+
+        subscriptionDataStore.destroy();
+    }
+
+    @Test
+    public void testApplicationIndexes() {
+
+        subscriptionDataStore.addOrUpdateApplication(getApplication(1, "app-uuid-1", "PizzaShack"));
+        subscriptionDataStore.addOrUpdateApplication(getApplication(2, "app-uuid-2", "PizzaShack"));
+        Assert.assertEquals(2, subscriptionDataStore.getApplicationsByName("PizzaShack").size());
+        Assert.assertEquals(Integer.valueOf(2), subscriptionDataStore.getApplicationByUUID("app-uuid-2").getId());
+
+        subscriptionDataStore.addOrUpdateApplication(getApplication(2, "app-uuid-2", "Calculator"));
+        Assert.assertEquals(1, subscriptionDataStore.getApplicationsByName("PizzaShack").size());
+        Assert.assertEquals(1, subscriptionDataStore.getApplicationsByName("Calculator").size());
+
+        subscriptionDataStore.removeApplication(getApplication(1, "app-uuid-1", "PizzaShack"));
+        Assert.assertTrue(subscriptionDataStore.getApplicationsByName("PizzaShack").isEmpty());
+        Assert.assertNull(subscriptionDataStore.getApplicationByUUID("app-uuid-1"));
+    }
+
+    @Test
+    public void testSubscriptionIndexes() {
+
+        subscriptionDataStore.addOrUpdateSubscription(getSubscription(1, 10, "sub-uuid-1"));
+        subscriptionDataStore.addOrUpdateSubscription(getSubscription(2, 10, "sub-uuid-2"));
+        subscriptionDataStore.addOrUpdateSubscription(getSubscription(1, 11, "sub-uuid-3"));
+
+        Assert.assertEquals(2, subscriptionDataStore.getSubscriptionsByAPIId(10).size());
+        Assert.assertEquals("1:11",
+                subscriptionDataStore.getSubscriptionBySubscriptionUUID("sub-uuid-3").getCacheKey());
+        Assert.assertEquals("2:10", subscriptionDataStore.getSubscriptionByUUID("api-uuid-10", "app-uuid-2")
+                .getCacheKey());
+        Assert.assertNull(subscriptionDataStore.getSubscriptionByUUID("api-uuid-11", "app-uuid-2"));
+
+        subscriptionDataStore.removeSubscription(getSubscription(2, 10, "sub-uuid-2"));
+        Assert.assertEquals(1, subscriptionDataStore.getSubscriptionsByAPIId(10).size());
+        Assert.assertNull(subscriptionDataStore.getSubscriptionBySubscriptionUUID("sub-uuid-2"));
+
+        subscriptionDataStore.removeApplication(getApplication(1, "app-uuid-1", "PizzaShack"));
+        Assert.assertTrue(subscriptionDataStore.getSubscriptionsByAPIId(10).isEmpty());
+        Assert.assertNull(subscriptionDataStore.getSubscriptionBySubscriptionUUID("sub-uuid-3"));
+    }
+
+    @Test
+    public void testKeyMappingIndexes() {
+
+        subscriptionDataStore.addOrUpdateApplicationKeyMapping(getKeyMapping(1, "consumer-key-1"));
+        subscriptionDataStore.addOrUpdateApplicationKeyMapping(getKeyMapping(1, "consumer-key-2"));
+        subscriptionDataStore.addOrUpdateApplicationKeyMapping(getKeyMapping(2, "consumer-key-3"));
+        Assert.assertEquals(2, subscriptionDataStore.getKeyMappingByApplicationId(1).size());
+
+        subscriptionDataStore.addOrUpdateApplicationKeyMapping(getKeyMapping(2, "consumer-key-2"));
+        Assert.assertEquals(1, subscriptionDataStore.getKeyMappingByApplicationId(1).size());
+        Assert.assertEquals(2, subscriptionDataStore.getKeyMappingByApplicationId(2).size());
+
+        subscriptionDataStore.removeApplicationKeyMapping(getKeyMapping(2, "consumer-key-3"));
+        List<ApplicationKeyMapping> keyMappings = subscriptionDataStore.getKeyMappingByApplicationId(2);
+        Assert.assertEquals(1, keyMappings.size());
+        Assert.assertEquals("consumer-key-2", keyMappings.get(0).getConsumerKey());
+    }
+
+    @Test
+    public void testUpdatesDuringIndexRebuildAreKept() throws Exception {
+
+        for (int appId = 1; appId <= 1000; appId++) {
+            subscriptionDataStore.addOrUpdateApplication(getApplication(appId, "app-uuid-" + appId, "app" + appId));
+            subscriptionDataStore.addOrUpdateSubscription(getSubscription(appId, 10, "sub-uuid-" + appId));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean lookupFailed = new AtomicBoolean();
+        Thread rebuilder = new Thread(() -> {
+            while (running.get()) {
+                subscriptionDataStore.rebuildApplicationIndexes();
+                subscriptionDataStore.rebuildSubscriptionIndexes();
+                subscriptionDataStore.rebuildKeyMappingIndexes();
+                if (subscriptionDataStore.getApplicationByUUID("app-uuid-1") == null
+                        || subscriptionDataStore.getSubscriptionBySubscriptionUUID("sub-uuid-1") == null) {
+                    lookupFailed.set(true);
+                }
+            }
+        });
+        rebuilder.start();
+        try {
+            for (int appId = 1001; appId <= 3000; appId++) {
+                subscriptionDataStore.addOrUpdateApplication(
+                        getApplication(appId, "app-uuid-" + appId, "app" + appId));
+                subscriptionDataStore.addOrUpdateSubscription(getSubscription(appId, 11, "sub-uuid-" + appId));
+                subscriptionDataStore.addOrUpdateApplicationKeyMapping(getKeyMapping(appId, "consumer-key-" + appId));
+            }
+        } finally {
+            running.set(false);
+            rebuilder.join();
+        }
+        Assert.assertFalse(lookupFailed.get());
+        for (int appId = 1001; appId <= 3000; appId++) {
+            Assert.assertNotNull(subscriptionDataStore.getApplicationByUUID("app-uuid-" + appId));
+            Assert.assertNotNull(subscriptionDataStore.getSubscriptionBySubscriptionUUID("sub-uuid-" + appId));
+            Assert.assertEquals(1, subscriptionDataStore.getKeyMappingByApplicationId(appId).size());
+        }
+        Assert.assertEquals(2000, subscriptionDataStore.getSubscriptionsByAPIId(11).size());
+    }
+
+    @Test
+    public void testLookupsOnLargeStore() {
+
+        int applicationCount = 20000;
+        int apiCount = 50;
+        for (int appId = 1; appId <= applicationCount; appId++) {
+            subscriptionDataStore.addOrUpdateApplication(getApplication(appId, "app-uuid-" + appId, "app" + appId));
+            for (int apiId = appId % 10; apiId < apiCount; apiId += 10) {
+                subscriptionDataStore.addOrUpdateSubscription(
+                        getSubscription(appId, apiId, "sub-uuid-" + appId + "-" + apiId));
+            }
+        }
+        long startTime = System.nanoTime();
+        for (int appId = 1; appId <= applicationCount; appId++) {
+            Assert.assertNotNull(subscriptionDataStore.getApplicationByUUID("app-uuid-" + appId));
+            Assert.assertNotNull(subscriptionDataStore.getSubscriptionBySubscriptionUUID(
+                    "sub-uuid-" + appId + "-" + (appId % 10)));
+            Assert.assertNotNull(subscriptionDataStore.getSubscriptionByUUID(
+                    "api-uuid-" + (appId % 10), "app-uuid-" + appId));
+        }
+        // Each lookup is a couple of hash map accesses, a full scan per lookup would take minutes here
+        Assert.assertTrue(System.nanoTime() - startTime < 10_000_000_000L);
+        Assert.assertEquals(applicationCount / 10, subscriptionDataStore.getSubscriptionsByAPIId(5).size());
+    }
+
+    private Application getApplication(int id, String uuid, String name) {
+
+        Application application = new Application();
+        application.setId(id);
+        application.setUUID(uuid);
+        application.setName(name);
+        return application;
+    }
+
+    private Subscription getSubscription(int appId, int apiId, String uuid) {
+
+        Subscription subscription = new Subscription();
+        subscription.setAppId(appId);
+        subscription.setApiId(apiId);
+        subscription.setSubscriptionUUId(uuid);
+        subscription.setApplicationUUID("app-uuid-" + appId);
+        subscription.setApiUUID("api-uuid-" + apiId);
+        subscription.setSubscriptionState("UNBLOCKED");
+        return subscription;
+    }
+
+    private ApplicationKeyMapping getKeyMapping(int applicationId, String consumerKey) {
+
+        ApplicationKeyMapping applicationKeyMapping = new ApplicationKeyMapping();
+        applicationKeyMapping.setApplicationId(applicationId);
+        applicationKeyMapping.setConsumerKey(consumerKey);
+        applicationKeyMapping.setKeyManager("Resident Key Manager");
+        return applicationKeyMapping;
+    }
+}
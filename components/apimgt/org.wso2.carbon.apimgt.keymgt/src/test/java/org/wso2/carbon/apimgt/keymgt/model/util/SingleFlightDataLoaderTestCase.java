@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.keymgt.model.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.wso2.carbon.apimgt.keymgt.model.exception.DataLoadingException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightDataLoaderTestCase {
+
+    private ExecutorService loadingExecutor;
+    private ExecutorService callerExecutor;
+
+    @Before
+    public void init() {
+
+        loadingExecutor = Executors.newFixedThreadPool(2);
+        callerExecutor = Executors.newFixedThreadPool(16);
+    }
+
+    @After
+    public void destroy() {
+
+        loadingExecutor.shutdownNow();
+        callerExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws Exception {
+
+        SingleFlightDataLoader<Integer, String> loader =
+                new SingleFlightDataLoader<>("Application", loadingExecutor, 1000, 10000);
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(callerExecutor.submit(() -> loader.load(1, key -> {
+                invocations.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "app" + key;
+            })));
+        }
+        while (loader.getLoadCount() + loader.getCoalescedCount() < 16) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        for (Future<String> result : results) {
+            Assert.assertEquals("app1", result.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, invocations.get());
+        Assert.assertEquals(1, loader.getLoadCount());
+        Assert.assertEquals(15, loader.getCoalescedCount());
+        Assert.assertEquals(0, loader.getInFlightLoadCount());
+    }
+
+    @Test
+    public void testMissingKeysAreNegativelyCached() {
+
+        SingleFlightDataLoader<Integer, String> loader =
+                new SingleFlightDataLoader<>("Application", loadingExecutor, 60000, 10000);
+        AtomicInteger invocations = new AtomicInteger();
+        SingleFlightDataLoader.Loader<Integer, String> missingLoader = key -> {
+            invocations.incrementAndGet();
+            return null;
+        };
+        Assert.assertNull(loader.load(5, missingLoader));
+        Assert.assertNull(loader.load(5, missingLoader));
+        Assert.assertEquals(1, invocations.get());
+        Assert.assertEquals(1, loader.getNegativeHitCount());
+
+        loader.invalidate(5);
+        Assert.assertNull(loader.load(5, missingLoader));
+        Assert.assertEquals(2, invocations.get());
+    }
+
+    @Test
+    public void testFailedLoadsAreNotNegativelyCached() {
+
+        SingleFlightDataLoader<Integer, String> loader =
+                new SingleFlightDataLoader<>("Application", loadingExecutor, 60000, 10000);
+        AtomicInteger invocations = new AtomicInteger();
+        SingleFlightDataLoader.Loader<Integer, String> failingLoader = key -> {
+            invocations.incrementAndGet();
+            throw new DataLoadingException("Internal API is not reachable");
+        };
+        Assert.assertNull(loader.load(7, failingLoader));
+        Assert.assertNull(loader.load(7, failingLoader));
+        Assert.assertEquals(2, invocations.get());
+        Assert.assertEquals(0, loader.getNegativeHitCount());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.notification;
+
+import com.google.gson.Gson;
+import org.wso2.carbon.apimgt.api.APIManagementException;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.dao.WebhooksDAO;
+import org.wso2.carbon.apimgt.impl.dto.WebhooksDeliveryStatusDTO;
+import org.wso2.carbon.apimgt.impl.handlers.EventHandler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements to handle notification events carrying the delivery statuses of a batch of webhooks
+ * subscribers, which are published by the gateways instead of an event per delivery.
+ */
+public class WebhooksDeliveryBatchEventHandler implements EventHandler {
+    @Override
+    public boolean handleEvent(String event, Map<String, List<String>> headers) throws APIManagementException {
+        WebhooksDeliveryStatusDTO[] deliveryStatuses = new Gson().fromJson(event, WebhooksDeliveryStatusDTO[].class);
+        if (deliveryStatuses != null) {
+            WebhooksDAO.getInstance().updateDeliveryStatuses(Arrays.asList(deliveryStatuses));
+        }
+        return true;
+    }
+
+    @Override
+    public String getType() {
+        return APIConstants.Webhooks.DELIVERY_BATCH_EVENT_TYPE;
+    }
+
+}
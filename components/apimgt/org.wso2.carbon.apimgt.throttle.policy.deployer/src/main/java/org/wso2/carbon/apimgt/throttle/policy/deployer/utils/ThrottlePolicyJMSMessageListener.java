@@ -25,6 +25,7 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.notifier.NotificationEventBatch;
 import org.wso2.carbon.apimgt.impl.notifier.events.APIPolicyEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.ApplicationPolicyEvent;
 import org.wso2.carbon.apimgt.impl.notifier.events.GlobalPolicyEvent;
@@ -37,6 +38,7 @@ import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.GlobalPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.dto.SubscriptionPolicy;
 import org.wso2.carbon.apimgt.throttle.policy.deployer.exception.ThrottlePolicyDeployerException;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -99,8 +101,39 @@ public class ThrottlePolicyJMSMessageListener implements MessageListener {
 
     private void handleNotificationMessage(String eventType, String encodedEvent) {
 
+        if (APIConstants.EventType.NOTIFICATION_BATCH.toString().equals(eventType)) {
+            handleNotificationBatch(encodedEvent);
+            return;
+        }
         byte[] eventDecoded = Base64.decodeBase64(encodedEvent);
-        String eventJson = new String(eventDecoded, StandardCharsets.UTF_8);
+        handleNotificationEvent(eventType, new String(eventDecoded, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Handles the policy events of a batch notification in the order they were published.
+     *
+     * @param encodedBatch encoded batch of events
+     */
+    private void handleNotificationBatch(String encodedBatch) {
+
+        NotificationEventBatch batch;
+        try {
+            batch = NotificationEventBatch.decode(encodedBatch);
+        } catch (IOException e) {
+            log.error("Error while decoding a batch of notification events", e);
+            return;
+        }
+        for (NotificationEventBatch.Entry entry : batch.getEntries()) {
+            try {
+                handleNotificationEvent(entry.getType(), entry.getEvent());
+            } catch (RuntimeException e) {
+                // the remaining events of the batch are still handled
+                log.error("Error while handling notification event of type " + entry.getType(), e);
+            }
+        }
+    }
+
+    private void handleNotificationEvent(String eventType, String eventJson) {
 
         if (APIConstants.EventType.POLICY_CREATE.toString().equals(eventType)
                 || APIConstants.EventType.POLICY_UPDATE.toString().equals(eventType)
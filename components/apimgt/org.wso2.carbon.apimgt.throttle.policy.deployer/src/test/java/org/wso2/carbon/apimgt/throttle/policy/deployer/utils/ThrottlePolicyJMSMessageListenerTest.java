@@ -0,0 +1,85 @@
+/*
+ *  Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.throttle.policy.deployer.utils;
+
+import com.google.gson.Gson;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.wso2.carbon.apimgt.impl.APIConstants;
+import org.wso2.carbon.apimgt.impl.notifier.NotificationEventBatch;
+import org.wso2.carbon.apimgt.impl.notifier.events.APIPolicyEvent;
+import org.wso2.carbon.apimgt.throttle.policy.deployer.PolicyRetriever;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import javax.jms.TextMessage;
+import javax.jms.Topic;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ThrottlePolicyJMSMessageListener.class, PolicyUtil.class})
+public class ThrottlePolicyJMSMessageListenerTest {
+    private PolicyRetriever policyRetriever;
+
+    @Before
+    public void setUp() throws Exception {
+        policyRetriever = Mockito.mock(PolicyRetriever.class);
+        PowerMockito.whenNew(PolicyRetriever.class).withNoArguments().thenReturn(policyRetriever);
+        PowerMockito.mockStatic(PolicyUtil.class);
+    }
+
+    @Test
+    public void testBatchIsHandledPastMalformedEvent() throws Exception {
+        Mockito.when(policyRetriever.getApiPolicy("policy1", "carbon.super"))
+                .thenReturn(TestUtil.getPolicyAPILevel());
+        List<NotificationEventBatch.Entry> entries = Arrays.asList(
+                new NotificationEventBatch.Entry(APIConstants.EventType.POLICY_CREATE.name(), 1000L,
+                        "{\"policyType\":"),
+                new NotificationEventBatch.Entry(APIConstants.EventType.POLICY_CREATE.name(), 2000L,
+                        createAPIPolicyEvent("policy1")));
+
+        new ThrottlePolicyJMSMessageListener().onMessage(
+                createNotification(new NotificationEventBatch(entries).encode()));
+
+        Mockito.verify(policyRetriever, Mockito.timeout(5000)).getApiPolicy("policy1", "carbon.super");
+    }
+
+    private static String createAPIPolicyEvent(String policyName) {
+        APIPolicyEvent policyEvent = new APIPolicyEvent(UUID.randomUUID().toString(), System.currentTimeMillis(),
+                APIConstants.EventType.POLICY_CREATE.name(), -1234, "carbon.super", 1, policyName,
+                "requestCount", null, null);
+        return new Gson().toJson(policyEvent);
+    }
+
+    private static TextMessage createNotification(String encodedBatch) throws Exception {
+        Topic topic = Mockito.mock(Topic.class);
+        Mockito.when(topic.getTopicName()).thenReturn(APIConstants.TopicNames.TOPIC_NOTIFICATION);
+        TextMessage message = Mockito.mock(TextMessage.class);
+        Mockito.when(message.getJMSDestination()).thenReturn(topic);
+        Mockito.when(message.getText()).thenReturn("{\"" + APIConstants.EVENT_PAYLOAD + "\":{\""
+                + APIConstants.EVENT_PAYLOAD_DATA + "\":{\"" + APIConstants.EVENT_TYPE + "\":\""
+                + APIConstants.EventType.NOTIFICATION_BATCH + "\",\"" + APIConstants.EVENT_PAYLOAD + "\":\""
+                + encodedBatch + "\"}}}");
+        return message;
+    }
+}
@@ -56,6 +56,7 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
     private long expireEventTime = -1;
     private long startTime = -1;
     private long maxEventCount = -1;
+    private ExpressionExecutor requestCountExecutor;
     private final Map<String, AtomicLong> throttledStateMap = new HashMap<>();
 
 
@@ -74,7 +75,7 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                                    ExpressionExecutor[] attributeExpressionExecutors,
                                    ExecutionPlanContext executionPlanContext) {
         this.executionPlanContext = executionPlanContext;
-        if (attributeExpressionExecutors.length == 3) {
+        if (attributeExpressionExecutors.length == 3 || attributeExpressionExecutors.length == 4) {
             if (attributeExpressionExecutors[0] instanceof ConstantExpressionExecutor) {
                 if (attributeExpressionExecutors[0].getReturnType() == Attribute.Type.INT) {
                     timeInMilliSeconds = (Integer) ((ConstantExpressionExecutor) attributeExpressionExecutors[0]).getValue();
@@ -113,9 +114,20 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                 throw new ExecutionPlanValidationException("Async Throttle batch window 3nd parameter needs to be a " +
                         "Long or Int type but found a " + attributeExpressionExecutors[2].getReturnType());
             }
+
+            if (attributeExpressionExecutors.length == 4) {
+                // the optional 4th parameter weighs an event by the number of requests it stands for
+                if (attributeExpressionExecutors[3].getReturnType() != Attribute.Type.INT
+                        && attributeExpressionExecutors[3].getReturnType() != Attribute.Type.LONG) {
+                    throw new ExecutionPlanValidationException("Async Throttle batch window 4th parameter needs to " +
+                            "be a Long or Int type but found a " + attributeExpressionExecutors[3].getReturnType());
+                }
+                requestCountExecutor = attributeExpressionExecutors[3];
+            }
         } else {
-            throw new ExecutionPlanValidationException("Throttle batch window should have 3 parameters " +
-                    "(<int|long|time> windowTime (and <int|long> startTime) (and <int|long> eventCount), but found "
+            throw new ExecutionPlanValidationException("Throttle batch window should have 3 or 4 parameters " +
+                    "(<int|long|time> windowTime (and <int|long> startTime) (and <int|long> eventCount) " +
+                    "(and <int|long> requestCount), but found "
                     + attributeExpressionExecutors.length + " input attributes");
         }
 
@@ -156,15 +168,16 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                 }
                 if (streamEvent.getOutputData()[0] != null) {
                     throttleKey = streamEvent.getOutputData()[0].toString();
+                    long requestCount = getRequestCount(streamEvent);
                     if (throttledStateMap.containsKey(throttleKey)) {
-                        eventCount = throttledStateMap.get(throttleKey).incrementAndGet();
+                        eventCount = throttledStateMap.get(throttleKey).addAndGet(requestCount);
                         if (eventCount > maxEventCount) {
                             complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, true});
                         } else {
                             complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, false});
                         }
                     } else {
-                        throttledStateMap.put(throttleKey, new AtomicLong(1));
+                        throttledStateMap.put(throttleKey, new AtomicLong(requestCount));
                         complexEventPopulater.populateComplexEvent(streamEvent, new Object[]{expireEventTime, false});
                     }
                 } else {
@@ -224,6 +237,18 @@ public class AsyncAPIThrottleStreamProcessor extends StreamProcessor implements
                 executionPlanContext, variableExpressionExecutors, eventTableMap, queryName);
     }
 
+    private long getRequestCount(StreamEvent streamEvent) {
+
+        if (requestCountExecutor == null) {
+            return 1;
+        }
+        Object requestCount = requestCountExecutor.execute(streamEvent);
+        if (requestCount instanceof Number) {
+            return Math.max(1L, ((Number) requestCount).longValue());
+        }
+        return 1;
+    }
+
     private long addTimeShift(long currentTime) {
         long timePassedUntilNow = (currentTime - startTime) % timeInMilliSeconds;
         return currentTime + (timeInMilliSeconds - timePassedUntilNow);
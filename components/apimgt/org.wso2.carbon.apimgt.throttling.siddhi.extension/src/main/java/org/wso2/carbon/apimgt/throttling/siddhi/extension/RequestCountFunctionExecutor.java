@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.wso2.siddhi.core.config.ExecutionPlanContext;
+import org.wso2.siddhi.core.executor.ExpressionExecutor;
+import org.wso2.siddhi.core.executor.function.FunctionExecutor;
+import org.wso2.siddhi.query.api.definition.Attribute;
+import org.wso2.siddhi.query.api.exception.ExecutionPlanValidationException;
+
+import java.util.Map;
+
+/**
+ * Returns the number of requests a throttle event stands for. Gateways aggregating throttle events locally publish
+ * a single event per throttle key and window, carrying the number of requests in the requestCount property of the
+ * properties map. Events without the property, or with a count less than one, represent a single request.
+ * <p>
+ * Usage: throttler:requestCount(propertiesMap)
+ */
+public class RequestCountFunctionExecutor extends FunctionExecutor {
+
+    private static final String REQUEST_COUNT = "requestCount";
+    private static final String REQUEST_COUNT_JSON_KEY = "\"" + REQUEST_COUNT + "\"";
+
+    @Override
+    protected void init(ExpressionExecutor[] attributeExpressionExecutors, ExecutionPlanContext executionPlanContext) {
+        if (attributeExpressionExecutors.length != 1) {
+            throw new ExecutionPlanValidationException("Invalid no of arguments passed to the function, "
+                    + "required 1 parameter, but found " + attributeExpressionExecutors.length);
+        }
+    }
+
+    @Override
+    protected Object execute(Object[] data) {
+        return null;
+    }
+
+    @Override
+    protected Object execute(Object data) {
+        Object requestCount = null;
+        if (data instanceof Map) {
+            requestCount = ((Map) data).get(REQUEST_COUNT);
+        } else if (data instanceof String) {
+            requestCount = getRequestCountFromJson((String) data);
+        }
+        long count = 1L;
+        if (requestCount instanceof Number) {
+            count = ((Number) requestCount).longValue();
+        } else if (requestCount != null) {
+            try {
+                count = Long.parseLong(requestCount.toString().trim());
+            } catch (NumberFormatException e) {
+                count = 1L;
+            }
+        }
+        // every event stands for at least one request, so that a count of zero or less cannot lift throttling
+        return Math.max(1L, count);
+    }
+
+    private String getRequestCountFromJson(String json) {
+        int keyIndex = json.indexOf(REQUEST_COUNT_JSON_KEY);
+        if (keyIndex < 0) {
+            return null;
+        }
+        int index = json.indexOf(':', keyIndex + REQUEST_COUNT_JSON_KEY.length());
+        if (index < 0) {
+            return null;
+        }
+        index++;
+        while (index < json.length() && (json.charAt(index) == ' ' || json.charAt(index) == '"')) {
+            index++;
+        }
+        int end = index;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return end > index ? json.substring(index, end) : null;
+    }
+
+    @Override
+    public void start() {
+        //Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        //Nothing to stop
+    }
+
+    @Override
+    public Attribute.Type getReturnType() {
+        return Attribute.Type.LONG;
+    }
+
+    @Override
+    public Object[] currentState() {
+        return null;    //No need to maintain a state.
+    }
+
+    @Override
+    public void restoreState(Object[] state) {
+        //Since there's no need to maintain a state, nothing needs to be done here.
+    }
+}
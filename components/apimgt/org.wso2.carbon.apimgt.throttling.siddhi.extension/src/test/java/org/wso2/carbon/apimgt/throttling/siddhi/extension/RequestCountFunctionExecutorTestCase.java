@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2021, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.apimgt.throttling.siddhi.extension;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class RequestCountFunctionExecutorTestCase {
+
+    private final RequestCountFunctionExecutor executor = new RequestCountFunctionExecutor();
+
+    @Test
+    public void testRequestCountIsReadFromProperties() {
+        Assert.assertEquals(5L, executor.execute("{\"ip\":2130706433,\"requestCount\":5}"));
+        Assert.assertEquals(5L, executor.execute(Collections.singletonMap("requestCount", 5)));
+        Assert.assertEquals(1L, executor.execute("{\"ip\":2130706433}"));
+    }
+
+    @Test
+    public void testRequestCountIsAtLeastOne() {
+        Assert.assertEquals(1L, executor.execute("{\"requestCount\":0}"));
+        Assert.assertEquals(1L, executor.execute("{\"requestCount\":\"-100\"}"));
+        Assert.assertEquals(1L, executor.execute(Collections.singletonMap("requestCount", -100)));
+        Assert.assertEquals(1L, executor.execute(Collections.singletonMap("requestCount", "abc")));
+    }
+}
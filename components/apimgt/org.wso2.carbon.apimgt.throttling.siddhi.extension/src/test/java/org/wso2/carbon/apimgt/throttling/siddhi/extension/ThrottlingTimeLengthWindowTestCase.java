@@ -163,4 +163,61 @@ public class ThrottlingTimeLengthWindowTestCase {
 
     }
 
+    @Test
+    public void throttleTimeLengthWindowWithRequestCountTest() throws InterruptedException {
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+
+        String requestStream = "" +
+                "define stream RequestStream (messageID string, isEligible bool, throttleKey string, " +
+                "requestCount long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from RequestStream#throttler:timeLength(10 sec,0, 5, requestCount) " +
+                "select throttleKey, isThrottled, expiryTimeStamp group by throttleKey " +
+                "insert all events into outputStream ;";
+
+        ExecutionPlanRuntime executionPlanRuntime = siddhiManager.createExecutionPlanRuntime(requestStream + query);
+
+        executionPlanRuntime.addCallback("query1", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                EventPrinter.print(timeStamp, inEvents, removeEvents);
+                if (inEvents != null) {
+                    inEventCount = inEventCount + inEvents.length;
+                    for (Event event : inEvents) {
+                        switch (count.incrementAndGet()) {
+                            case 1:
+                            case 2:
+                            case 4:
+                                Assert.assertEquals(false, event.getData(1));
+                                break;
+                            case 3:
+                                Assert.assertEquals(true, event.getData(1));
+                                break;
+                            default:
+                                Assert.fail("Received more than expected number of events. Expected maximum : 4," +
+                                        "Received : " + count.get());
+                        }
+                    }
+                }
+                eventArrived = true;
+            }
+
+        });
+
+        InputHandler inputHandler = executionPlanRuntime.getInputHandler("RequestStream");
+        executionPlanRuntime.start();
+        // an event aggregated on the gateway is counted as the number of requests it stands for, while a count of
+        // zero or less is counted as a single request
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", 4L});
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", 0L});
+        inputHandler.send(new Object[]{"message123", true, "message123:1234", 1L});
+        inputHandler.send(new Object[]{"message456", true, "message456:1234", 5L});
+        Assert.assertEquals(4, inEventCount);
+        Assert.assertTrue(eventArrived);
+        executionPlanRuntime.shutdown();
+
+    }
+
 }